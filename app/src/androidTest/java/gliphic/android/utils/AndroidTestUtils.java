@@ -27,6 +27,7 @@ import gliphic.android.exceptions.GroupException;
 import gliphic.android.operation.TempGlobalStatics;
 import gliphic.android.operation.misc.Log;
 import gliphic.android.operation.server_interaction.xmpp_server.Connection;
+import gliphic.android.operation.server_interaction.http_server.AccessTokenManager;
 import gliphic.android.operation.server_interaction.http_server.HttpOperations;
 import gliphic.android.operation.server_interaction.http_server.RequestGlobalStatic;
 import gliphic.android.operation.storage_handlers.AndroidKeyStoreHandler;
@@ -512,6 +513,7 @@ public class AndroidTestUtils {
 
         SharedPreferencesHandler.setAccessTokenExpiry(context, accessTokenExpiry);
         SharedPreferencesHandler.setRefreshToken(context, refreshToken);
+        AccessTokenManager.clear();
         SystemClock.sleep(200);
     }
 
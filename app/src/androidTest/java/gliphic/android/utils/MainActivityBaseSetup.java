@@ -12,6 +12,7 @@ import gliphic.android.operation.Alerts;
 import gliphic.android.operation.Contact;
 import gliphic.android.operation.Group;
 import gliphic.android.exceptions.GroupException;
+import gliphic.android.operation.server_interaction.http_server.AccessTokenManager;
 import gliphic.android.operation.server_interaction.http_server.HttpOperations;
 import gliphic.android.operation.storage_handlers.AndroidKeyStoreHandler;
 import gliphic.android.operation.storage_handlers.ForcedDialogs;
@@ -178,6 +179,7 @@ abstract public class MainActivityBaseSetup {
                 SharedPreferencesHandler.setAccessToken(activity, expiredAccessTokenContact0);
                 SharedPreferencesHandler.setAccessTokenExpiry(activity, expiredTime);
                 SharedPreferencesHandler.setRefreshToken(activity, refreshToken);
+                AccessTokenManager.clear();
 
                 // The first call to setting the sign-in time is to ensure that the application does not assume that
                 // the contact is signed-out, and thus always shows the sign-in screen, by setting any value as the
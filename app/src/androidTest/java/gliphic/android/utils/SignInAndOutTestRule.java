@@ -3,6 +3,7 @@ package gliphic.android.utils;
 import android.os.SystemClock;
 
 import gliphic.android.display.abstract_views.BaseActivity;
+import gliphic.android.operation.server_interaction.http_server.AccessTokenManager;
 import gliphic.android.operation.storage_handlers.AndroidKeyStoreHandler;
 import gliphic.android.operation.storage_handlers.SharedPreferencesHandler;
 
@@ -26,6 +27,7 @@ public class SignInAndOutTestRule<A extends BaseActivity> extends BaseActivityTe
                     SharedPreferencesHandler.removeAllContactData(activity);
                     AndroidKeyStoreHandler.setAppSymmetricKey(activity, true);
                     SharedPreferencesHandler.setAccessToken(activity, accessToken);
+                    AccessTokenManager.clear();
                 }
                 catch (Throwable e) {
                     fail(e.getMessage());
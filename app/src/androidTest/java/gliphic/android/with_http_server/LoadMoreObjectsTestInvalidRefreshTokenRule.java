@@ -4,6 +4,7 @@ import android.content.Context;
 import android.os.SystemClock;
 
 import gliphic.android.display.abstract_views.BaseActivity;
+import gliphic.android.operation.server_interaction.http_server.AccessTokenManager;
 import gliphic.android.operation.storage_handlers.SharedPreferencesHandler;
 import gliphic.android.utils.AndroidTestUtils;
 import gliphic.android.utils.BaseActivityTestRule;
@@ -34,6 +35,7 @@ public class LoadMoreObjectsTestInvalidRefreshTokenRule<A extends BaseActivity>
             final Context context = AndroidTestUtils.getApplicationContext();
             SharedPreferencesHandler.setAccessTokenExpiry(context, System.currentTimeMillis());
             SharedPreferencesHandler.setRefreshToken(context, "invalid refresh token");
+            AccessTokenManager.clear();
         }
         catch (Throwable e) {
             fail(e.getMessage());
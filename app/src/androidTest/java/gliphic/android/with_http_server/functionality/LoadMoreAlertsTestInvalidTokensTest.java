@@ -6,6 +6,7 @@ import gliphic.android.R;
 import gliphic.android.adapters.AlertsAdapter;
 import gliphic.android.display.welcome_screen.SignInActivity;
 import gliphic.android.operation.Alerts;
+import gliphic.android.operation.server_interaction.http_server.AccessTokenManager;
 import gliphic.android.operation.storage_handlers.SharedPreferencesHandler;
 import gliphic.android.utils.AndroidTestUtils;
 import gliphic.android.utils.MainActivityBaseSetup;
@@ -53,6 +54,7 @@ public class LoadMoreAlertsTestInvalidTokensTest {
             final String refreshToken = MainActivityBaseSetup.getValidRefreshToken(0);
 
             SharedPreferencesHandler.setRefreshToken(AndroidTestUtils.getApplicationContext(), refreshToken);
+            AccessTokenManager.clear();
         }
         catch (Throwable e) {
             fail(e.getMessage());
@@ -13,6 +13,7 @@ import androidx.test.filters.LargeTest;
 import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner;
 import gliphic.android.R;
 import gliphic.android.display.welcome_screen.SignInActivity;
+import gliphic.android.operation.server_interaction.http_server.AccessTokenManager;
 import gliphic.android.operation.storage_handlers.SharedPreferencesHandler;
 import gliphic.android.utils.AndroidTestUtils;
 import gliphic.android.utils.BaseActivityTestRule;
@@ -85,6 +86,7 @@ public class LoadSignInTimeTest {
                 AndroidTestUtils.getApplicationContext(),
                 System.currentTimeMillis()
         );
+        AccessTokenManager.clear();
 
         handleLoadSignInTime();
     }
@@ -99,6 +101,7 @@ public class LoadSignInTimeTest {
 
             SharedPreferencesHandler.setAccessTokenExpiry(context, System.currentTimeMillis());
             SharedPreferencesHandler.setRefreshToken(context, "invalid refresh token");
+            AccessTokenManager.clear();
 
             // These methods must be called from outside the UI thread.
 
@@ -128,5 +131,6 @@ public class LoadSignInTimeTest {
     private void testCleanUp(Context context) throws Exception {
         SharedPreferencesHandler.setAccessTokenExpiry(context, accessTokenExpiry);
         SharedPreferencesHandler.setRefreshToken(context, refreshToken);
+        AccessTokenManager.clear();
     }
 }
@@ -89,9 +89,9 @@ public class RequestGlobalStaticTest {
         rule.getScenario().onActivity(activity -> {
             try {
                 RequestGlobalStatic.requestAndSetTargetContacts(
-                        (targetContacts, targetContactsRequestInProgress) -> {
-                            if (targetContacts == null || targetContactsRequestInProgress) {
-                                fail("Target contacts is null or a request for target contacts is in progress.");
+                        targetContacts -> {
+                            if (targetContacts == null) {
+                                fail("Target contacts is null.");
                             }
                         },
                         activity,
@@ -115,9 +115,9 @@ public class RequestGlobalStaticTest {
         rule.getScenario().onActivity(activity -> {
             try {
                 RequestGlobalStatic.requestAndSetTargetContacts(
-                        (targetContacts, targetContactsRequestInProgress) -> {
-                            if (targetContacts == null || targetContactsRequestInProgress) {
-                                fail("Target contacts is null or a request for target contacts is in progress.");
+                        targetContacts -> {
+                            if (targetContacts == null) {
+                                fail("Target contacts is null.");
                             }
                         },
                         activity,
@@ -151,7 +151,7 @@ public class RequestGlobalStaticTest {
         rule.getScenario().onActivity(activity -> {
             try {
                 RequestGlobalStatic.requestAndSetKnownGroups(
-                        (commonGroups, knownGroupsRequestInProgress) -> {
+                        commonGroups -> {
                             if (commonGroups == null) {
                                 fail("Common groups is null.");
                             }
@@ -221,7 +221,7 @@ public class RequestGlobalStaticTest {
         rule.getScenario().onActivity(activity -> {
             try {
                 RequestGlobalStatic.requestGroupShareAlerts(
-                        (groupShareList, requestInProgress) -> {
+                        groupShareList -> {
                             if (groupShareList == null) {
                                 fail("Group share list is null.");
                             }
@@ -245,7 +245,7 @@ public class RequestGlobalStaticTest {
         rule.getScenario().onActivity(activity -> {
             try {
                 RequestGlobalStatic.requestGroupShareAlerts(
-                        (groupShareList, requestInProgress) -> {
+                        groupShareList -> {
                             if (groupShareList == null) {
                                 fail("Group share list is null.");
                             }
@@ -6,6 +6,7 @@ import android.view.View;
 import gliphic.android.R;
 import gliphic.android.adapters.ContactsAdapter;
 import gliphic.android.exceptions.ContactException;
+import gliphic.android.operation.server_interaction.http_server.AccessTokenManager;
 import gliphic.android.operation.storage_handlers.SharedPreferencesHandler;
 import gliphic.android.display.welcome_screen.SignInActivity;
 import gliphic.android.operation.Contact;
@@ -133,6 +134,7 @@ public class LoadMoreContactsWithBadAccessAndRefreshTokenTest {
             final String refreshToken = MainActivityBaseSetup.getValidRefreshToken(0);
 
             SharedPreferencesHandler.setRefreshToken(AndroidTestUtils.getApplicationContext(), refreshToken);
+            AccessTokenManager.clear();
         }
         catch (Throwable e) {
             fail(e.getMessage());
@@ -6,6 +6,7 @@ import gliphic.android.R;
 import gliphic.android.display.abstract_views.BaseActivity;
 import gliphic.android.display.welcome_screen.SignInActivity;
 import gliphic.android.operation.Contact;
+import gliphic.android.operation.server_interaction.http_server.AccessTokenManager;
 import gliphic.android.operation.server_interaction.http_server.HttpOperations;
 import gliphic.android.operation.storage_handlers.SharedPreferencesHandler;
 import gliphic.android.utils.AndroidTestUtils;
@@ -65,6 +66,7 @@ public class LoadAllContactsWithEmptyResponseAndInvalidAdapter {
                         AndroidTestUtils.getApplicationContext(),
                         validExpiryTime
                 );
+                AccessTokenManager.clear();
             }
             catch (Throwable e) {
                 fail(e.getMessage());
@@ -6,112 +6,449 @@
  */
 const regex_to_match_encrypted_messages = /\|~.+?~\|/g;     // TODO: Reference the start and end tags from GlobalUtils.
 
+/*
+ * The delay after an encrypted message is found before the newly found encrypted messages are sent to the background
+ * script, so that a burst of changes (e.g. an infinite-scroll feed loading a page) is sent as one batch.
+ */
+const send_delay_millis = 100;
+
+/*
+ * Every scanned node (text nodes and images) mapped to its text when it was scanned.
+ * A node is only scanned again if its text has changed.
+ */
+const scanned_nodes = new WeakMap();
+
+/*
+ * Every encrypted message which has not been replaced yet, mapped to the set of nodes containing it.
+ */
+const nodes_by_encrypted_message = new Map();
+
+/*
+ * Every node tracked in the above map, mapped to the encrypted messages it was tracked for, so that a node whose text
+ * changes can be untracked without searching every tracked encrypted message.
+ */
+const encrypted_messages_by_node = new WeakMap();
+
+/*
+ * Every decrypted message, mapped from the encrypted message, so that encrypted messages added to the document after
+ * being decrypted are replaced immediately.
+ */
+const decrypted_messages = new Map();
+
+/*
+ * Encrypted messages which have been found but not sent yet, and every encrypted message which has been sent.
+ */
+let unsent_encrypted_messages = new Set();
+const sent_encrypted_messages = new Set();
+
+/*
+ * Encrypted messages which were not visible when they were sent, so were sent to be decrypted after visible messages,
+ * and deferred messages which have since become visible and must be sent again to be decrypted sooner.
+ */
+const deferred_encrypted_messages = new Set();
+let promoted_encrypted_messages = new Set();
+
+/*
+ * Every element containing an encrypted message which is currently within the viewport.
+ */
+const visible_elements = new WeakSet();
+
+/*
+ * Every tracked node mapped to the element observed for it, and every observed element mapped to the number of tracked
+ * nodes it is observed for, so that an element is only unobserved once none of its nodes are tracked.
+ */
+const observed_elements_by_node = new WeakMap();
+const tracked_node_counts = new WeakMap();
+
+const intersection_observer = new IntersectionObserver(function(entries) {
+    for (var i = 0; i < entries.length; i++) {
+        var entry = entries[i];
+
+        if (entry.isIntersecting) {
+            visible_elements.add(entry.target);
+            promote_element_messages(entry.target);
+        }
+        else {
+            visible_elements.delete(entry.target);
+        }
+    }
+});
+
+/*
+ * The number of repeated encrypted messages found since the last batch was sent, which were not sent again since each
+ * encrypted message is only decrypted once. This is sent to the app with the next batch.
+ */
+let saved_request_count = 0;
+
+let send_timeout_id = null;
+
 // Establish a connection with the background script.
 let portToBS = browser.runtime.connect({name:"port-from-cs"});
 
 portToBS.onMessage.addListener(function(jo) {
-    loop_nodes(replace_messages, jo.allMsgPairs);
+    replace_messages(jo.allMsgPairs);
 });
 
-// Identify encrypted messages and send them to the background script for decryption.
-var encrypted_messages = loop_nodes(identify_messages, null);
-if (encrypted_messages.length != 0) {
-    portToBS.postMessage({ct:encrypted_messages});
-}
+// Identify encrypted messages in the document and send them to the background script for decryption.
+// Sending is delayed so that the visibility of every element containing an encrypted message is known.
+scan_subtree(document.documentElement);
+
+// Identify encrypted messages in nodes added to or changed in the document later.
+const observer = new MutationObserver(function(mutations) {
+    for (var i = 0; i < mutations.length; i++) {
+        var mutation = mutations[i];
+
+        if (mutation.type === "childList") {
+            for (var j = 0; j < mutation.addedNodes.length; j++) {
+                scan_subtree(mutation.addedNodes[j]);
+            }
+        }
+        else {
+            // The text of a text node or the source of an image has changed.
+            scan_node(mutation.target);
+        }
+    }
+});
+
+observer.observe(document.documentElement, {
+    childList: true,
+    subtree: true,
+    characterData: true,
+    attributes: true,
+    attributeFilter: ["src"]
+});
+
+/*
+ * Return the text of the given node which may contain encrypted messages, or null if the node cannot contain any.
+ */
+function get_node_text(node) {
+    // Handle image sources and text differently.
+    if (node instanceof HTMLImageElement) {
+        return node.src;
+    }
+    else if (node.nodeType === Node.TEXT_NODE) {
+        return node.nodeValue;
+    }
 
-function construct_regex(to_match) {
-    // Automatically escape special characters.
-    return new RegExp(to_match.replace(/[-\/\\^$*+?.()|[\]{}]/g, "\\$&"), "g");
+    return null;
 }
 
 /*
- * Loop through every child node in every element in the document and execute the given function on each node.
+ * Return the element whose visibility determines whether the encrypted messages in the given node are visible.
  */
-function loop_nodes(funct, all_message_pairs) {
-    var encrypted_messages = [];
+function get_observed_element(node) {
+    return node instanceof HTMLImageElement ? node : node.parentElement;
+}
 
-    var elements = document.getElementsByTagName("*");
+/*
+ * Return true iff any node containing the given (unreplaced) encrypted message is within the viewport.
+ */
+function is_message_visible(cipher_text) {
+    var nodes = nodes_by_encrypted_message.get(cipher_text);
+    if (nodes === undefined) return false;
 
-    for (var i = 0; i < elements.length; i++) {
-        var element = elements[i];
+    for (const node of nodes) {
+        var element = get_observed_element(node);
 
-        for (var j = 0; j < element.childNodes.length; j++) {
-            var child_node = element.childNodes[j];
+        if (element !== null && visible_elements.has(element)) return true;
+    }
 
-            // Ignore HTML source comments.
-            if (child_node.nodeType == 8) continue;
+    return false;
+}
 
-            // Handle image sources and text differently.
-            if (child_node instanceof HTMLImageElement) {
-                var original_text = child_node.src;
-            }
-            else {
-                var original_text = child_node.nodeValue;
-            }
+/*
+ * Send every deferred encrypted message in the given element again, now that the element is visible.
+ */
+function promote_element_messages(element) {
+    var nodes = element instanceof HTMLImageElement ? [element] : element.childNodes;
 
-            if (original_text === null) continue;
+    for (var i = 0; i < nodes.length; i++) {
+        var cipher_texts = encrypted_messages_by_node.get(nodes[i]);
+        if (cipher_texts === undefined) continue;
 
-            // Execute the given function.
-            if (all_message_pairs === null) {
-                // Modify the array of identified encrypted messages found.
-                encrypted_messages = funct(original_text, encrypted_messages);
-            }
-            else {
-                // There are no encrypted messages to return since they have already been decrypted.
-                // The calling method should ignore the return value of this method.
-                funct(element, child_node, original_text, all_message_pairs);
+        for (var j = 0; j < cipher_texts.length; j++) {
+            if (deferred_encrypted_messages.has(cipher_texts[j])) {
+                deferred_encrypted_messages.delete(cipher_texts[j]);
+                promoted_encrypted_messages.add(cipher_texts[j]);
             }
         }
     }
 
-    return encrypted_messages;
+    if (promoted_encrypted_messages.size !== 0) {
+        schedule_send_messages();
+    }
+}
+
+/*
+ * Scan the given node and every node below it, skipping HTML source comments.
+ */
+function scan_subtree(root) {
+    if (root === null) return;
+
+    if (root.nodeType === Node.TEXT_NODE) {
+        scan_node(root);
+        return;
+    }
+
+    if (root.nodeType !== Node.ELEMENT_NODE) return;
+
+    var walker = document.createTreeWalker(root, NodeFilter.SHOW_ELEMENT | NodeFilter.SHOW_TEXT);
+
+    for (var node = walker.currentNode; node !== null; node = walker.nextNode()) {
+        scan_node(node);
+    }
 }
 
 /*
- * Identify every encrypted message and return them as an array.
+ * Identify every encrypted message in the given node, unless the node has already been scanned with the same text.
  */
-function identify_messages(original_text, encrypted_messages) {
+function scan_node(node) {
+    var original_text = get_node_text(node);
+
+    if (original_text === null || scanned_nodes.get(node) === original_text) return;
+
+    scanned_nodes.set(node, original_text);
+
+    // The encrypted messages previously found in the node may no longer be present.
+    untrack_node(node);
+
     // Array of all encrypted messages found in the current node.
     var message_matches = original_text.match(regex_to_match_encrypted_messages);
 
     // If the search pattern is not found anywhere in the node, return immediately to skip to searching the next node.
-    if (message_matches !== null) {
-        // Add elements from the matched messages array to the return array.
-        for (var i = 0; i < message_matches.length; i++) {
-            encrypted_messages.push(message_matches[i]);
+    if (message_matches === null) return;
+
+    var is_any_message_decrypted = false;
+
+    for (var i = 0; i < message_matches.length; i++) {
+        var cipher_text = message_matches[i];
+
+        if (decrypted_messages.has(cipher_text)) {
+            is_any_message_decrypted = true;
+            saved_request_count++;
+            continue;
         }
+
+        var nodes = nodes_by_encrypted_message.get(cipher_text);
+        if (nodes === undefined) {
+            nodes = new Set();
+            nodes_by_encrypted_message.set(cipher_text, nodes);
+        }
+        nodes.add(node);
+        track_message(node, cipher_text);
+
+        if (sent_encrypted_messages.has(cipher_text) || unsent_encrypted_messages.has(cipher_text)) {
+            saved_request_count++;
+        }
+        else {
+            unsent_encrypted_messages.add(cipher_text);
+        }
+    }
+
+    if (is_any_message_decrypted) {
+        replace_node_messages(node);
+    }
+
+    if (unsent_encrypted_messages.size !== 0) {
+        schedule_send_messages();
+    }
+}
+
+/*
+ * Record that the given node contains the given encrypted message.
+ */
+function track_message(node, cipher_text) {
+    var cipher_texts = encrypted_messages_by_node.get(node);
+    if (cipher_texts === undefined) {
+        cipher_texts = [];
+        encrypted_messages_by_node.set(node, cipher_texts);
+        observe_node(node);
+    }
+    cipher_texts.push(cipher_text);
+}
+
+/*
+ * Stop tracking the given node for every encrypted message it was tracked for.
+ */
+function untrack_node(node) {
+    var cipher_texts = encrypted_messages_by_node.get(node);
+    if (cipher_texts === undefined) return;
+
+    encrypted_messages_by_node.delete(node);
+    unobserve_node(node);
+
+    for (var i = 0; i < cipher_texts.length; i++) {
+        var nodes = nodes_by_encrypted_message.get(cipher_texts[i]);
+        if (nodes === undefined) continue;
+
+        nodes.delete(node);
+        if (nodes.size === 0) {
+            nodes_by_encrypted_message.delete(cipher_texts[i]);
+        }
+    }
+}
+
+/*
+ * Stop tracking the given node if every encrypted message it was tracked for has been replaced.
+ */
+function untrack_replaced_node(node) {
+    var cipher_texts = encrypted_messages_by_node.get(node);
+    if (cipher_texts === undefined) return;
+
+    for (var i = 0; i < cipher_texts.length; i++) {
+        if (!decrypted_messages.has(cipher_texts[i])) return;
     }
 
-    return encrypted_messages;
+    untrack_node(node);
+}
+
+/*
+ * Observe the visibility of the element containing the given (newly tracked) node.
+ */
+function observe_node(node) {
+    var element = get_observed_element(node);
+    if (element === null) return;
+
+    observed_elements_by_node.set(node, element);
+
+    var count = tracked_node_counts.has(element) ? tracked_node_counts.get(element) : 0;
+    if (count === 0) {
+        intersection_observer.observe(element);
+    }
+    tracked_node_counts.set(element, count + 1);
 }
 
 /*
- * Use the given array of encrypted and decrypted messages to identify and replace messages in the document.
+ * Stop observing the element observed for the given (untracked) node, unless it contains any other tracked node.
  */
-function replace_messages(element, child_node, original_text, all_message_pairs) {
-    var replaced_text = original_text;
+function unobserve_node(node) {
+    var element = observed_elements_by_node.get(node);
+    if (element === undefined) return;
+
+    observed_elements_by_node.delete(node);
+
+    var count = tracked_node_counts.get(element) - 1;
+    if (count === 0) {
+        tracked_node_counts.delete(element);
+        visible_elements.delete(element);
+        intersection_observer.unobserve(element);
+    }
+    else {
+        tracked_node_counts.set(element, count);
+    }
+}
+
+/*
+ * Send every unsent encrypted message after the send delay, unless sending is already scheduled.
+ * The delay is not restarted by later changes so that a document which changes continuously cannot prevent sending.
+ */
+function schedule_send_messages() {
+    if (send_timeout_id === null) {
+        send_timeout_id = setTimeout(send_messages, send_delay_millis);
+    }
+}
+
+/*
+ * Send every unsent (and promoted) encrypted message to the background script, with every visible encrypted message
+ * sent in one batch before every other encrypted message, so that the app decrypts the visible messages first.
+ */
+function send_messages() {
+    if (send_timeout_id !== null) {
+        clearTimeout(send_timeout_id);
+        send_timeout_id = null;
+    }
+
+    var visible_messages  = [];
+    var deferred_messages = [];
+
+    unsent_encrypted_messages.forEach(function(cipher_text) {
+        sent_encrypted_messages.add(cipher_text);
+
+        if (is_message_visible(cipher_text)) {
+            visible_messages.push(cipher_text);
+        }
+        else {
+            deferred_messages.push(cipher_text);
+            deferred_encrypted_messages.add(cipher_text);
+        }
+    });
+
+    promoted_encrypted_messages.forEach(function(cipher_text) {
+        // Promoted messages may have been replaced since they became visible.
+        if (nodes_by_encrypted_message.has(cipher_text)) {
+            visible_messages.push(cipher_text);
+        }
+    });
+
+    unsent_encrypted_messages = new Set();
+    promoted_encrypted_messages = new Set();
+
+    if (visible_messages.length !== 0) {
+        portToBS.postMessage({ct:visible_messages, visible:true, saved:saved_request_count});
+        saved_request_count = 0;
+    }
+
+    if (deferred_messages.length !== 0) {
+        portToBS.postMessage({ct:deferred_messages, visible:false, saved:saved_request_count});
+        saved_request_count = 0;
+    }
+}
+
+/*
+ * Use the given array of encrypted and decrypted messages to replace messages in the nodes which contain them.
+ */
+function replace_messages(all_message_pairs) {
+    var affected_nodes = new Set();
 
     for (var i = 0; i < all_message_pairs.length; i++) {
         var cipher_text = all_message_pairs[i].ct;
         var plain_text  = all_message_pairs[i].pt;
 
-        // Regular expression matching the specific cipher text.
-        var regex_to_match = construct_regex(cipher_text);
-
-        // Array of all encrypted messages found in the current node.
-        var msg_matches = original_text.match(regex_to_match);
+        decrypted_messages.set(cipher_text, plain_text);
+        deferred_encrypted_messages.delete(cipher_text);
 
-        // If the search pattern is not found anywhere in the node, skip to searching for the next encrypted message.
-        if (msg_matches === null) continue;
+        var nodes = nodes_by_encrypted_message.get(cipher_text);
+        if (nodes === undefined) continue;
 
-        replaced_text = replaced_text.replace(cipher_text, plain_text);
+        nodes_by_encrypted_message.delete(cipher_text);
+        nodes.forEach(function(node) { affected_nodes.add(node); });
     }
 
-    // Replace the displayed content regardless of how many encrypted messages have been found.
-    if (child_node instanceof HTMLImageElement) {
-        child_node.src = replaced_text;
+    affected_nodes.forEach(function(node) {
+        // Nodes removed from the document are no longer displayed so do not need to be replaced.
+        if (node.isConnected) {
+            replace_node_messages(node);
+            untrack_replaced_node(node);
+        }
+        else {
+            untrack_node(node);
+        }
+    });
+}
+
+/*
+ * Replace every decrypted message in the given node in a single pass, looking up each matched encrypted message in
+ * the map of decrypted messages instead of constructing a regular expression for each decrypted message.
+ */
+function replace_node_messages(node) {
+    var original_text = get_node_text(node);
+    if (original_text === null) return;
+
+    // A replacement function is used so that no special replacement patterns in the plain text are interpreted.
+    var replaced_text = original_text.replace(regex_to_match_encrypted_messages, function(cipher_text) {
+        return decrypted_messages.has(cipher_text) ? decrypted_messages.get(cipher_text) : cipher_text;
+    });
+
+    if (replaced_text === original_text) return;
+
+    // Modifying the node in place keeps any other encrypted messages in the node tracked, and marking the node as
+    // scanned prevents the resulting mutation from scanning the node again.
+    scanned_nodes.set(node, replaced_text);
+
+    if (node instanceof HTMLImageElement) {
+        node.src = replaced_text;
     }
     else {
-        element.replaceChild(document.createTextNode(replaced_text), child_node);
+        node.nodeValue = replaced_text;
     }
-}
\ No newline at end of file
+}
@@ -5,19 +5,36 @@ const NATIVE_APP = "gliphic_auto_decrypt";  // TODO: Delete this constant and re
 // Establish a connection with app.
 const portToApp = browser.runtime.connectNative(NATIVE_APP);
 
+// Every connected content script, keyed by the page ID sent to the app with its messages.
+const portsFromCS = new Map();
+let nextPageId = 0;
+
 portToApp.onMessage.addListener(function(response) {
-    portFromCS.postMessage(response);
+    // Only the content script which sent the cipher texts receives the response.
+    const portFromCS = portsFromCS.get(response.id);
+
+    if (portFromCS !== undefined) {
+        portFromCS.postMessage(response);
+    }
 });
 
 // Receive a connection from the content script.
-let portFromCS;
+function connected(portFromCS) {
+    const pageId = nextPageId++;
 
-function connected(port) {
-    portFromCS = port;
+    portsFromCS.set(pageId, portFromCS);
 
     portFromCS.onMessage.addListener(function(jo) {
+        jo.id = pageId;
         portToApp.postMessage(jo);
     });
+
+    portFromCS.onDisconnect.addListener(function() {
+        portsFromCS.delete(pageId);
+
+        // Allow the app to cancel decrypting any messages from the closed page.
+        portToApp.postMessage({id: pageId, closed: true});
+    });
 }
 
-browser.runtime.onConnect.addListener(connected);
\ No newline at end of file
+browser.runtime.onConnect.addListener(connected);
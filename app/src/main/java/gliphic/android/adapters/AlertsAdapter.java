@@ -39,6 +39,7 @@ import gliphic.android.exceptions.NoStoredObjectException;
 import gliphic.android.operation.Alerts;
 import gliphic.android.operation.Group;
 import gliphic.android.operation.misc.Log;
+import gliphic.android.operation.server_interaction.http_server.HttpMetrics;
 import gliphic.android.operation.server_interaction.http_server.HttpOperations;
 import gliphic.android.operation.server_interaction.http_server.RequestGlobalStatic;
 import gliphic.android.operation.storage_handlers.IsStoredAndDataObject;
@@ -241,11 +242,13 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertsItem
                                         groupNumber
                                 );
 
+                                final HttpMetrics.Call groupAcceptGetKeyCall =
+                                        HttpMetrics.start(HttpOperations.URI_GROUP_ACCEPT_GET_KEY);
                                 HttpOperations.post(
                                         HttpOperations.URI_GROUP_ACCEPT_GET_KEY,
-                                        atagn,
+                                        groupAcceptGetKeyCall.requestBody(atagn),
                                         activity,
-                                        response1 -> {
+                                        groupAcceptGetKeyCall.onResponse(response1 -> {
                                             final GetPubEncGroupKeyResponse gpegkr;
                                             final byte[] dataEncryptionKey;
                                             final byte[] privateKey;
@@ -291,11 +294,13 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertsItem
                                                 );
                                             }
                                             catch (IOException | InvalidCipherTextException e) {
+                                                final HttpMetrics.Call groupAcceptFailedCall =
+                                                        HttpMetrics.start(HttpOperations.URI_GROUP_ACCEPT_FAILED);
                                                 HttpOperations.post(
                                                         HttpOperations.URI_GROUP_ACCEPT_FAILED,
-                                                        atagn,
+                                                        groupAcceptFailedCall.requestBody(atagn),
                                                         activity,
-                                                        response2 -> {
+                                                        groupAcceptFailedCall.onResponse(response2 -> {
                                                             // Remove the GroupShare object and display (item).
 
                                                             loadingDialog.dismissDialog();
@@ -326,8 +331,8 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertsItem
                                                             );
 
                                                             activity.activateClickableViews();
-                                                        },
-                                                        error2 -> {
+                                                        }),
+                                                        groupAcceptFailedCall.onErrorResponse(error2 -> {
                                                             loadingDialog.dismissDialog();
 
                                                             HttpOperations.handleStandardRequestOnErrorResponse(
@@ -337,7 +342,7 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertsItem
                                                             );
 
                                                             activity.activateClickableViews();
-                                                        }
+                                                        })
                                                 );
 
                                                 return;
@@ -398,11 +403,13 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertsItem
                                                 return;
                                             }
 
+                                            final HttpMetrics.Call groupAcceptConfirmCall =
+                                                    HttpMetrics.start(HttpOperations.URI_GROUP_ACCEPT_CONFIRM);
                                             HttpOperations.post(
                                                     HttpOperations.URI_GROUP_ACCEPT_CONFIRM,
-                                                    acceptGroupRequest,
+                                                    groupAcceptConfirmCall.requestBody(acceptGroupRequest),
                                                     activity,
-                                                    response2 -> {
+                                                    groupAcceptConfirmCall.onResponse(response2 -> {
                                                         // Attempt to request the target contacts for the received
                                                         // group, and store these and the received group.
                                                         // If storing target contacts fails then store only the group.
@@ -430,14 +437,17 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertsItem
                                                             return;
                                                         }
 
+                                                        final HttpMetrics.Call contactsCall = HttpMetrics.start(
+                                                                HttpOperations.URI_LOAD_CHOSEN_CONTACTS
+                                                        );
                                                         HttpOperations.post(
                                                                 HttpOperations.URI_LOAD_CHOSEN_CONTACTS,
-                                                                new LoadChosenContactsRequest(
+                                                                contactsCall.requestBody(new LoadChosenContactsRequest(
                                                                         accessToken,
                                                                         groupContacts
-                                                                ),
+                                                                )),
                                                                 activity,
-                                                                response3 -> {
+                                                                contactsCall.onResponse(response3 -> {
                                                                     final LoadChosenContactsResponse lccr =
                                                                             GeneralUtils.fromJson(
                                                                                     response3,
@@ -461,8 +471,8 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertsItem
                                                                             lgo,
                                                                             targetContacts
                                                                     );
-                                                                },
-                                                                error3 -> {
+                                                                }),
+                                                                contactsCall.onErrorResponse(error3 -> {
                                                                     logError(
                                                                             lgo.getNumber(),
                                                                             String.format(
@@ -479,10 +489,10 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertsItem
                                                                             lgo,
                                                                             null
                                                                     );
-                                                                }
+                                                                })
                                                         );
-                                                    },
-                                                    error2 -> {
+                                                    }),
+                                                    groupAcceptConfirmCall.onErrorResponse(error2 -> {
                                                         loadingDialog.dismissDialog();
 
                                                         HttpOperations.handleAddGroupOnErrorResponse(
@@ -492,10 +502,10 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertsItem
                                                         );
 
                                                         activity.activateClickableViews();
-                                                    }
+                                                    })
                                             );
-                                        },
-                                        error1 -> {
+                                        }),
+                                        groupAcceptGetKeyCall.onErrorResponse(error1 -> {
                                             loadingDialog.dismissDialog();
 
                                             HttpOperations.handleStandardRequestOnErrorResponse(
@@ -505,7 +515,7 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertsItem
                                             );
 
                                             activity.activateClickableViews();
-                                        }
+                                        })
                                 );
                             },
                             activity,
@@ -536,11 +546,13 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertsItem
                                     groupNumber
                             );
 
+                            final HttpMetrics.Call groupDeclineConfirmCall =
+                                    HttpMetrics.start(HttpOperations.URI_GROUP_DECLINE_CONFIRM);
                             HttpOperations.post(
                                     HttpOperations.URI_GROUP_DECLINE_CONFIRM,
-                                    atagn,
+                                    groupDeclineConfirmCall.requestBody(atagn),
                                     activity,
-                                    response -> {
+                                    groupDeclineConfirmCall.onResponse(response -> {
                                         // Remove the GroupShare object and display (item).
 
                                         loadingDialog.dismissDialog();
@@ -552,8 +564,8 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertsItem
                                         MainActivity.sendBroadcastToUpdateAlertsTab(activity);
 
                                         activity.activateClickableViews();
-                                    },
-                                    error -> {
+                                    }),
+                                    groupDeclineConfirmCall.onErrorResponse(error -> {
                                         loadingDialog.dismissDialog();
 
                                         HttpOperations.handleStandardRequestOnErrorResponse(
@@ -563,7 +575,7 @@ public class AlertsAdapter extends RecyclerView.Adapter<AlertsAdapter.AlertsItem
                                         );
 
                                         activity.activateClickableViews();
-                                    }
+                                    })
                             );
                         },
                         activity,
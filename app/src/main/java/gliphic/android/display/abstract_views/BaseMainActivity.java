@@ -26,9 +26,15 @@ import gliphic.android.operation.misc.Log;
 import gliphic.android.operation.server_interaction.http_server.HttpOperations;
 import gliphic.android.operation.server_interaction.http_server.NetworkConnectionMonitor;
 import gliphic.android.operation.server_interaction.http_server.RequestGlobalStatic;
+import gliphic.android.operation.server_interaction.http_server.ServerFuture;
 import gliphic.android.operation.server_interaction.xmpp_server.ConnectionService;
 import gliphic.android.operation.storage_handlers.ForcedDialogs;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * This activity is a child of AppCompatActivity and should be the parent class of all other activities which are
  * started after a contact signs in.
@@ -47,6 +53,9 @@ public abstract class BaseMainActivity extends BaseActivity {
 
     private boolean isOnFirstNetworkAvailable = true;
 
+    // The server requests made on behalf of this activity which have not completed.
+    private final Set<ServerFuture<?>> pendingFutures = new HashSet<>();
+
     private NetworkConnectionMonitor networkConnectionMonitor = null;
 
     private LocalBroadcastManager localBroadcastManager;
@@ -163,6 +172,44 @@ public abstract class BaseMainActivity extends BaseActivity {
         super.onStop();
     }
 
+    @Override
+    protected void onDestroy() {
+        final List<ServerFuture<?>> futures;
+        synchronized (pendingFutures) {
+            futures = new ArrayList<>(pendingFutures);
+            pendingFutures.clear();
+        }
+
+        for (ServerFuture<?> future : futures) {
+            future.cancel();
+        }
+
+        super.onDestroy();
+    }
+
+    /**
+     * Cancel the given future (and every stage which it depends on) if this activity is destroyed before the future
+     * completes, so that the future's callbacks are not given results for a destroyed activity.
+     *
+     * @param future    The future to cancel when this activity is destroyed.
+     */
+    public void cancelOnDestroy(@NonNull final ServerFuture<?> future) {
+        if (isDestroyed()) {
+            future.cancel();
+            return;
+        }
+
+        synchronized (pendingFutures) {
+            pendingFutures.add(future);
+        }
+
+        future.whenComplete((result, error) -> {
+            synchronized (pendingFutures) {
+                pendingFutures.remove(future);
+            }
+        });
+    }
+
 //    /**
 //     * This method exists as a fix for the following error:
 //     *
@@ -17,6 +17,8 @@ import android.view.View
 import gliphic.android.R
 import gliphic.android.display.abstract_views.BaseMainActivity
 import gliphic.android.display.main.WorkspaceTab
+import gliphic.android.operation.ChunkedDecryptPipeline
+import gliphic.android.operation.DecryptedMessageCache
 import gliphic.android.operation.misc.Log
 import mozilla.components.browser.engine.gecko.GeckoEngineView
 import mozilla.components.browser.menu.BrowserMenuBuilder
@@ -39,6 +41,12 @@ import org.mozilla.geckoview.WebExtension
 class BrowserActivity: BaseMainActivity() {
     private var mozillaComponentsInitialised = false
 
+    // Decrypts published texts from every page in bounded chunks, posting each chunk to the extension when complete.
+    private val decryptPipeline = ChunkedDecryptPipeline()
+
+    // The decryptor for the chunks received from each page, used to cancel the remaining chunks when a page is closed.
+    private val pageDecryptors = mutableMapOf<Int?, ChunkedDecryptPipeline.ChunkDecryptor>()
+
     private lateinit var components: Components
     private lateinit var toolbarFeature: ToolbarFeature
     private lateinit var sessionFeature: SessionFeature
@@ -54,6 +62,8 @@ class BrowserActivity: BaseMainActivity() {
         var COMPONENTS: Components? = null
 
         fun clearStorage(applicationContext: Context) {
+            DecryptedMessageCache.getInstance().clear()
+
             if (COMPONENTS == null) {
                 Components(applicationContext).sessionStorage.clear()
             }
@@ -95,23 +105,59 @@ class BrowserActivity: BaseMainActivity() {
                     return
                 }
 
-                val decryptedJsonObject = DecryptedJsonObject(message)
-                val publishedTexts      = mutableListOf<String>()
+                val cachedJsonObject = DecryptedJsonObject(message)
+                val publishedTexts   = mutableListOf<String>()
+
+                if (cachedJsonObject.isPageClosed()) {
+                    // The page has been closed or navigated away from, so its remaining messages will not be displayed.
+                    pageDecryptors.remove(cachedJsonObject.getPageId())?.let { decryptPipeline.cancelPending(it) }
+                    return
+                }
+
+                WorkspaceTab.addSavedDecryptRequests(cachedJsonObject.getSavedRequestCount().toLong())
+                Log.d(
+                        WEB_EXT_LOG_TAG,
+                        "Repeated messages not decrypted separately: ${WorkspaceTab.getSavedDecryptRequestCount()}"
+                )
 
-                val cipherTextArray = decryptedJsonObject.getJsonArray()
+                // Only request decryption for published texts which are not already cached, e.g. from an earlier
+                // visit to the same page.
+                val cipherTextArray = cachedJsonObject.getJsonArray()
                 for (i in 0 until cipherTextArray.length()) {
-                    publishedTexts.add(cipherTextArray[i] as String)
+                    val publishedText = cipherTextArray[i] as String
+                    val plainText     = DecryptedMessageCache.getInstance().get(publishedText)
+
+                    if (plainText == null) {
+                        publishedTexts.add(publishedText)
+                    }
+                    else {
+                        cachedJsonObject.add(publishedText, plainText)
+                    }
                 }
 
-                WorkspaceTab.decryptText(
-                        { isSuccessful ->
-                            if (isSuccessful) { port.postMessage(decryptedJsonObject.toJsonObject()) }
-                        },
-                        this@BrowserActivity,
-                        decryptedJsonObject,
-                        publishedTexts
+                // Replace the cached messages immediately rather than waiting for the server to decrypt the others.
+                if (cachedJsonObject.hasPlainText()) {
+                    port.postMessage(cachedJsonObject.toJsonObject())
+                }
+
+                if (publishedTexts.isEmpty()) {
+                    return
+                }
+
+                // Visible messages are decrypted before any messages which the user has not scrolled to.
+                decryptPipeline.submit(
+                        publishedTexts,
+                        cachedJsonObject.isVisible(),
+                        pageDecryptors.getOrPut(cachedJsonObject.getPageId()) { createChunkDecryptor(message, port) }
                 )
             }
+
+            override fun onDisconnect(port : WebExtension.Port) {
+                Log.d(WEB_EXT_LOG_TAG, "Web extension disconnected from the app.")
+
+                decryptPipeline.cancelPending()
+                pageDecryptors.clear()
+            }
         }
 
         // This delegate handles requests to open a port coming from the extension
@@ -140,6 +186,32 @@ class BrowserActivity: BaseMainActivity() {
                 )
     }
 
+    /**
+     * Create a decryptor which posts each decrypted chunk to the given port as soon as it is decrypted, so that
+     * messages are displayed progressively.
+     *
+     * @param message   A message received from the page which the decrypted chunks are posted to.
+     */
+    private fun createChunkDecryptor(message: JSONObject,
+                                     port: WebExtension.Port): ChunkedDecryptPipeline.ChunkDecryptor {
+
+        return ChunkedDecryptPipeline.ChunkDecryptor { chunk, onComplete ->
+            // Only the page ID is read from the received message.
+            val decryptedJsonObject = DecryptedJsonObject(message)
+
+            WorkspaceTab.decryptText(
+                    { isSuccessful ->
+                        if (isSuccessful) { port.postMessage(decryptedJsonObject.toJsonObject()) }
+
+                        onComplete.run()
+                    },
+                    this@BrowserActivity,
+                    decryptedJsonObject,
+                    chunk
+            )
+        }
+    }
+
     private fun initialiseMozillaComponentsAndSetContentView() {
         if (COMPONENTS == null) {
             COMPONENTS = Components(applicationContext)
@@ -203,6 +275,14 @@ class BrowserActivity: BaseMainActivity() {
         }
     }
 
+    override fun onDestroy() {
+        super.onDestroy()
+
+        // Chunks which have already been sent to the server are allowed to complete.
+        decryptPipeline.cancelPending()
+        pageDecryptors.clear()
+    }
+
     override fun onCreateView(parent: View?, name: String, context: Context, attrs: AttributeSet): View? =
             when (name) {
                 GeckoEngineView::class.java.name -> components.engine.createView(context, attrs).apply {
@@ -22,6 +22,10 @@ class DecryptedJsonObject(private val message: JSONObject) {
         const val ALL_MESSAGES_NAME = "allMsgPairs"
         const val CIPHER_TEXT_NAME  = "ct"
         const val PLAIN_TEXT_NAME   = "pt"
+        const val VISIBLE_NAME      = "visible"
+        const val PAGE_ID_NAME      = "id"
+        const val PAGE_CLOSED_NAME  = "closed"
+        const val SAVED_COUNT_NAME  = "saved"
     }
 
     data class MessagePair(val cipherText: String, val plainText: String)
@@ -42,6 +46,36 @@ class DecryptedJsonObject(private val message: JSONObject) {
         return message.get(CIPHER_TEXT_NAME) as JSONArray
     }
 
+    /**
+     * Return true iff the web extension marked the received cipher texts as visible to the user, or did not mark them.
+     */
+    fun isVisible(): Boolean {
+        return message.optBoolean(VISIBLE_NAME, true)
+    }
+
+    /**
+     * Return the ID which the web extension assigned to the page containing the received cipher texts, or null if
+     * the received [JSONObject] does not contain a page ID.
+     */
+    fun getPageId(): Int? {
+        return if (message.has(PAGE_ID_NAME)) message.getInt(PAGE_ID_NAME) else null
+    }
+
+    /**
+     * Return true iff the received [JSONObject] notifies that the page with the received page ID has been closed.
+     */
+    fun isPageClosed(): Boolean {
+        return message.optBoolean(PAGE_CLOSED_NAME, false)
+    }
+
+    /**
+     * Return the number of repeated cipher texts which the web extension did not send since each cipher text is only
+     * decrypted once.
+     */
+    fun getSavedRequestCount(): Int {
+        return message.optInt(SAVED_COUNT_NAME, 0)
+    }
+
     /**
      * Add a known cipher text and plain text pair to this object.
      */
@@ -66,6 +100,9 @@ class DecryptedJsonObject(private val message: JSONObject) {
         val jsonObject = JSONObject()
         jsonObject.put(ALL_MESSAGES_NAME, allMessages)
 
+        // Allow the web extension to return the response to the page which sent the cipher texts.
+        getPageId()?.let { jsonObject.put(PAGE_ID_NAME, it) }
+
         return jsonObject
     }
 }
\ No newline at end of file
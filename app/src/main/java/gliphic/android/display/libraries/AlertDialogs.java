@@ -27,9 +27,15 @@ import gliphic.android.exceptions.NoStoredObjectException;
 import gliphic.android.exceptions.NullStaticVariableException;
 import gliphic.android.interfaces.BooleanCallback;
 import gliphic.android.operation.Contact;
+import gliphic.android.operation.DecryptedMessageCache;
+import gliphic.android.operation.GroupKeyCache;
 import gliphic.android.operation.misc.Log;
+import gliphic.android.operation.misc.Trace;
 import gliphic.android.operation.server_interaction.xmpp_server.ConnectionService;
+import gliphic.android.operation.server_interaction.http_server.AccessTokenManager;
+import gliphic.android.operation.server_interaction.http_server.HttpMetrics;
 import gliphic.android.operation.server_interaction.http_server.HttpOperations;
+import gliphic.android.operation.server_interaction.http_server.RequestGlobalStatic;
 import gliphic.android.operation.storage_handlers.ForcedDialogs;
 import gliphic.android.operation.storage_handlers.ResponseCodeAndMessage;
 import gliphic.android.operation.storage_handlers.SharedPreferencesHandler;
@@ -38,6 +44,8 @@ import org.bouncycastle.util.encoders.DecoderException;
 
 import java.io.IOException;
 import java.security.GeneralSecurityException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -805,6 +813,10 @@ public class AlertDialogs {
         /* Erase all traces of the contact from internal memory. */
 
         SharedPreferencesHandler.removeAllContactData(activity);
+        RequestGlobalStatic.deleteSignInSnapshot(activity);
+        GroupKeyCache.getInstance().clear();
+        DecryptedMessageCache.getInstance().clear();
+        AccessTokenManager.clear();
 
         if (BaseMainActivity.class.isAssignableFrom(activity.getClass())) {
             ((BaseMainActivity) activity).clearBrowserState();
@@ -818,6 +830,140 @@ public class AlertDialogs {
         activity.finish();
     }
 
+    /**
+     * Display the HTTP request metrics recorded by {@link HttpMetrics}, with the endpoints which contribute the most
+     * latency first followed by the response types which take the longest to parse. The full snapshot can be written
+     * to the log as JSON or the metrics can be reset.
+     *
+     * This dialog is only available in debug builds.
+     *
+     * @param activity  The calling activity.
+     */
+    public static void httpMetricsDialog(@NonNull final BaseActivity activity) {
+        final HttpMetrics.Snapshot snapshot = HttpMetrics.getSnapshot();
+
+        final StringBuilder sb = new StringBuilder();
+        for (HttpMetrics.EndpointMetrics metrics : snapshot.getEndpoints()) {
+            sb.append(String.format(
+                    "%s\n%d sent, %d failed %s\np50 <= %d ms, p95 <= %d ms, max %d ms, total %d ms\n" +
+                    "sent %d chars, received %d chars, %d queued for %d ms\n\n",
+                    metrics.getUri(),
+                    metrics.getRequestCount(),
+                    metrics.getErrorResponseCount(),
+                    metrics.getErrorCodes(),
+                    metrics.getP50LatencyMs(),
+                    metrics.getP95LatencyMs(),
+                    metrics.getMaxLatencyMs(),
+                    metrics.getTotalLatencyMs(),
+                    metrics.getRequestChars(),
+                    metrics.getResponseChars(),
+                    metrics.getQueueWaitCount(),
+                    metrics.getTotalQueueWaitMs()
+            ));
+        }
+
+        for (HttpMetrics.ParseMetrics metrics : snapshot.getResponseTypes()) {
+            sb.append(String.format(
+                    "Parse %s\n%d parsed, %d failed, %d chars\nmax %d us, total %d us\n\n",
+                    metrics.getResponseType(),
+                    metrics.getParseCount(),
+                    metrics.getFailedParseCount(),
+                    metrics.getParsedChars(),
+                    metrics.getMaxParseMicros(),
+                    metrics.getTotalParseMicros()
+            ));
+        }
+
+        final AlertDialog alertDialog = new AlertDialog.Builder(activity).create();
+        alertDialog.setTitle("HTTP metrics");
+        alertDialog.setMessage(sb.length() == 0 ? "No requests have been sent." : sb.toString().trim());
+        alertDialog.setButton(
+                AlertDialog.BUTTON_POSITIVE,
+                activity.getResources().getString(android.R.string.ok),
+                (dialog, which) ->
+                        dialog.dismiss()
+                );
+        alertDialog.setButton(
+                AlertDialog.BUTTON_NEUTRAL,
+                "Log JSON",
+                (dialog, which) -> {
+                    dialog.dismiss();
+                    Log.i(HttpOperations.GENERIC_LOG_TAG, GeneralUtils.toJson(snapshot));
+                });
+        alertDialog.setButton(
+                AlertDialog.BUTTON_NEGATIVE,
+                "Reset",
+                (dialog, which) -> {
+                    dialog.dismiss();
+                    HttpMetrics.reset();
+                });
+
+        safeShowDialog(alertDialog);
+    }
+
+    /**
+     * Display the span trees of the most recently completed traces recorded by {@link Trace}, newest first. Every
+     * completed trace can be written to the log in the Chrome trace event format or the traces can be cleared.
+     *
+     * This dialog is only available in debug builds.
+     *
+     * @param activity  The calling activity.
+     */
+    public static void traceDialog(@NonNull final BaseActivity activity) {
+        final List<Trace.Span> traces = Trace.getCompletedTraces();
+
+        final StringBuilder sb = new StringBuilder();
+        for (int i = traces.size() - 1; i >= 0; i--) {
+            appendSpan(sb, traces.get(i), 0);
+            sb.append("\n");
+        }
+
+        final AlertDialog alertDialog = new AlertDialog.Builder(activity).create();
+        alertDialog.setTitle("Traces");
+        alertDialog.setMessage(sb.length() == 0 ? "No traces have completed." : sb.toString().trim());
+        alertDialog.setButton(
+                AlertDialog.BUTTON_POSITIVE,
+                activity.getResources().getString(android.R.string.ok),
+                (dialog, which) ->
+                        dialog.dismiss()
+                );
+        alertDialog.setButton(
+                AlertDialog.BUTTON_NEUTRAL,
+                "Log Chrome JSON",
+                (dialog, which) -> {
+                    dialog.dismiss();
+                    Log.i(HttpOperations.GENERIC_LOG_TAG, Trace.getChromeTraceJson());
+                });
+        alertDialog.setButton(
+                AlertDialog.BUTTON_NEGATIVE,
+                "Clear",
+                (dialog, which) -> {
+                    dialog.dismiss();
+                    Trace.clear();
+                });
+
+        safeShowDialog(alertDialog);
+    }
+
+    private static void appendSpan(@NonNull StringBuilder sb, @NonNull Trace.Span span, int depth) {
+        final long duration = span.getDuration();
+
+        for (int i = 0; i < depth; i++) {
+            sb.append("  ");
+        }
+
+        sb.append(String.format(
+                "%s [%s] %s\n",
+                span.getName(),
+                span.getCategory(),
+                duration < 0 ? "unfinished" : TimeUnit.NANOSECONDS.toMillis(duration) + " ms"
+        ));
+
+        for (Trace.Span child : span.getChildren()) {
+            appendSpan(sb, child, depth + 1);
+        }
+    }
+
     /* AlertDialog message generation */
 
     private static final String LEGAL_CHARACTERS_MSG =
@@ -26,6 +26,7 @@ import gliphic.android.display.CreateGroupActivity;
 import gliphic.android.display.GroupSelectionActivity;
 import gliphic.android.display.ReportActivity;
 import gliphic.android.display.abstract_views.BaseMainActivity;
+import gliphic.android.operation.misc.BuildConfiguration;
 
 import androidx.core.app.NavUtils;
 
@@ -33,6 +34,11 @@ import androidx.core.app.NavUtils;
  * A collection of static methods to standardise the implementation of the TabLayout widget across the application.
  */
 public class TabLayoutMethods {
+    // The overflow menu items which display the HTTP request metrics and traces in debug builds, which are not
+    // defined in XML so their IDs only need to be distinct from the other menu items.
+    private static final int ACTION_BAR_HTTP_METRICS = Menu.FIRST;
+    private static final int ACTION_BAR_TRACES       = Menu.FIRST + 1;
+
     /**
      * Manually set the text color (and text by necessity) for the overflow menu items on devices which have a
      * hardware menu button.
@@ -43,9 +49,18 @@ public class TabLayoutMethods {
      *
      * MenuItem and SpannableString became available on Android API 25 platform.
      *
+     * In debug builds overflow menu items which display the HTTP request metrics and traces are also added.
+     *
      * @param menu  The Menu argument from the calling onOptionsItemSelected() method.
      */
     public static void onCreateOptionsMenuContent(Menu menu) {
+        if (BuildConfiguration.isDebugBuild() && menu.findItem(ACTION_BAR_HTTP_METRICS) == null) {
+            menu.add(Menu.NONE, ACTION_BAR_HTTP_METRICS, Menu.CATEGORY_SECONDARY, "HTTP metrics");
+        }
+        if (BuildConfiguration.isDebugBuild() && menu.findItem(ACTION_BAR_TRACES) == null) {
+            menu.add(Menu.NONE, ACTION_BAR_TRACES, Menu.CATEGORY_SECONDARY, "Traces");
+        }
+
         for (int i = 0; i < menu.size(); i++) {
             MenuItem menuItem = menu.getItem(i);
             SpannableString s = new SpannableString(menu.getItem(i).getTitle());
@@ -96,6 +111,12 @@ public class TabLayoutMethods {
         else if (itemId == R.id.action_bar_sign_out) {
             AlertDialogs.signOutDialog(activity);
         }
+        else if (itemId == ACTION_BAR_HTTP_METRICS) {
+            AlertDialogs.httpMetricsDialog(activity);
+        }
+        else if (itemId == ACTION_BAR_TRACES) {
+            AlertDialogs.traceDialog(activity);
+        }
         else {
             return false;
         }
@@ -73,6 +73,20 @@ public class AlertsTab extends BaseMainFragment {
         }
     }
 
+    /**
+     * Request every group-share from the server and replace all displayed group-shares, e.g. when group-share changes
+     * pushed by the XMPP server may have been missed.
+     */
+    void reloadGroupShares() {
+        if (rootView == null) {
+            // Ensure that the group-shares are requested from the server when the view is created.
+            Alerts.setNullGroupShares();
+        }
+        else {
+            safeAdapterReload();
+        }
+    }
+
     @Override
     public void onNetworkAvailable(boolean isFirstOnNetworkAvailable) {
         new Handler(Looper.getMainLooper()).post(
@@ -148,7 +162,7 @@ public class AlertsTab extends BaseMainFragment {
         safeAdapterUpdate(true, false, true);
     }
 
-    private void safeAdapterReset() {
+    void safeAdapterReset() {
         safeAdapterUpdate(false, true, true);
     }
 
@@ -188,17 +202,12 @@ public class AlertsTab extends BaseMainFragment {
         // This is done by not deactivating clickable views here and (re)activating them when the response is received.
 
         RequestGlobalStatic.requestGroupShareAlerts(
-                (groupShareList, groupShareRequestInProgress) -> {
+                groupShareList -> {
                     final Context context = getContext();
                     if (context == null) {
                         return;
                     }
 
-                    if (groupShareRequestInProgress) {
-                        handleRequestCleanup(moreAlertsProgressBar);
-                        return;
-                    }
-
                     // Initialise an adapter if one does not already exist.
                     if (allAlertsAdapter == null) {
                         allAlertsAdapter = new AlertsAdapter(groupShareList, pendingReceivedOnlyBox.isChecked());
@@ -199,7 +199,7 @@ public class ContactsTab extends BaseMainFragment {
         safeAdapterUpdate(true, false, false, true);
     }
 
-    private void safeAdapterReset() {
+    void safeAdapterReset() {
         safeAdapterUpdate(false, true, true, true);
     }
 
@@ -224,13 +224,7 @@ public class ContactsTab extends BaseMainFragment {
         // This is done by not deactivating clickable views here and (re)activating them when the response is received.
 
         RequestGlobalStatic.requestAndSetTargetContacts(
-                (targetContacts, targetContactsRequestInProgress) -> {
-
-                    if (targetContactsRequestInProgress) {
-                        handleRequestCleanup(moreContactsProgressBar);
-                        return;
-                    }
-
+                targetContacts -> {
                     // Initialise an adapter if one does not already exist.
                     if (allContactsAdapter == null) {
                         allContactsAdapter = new ContactsAdapter(targetContacts, true);
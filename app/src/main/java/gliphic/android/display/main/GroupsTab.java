@@ -184,12 +184,7 @@ public class GroupsTab extends BaseMainFragment {
         // This is done by not deactivating clickable views here and (re)activating them when the response is received.
 
         RequestGlobalStatic.requestAndSetKnownGroups(
-                (knownGroups, knownGroupsRequestInProgress) -> {
-                    if (knownGroupsRequestInProgress) {
-                        handleRequestCleanup(moreContactsProgressBar);
-                        return;
-                    }
-
+                knownGroups -> {
                     // Initialise an adapter if one does not already exist.
                     if (allGroupsAdapter == null) {
                         allGroupsAdapter = new GroupsAdapter(knownGroups);
@@ -16,6 +16,8 @@ import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.ViewGroup;
@@ -28,8 +30,13 @@ import gliphic.android.display.libraries.LoadingDialog;
 import gliphic.android.display.welcome_screen.SignInActivity;
 import gliphic.android.display.libraries.TabLayoutMethods;
 import gliphic.android.operation.Alerts;
+import gliphic.android.operation.DecryptedMessageCache;
+import gliphic.android.operation.GroupKeyCache;
 import gliphic.android.operation.misc.IntentHandler;
 import gliphic.android.operation.misc.Log;
+import gliphic.android.operation.server_interaction.http_server.AccessTokenManager;
+import gliphic.android.operation.server_interaction.http_server.GroupShareDeltaSync;
+import gliphic.android.operation.server_interaction.http_server.HttpMetrics;
 import gliphic.android.operation.server_interaction.http_server.HttpOperations;
 import gliphic.android.operation.server_interaction.http_server.RequestGlobalStatic;
 import gliphic.android.operation.storage_handlers.SharedPreferencesHandler;
@@ -46,13 +53,10 @@ import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentPagerAdapter;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import androidx.viewpager.widget.ViewPager;
-import libraries.GeneralUtils;
 import libraries.Vars;
 import pojo.account.GroupShare;
-import pojo.group.GroupShareLoadabilityRequest;
 import pojo.group.LoadableGroupSharesResponse;
 import pojo.group.UnloadableGroupSharesResponse;
-import pojo.misc.ContactAndGroupNumberPair;
 import pojo.xmpp.XMPPMessageBody;
 
 /**
@@ -115,6 +119,94 @@ public class MainActivity extends BaseMainActivity {
         Log.w(HttpOperations.GENERIC_LOG_TAG, String.format(s, clazz.getName()));
     }
 
+    // Apply the group-share changes pushed by the XMPP server to the static list of group-shares and the Alerts tab.
+    private final GroupShareDeltaSync groupShareDeltaSync = new GroupShareDeltaSync(
+            (uri, requestBody, responseCallback) -> {
+                final HttpMetrics.Call call = HttpMetrics.start(uri);
+                HttpOperations.post(
+                        uri,
+                        call.requestBody(requestBody),
+                        MainActivity.this,
+                        call.onResponse(responseCallback::onResponse),
+                        call.onErrorResponse(error -> {
+                            HttpOperations.handleOnErrorResponseAfterReceivedXmppMessage(error, MainActivity.this);
+                            responseCallback.onResponse(null);
+                        })
+                );
+            },
+            callback -> RequestGlobalStatic.requestAndSetAccessToken(
+                    accessToken -> {
+                        if (accessToken == null) {
+                            logNullAccessToken();
+                        }
+
+                        callback.onReturn(accessToken);
+                    },
+                    MainActivity.this,
+                    null,
+                    false
+            ),
+            (runnable, delayMillis) -> new Handler(Looper.getMainLooper()).postDelayed(runnable, delayMillis),
+            new GroupShareDeltaSync.Listener() {
+                @Override
+                public void onGroupSharesStored(@NonNull List<GroupShare> storedGroupShares,
+                                                @NonNull Vars.GroupShareStatus groupShareStatus) {
+
+                    if (storedGroupShares.isEmpty()) {
+                        logReturnListEmpty(LoadableGroupSharesResponse.class);
+                        return;
+                    }
+
+                    if (alertsTab == null) {
+                        // The stored group-shares may be the only items in the static list, so ensure that every
+                        // group-share is requested from the server when the tab is created.
+                        Alerts.setNullGroupShares();
+                    }
+                    else {
+                        // Remove and prepend new item(s) to the display.
+                        alertsTab.prependGroupShareAndUpdateDisplay(storedGroupShares);
+                    }
+
+                    if (Alerts.isActionableGroupShare(groupShareStatus)) {
+                        setAlertsTabTitle();
+                    }
+                }
+
+                @Override
+                public void onGroupSharesRemoved(@NonNull List<GroupShare> removedGroupShares,
+                                                 @NonNull Vars.GroupShareStatus groupShareStatus) {
+
+                    if (removedGroupShares.isEmpty()) {
+                        logReturnListEmpty(UnloadableGroupSharesResponse.class);
+                        return;
+                    }
+
+                    if (alertsTab == null) {
+                        // Ensure that the group-shares are requested from the server when the tab is created.
+                        Alerts.setNullGroupShares();
+                    }
+                    else {
+                        alertsTab.removeGroupShareAndUpdateDisplay(removedGroupShares);
+                    }
+
+                    if (Alerts.isActionableGroupShare(groupShareStatus)) {
+                        setAlertsTabTitle();
+                    }
+                }
+
+                @Override
+                public void onFullReloadRequired() {
+                    if (alertsTab == null) {
+                        // Ensure that the group-shares are requested from the server when the tab is created.
+                        Alerts.setNullGroupShares();
+                    }
+                    else {
+                        alertsTab.reloadGroupShares();
+                    }
+                }
+            }
+    );
+
     // Receive local broadcasts for this activity and any fragments created within this activity.
     private LocalBroadcastManager localBroadcastManager;
     private BroadcastReceiver broadcastReceiver = new BroadcastReceiver() {
@@ -125,150 +217,28 @@ public class MainActivity extends BaseMainActivity {
                 return;
             }
 
-            final Vars.GroupShareStatus statusToCheck;
-            final XMPPMessageBody xmppMessageBody;
-
             if (intentAction.equals(UPDATE_ALERTS_TAB_ACTION)) {
                 setAlertsTabTitle();
                 alertsTab.showAndRemoveViews();
-                return;
             }
             else if (intentAction.equals(UPDATE_GROUPS_TAB_ACTION)) {
                 groupsTab.safeAdapterReset();
-                return;
-            }
-            else if (intentAction.equals(XMPPMessageBody.Subject.GROUP_REQUEST_SUBMITTED.get())) {
-                statusToCheck = Vars.GroupShareStatus.PENDING_RECEIVED;
-            }
-            else if (intentAction.equals(XMPPMessageBody.Subject.GROUP_REQUEST_ACCEPTED.get())) {
-                statusToCheck = Vars.GroupShareStatus.SUCCESS_SENT;
-            }
-            else if (intentAction.equals(XMPPMessageBody.Subject.GROUP_REQUEST_FAILED.get())) {
-                statusToCheck = Vars.GroupShareStatus.FAILED_SENT;
-            }
-            else if (intentAction.equals(XMPPMessageBody.Subject.GROUP_REQUEST_DECLINED.get())) {
-                statusToCheck = Vars.GroupShareStatus.FAILED_SENT;  // There is no specific "SUCCESS_DENIED" status.
-
-                xmppMessageBody = IntentHandler.getIntentExtra(intent);
-                if (xmppMessageBody == null) {
-                    return;
-                }
-
-                RequestGlobalStatic.requestAndSetAccessToken(
-                        accessToken -> {
-                            if (accessToken == null) {
-                                logNullAccessToken();
-                                return;
-                            }
-
-                            final GroupShareLoadabilityRequest gslr = new GroupShareLoadabilityRequest(
-                                    accessToken,
-                                    statusToCheck,  // The server only distinguishes between sent or received statuses
-                                    // during a decline-check; the specific value is irrelevant.
-                                    xmppMessageBody.getContactAndGroupNumberPairs()
-                            );
-
-                            HttpOperations.post(
-                                    HttpOperations.URI_CHECK_SHARE_UNLOADABLE,
-                                    gslr,
-                                    MainActivity.this,
-                                    response -> {
-                                        List<ContactAndGroupNumberPair> returnedContactAndGroupNumberPairs =
-                                                GeneralUtils.fromJson(
-                                                        response,
-                                                        UnloadableGroupSharesResponse.class
-                                                ).getContactAndGroupNumberPairs();
-
-                                        if (returnedContactAndGroupNumberPairs.isEmpty()) {
-                                            logReturnListEmpty(UnloadableGroupSharesResponse.class);
-                                            return;
-                                        }
-
-                                        // Remove any existing references to any matching object.
-
-                                        final List<GroupShare> removedGroupShares = Alerts.safeRemoveGroupShares(
-                                                returnedContactAndGroupNumberPairs
-                                        );
-
-                                        alertsTab.removeGroupShareAndUpdateDisplay(removedGroupShares);
-
-                                        if (Alerts.isActionableGroupShare(statusToCheck)) {
-                                            setAlertsTabTitle();
-                                        }
-                                    },
-                                    error -> HttpOperations.handleOnErrorResponseAfterReceivedXmppMessage(
-                                            error,
-                                            MainActivity.this
-                                    )
-                            );
-                        },
-                        MainActivity.this,
-                        null,
-                        false
-                );
-
-                return;
-            }
-            else {
-                return;
             }
+        }
+    };
 
-            // If the if-else statement has not returned from this method then assume that the intent's action requires
-            // a standard request to check the loadability of the group-share.
-
-            xmppMessageBody = IntentHandler.getIntentExtra(intent);
+    // Receive the group-share changes pushed by the XMPP server from creation until destruction, so that no change is
+    // missed while this activity is stopped. Each change is merged with any other recent changes before the
+    // loadability of the group-shares is checked.
+    private BroadcastReceiver xmppBroadcastReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            final XMPPMessageBody xmppMessageBody = IntentHandler.getIntentExtra(intent);
             if (xmppMessageBody == null) {
                 return;
             }
 
-            RequestGlobalStatic.requestAndSetAccessToken(
-                    accessToken -> {
-                        if (accessToken == null) {
-                            logNullAccessToken();
-                            return;
-                        }
-
-                        final GroupShareLoadabilityRequest gslr = new GroupShareLoadabilityRequest(
-                                accessToken,
-                                statusToCheck,
-                                xmppMessageBody.getContactAndGroupNumberPairs()
-                        );
-
-                        HttpOperations.post(
-                                HttpOperations.URI_CHECK_SHARE_LOADABLE,
-                                gslr,
-                                MainActivity.this,
-                                response -> {
-                                    List<GroupShare> returnedGroupShares = GeneralUtils.fromJson(
-                                            response,
-                                            LoadableGroupSharesResponse.class
-                                    ).getGroupShares();
-
-                                    if (returnedGroupShares.isEmpty()) {
-                                        logReturnListEmpty(LoadableGroupSharesResponse.class);
-                                        return;
-                                    }
-
-                                    // Update any existing references to any matching object.
-                                    List<GroupShare> storedGroupShares = Alerts.storeStatically(returnedGroupShares);
-
-                                    // Remove and prepend new item(s) to the display.
-                                    alertsTab.prependGroupShareAndUpdateDisplay(storedGroupShares);
-
-                                    if (Alerts.isActionableGroupShare(statusToCheck)) {
-                                        setAlertsTabTitle();
-                                    }
-                                },
-                                error -> HttpOperations.handleOnErrorResponseAfterReceivedXmppMessage(
-                                        error,
-                                        MainActivity.this
-                                )
-                        );
-                    },
-                    MainActivity.this,
-                    null,
-                    false
-            );
+            groupShareDeltaSync.onChangePushed(xmppMessageBody);
         }
     };
 
@@ -308,6 +278,23 @@ public class MainActivity extends BaseMainActivity {
 //        mTabLayout.addTab(mTabLayout.newTab().setCustomView(view1));
     }
 
+    /**
+     * Display the objects which are currently stored in each tab which has been created.
+     */
+    private void resetTabs() {
+        if (alertsTab != null) {
+            alertsTab.safeAdapterReset();
+        }
+
+        if (groupsTab != null) {
+            groupsTab.safeAdapterReset();
+        }
+
+        if (contactsTab != null) {
+            contactsTab.safeAdapterReset();
+        }
+    }
+
     @Override
     public void onNetworkAvailable(boolean isFirstOnNetworkAvailable) {
         // Do nothing since this is handled for each fragment.
@@ -326,6 +313,10 @@ public class MainActivity extends BaseMainActivity {
         if (!SharedPreferencesHandler.isUserSignedIn(MainActivity.this)) {
             // Ensure that all contact data is removed.
             SharedPreferencesHandler.removeAllContactData(MainActivity.this);
+            RequestGlobalStatic.deleteSignInSnapshot(MainActivity.this);
+            GroupKeyCache.getInstance().clear();
+            DecryptedMessageCache.getInstance().clear();
+            AccessTokenManager.clear();
 
             // Start the sign-in activity.
             Intent myIntent = new Intent(MainActivity.this, SignInActivity.class);
@@ -379,6 +370,19 @@ public class MainActivity extends BaseMainActivity {
                 loadingDialog,
                 false
         );
+
+        // Load the objects displayed by each tab together before the tabs request them individually.
+        RequestGlobalStatic.requestSignInLoads(MainActivity.this, this::resetTabs);
+
+        localBroadcastManager = LocalBroadcastManager.getInstance(this);
+
+        IntentFilter xmppIntentFilter = new IntentFilter();
+        xmppIntentFilter.addAction(XMPPMessageBody.Subject.GROUP_REQUEST_SUBMITTED.get());
+        xmppIntentFilter.addAction(XMPPMessageBody.Subject.GROUP_REQUEST_ACCEPTED.get());
+        xmppIntentFilter.addAction(XMPPMessageBody.Subject.GROUP_REQUEST_FAILED.get());
+        xmppIntentFilter.addAction(XMPPMessageBody.Subject.GROUP_REQUEST_DECLINED.get());
+
+        localBroadcastManager.registerReceiver(xmppBroadcastReceiver, xmppIntentFilter);
     }
 
     @Override
@@ -392,12 +396,11 @@ public class MainActivity extends BaseMainActivity {
         IntentFilter intentFilter = new IntentFilter();
         intentFilter.addAction(UPDATE_ALERTS_TAB_ACTION);
         intentFilter.addAction(UPDATE_GROUPS_TAB_ACTION);
-        intentFilter.addAction(XMPPMessageBody.Subject.GROUP_REQUEST_SUBMITTED.get());
-        intentFilter.addAction(XMPPMessageBody.Subject.GROUP_REQUEST_ACCEPTED.get());
-        intentFilter.addAction(XMPPMessageBody.Subject.GROUP_REQUEST_FAILED.get());
-        intentFilter.addAction(XMPPMessageBody.Subject.GROUP_REQUEST_DECLINED.get());
 
         localBroadcastManager.registerReceiver(broadcastReceiver, intentFilter);
+
+        // Check any changes pushed while this activity was stopped.
+        groupShareDeltaSync.resume();
     }
 
     @Override
@@ -407,6 +410,19 @@ public class MainActivity extends BaseMainActivity {
         if (localBroadcastManager != null && broadcastReceiver != null) {
             localBroadcastManager.unregisterReceiver(broadcastReceiver);
         }
+
+        // Changes pushed while this activity is stopped are still received, but are not checked until it is started.
+        groupShareDeltaSync.pause();
+    }
+
+    @Override
+    protected void onDestroy() {
+        // The receiver is not registered if the user was not signed in when this activity was created.
+        if (localBroadcastManager != null && xmppBroadcastReceiver != null) {
+            localBroadcastManager.unregisterReceiver(xmppBroadcastReceiver);
+        }
+
+        super.onDestroy();
     }
 
     /**
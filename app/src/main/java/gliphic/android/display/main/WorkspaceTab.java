@@ -38,10 +38,15 @@ import gliphic.android.display.libraries.AlertDialogs;
 import gliphic.android.display.libraries.LoadingDialog;
 import gliphic.android.display.libraries.RecyclerViewSetup;
 import gliphic.android.exceptions.GroupKeyException;
+import gliphic.android.operation.DecryptedMessageCache;
+import gliphic.android.operation.GroupKeyCache;
 import gliphic.android.operation.PublishedText;
+import gliphic.android.operation.PublishedTextBatchDecryptor;
 import gliphic.android.exceptions.PublishedTextException;
 import gliphic.android.operation.misc.ContactGroupAssociation;
 import gliphic.android.operation.misc.Log;
+import gliphic.android.operation.misc.Trace;
+import gliphic.android.operation.server_interaction.http_server.HttpMetrics;
 import gliphic.android.operation.server_interaction.http_server.HttpOperations;
 import gliphic.android.operation.server_interaction.http_server.RequestGlobalStatic;
 import gliphic.android.operation.storage_handlers.SharedPreferencesHandler;
@@ -57,7 +62,9 @@ import java.security.GeneralSecurityException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
@@ -105,6 +112,24 @@ public class WorkspaceTab extends BaseMainFragment {
     private static final String TIME_OUT_EXPIRED_MSG =
             "The message time-out has expired.";
 
+    // The number of repeated published texts which were not decrypted separately during automatic decryption.
+    private static final AtomicLong savedDecryptRequestCount = new AtomicLong(0);
+
+    /**
+     * @return  The number of repeated published texts which were not sent to be decrypted separately during automatic
+     *          decryption, either by the browser extension or by this app.
+     */
+    public static long getSavedDecryptRequestCount() {
+        return savedDecryptRequestCount.get();
+    }
+
+    /**
+     * @param count     The number of repeated published texts which the browser extension did not send separately.
+     */
+    public static void addSavedDecryptRequests(long count) {
+        savedDecryptRequestCount.addAndGet(count);
+    }
+
     @Override
     public void onNetworkAvailable(boolean isFirstOnNetworkAvailable) {
         new Handler(Looper.getMainLooper()).post(
@@ -368,11 +393,12 @@ public class WorkspaceTab extends BaseMainFragment {
                             selectedGroup.getNumber()
                     );
 
+                    final HttpMetrics.Call getGroupKeyCall = HttpMetrics.start(HttpOperations.URI_GET_GROUP_KEY);
                     HttpOperations.post(
                             HttpOperations.URI_GET_GROUP_KEY,
-                            accessTokenAndGroupNumber,
+                            getGroupKeyCall.requestBody(accessTokenAndGroupNumber),
                             baseActivity2,
-                            response1 -> {
+                            getGroupKeyCall.onResponse(response1 -> {
                                 final BaseActivity baseActivity3 = (BaseActivity) getActivity();
                                 if (baseActivity3 == null) {
                                     callback.onReturn(false);
@@ -453,45 +479,33 @@ public class WorkspaceTab extends BaseMainFragment {
                                     return;
                                 }
 
+                                final HttpMetrics.Call textEncryptCall =
+                                        HttpMetrics.start(HttpOperations.URI_TEXT_ENCRYPT);
                                 HttpOperations.post(
                                         HttpOperations.URI_TEXT_ENCRYPT,
-                                        textEncryptRequest,
+                                        textEncryptCall.requestBody(textEncryptRequest),
                                         baseActivity3,
-                                        response2 -> {
+                                        textEncryptCall.onResponse(response2 -> {
                                             final BaseActivity baseActivity4 = (BaseActivity) getActivity();
                                             if (baseActivity4 == null) {
                                                 callback.onReturn(false);
                                                 return;
                                             }
 
-                                            try {
-                                                final TextEncryptResponse textEncryptResponse = GeneralUtils.fromJson(
-                                                        response2,
-                                                        TextEncryptResponse.class
-                                                );
+                                            final TextEncryptResponse textEncryptResponse = GeneralUtils.fromJson(
+                                                    response2,
+                                                    TextEncryptResponse.class
+                                            );
 
-                                                pt.constructPublishedText(
-                                                        Base64.decode(textEncryptResponse.getEncMsg())
-                                                );
-                                            }
-                                            catch (IOException e) {
-                                                loadingDialog.dismissDialog();
-                                                AlertDialogs.internalErrorDialog(
-                                                        baseActivity4,
-                                                        false,
-                                                        GENERIC_ENCRYPT_FAILED_MSG
-                                                );
-                                                callback.onReturn(false);
-                                                return;
-                                            }
+                                            pt.constructPublishedText(Base64.decode(textEncryptResponse.getEncMsg()));
 
                                             editTextDecrypt.setText(pt.getPublishedText());
 
                                             callback.onReturn(true);
 
                                             loadingDialog.dismissDialog();
-                                        },
-                                        error -> {
+                                        }),
+                                        textEncryptCall.onErrorResponse(error -> {
                                             callback.onReturn(false);
 
                                             final BaseActivity baseActivity5 = (BaseActivity) getActivity();
@@ -502,10 +516,10 @@ public class WorkspaceTab extends BaseMainFragment {
                                             loadingDialog.dismissDialog();
 
                                             HttpOperations.handleEncryptOnErrorResponse(error, baseActivity5);
-                                        }
+                                        })
                                 );
-                            },
-                            error -> {
+                            }),
+                            getGroupKeyCall.onErrorResponse(error -> {
                                 callback.onReturn(false);
 
                                 selectedGroup.setNullKey();
@@ -518,7 +532,7 @@ public class WorkspaceTab extends BaseMainFragment {
                                 loadingDialog.dismissDialog();
 
                                 HttpOperations.handleGetGroupKeyOnErrorResponse(error, baseActivity6);
-                            }
+                            })
                     );
                 },
                 baseMainActivity,
@@ -541,7 +555,8 @@ public class WorkspaceTab extends BaseMainFragment {
                                    @NonNull final EditText editTextEncrypt,
                                    @NonNull final EditText editTextDecrypt) {
 
-        decryptText(
+        tracedDecryptText(
+                "decrypt text",
                 activity,
                 callback,
                 null,
@@ -574,7 +589,8 @@ public class WorkspaceTab extends BaseMainFragment {
                                    @NonNull final DecryptedJsonObject decryptedJsonObject,
                                    @NonNull final List<String> autoDecryptPublishedTexts) {
 
-        decryptText(
+        tracedDecryptText(
+                "auto-decrypt texts",
                 activity,
                 callback,
                 decryptedJsonObject,
@@ -584,6 +600,38 @@ public class WorkspaceTab extends BaseMainFragment {
         );
     }
 
+    /**
+     * Decrypt text(s) as a single traced user action, where the trace ends immediately before the callback returns.
+     */
+    private static void tracedDecryptText(@NonNull  final String traceName,
+                                          @NonNull  final BaseActivity activity,
+                                          @NonNull  final BooleanCallback callback,
+                                          @Nullable final DecryptedJsonObject decryptedJsonObject,
+                                          @Nullable final List<String> autoDecryptPublishedTexts,
+                                          @Nullable final EditText editTextEncrypt,
+                                          @Nullable final EditText editTextDecrypt) {
+
+        final Trace.Span trace        = Trace.startTrace(traceName);
+        final Trace.Span previousSpan = Trace.enter(trace);
+
+        try {
+            decryptText(
+                    activity,
+                    isSuccessful -> {
+                        trace.end();
+                        callback.onReturn(isSuccessful);
+                    },
+                    decryptedJsonObject,
+                    autoDecryptPublishedTexts,
+                    editTextEncrypt,
+                    editTextDecrypt
+            );
+        }
+        finally {
+            Trace.exit(previousSpan);
+        }
+    }
+
     private static void decryptText(@NonNull  final BaseActivity activity,
                                     @NonNull  final BooleanCallback callback,
                                     @Nullable final DecryptedJsonObject decryptedJsonObject,
@@ -624,7 +672,13 @@ public class WorkspaceTab extends BaseMainFragment {
                         publishedTextInputs = Collections.singletonList(editTextDecrypt.getText().toString());
                     }
                     else {
-                        publishedTextInputs = new ArrayList<>(autoDecryptPublishedTexts);
+                        // Decrypt each repeated published text once; the browser extension replaces every repeat
+                        // using the same decrypted message.
+                        publishedTextInputs = new ArrayList<>(new LinkedHashSet<>(autoDecryptPublishedTexts));
+
+                        savedDecryptRequestCount.addAndGet(
+                                autoDecryptPublishedTexts.size() - publishedTextInputs.size()
+                        );
                     }
 
                     try {
@@ -653,15 +707,22 @@ public class WorkspaceTab extends BaseMainFragment {
                             return;
                         }
 
+                        final HttpMetrics.Call loadGroupsFromIdsCall =
+                                HttpMetrics.start(HttpOperations.URI_LOAD_GROUPS_FROM_IDS);
                         HttpOperations.post(
                                 HttpOperations.URI_LOAD_GROUPS_FROM_IDS,
-                                loadGroupsFromIdsRequest,
+                                loadGroupsFromIdsCall.requestBody(loadGroupsFromIdsRequest),
                                 activity,
-                                response1 -> {
+                                loadGroupsFromIdsCall.onResponse(response1 -> {
+                                    final Trace.Span jsonSpan1 = Trace.startSpan(
+                                            "parse LoadGroupsFromIdsResponse",
+                                            Trace.CATEGORY_JSON
+                                    );
                                     final LoadGroupsFromIdsResponse lgfir = GeneralUtils.fromJson(
                                             response1,
                                             LoadGroupsFromIdsResponse.class
                                     );
+                                    jsonSpan1.end();
 
                                     // Assume that only one LoadGroupObject is returned since only one group ID was
                                     // sent.
@@ -710,15 +771,24 @@ public class WorkspaceTab extends BaseMainFragment {
                                         return;
                                     }
 
+                                    final HttpMetrics.Call loadChosenContactsCall =
+                                            HttpMetrics.start(HttpOperations.URI_LOAD_CHOSEN_CONTACTS);
                                     HttpOperations.post(
                                             HttpOperations.URI_LOAD_CHOSEN_CONTACTS,
-                                            new LoadChosenContactsRequest(accessToken, groupContactsArray),
+                                            loadChosenContactsCall.requestBody(
+                                                    new LoadChosenContactsRequest(accessToken, groupContactsArray)
+                                            ),
                                             activity,
-                                            response2 -> {
+                                            loadChosenContactsCall.onResponse(response2 -> {
+                                                final Trace.Span jsonSpan2 = Trace.startSpan(
+                                                        "parse LoadChosenContactsResponse",
+                                                        Trace.CATEGORY_JSON
+                                                );
                                                 final LoadChosenContactsResponse lccr = GeneralUtils.fromJson(
                                                         response2,
                                                         LoadChosenContactsResponse.class
                                                 );
+                                                jsonSpan2.end();
 
                                                 List<LoadContactObject> targetContacts = new ArrayList<>();
 
@@ -738,8 +808,8 @@ public class WorkspaceTab extends BaseMainFragment {
                                                         dataEncryptionKey,
                                                         accessToken
                                                 );
-                                            },
-                                            error2 -> {
+                                            }),
+                                            loadChosenContactsCall.onErrorResponse(error2 -> {
                                                 if (displayFailures) {
                                                     // Do not display an error message since the group was successfully
                                                     // loaded from the ID but target contacts were unsuccessfully
@@ -769,10 +839,10 @@ public class WorkspaceTab extends BaseMainFragment {
                                                         dataEncryptionKey,
                                                         accessToken
                                                 );
-                                            }
+                                            })
                                     );
-                                },
-                                error1 -> {
+                                }),
+                                loadGroupsFromIdsCall.onErrorResponse(error1 -> {
                                     callback.onReturn(false);
 
                                     if (displayFailures) {
@@ -784,7 +854,7 @@ public class WorkspaceTab extends BaseMainFragment {
                                                 false
                                         );
                                     }
-                                }
+                                })
                         );
                     }
                 },
@@ -942,7 +1012,8 @@ public class WorkspaceTab extends BaseMainFragment {
         }
         else {
             List<PublishedText> publishedTexts = new ArrayList<>();
-            List<String> groupIdsBase64ToRequest = new ArrayList<>();
+            // Published texts encrypted with the same unknown group only require the group to be requested once.
+            LinkedHashSet<String> groupIdsBase64ToRequest = new LinkedHashSet<>();
 
             for (String pti : publishedTextInputs) {
                 try {
@@ -964,7 +1035,7 @@ public class WorkspaceTab extends BaseMainFragment {
             if (!groupIdsBase64ToRequest.isEmpty()) {
                 throw new UnknownGroupIdException(
                         "Cannot construct PublishedText object(s) with unknown group ID(s).",
-                        groupIdsBase64ToRequest
+                        new ArrayList<>(groupIdsBase64ToRequest)
                 );
             }
 
@@ -1023,15 +1094,18 @@ public class WorkspaceTab extends BaseMainFragment {
 
         TextDecryptRequest textDecryptRequest = new TextDecryptRequest(accessToken, textDecryptRequestObjects);
 
+        final HttpMetrics.Call textDecryptCall = HttpMetrics.start(HttpOperations.URI_TEXT_DECRYPT);
         HttpOperations.post(
                 HttpOperations.URI_TEXT_DECRYPT,
-                textDecryptRequest,
+                textDecryptCall.requestBody(textDecryptRequest),
                 activity,
-                response -> {
+                textDecryptCall.onResponse(response -> {
+                    final Trace.Span jsonSpan = Trace.startSpan("parse TextDecryptResponse", Trace.CATEGORY_JSON);
                     final TextDecryptResponse textDecryptResponse = GeneralUtils.fromJson(
                             response,
                             TextDecryptResponse.class
                     );
+                    jsonSpan.end();
 
                     if (displayFailures) {
                         // The server should return only one message response.
@@ -1109,7 +1183,9 @@ public class WorkspaceTab extends BaseMainFragment {
                                     return;
                                 }
 
+                                final Trace.Span uiSpan = Trace.startSpan("display plain text", Trace.CATEGORY_UI);
                                 editTextEncrypt.setText(new String(pt.getPlainText(), StandardCharsets.UTF_8));
+                                uiSpan.end();
 
                                 callback.onReturn(true);
 
@@ -1120,55 +1196,49 @@ public class WorkspaceTab extends BaseMainFragment {
                         }
                     }
                     else {
-                        // Create a temporary list which can have elements removed without affecting the original list.
-                        List<TextDecryptResponseObject> tempTextDecryptResponseObjects =
-                                new ArrayList<>(textDecryptResponse.getTextDecryptResponseObjects());
-
-                        // Assume that the list of published texts is not smaller than the list of response objects,
-                        // since some encrypted messages may fail to decrypt (currently these lists are the same size
-                        // since the server also sends back failed decryptions with a failed message status).
-                        for (PublishedText pt : publishedTexts) {
-                            TextDecryptResponseObject tdroProcessed = null;
-
-                            for (TextDecryptResponseObject tdro : tempTextDecryptResponseObjects) {
-                                // Assume that there are no duplicate published texts (there may be duplicate plain
-                                // texts) so no published text should have its members overwritten.
-                                if ( !tdro.getMessageStatus().equals(Vars.SUCCESS_200) ||
-                                     tdro.getGroupNumber() != pt.getGroup().getNumber() ||
-                                     !Arrays.equals(Base64.decode(tdro.getMessageIvString()), pt.getIv()) ||
-                                     !Arrays.equals(Base64.decode(tdro.getEncMsg()), pt.getTimeOutCipherText()) ) {
-
-                                    continue;
-                                }
+                        // The response object matching the published text at the same index, or null if none match
+                        // (the server also sends back failed decryptions with a failed message status).
+                        final List<TextDecryptResponseObject> matchedResponseObjects =
+                                PublishedTextBatchDecryptor.matchResponseObjects(
+                                        publishedTexts,
+                                        textDecryptResponse.getTextDecryptResponseObjects()
+                                );
 
-                                // The response object corresponding the the published text has been found.
+                        // Decrypt off the UI thread; published texts which fail to decrypt are silently ignored.
+                        PublishedTextBatchDecryptor.getDefault().decrypt(
+                                publishedTexts,
+                                matchedResponseObjects,
+                                dataEncryptionKey,
+                                isDecrypted -> new Handler(Looper.getMainLooper()).post(Trace.wrap(() -> {
+                                    final Trace.Span uiSpan = Trace.startSpan(
+                                            "store plain texts",
+                                            Trace.CATEGORY_UI
+                                    );
 
-                                try {
-                                    decryptRawCipherText(pt, tdro, dataEncryptionKey);
+                                    for (int i = 0; i < isDecrypted.length; i++) {
+                                        if (isDecrypted[i]) {
+                                            final PublishedText pt = publishedTexts.get(i);
+                                            final String plainText =
+                                                    new String(pt.getPlainText(), StandardCharsets.UTF_8);
 
-                                    decryptedJsonObject.add(
-                                            pt.getPublishedText(),
-                                            new String(pt.getPlainText(), StandardCharsets.UTF_8)
-                                    );
-                                }
-                                catch (InvalidCipherTextException | NullPointerException e) {
-                                    // Fail silently.
-                                }
+                                            decryptedJsonObject.add(pt.getPublishedText(), plainText);
 
-                                tdroProcessed = tdro;
-                                break;
-                            }
+                                            DecryptedMessageCache.getInstance().put(
+                                                    pt.getPublishedText(),
+                                                    plainText,
+                                                    pt.getTimeOut()
+                                            );
+                                        }
+                                    }
 
-                            if (tdroProcessed != null) {
-                                // Reduce the number of loop iterations for the next published text.
-                                tempTextDecryptResponseObjects.remove(tdroProcessed);
-                            }
-                        }
+                                    uiSpan.end();
 
-                        callback.onReturn(decryptedJsonObject.hasPlainText());
+                                    callback.onReturn(decryptedJsonObject.hasPlainText());
+                                }))
+                        );
                     }
-                },
-                error -> {
+                }),
+                textDecryptCall.onErrorResponse(error -> {
                     callback.onReturn(false);
 
                     if (displayFailures) {
@@ -1176,7 +1246,7 @@ public class WorkspaceTab extends BaseMainFragment {
 
                         HttpOperations.handleStandardRequestOnErrorResponse(error, activity, false);
                     }
-                }
+                })
         );
     }
 
@@ -1185,13 +1255,31 @@ public class WorkspaceTab extends BaseMainFragment {
                                              @NonNull byte[] dataEncryptionKey)
             throws InvalidCipherTextException, NullPointerException {
 
-        publishedText.decryptRawCipherText(
-                textDecryptResponseObject.getTimeOut(),
-                Base64.decode(textDecryptResponseObject.getDecMsg()),
-                Base64.decode(textDecryptResponseObject.getEncryptedGroupKeyString()),
-                Base64.decode(textDecryptResponseObject.getKeyIvString()),
-                dataEncryptionKey
-        );
+        final Trace.Span    cryptoSpan    = Trace.startSpan("decrypt published text", Trace.CATEGORY_CRYPTO);
+        final GroupKeyCache groupKeyCache = GroupKeyCache.getInstance();
+
+        try {
+            final byte[] groupKey = groupKeyCache.unwrap(
+                    textDecryptResponseObject.getGroupNumber(),
+                    Base64.decode(textDecryptResponseObject.getEncryptedGroupKeyString()),
+                    Base64.decode(textDecryptResponseObject.getKeyIvString()),
+                    dataEncryptionKey
+            );
+
+            try {
+                publishedText.decryptRawCipherText(
+                        textDecryptResponseObject.getTimeOut(),
+                        Base64.decode(textDecryptResponseObject.getDecMsg()),
+                        groupKey
+                );
+            }
+            finally {
+                groupKeyCache.release(groupKey);
+            }
+        }
+        finally {
+            cryptoSpan.end();
+        }
     }
 
     private static void handleGenericDecryptFailed(@NonNull BaseActivity activity,
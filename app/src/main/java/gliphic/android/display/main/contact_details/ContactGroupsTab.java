@@ -180,12 +180,7 @@ public class ContactGroupsTab extends BaseMainFragment {
         // This is done by not deactivating clickable views here and (re)activating them when the response is received.
 
         RequestGlobalStatic.requestAndSetKnownGroups(
-                (commonGroups, knownGroupsRequestInProgress) -> {
-                    if (knownGroupsRequestInProgress) {
-                        handleRequestCleanup(moreContactsProgressBar);
-                        return;
-                    }
-
+                commonGroups -> {
                     // Initialise an adapter if one does not already exist.
                     if (commonGroupsAdapter == null) {
                         commonGroupsAdapter = new GroupsAdapter(commonGroups);
@@ -28,6 +28,7 @@ import gliphic.android.display.libraries.Views;
 import gliphic.android.display.libraries.LoadingDialog;
 import gliphic.android.operation.Contact;
 import gliphic.android.exceptions.ContactException;
+import gliphic.android.operation.server_interaction.http_server.HttpMetrics;
 import gliphic.android.operation.server_interaction.http_server.HttpOperations;
 import gliphic.android.operation.server_interaction.http_server.RequestGlobalStatic;
 
@@ -131,11 +132,12 @@ public class ContactProfileTab extends BaseMainFragment {
                                 viewedContact.getNumber()
                         );
 
+                        final HttpMetrics.Call call = HttpMetrics.start(url);
                         HttpOperations.post(
                                 url,
-                                atacn,
+                                call.requestBody(atacn),
                                 baseActivity2,
-                                response -> {
+                                call.onResponse(response -> {
                                     final BaseActivity baseActivity3 = (BaseActivity) getActivity();
                                     if (baseActivity3 == null) {
                                         return;
@@ -191,8 +193,8 @@ public class ContactProfileTab extends BaseMainFragment {
                                     // This must be called after reactivating clickable views so that certain views
                                     // can be disabled.
                                     configureButtons(viewedContact.isKnownContact());
-                                },
-                                error -> {
+                                }),
+                                call.onErrorResponse(error -> {
                                     final BaseActivity baseActivity4 = (BaseActivity) getActivity();
                                     if (baseActivity4 == null) {
                                         return;
@@ -207,7 +209,7 @@ public class ContactProfileTab extends BaseMainFragment {
                                     );
 
                                     baseActivity4.activateClickableViews();
-                                }
+                                })
                         );
                     },
                     baseActivity1,
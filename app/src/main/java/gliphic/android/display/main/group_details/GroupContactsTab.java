@@ -237,13 +237,7 @@ public class GroupContactsTab extends BaseMainFragment {
         // This is done by not deactivating clickable views here and (re)activating them when the response is received.
 
         RequestGlobalStatic.requestAndSetTargetContacts(
-                (targetContacts, targetContactsRequestInProgress) -> {
-
-                    if (targetContactsRequestInProgress) {
-                        handleRequestCleanup(moreContactsProgressBar);
-                        return;
-                    }
-
+                targetContacts -> {
                     // Initialise an adapter if one does not already exist.
                     if (commonContactsAdapter == null) {
                         commonContactsAdapter = new ContactsAdapter(
@@ -34,6 +34,7 @@ import gliphic.android.display.abstract_views.BaseMainFragment;
 import gliphic.android.display.pictures.DisplayPicturesActivity;
 import gliphic.android.operation.Group;
 import gliphic.android.exceptions.GroupException;
+import gliphic.android.operation.server_interaction.http_server.HttpMetrics;
 import gliphic.android.operation.server_interaction.http_server.HttpOperations;
 import gliphic.android.operation.server_interaction.http_server.RequestGlobalStatic;
 
@@ -242,11 +243,13 @@ public class GroupSettingsTab extends BaseMainFragment {
                                         newName
                                 );
 
+                                final HttpMetrics.Call setGroupNameCall =
+                                        HttpMetrics.start(HttpOperations.URI_SET_GROUP_NAME);
                                 HttpOperations.post(
                                         HttpOperations.URI_SET_GROUP_NAME,
-                                        setGroupString,
+                                        setGroupNameCall.requestBody(setGroupString),
                                         baseActivity2,
-                                        response -> {
+                                        setGroupNameCall.onResponse(response -> {
                                             final BaseActivity baseActivity3 = (BaseActivity) getActivity();
                                             if (baseActivity3 == null) {
                                                 return;
@@ -275,8 +278,8 @@ public class GroupSettingsTab extends BaseMainFragment {
                                             AlertDialogs.setGroupNameDialog((BaseActivity) getActivity());
 
                                             baseActivity3.activateClickableViews();
-                                        },
-                                        error -> {
+                                        }),
+                                        setGroupNameCall.onErrorResponse(error -> {
                                             final BaseActivity baseActivity4 = (BaseActivity) getActivity();
                                             if (baseActivity4 == null) {
                                                 return;
@@ -289,7 +292,7 @@ public class GroupSettingsTab extends BaseMainFragment {
                                             editTextGroupName.setText(oldName);
 
                                             baseActivity4.activateClickableViews();
-                                        }
+                                        })
                                 );
                             },
                             baseActivity1,
@@ -386,11 +389,13 @@ public class GroupSettingsTab extends BaseMainFragment {
                                         newDesc
                                 );
 
+                                final HttpMetrics.Call setGroupDescriptionCall =
+                                        HttpMetrics.start(HttpOperations.URI_SET_GROUP_DESCRIPTION);
                                 HttpOperations.post(
                                         HttpOperations.URI_SET_GROUP_DESCRIPTION,
-                                        setGroupString,
+                                        setGroupDescriptionCall.requestBody(setGroupString),
                                         baseActivity2,
-                                        response -> {
+                                        setGroupDescriptionCall.onResponse(response -> {
                                             final BaseActivity baseActivity3 = (BaseActivity) getActivity();
                                             if (baseActivity3 == null) {
                                                 return;
@@ -422,8 +427,8 @@ public class GroupSettingsTab extends BaseMainFragment {
                                             AlertDialogs.setGroupDescriptionDialog(baseActivity3);
 
                                             baseActivity3.activateClickableViews();
-                                        },
-                                        error -> {
+                                        }),
+                                        setGroupDescriptionCall.onErrorResponse(error -> {
                                             final BaseActivity baseActivity4 = (BaseActivity) getActivity();
                                             if (baseActivity4 == null) {
                                                 return;
@@ -440,7 +445,7 @@ public class GroupSettingsTab extends BaseMainFragment {
                                             editTextGroupDesc.setText(oldDesc);
 
                                             baseActivity4.activateClickableViews();
-                                        }
+                                        })
                                 );
                             },
                             baseActivity1,
@@ -512,11 +517,13 @@ public class GroupSettingsTab extends BaseMainFragment {
                                         viewedGroup.getNumber()
                                 );
 
+                                final HttpMetrics.Call leaveGroupCall =
+                                        HttpMetrics.start(HttpOperations.URI_LEAVE_GROUP);
                                 HttpOperations.post(
                                         HttpOperations.URI_LEAVE_GROUP,
-                                        atagn,
+                                        leaveGroupCall.requestBody(atagn),
                                         baseActivity2,
-                                        response -> {
+                                        leaveGroupCall.onResponse(response -> {
                                             viewedGroup.removeGroup();
 
                                             final BaseActivity baseActivity3 = (BaseActivity) getActivity();
@@ -529,8 +536,8 @@ public class GroupSettingsTab extends BaseMainFragment {
                                             // Finishing the activity means there is no need to reactivate clickable
                                             // views.
                                             baseActivity3.finish();
-                                        },
-                                        error -> {
+                                        }),
+                                        leaveGroupCall.onErrorResponse(error -> {
                                             final BaseActivity baseActivity4 = (BaseActivity) getActivity();
                                             if (baseActivity4 == null) {
                                                 return;
@@ -545,7 +552,7 @@ public class GroupSettingsTab extends BaseMainFragment {
                                             );
 
                                             baseActivity4.activateClickableViews();
-                                        }
+                                        })
                                 );
                             },
                             baseActivity1,
@@ -28,6 +28,7 @@ import gliphic.android.exceptions.ContactException;
 import gliphic.android.exceptions.GroupException;
 import gliphic.android.operation.ObjectImage;
 import gliphic.android.operation.misc.ContactGroupAssociation;
+import gliphic.android.operation.server_interaction.http_server.HttpMetrics;
 import gliphic.android.operation.server_interaction.http_server.HttpOperations;
 import gliphic.android.operation.server_interaction.http_server.RequestGlobalStatic;
 import libraries.GeneralUtils;
@@ -98,11 +99,13 @@ public class SinglePictureActivity extends DisplayPicturesActivity {
                                         imageString
                                 );
 
+                                final HttpMetrics.Call setContactImageCall =
+                                        HttpMetrics.start(HttpOperations.URI_SET_CONTACT_IMAGE);
                                 HttpOperations.post(
                                         HttpOperations.URI_SET_CONTACT_IMAGE,
-                                        accessTokenAndString,
+                                        setContactImageCall.requestBody(accessTokenAndString),
                                         SinglePictureActivity.this,
-                                        response -> {
+                                        setContactImageCall.onResponse(response -> {
                                             loadingDialog.dismissDialog();
 
                                             final LoadContactObject loadContactObject = GeneralUtils.fromJson(
@@ -123,8 +126,8 @@ public class SinglePictureActivity extends DisplayPicturesActivity {
                                             }
 
                                             finishThisAndCallingActivity();
-                                        },
-                                        error -> {
+                                        }),
+                                        setContactImageCall.onErrorResponse(error -> {
                                             loadingDialog.dismissDialog();
 
                                             HttpOperations.handleStandardRequestOnErrorResponse(
@@ -132,7 +135,7 @@ public class SinglePictureActivity extends DisplayPicturesActivity {
                                                     SinglePictureActivity.this,
                                                     false
                                             );
-                                        }
+                                        })
                                 );
                             }
                             else if (objectView.equals(ObjectView.GROUP_VIEW)) {
@@ -142,11 +145,13 @@ public class SinglePictureActivity extends DisplayPicturesActivity {
                                         imageString
                                 );
 
+                                final HttpMetrics.Call setGroupImageCall =
+                                        HttpMetrics.start(HttpOperations.URI_SET_GROUP_IMAGE);
                                 HttpOperations.post(
                                         HttpOperations.URI_SET_GROUP_IMAGE,
-                                        setGroupString,
+                                        setGroupImageCall.requestBody(setGroupString),
                                         SinglePictureActivity.this,
-                                        response -> {
+                                        setGroupImageCall.onResponse(response -> {
                                             loadingDialog.dismissDialog();
 
                                             final LoadGroupObject loadGroupObject = GeneralUtils.fromJson(
@@ -167,15 +172,15 @@ public class SinglePictureActivity extends DisplayPicturesActivity {
                                             }
 
                                             finishThisAndCallingActivity();
-                                        },
-                                        error -> {
+                                        }),
+                                        setGroupImageCall.onErrorResponse(error -> {
                                             loadingDialog.dismissDialog();
 
                                             HttpOperations.handleSetGroupDataOnErrorResponse(
                                                     error,
                                                     SinglePictureActivity.this
                                             );
-                                        }
+                                        })
                                 );
                             }
                             else {
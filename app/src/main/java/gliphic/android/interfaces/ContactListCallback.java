@@ -15,14 +15,12 @@ import gliphic.android.operation.Contact;
 import java.util.List;
 
 /**
- * An interface allowing a list of contacts and a boolean request status for a single HTTPS request type to be returned
- * from a method which contains another interface.
+ * An interface allowing a list of contacts to be returned from a method which contains another interface.
  *
  * One example would be returning an object from a StringRequest or JSONObject request's overridden onResponse method
- * when using Volley to send a HTTP request, such that the calling method takes no action when a server request is
- * already in progress (assuming that no action is taken in the called method when a request is already in progress).
+ * when using Volley to send a HTTP request.
  */
 
-public interface ContactListAndStatusCallback {
-    void onReturn(final List<Contact> contactList, final boolean requestInProgress);
+public interface ContactListCallback {
+    void onReturn(final List<Contact> contactList);
 }
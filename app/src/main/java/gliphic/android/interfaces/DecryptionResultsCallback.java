@@ -0,0 +1,23 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.interfaces;
+
+/**
+ * An interface allowing the results of decrypting a batch of published texts to be returned from a method which
+ * decrypts the published texts asynchronously.
+ *
+ * The element at each index of the returned array is true if and only if the published text at the same index of the
+ * input list was successfully decrypted.
+ */
+
+public interface DecryptionResultsCallback {
+    void onReturn(final boolean[] isDecrypted);
+}
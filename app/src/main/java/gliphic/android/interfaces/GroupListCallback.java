@@ -22,5 +22,5 @@ import java.util.List;
  */
 
 public interface GroupListCallback {
-    void onReturn(final List<Group> groupList, final boolean requestInProgress);
+    void onReturn(final List<Group> groupList);
 }
@@ -21,6 +21,6 @@ import pojo.account.GroupShare;
  * when using Volley to send a HTTP request.
  */
 
-public interface GroupShareListAndStatusCallback {
-    void onReturn(final List<GroupShare> groupShareList, final boolean requestInProgress);
+public interface GroupShareListCallback {
+    void onReturn(final List<GroupShare> groupShareList);
 }
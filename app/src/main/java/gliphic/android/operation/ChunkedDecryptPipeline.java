@@ -0,0 +1,225 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import libraries.Vars;
+
+/**
+ * Split published texts received from the automatic-decrypt browser extension into bounded chunks and decrypt a
+ * limited number of chunks at the same time.
+ *
+ * Decrypting every published text on a page in a single text-decrypt request would exceed the maximum number of
+ * messages accepted by the server for large pages, and no message could be displayed until the whole request had
+ * completed. Instead each chunk is decrypted (and its results can be displayed) independently, and chunks are started
+ * in the order in which they were submitted as earlier chunks complete.
+ *
+ * Published texts which are visible to the user are always started before published texts which are not (deferred
+ * published texts). Submitting a deferred published text again as visible, e.g. when the user scrolls to it, moves it
+ * out of the deferred queue unless it has already been started.
+ *
+ * Instances are not thread-safe and must only be used from the main thread.
+ */
+public class ChunkedDecryptPipeline {
+
+    public static final int DEFAULT_CHUNK_SIZE           = 25;
+    public static final int DEFAULT_MAX_CHUNKS_IN_FLIGHT = 3;
+
+    /**
+     * Decrypts a single chunk of published texts.
+     */
+    public interface ChunkDecryptor {
+        /**
+         * @param publishedTexts    The published texts in the chunk.
+         * @param onComplete        Must be run exactly once when the chunk has been decrypted, whether or not the
+         *                          decryption was successful.
+         */
+        void decrypt(@NonNull List<String> publishedTexts, @NonNull Runnable onComplete);
+    }
+
+    private static class Chunk {
+        private final List<String>   publishedTexts;
+        private final ChunkDecryptor chunkDecryptor;
+
+        private Chunk(@NonNull List<String> publishedTexts, @NonNull ChunkDecryptor chunkDecryptor) {
+            this.publishedTexts = publishedTexts;
+            this.chunkDecryptor = chunkDecryptor;
+        }
+    }
+
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+
+    private final ArrayDeque<Chunk> visibleChunks  = new ArrayDeque<>();
+    private final ArrayDeque<Chunk> deferredChunks = new ArrayDeque<>();
+    private final List<Chunk>       inFlightChunks = new ArrayList<>();
+
+    public ChunkedDecryptPipeline() {
+        this(DEFAULT_CHUNK_SIZE, DEFAULT_MAX_CHUNKS_IN_FLIGHT);
+    }
+
+    /**
+     * @param chunkSize             The maximum number of published texts in a chunk. This is limited to the maximum
+     *                              number of messages which the server accepts in a single request.
+     * @param maxChunksInFlight     The maximum number of chunks to decrypt at the same time.
+     */
+    public ChunkedDecryptPipeline(int chunkSize, int maxChunksInFlight) {
+        if (chunkSize < 1 || maxChunksInFlight < 1) {
+            String s = "Invalid chunk size %d or maximum number of chunks in flight %d.";
+            throw new IllegalArgumentException(String.format(s, chunkSize, maxChunksInFlight));
+        }
+
+        this.chunkSize         = Math.min(chunkSize, Vars.ENCRYPTED_MSGS_MAX);
+        this.maxChunksInFlight = maxChunksInFlight;
+    }
+
+    /**
+     * Submit published texts which are visible to the user.
+     *
+     * @see #submit(List, boolean, ChunkDecryptor)
+     */
+    public void submit(@NonNull List<String> publishedTexts, @NonNull ChunkDecryptor chunkDecryptor) {
+        submit(publishedTexts, true, chunkDecryptor);
+    }
+
+    /**
+     * Split the given published texts into chunks, queue the chunks after any chunks already queued with the same
+     * visibility, and start decrypting as many queued chunks as the in-flight limit allows.
+     *
+     * Visible published texts which are already queued as deferred for the same decryptor are removed from the
+     * deferred queue, and visible published texts which are already being decrypted for the same decryptor are not
+     * queued again.
+     *
+     * @param publishedTexts    The published texts to decrypt.
+     * @param isVisible         True iff the published texts are visible to the user.
+     * @param chunkDecryptor    The decryptor used for every chunk of the given published texts.
+     */
+    public void submit(@NonNull List<String> publishedTexts,
+                       boolean isVisible,
+                       @NonNull ChunkDecryptor chunkDecryptor) {
+
+        List<String> publishedTextsToQueue = publishedTexts;
+
+        if (isVisible) {
+            final Set<String> unstartedTexts = new HashSet<>(publishedTexts);
+
+            removeFromChunks(deferredChunks, chunkDecryptor, unstartedTexts);
+
+            for (Chunk chunk : inFlightChunks) {
+                if (chunk.chunkDecryptor == chunkDecryptor) {
+                    unstartedTexts.removeAll(chunk.publishedTexts);
+                }
+            }
+
+            if (unstartedTexts.size() != publishedTexts.size()) {
+                publishedTextsToQueue = new ArrayList<>();
+                for (String publishedText : publishedTexts) {
+                    if (unstartedTexts.contains(publishedText)) {
+                        publishedTextsToQueue.add(publishedText);
+                    }
+                }
+            }
+        }
+
+        final ArrayDeque<Chunk> chunks = isVisible ? visibleChunks : deferredChunks;
+
+        for (int i = 0; i < publishedTextsToQueue.size(); i += chunkSize) {
+            final int endIndex = Math.min(i + chunkSize, publishedTextsToQueue.size());
+
+            chunks.add(new Chunk(new ArrayList<>(publishedTextsToQueue.subList(i, endIndex)), chunkDecryptor));
+        }
+
+        startPendingChunks();
+    }
+
+    /**
+     * Remove every queued chunk which has not been started. Chunks which have already been started are not affected.
+     */
+    public void cancelPending() {
+        visibleChunks.clear();
+        deferredChunks.clear();
+    }
+
+    /**
+     * Remove every queued chunk for the given decryptor which has not been started, e.g. when the page which the
+     * published texts were found on has been closed. Chunks which have already been started are not affected.
+     *
+     * @param chunkDecryptor    The decryptor of the chunks to remove.
+     */
+    public void cancelPending(@NonNull ChunkDecryptor chunkDecryptor) {
+        removeChunks(visibleChunks, chunkDecryptor);
+        removeChunks(deferredChunks, chunkDecryptor);
+    }
+
+    public int getPendingChunkCount() {
+        return visibleChunks.size() + deferredChunks.size();
+    }
+
+    public int getChunksInFlight() {
+        return inFlightChunks.size();
+    }
+
+    private static void removeChunks(@NonNull ArrayDeque<Chunk> chunks, @NonNull ChunkDecryptor chunkDecryptor) {
+        final Iterator<Chunk> iterator = chunks.iterator();
+
+        while (iterator.hasNext()) {
+            if (iterator.next().chunkDecryptor == chunkDecryptor) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static void removeFromChunks(@NonNull ArrayDeque<Chunk> chunks,
+                                         @NonNull ChunkDecryptor chunkDecryptor,
+                                         @NonNull Set<String> publishedTexts) {
+
+        final Iterator<Chunk> iterator = chunks.iterator();
+
+        while (iterator.hasNext()) {
+            final Chunk chunk = iterator.next();
+
+            if (chunk.chunkDecryptor == chunkDecryptor) {
+                chunk.publishedTexts.removeAll(publishedTexts);
+
+                if (chunk.publishedTexts.isEmpty()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void startPendingChunks() {
+        while (inFlightChunks.size() < maxChunksInFlight && getPendingChunkCount() != 0) {
+            final Chunk chunk = visibleChunks.isEmpty() ? deferredChunks.poll() : visibleChunks.poll();
+
+            inFlightChunks.add(chunk);
+
+            final boolean[] isComplete = {false};
+            chunk.chunkDecryptor.decrypt(chunk.publishedTexts, () -> {
+                // Ignore any repeated completion so that the in-flight count cannot be decremented twice.
+                if (isComplete[0]) {
+                    return;
+                }
+                isComplete[0] = true;
+
+                inFlightChunks.remove(chunk);
+                startPendingChunks();
+            });
+        }
+    }
+}
@@ -13,18 +13,19 @@ package gliphic.android.operation;
 import gliphic.android.exceptions.ContactException;
 import gliphic.android.exceptions.ContactUniquenessException;
 import gliphic.android.exceptions.NullStaticVariableException;
+import gliphic.android.operation.misc.IndexedObjectStore;
 import gliphic.android.operation.misc.LoadContactObjectAndContact;
 
 import org.apache.commons.lang3.StringUtils;
 import org.bouncycastle.util.encoders.Base64;
 
 import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.RandomAccess;
 
 import androidx.annotation.NonNull;
 import libraries.GeneralUtils;
@@ -69,17 +70,22 @@ public class Contact {
     private static Contact currentContact = null;
 
     /**
-     * The list of all contacts known to the user.
+     * All contacts known to the user, indexed by contact number and ID and ordered by contact number.
      * Known contacts might not have any groups in common with the user.
      */
-    private static List<Contact> knownContacts = null;
+    private static ContactStore knownContacts = null;
 
 
     /**
-     * The list of all contacts who are members of at least one group known to the user,
-     * but are not added as known contacts.
+     * All contacts who are members of at least one group known to the user, but are not added as known contacts,
+     * indexed by contact number and ID and ordered by contact number.
      */
-    private static List<Contact> extendedContacts = null;
+    private static ContactStore extendedContacts = null;
+
+    /**
+     * A read-only view of all known contacts followed by all extended contacts.
+     */
+    private static final List<Contact> targetContactsView = new TargetContactsView();
 
     /**
      * This Comparator is supplied to the Collections.sort() method to sort a given contacts list based on each
@@ -110,6 +116,9 @@ public class Contact {
      * If both known and extended contacts lists are null, either because they have not been set yet or the application
      * has reset them to null, an exception is thrown.
      *
+     * The returned list is a read-only view of all known contacts (in contact number order) followed by all extended
+     * contacts (in contact number order), so it reflects any subsequent changes to either list without being copied.
+     *
      * @return                              The list of target contacts associated with this contact.
      * @throws NullStaticVariableException  Thrown when the known and extended contacts lists are null.
      */
@@ -117,17 +126,8 @@ public class Contact {
         if (knownContacts == null && extendedContacts == null) {
             throw new NullStaticVariableException("Known and extended contacts lists are null.");
         }
-        else if (extendedContacts == null) {
-            return knownContacts;
-        }
-        else if (knownContacts == null) {
-            return extendedContacts;
-        }
-        else {
-            Set<Contact> tempSet = new LinkedHashSet<>(knownContacts);
-            tempSet.addAll(extendedContacts);
-            return new ArrayList<>(tempSet);
-        }
+
+        return targetContactsView;
     }
 
     /**
@@ -136,12 +136,7 @@ public class Contact {
      * @return  The number of known and extended contacts cached by the application.
      */
     public static int getTargetContactsSize() {
-        try {
-            return getTargetContacts().size();
-        }
-        catch (NullStaticVariableException e) {
-            return 0;
-        }
+        return targetContactsView.size();
     }
 
     /**
@@ -158,7 +153,7 @@ public class Contact {
             throw new NullStaticVariableException("Known contacts list is null.");
         }
 
-        return knownContacts;
+        return knownContacts.asList();
     }
 
     /**
@@ -175,7 +170,7 @@ public class Contact {
             throw new NullStaticVariableException("Extended contacts list is null.");
         }
 
-        return extendedContacts;
+        return extendedContacts.asList();
     }
 
     /**
@@ -270,18 +265,18 @@ public class Contact {
         }
 
         if (knownContacts != null) {
-            for (Contact c: knownContacts) {
-                if (contactNumber == c.getNumber()) {
-                    return c;
-                }
+            final Contact contact = knownContacts.getFromNumber(contactNumber);
+
+            if (contact != null) {
+                return contact;
             }
         }
 
         if (extendedContacts != null) {
-            for (Contact c: extendedContacts) {
-                if (contactNumber == c.getNumber()) {
-                    return c;
-                }
+            final Contact contact = extendedContacts.getFromNumber(contactNumber);
+
+            if (contact != null) {
+                return contact;
             }
         }
 
@@ -305,18 +300,18 @@ public class Contact {
         }
 
         if (knownContacts != null) {
-            for (Contact c: knownContacts) {
-                if (contactId.equals(c.getId())) {
-                    return c;
-                }
+            final Contact contact = knownContacts.getFromId(contactId);
+
+            if (contact != null) {
+                return contact;
             }
         }
 
         if (extendedContacts != null) {
-            for (Contact c: extendedContacts) {
-                if (contactId.equals(c.getId())) {
-                    return c;
-                }
+            final Contact contact = extendedContacts.getFromId(contactId);
+
+            if (contact != null) {
+                return contact;
             }
         }
 
@@ -628,11 +623,11 @@ public class Contact {
         }
         else if (contactType == ContactType.KNOWN || contactType == ContactType.EXTENDED) {
             if (knownContacts == null) {
-                knownContacts = new ArrayList<>();
+                knownContacts = new ContactStore();
             }
 
             if (extendedContacts == null) {
-                extendedContacts = new ArrayList<>();
+                extendedContacts = new ContactStore();
             }
 
             final Contact duplicateContact;
@@ -643,18 +638,24 @@ public class Contact {
                 // There is no existing known or extended contact with the same number as this so add this new contact.
                 if (contactType == ContactType.KNOWN) {
                     knownContacts.add(this);
-                    Collections.sort(knownContacts, SORT_BY_NUMBER);
                 }
                 else {
                     extendedContacts.add(this);
-                    Collections.sort(extendedContacts, SORT_BY_NUMBER);
                 }
 
                 return this;
             }
 
             // Reset the members for the duplicate contact instead of storing this contact object.
-            duplicateContact.resetContact(id, name, image, contactType);
+            final String duplicateContactId = duplicateContact.getId();
+            try {
+                duplicateContact.resetContact(id, name, image, contactType);
+            }
+            finally {
+                // The ID may have been modified even if the contact type could not be changed, and changing the
+                // type may have moved the contact between the known and extended contacts lists.
+                safeUpdateStoredId(duplicateContact, duplicateContactId);
+            }
 
             return duplicateContact;
         }
@@ -664,6 +665,27 @@ public class Contact {
         }
     }
 
+    /**
+     * Remove a given known or extended contact from all lists.
+     *
+     * This includes the list(s) of known and extended contacts for all known groups and the lists of all known and
+     * extended contacts.
+     */
+    public void removeContact() {
+        // If a NullStaticVariableException is caught then the related list cannot contain this contact
+        // (and thus does not need to be removed).
+
+        try {
+            for (Group g : Group.getKnownGroups()) {
+                g.removeGroupContact(this);
+            }
+        }
+        catch (NullStaticVariableException e) { /* Do nothing.*/ }
+
+        safeRemoveKnownContact();
+        safeRemoveExtendedContact();
+    }
+
     /**
      * Change the contact's contactType member variable; a CURRENT contact's type cannot be changed.
      *
@@ -817,4 +839,71 @@ public class Contact {
     private boolean safeRemoveExtendedContact() {
         return extendedContacts != null && extendedContacts.remove(this);
     }
+
+    private static void safeUpdateStoredId(@NonNull Contact contact, String oldId) {
+        if (knownContacts != null) {
+            knownContacts.updateId(contact, oldId);
+        }
+
+        if (extendedContacts != null) {
+            extendedContacts.updateId(contact, oldId);
+        }
+    }
+
+    /**
+     * Indexes known or extended contacts by their (immutable) contact number and their contact ID.
+     */
+    private static class ContactStore extends IndexedObjectStore<Contact> {
+        ContactStore() {
+            super(Contact.class);
+        }
+
+        @Override
+        protected long getNumber(@NonNull Contact contact) {
+            return contact.number;
+        }
+
+        @Override
+        protected String getId(@NonNull Contact contact) {
+            return contact.id;
+        }
+    }
+
+    /**
+     * A read-only concatenation of the known and extended contacts lists, which reads the (possibly null) static
+     * stores on every access so that it never needs to be rebuilt or copied.
+     *
+     * A contact is only ever stored in one of the two lists, so no de-duplication is required.
+     */
+    private static class TargetContactsView extends AbstractList<Contact> implements RandomAccess {
+        private static int safeSize(ContactStore contactStore) {
+            return contactStore == null ? 0 : contactStore.size();
+        }
+
+        @Override
+        public Contact get(int index) {
+            final int knownContactsSize = safeSize(knownContacts);
+
+            if (index < 0 || index >= knownContactsSize + safeSize(extendedContacts)) {
+                throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size()));
+            }
+
+            if (index < knownContactsSize) {
+                return knownContacts.asReadOnlyList().get(index);
+            }
+
+            return extendedContacts.asReadOnlyList().get(index - knownContactsSize);
+        }
+
+        @Override
+        public int size() {
+            return safeSize(knownContacts) + safeSize(extendedContacts);
+        }
+
+        @Override
+        public boolean contains(Object object) {
+            return (knownContacts != null && knownContacts.contains(object)) ||
+                    (extendedContacts != null && extendedContacts.contains(object));
+        }
+    }
 }
@@ -0,0 +1,221 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import libraries.BouncyCastleInterpreter;
+
+/**
+ * An in-memory cache of the plain texts of automatically decrypted published texts, keyed by the digest of the
+ * published text.
+ *
+ * Revisiting a page in the browser would otherwise send every published text on the page to the server again. The
+ * cache is bounded by the approximate number of bytes used by the cached plain texts, evicting the least recently used
+ * plain texts first, and a plain text is never returned after the time-out of its published text has passed.
+ *
+ * The cache must be cleared whenever the contact's data is removed from the device (e.g. when the contact signs out)
+ * and whenever the browser's storage is cleared.
+ */
+public class DecryptedMessageCache {
+
+    /**
+     * A source of the current time, allowing message time-outs to be tested.
+     */
+    interface Clock {
+        long currentTimeMillis();
+    }
+
+    public static final long DEFAULT_MAX_BYTES = 2 * 1024 * 1024;
+
+    // The approximate number of bytes used by each entry in addition to its plain text characters.
+    static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private static final DecryptedMessageCache instance = new DecryptedMessageCache(
+            DEFAULT_MAX_BYTES,
+            System::currentTimeMillis
+    );
+
+    private final long  maxBytes;
+    private final Clock clock;
+
+    // Iterating over the map visits the least recently used entries first.
+    private final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long byteCount     = 0;
+    private long hitCount      = 0;
+    private long missCount     = 0;
+    private long evictionCount = 0;
+
+    /**
+     * @param maxBytes  The maximum approximate number of bytes used by all cached plain texts.
+     * @param clock     The source of the current time.
+     */
+    DecryptedMessageCache(long maxBytes, @NonNull Clock clock) {
+        this.maxBytes = maxBytes;
+        this.clock    = clock;
+    }
+
+    /**
+     * @return  The decrypted message cache shared by all browser pages.
+     */
+    public static DecryptedMessageCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param publishedText     The published text string, including its start and end tags.
+     * @return                  The cached plain text of the published text, or null if the plain text is not cached or
+     *                          the time-out of the published text has passed.
+     */
+    @Nullable
+    public synchronized String get(@NonNull String publishedText) {
+        final CacheKey   cacheKey   = new CacheKey(publishedText);
+        final CacheEntry cacheEntry = entries.get(cacheKey);
+
+        if (cacheEntry == null) {
+            missCount++;
+            return null;
+        }
+
+        if (cacheEntry.isTimedOut(clock.currentTimeMillis())) {
+            remove(cacheKey, cacheEntry);
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        return cacheEntry.plainText;
+    }
+
+    /**
+     * Cache the plain text of a published text, evicting the least recently used plain texts if the cache is full.
+     *
+     * Plain texts whose time-out has already passed, or which are larger than the whole cache, are not cached.
+     *
+     * @param publishedText     The published text string, including its start and end tags.
+     * @param plainText         The decrypted plain text of the published text.
+     * @param timeOut           The time-out of the published text in seconds since epoch, or 0 (or null) if the
+     *                          published text does not time-out.
+     */
+    public synchronized void put(@NonNull String publishedText, @NonNull String plainText, @Nullable Long timeOut) {
+        final CacheEntry cacheEntry = new CacheEntry(plainText, timeOut == null ? 0 : timeOut);
+
+        if (cacheEntry.byteCount > maxBytes || cacheEntry.isTimedOut(clock.currentTimeMillis())) {
+            return;
+        }
+
+        final CacheKey   cacheKey      = new CacheKey(publishedText);
+        final CacheEntry replacedEntry = entries.put(cacheKey, cacheEntry);
+
+        if (replacedEntry != null) {
+            byteCount -= replacedEntry.byteCount;
+        }
+
+        byteCount += cacheEntry.byteCount;
+
+        final Iterator<CacheEntry> iterator = entries.values().iterator();
+        while (byteCount > maxBytes && iterator.hasNext()) {
+            byteCount -= iterator.next().byteCount;
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Remove every cached plain text. The hit and miss counts are not reset.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        byteCount = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return  The approximate number of bytes used by all cached plain texts.
+     */
+    public synchronized long getByteCount() {
+        return byteCount;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return  The number of plain texts removed because the cache was full or because the time-out had passed.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private void remove(@NonNull CacheKey cacheKey, @NonNull CacheEntry cacheEntry) {
+        entries.remove(cacheKey);
+        byteCount -= cacheEntry.byteCount;
+        evictionCount++;
+    }
+
+    private static class CacheKey {
+        private final byte[] digest;
+        private final int    hashCode;
+
+        private CacheKey(@NonNull String publishedText) {
+            this.digest   = BouncyCastleInterpreter.sha512Operate(publishedText.getBytes(StandardCharsets.UTF_8));
+            this.hashCode = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object object) {
+            if (this == object) {
+                return true;
+            }
+
+            if (!(object instanceof CacheKey)) {
+                return false;
+            }
+
+            return Arrays.equals(digest, ((CacheKey) object).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static class CacheEntry {
+        private final String plainText;
+        private final long   timeOut;
+        private final long   byteCount;
+
+        private CacheEntry(@NonNull String plainText, long timeOut) {
+            this.plainText = plainText;
+            this.timeOut   = timeOut;
+            this.byteCount = 2L * plainText.length() + ENTRY_OVERHEAD_BYTES;
+        }
+
+        private boolean isTimedOut(long currentTimeMillis) {
+            return timeOut != 0 && timeOut <= currentTimeMillis / 1000;
+        }
+    }
+}
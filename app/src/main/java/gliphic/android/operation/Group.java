@@ -15,6 +15,7 @@ import gliphic.android.exceptions.GroupException;
 import gliphic.android.exceptions.GroupKeyException;
 import gliphic.android.exceptions.GroupUniquenessException;
 import gliphic.android.exceptions.NullStaticVariableException;
+import gliphic.android.operation.misc.IndexedObjectStore;
 import gliphic.android.operation.misc.LoadGroupObjectAndGroup;
 
 import org.apache.commons.lang3.StringUtils;
@@ -80,9 +81,9 @@ public class Group {
     public static final String          ID_NOT_UNIQUE = "All of your group IDs must be unique.";
 
     /**
-     * The list of all groups known to the user.
+     * All groups known to the user, indexed by group number and ID and ordered by group number.
      */
-    private static List<Group> knownGroups = null;
+    private static KnownGroupStore knownGroups = null;
 
     /**
      * The currently selected group, which is used to encrypt messages.
@@ -122,14 +123,14 @@ public class Group {
         if (ignoreDefaultGroup) {
             returnedGroups = new ArrayList<>();
 
-            for (Group g : knownGroups) {
+            for (Group g : knownGroups.asList()) {
                 if (g.getNumber() != Vars.DEFAULT_GROUP_NUMBER) {
                     returnedGroups.add(g);
                 }
             }
         }
         else {
-            returnedGroups = knownGroups;
+            returnedGroups = knownGroups.asList();
         }
 
         return returnedGroups;
@@ -204,10 +205,10 @@ public class Group {
      */
     public static Group getGroupFromNumber(long groupNumber) throws GroupException {
         if (knownGroups != null) {
-            for (Group g : knownGroups) {
-                if (groupNumber == g.getNumber()) {
-                    return g;
-                }
+            final Group group = knownGroups.getFromNumber(groupNumber);
+
+            if (group != null) {
+                return group;
             }
         }
 
@@ -226,11 +227,12 @@ public class Group {
             throw new NullStaticVariableException("Known groups list is null.");
         }
 
-        for (Group g : knownGroups) {
-            if (groupId.equals(g.getId())) {
-                return g;
-            }
+        final Group group = knownGroups.getFromId(groupId);
+
+        if (group != null) {
+            return group;
         }
+
         String s = "Given group ID is unknown to the user: %s";
         throw new GroupException(String.format(s, groupId));
     }
@@ -298,7 +300,7 @@ public class Group {
             List<Group> groupsToCheck = new ArrayList<>();
             // Note that the selected group should always be in the list of known groups.
             if (knownGroups != null) {
-                groupsToCheck.addAll(knownGroups);  // It is assumed that all groups in knownGroups are non-null.
+                groupsToCheck.addAll(knownGroups.asList());  // It is assumed that all known groups are non-null.
             }
 
             for (Group g : groupsToCheck) {
@@ -332,19 +334,14 @@ public class Group {
             throw new GroupException(String.format(s, id));
         }
 
-        if (requireUniqueness) {
-            List<Group> groupsToCheck = new ArrayList<>();
-            // Note that the selected group should always be in the list of known groups.
-            if (knownGroups != null) {
-                groupsToCheck.addAll(knownGroups);  // It is assumed that all groups in knownGroups are non-null.
-            }
+        // Note that the selected group should always be in the list of known groups.
+        if (requireUniqueness && knownGroups != null) {
+            final Group g = knownGroups.getFromId(id);
 
-            for (Group g : groupsToCheck) {
-                // If groupToModify is non-null then ignore the current ID for this group since it will have
-                // its ID modified.
-                if (!g.equals(groupToModify) && g.getId().equals(id)) {
-                    throw new GroupUniquenessException(ID_NOT_UNIQUE);
-                }
+            // If groupToModify is non-null then ignore the current ID for this group since it will have
+            // its ID modified.
+            if (g != null && !g.equals(groupToModify)) {
+                throw new GroupUniquenessException(ID_NOT_UNIQUE);
             }
         }
     }
@@ -828,23 +825,27 @@ public class Group {
      */
     public Group storeStatically() throws GroupException {
         if (knownGroups == null) {
-            knownGroups = new ArrayList<>();
+            knownGroups = new KnownGroupStore();
         }
 
-        final Group duplicateGroup;
-        try {
-            duplicateGroup = getGroupFromNumber(number);
-        }
-        catch (GroupException e) {
+        final Group duplicateGroup = knownGroups.getFromNumber(number);
+
+        if (duplicateGroup == null) {
             // There is no existing known group with the same number as this so add this new group.
             knownGroups.add(this);
-            Collections.sort(knownGroups, SORT_BY_NUMBER);
 
             return this;
         }
 
         // Reset the members for the duplicate group instead of storing this group object.
-        duplicateGroup.resetGroup(image, name, description, id, permissions, open, selected);
+        final String duplicateGroupId = duplicateGroup.getId();
+        try {
+            duplicateGroup.resetGroup(image, name, description, id, permissions, open, selected);
+        }
+        finally {
+            // The ID may have been modified even if resetting a subsequent member failed.
+            knownGroups.updateId(duplicateGroup, duplicateGroupId);
+        }
 
         return duplicateGroup;
     }
@@ -900,7 +901,7 @@ public class Group {
         }
 
         // A shallow copy of knownGroups is sufficient since no groups are modified in this method.
-        List<Group> allGroups = new ArrayList<>(knownGroups);
+        List<Group> allGroups = new ArrayList<>(knownGroups.asList());
 
         allGroups.add(this);
 
@@ -937,4 +938,23 @@ public class Group {
             }
         }
     }
+
+    /**
+     * Indexes known groups by their (immutable) group number and their group ID.
+     */
+    private static class KnownGroupStore extends IndexedObjectStore<Group> {
+        KnownGroupStore() {
+            super(Group.class);
+        }
+
+        @Override
+        protected long getNumber(@NonNull Group group) {
+            return group.number;
+        }
+
+        @Override
+        protected String getId(@NonNull Group group) {
+            return group.id;
+        }
+    }
 }
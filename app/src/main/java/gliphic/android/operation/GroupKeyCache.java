@@ -0,0 +1,323 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation;
+
+import org.bouncycastle.crypto.InvalidCipherTextException;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * An in-memory cache of decrypted group keys, keyed by group number and the initialisation vector of the encrypted
+ * group key.
+ *
+ * Decrypting published texts from the same group repeatedly (e.g. when browsing a page with many published texts)
+ * would otherwise require the same encrypted group key to be decrypted once per published text. The cache is bounded
+ * both by the number of keys and by the time since each key was last used, and every key is zeroed as soon as it is
+ * removed from the cache. Idle keys are removed by a scheduled sweep, so they do not stay in memory until the next
+ * decryption. Callers only ever receive copies of cached keys, so a key which is in use cannot be zeroed by the cache.
+ *
+ * The cache must be cleared whenever the contact's data is removed from the device (e.g. when the contact signs out)
+ * since the cached keys were decrypted using their data encryption key.
+ */
+public class GroupKeyCache implements PublishedTextBatchDecryptor.GroupKeyUnwrapper {
+
+    /**
+     * A source of the current time, allowing the idle time-out to be tested.
+     */
+    interface Ticker {
+        long nanoTime();
+    }
+
+    /**
+     * Runs the sweep which removes idle keys after a delay, allowing the sweep to be tested.
+     */
+    interface Scheduler {
+        void schedule(@NonNull Runnable task, long delayNanos);
+    }
+
+    public static final int  DEFAULT_MAX_ENTRIES         = 64;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final GroupKeyCache instance = new GroupKeyCache(
+            DEFAULT_MAX_ENTRIES,
+            DEFAULT_IDLE_TIMEOUT_MILLIS,
+            PublishedTextBatchDecryptor.DIRECT_UNWRAPPER,
+            System::nanoTime,
+            createSweepScheduler()
+    );
+
+    private final int                                           maxEntries;
+    private final long                                          idleTimeoutNanos;
+    private final PublishedTextBatchDecryptor.GroupKeyUnwrapper delegate;
+    private final Ticker                                        ticker;
+    private final Scheduler                                     scheduler;
+
+    // Iterating over the map visits the least recently used entries first.
+    private final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hitCount      = 0;
+    private long missCount     = 0;
+    private long evictionCount = 0;
+
+    // Incremented whenever the cache is cleared, so that a key decrypted before the cache was cleared is not cached.
+    private long    generation       = 0;
+    private boolean isSweepScheduled = false;
+
+    /**
+     * @param maxEntries            The maximum number of group keys to store.
+     * @param idleTimeoutMillis     The time after which a group key which has not been used is removed.
+     * @param delegate              The source of decrypted group keys which are not cached.
+     * @param ticker                The source of the current time.
+     * @param scheduler             Runs the sweep which removes idle keys.
+     */
+    GroupKeyCache(int maxEntries,
+                  long idleTimeoutMillis,
+                  @NonNull PublishedTextBatchDecryptor.GroupKeyUnwrapper delegate,
+                  @NonNull Ticker ticker,
+                  @NonNull Scheduler scheduler) {
+
+        this.maxEntries       = maxEntries;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.delegate         = delegate;
+        this.ticker           = ticker;
+        this.scheduler        = scheduler;
+    }
+
+    private static Scheduler createSweepScheduler() {
+        final ScheduledThreadPoolExecutor sweepExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "group-key-cache-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Do not keep the thread alive while nothing is cached.
+        sweepExecutor.setKeepAliveTime(DEFAULT_IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        sweepExecutor.allowCoreThreadTimeOut(true);
+
+        return (task, delayNanos) -> sweepExecutor.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return  The group key cache shared by all decryption operations.
+     */
+    public static GroupKeyCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Get a copy of the decrypted group key, decrypting the encrypted group key only if it is not already cached.
+     *
+     * The returned key should be passed to {@link #release(byte[])} after use.
+     *
+     * @param groupNumber                   The number of the group which the key belongs to.
+     * @param encryptedGroupKey             The encrypted group key received from the server.
+     * @param groupKeyIv                    The initialisation vector required to obtain the group key.
+     * @param dataEncryptionKey             The key used by the user to encrypt data saved on the server.
+     * @return                              A copy of the decrypted group key.
+     * @throws InvalidCipherTextException   Thrown when decrypting using BouncyCastle.
+     */
+    @Override
+    public byte[] unwrap(long groupNumber,
+                         @NonNull byte[] encryptedGroupKey,
+                         @NonNull byte[] groupKeyIv,
+                         @NonNull byte[] dataEncryptionKey) throws InvalidCipherTextException {
+
+        final CacheKey cacheKey = new CacheKey(groupNumber, groupKeyIv);
+        final long     unwrapGeneration;
+
+        synchronized (this) {
+            final long currentTime = ticker.nanoTime();
+            evictIdleEntries(currentTime);
+
+            final CacheEntry cacheEntry = entries.get(cacheKey);
+
+            // Check the encrypted key so that a cached key is never returned for a different encrypted key.
+            if (cacheEntry != null && Arrays.equals(cacheEntry.encryptedGroupKey, encryptedGroupKey)) {
+                hitCount++;
+                cacheEntry.lastAccessTime = currentTime;
+                return cacheEntry.groupKey.clone();
+            }
+
+            missCount++;
+            unwrapGeneration = generation;
+        }
+
+        // Decrypt without holding the lock so that misses for different groups do not block each other.
+        final byte[] groupKey = delegate.unwrap(groupNumber, encryptedGroupKey, groupKeyIv, dataEncryptionKey);
+
+        // The cache owns the decrypted key, so only return a copy.
+        final byte[] groupKeyCopy = groupKey.clone();
+
+        synchronized (this) {
+            if (generation != unwrapGeneration) {
+                // The cache was cleared (e.g. the contact signed out) while the key was being decrypted.
+                Arrays.fill(groupKey, (byte) 0);
+                return groupKeyCopy;
+            }
+
+            final CacheEntry replacedEntry = entries.put(
+                    cacheKey,
+                    new CacheEntry(encryptedGroupKey.clone(), groupKey, ticker.nanoTime())
+            );
+
+            if (replacedEntry != null) {
+                replacedEntry.erase();
+            }
+
+            final Iterator<CacheEntry> iterator = entries.values().iterator();
+            while (entries.size() > maxEntries && iterator.hasNext()) {
+                iterator.next().erase();
+                iterator.remove();
+                evictionCount++;
+            }
+
+            if (!isSweepScheduled) {
+                scheduleSweep(idleTimeoutNanos);
+            }
+        }
+
+        return groupKeyCopy;
+    }
+
+    /**
+     * Zero a copy of a group key returned by {@link #unwrap}; the cached key is not affected.
+     *
+     * @param groupKey  The copy of the group key which is no longer in use.
+     */
+    @Override
+    public void release(@NonNull byte[] groupKey) {
+        Arrays.fill(groupKey, (byte) 0);
+    }
+
+    /**
+     * Zero and remove every cached group key. The hit and miss counts are not reset.
+     */
+    public synchronized void clear() {
+        generation++;
+
+        for (CacheEntry cacheEntry : entries.values()) {
+            cacheEntry.erase();
+        }
+
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return  The number of group keys removed because the cache was full or because the key had not been used.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private void scheduleSweep(long delayNanos) {
+        isSweepScheduled = true;
+        scheduler.schedule(this::sweep, delayNanos);
+    }
+
+    /**
+     * Remove every idle key, and schedule the next sweep for when the least recently used remaining key becomes idle.
+     */
+    private synchronized void sweep() {
+        isSweepScheduled = false;
+
+        final long currentTime = ticker.nanoTime();
+        evictIdleEntries(currentTime);
+
+        if (!entries.isEmpty()) {
+            final long lastAccessTime = entries.values().iterator().next().lastAccessTime;
+            scheduleSweep(lastAccessTime + idleTimeoutNanos - currentTime);
+        }
+    }
+
+    private void evictIdleEntries(long currentTime) {
+        final Iterator<CacheEntry> iterator = entries.values().iterator();
+
+        // Entries are ordered by access time, so stop at the first entry which has been used recently.
+        while (iterator.hasNext()) {
+            final CacheEntry cacheEntry = iterator.next();
+
+            if (currentTime - cacheEntry.lastAccessTime < idleTimeoutNanos) {
+                return;
+            }
+
+            cacheEntry.erase();
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    private static class CacheKey {
+        private final long   groupNumber;
+        private final byte[] groupKeyIv;
+        private final int    hashCode;
+
+        private CacheKey(long groupNumber, @NonNull byte[] groupKeyIv) {
+            this.groupNumber = groupNumber;
+            this.groupKeyIv  = groupKeyIv.clone();
+            this.hashCode    = 31 * Long.hashCode(groupNumber) + Arrays.hashCode(groupKeyIv);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object object) {
+            if (this == object) {
+                return true;
+            }
+
+            if (!(object instanceof CacheKey)) {
+                return false;
+            }
+
+            final CacheKey cacheKey = (CacheKey) object;
+
+            return groupNumber == cacheKey.groupNumber && Arrays.equals(groupKeyIv, cacheKey.groupKeyIv);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static class CacheEntry {
+        private final byte[] encryptedGroupKey;
+        private final byte[] groupKey;
+        private long         lastAccessTime;
+
+        private CacheEntry(@NonNull byte[] encryptedGroupKey, @NonNull byte[] groupKey, long lastAccessTime) {
+            this.encryptedGroupKey = encryptedGroupKey;
+            this.groupKey          = groupKey;
+            this.lastAccessTime    = lastAccessTime;
+        }
+
+        private void erase() {
+            Arrays.fill(groupKey, (byte) 0);
+        }
+    }
+}
@@ -24,12 +24,16 @@ import java.util.Arrays;
  * This class allows either a known resource image or (unknown) {@link Bitmap} image to be stored as the
  * {@link Contact} or {@link Group} image for a given byte array.
  *
+ * A Bitmap image is only decoded when it is first displayed, since every contact and group in a load response is
+ * created at once but only the visible contacts and groups are displayed.
+ *
  * This class also contains method(s) to set the image for a given {@link ImageView}.
  */
 
 public class ObjectImage {
     private int resourceInt;
     private byte[] imageBytes;
+    private byte[] encodedBitmap = null;
     private Bitmap bitmap = null;
 
     public ObjectImage(int resourceInt) {
@@ -43,7 +47,7 @@ public class ObjectImage {
             this.resourceInt = ImagePreset.get(imageBytes).getResourceInt();
         }
         else {
-            this.bitmap = BitmapFactory.decodeByteArray(imageBytes, 0, imageBytes.length);
+            this.encodedBitmap = imageBytes;
         }
     }
 
@@ -168,6 +172,8 @@ public class ObjectImage {
     }
 
     public void setImageView(ImageView imageView) {
+        final Bitmap bitmap = getBitmap();
+
         if (bitmap == null) {
             imageView.setImageResource(resourceInt);
         }
@@ -175,4 +181,19 @@ public class ObjectImage {
             imageView.setImageBitmap(bitmap);
         }
     }
+
+    /**
+     * @return  The Bitmap image, decoded on the first call, or null if this is a resource image or the Bitmap image
+     *          cannot be decoded.
+     */
+    private Bitmap getBitmap() {
+        if (encodedBitmap != null) {
+            bitmap = BitmapFactory.decodeByteArray(encodedBitmap, 0, encodedBitmap.length);
+
+            // Only attempt to decode the image once.
+            encodedBitmap = null;
+        }
+
+        return bitmap;
+    }
 }
@@ -14,15 +14,13 @@ import gliphic.android.exceptions.GroupException;
 import gliphic.android.exceptions.NullStaticVariableException;
 import gliphic.android.exceptions.PublishedTextException;
 import gliphic.android.exceptions.UnknownGroupIdException;
+import gliphic.android.operation.misc.Base256Codec;
 
 import org.bouncycastle.crypto.InvalidCipherTextException;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
-import libraries.Base256;
 import libraries.Base256Exception;
 import libraries.BouncyCastleInterpreter;
 import libraries.GeneralUtils;
@@ -144,7 +142,8 @@ public class PublishedText {
     public PublishedText(String publishedText)
             throws Base256Exception, PublishedTextException, UnknownGroupIdException {
 
-        // Preliminary checks on the published text length and start/end tags.
+        // Preliminary checks on the published text length and start/end tags, without copying any part of the
+        // published text since most strings found by the browser extension are rejected here or by the group checks.
 
         if (publishedText.isEmpty()) {
             throw new PublishedTextException(EMPTY_PUB_TEXT_EXP);
@@ -153,25 +152,26 @@ public class PublishedText {
             throw new PublishedTextException(PUBLISHED_TEXT_TOO_SHORT_EXP + publishedText.length());
         }
 
-        String startTag = publishedText.substring(0, Vars.START_TAG.length());
-        if (!startTag.equals(Vars.START_TAG)) {
-            throw new PublishedTextException(BAD_START_TAG_EXP + startTag);
+        if (!publishedText.startsWith(Vars.START_TAG)) {
+            throw new PublishedTextException(
+                    BAD_START_TAG_EXP + publishedText.substring(0, Vars.START_TAG.length())
+            );
         }
 
-        String endTag = publishedText.substring(publishedText.length() - Vars.END_TAG.length());
-        if (!endTag.equals(Vars.END_TAG)) {
-            throw new PublishedTextException(BAD_END_TAG_EXP + endTag);
+        final int endTagIndex = publishedText.length() - Vars.END_TAG.length();
+
+        if (!publishedText.endsWith(Vars.END_TAG)) {
+            throw new PublishedTextException(BAD_END_TAG_EXP + publishedText.substring(endTagIndex));
         }
 
-        // Discard the start/end tags and split the group ID from the cipher message.
+        // The group ID is followed by the cipher message, which is the Base256 encoding of the initialisation vector
+        // followed by the time-out cipher text. Base256 encodes every byte as a single character.
 
-        String publishedTextWithoutTags = publishedText.substring(
-                Vars.START_TAG.length(),
-                publishedText.length() - Vars.END_TAG.length()
-        );
+        final int groupIdIndex       = Vars.START_TAG.length();
+        final int cipherMsgIndex     = groupIdIndex + Vars.GROUP_ID_LEN;
+        final int cipherMsgByteCount = endTagIndex - cipherMsgIndex;
 
-        String groupId   = publishedTextWithoutTags.substring(0, Vars.GROUP_ID_LEN);
-        String cipherMsg = publishedTextWithoutTags.substring(Vars.GROUP_ID_LEN);
+        final String groupId = publishedText.substring(groupIdIndex, cipherMsgIndex);
 
         try {
             Group.checkValidId(groupId);
@@ -180,12 +180,8 @@ public class PublishedText {
             throw new PublishedTextException(INVALID_GROUP_ID);
         }
 
-        // Decode the cipher message; an exception is thrown if it is malformed or too short.
-
-        byte[] cipherMsgBytes = Base256.toBytes(cipherMsg);
-
-        if (cipherMsgBytes.length <= Vars.IV_LEN) {
-            throw new PublishedTextException(MESSAGE_BYTES_TOO_SHORT_EXP + cipherMsgBytes.length);
+        if (cipherMsgByteCount <= Vars.IV_LEN) {
+            throw new PublishedTextException(MESSAGE_BYTES_TOO_SHORT_EXP + cipherMsgByteCount);
         }
 
         // Get the group associated with the group ID; if no group is found throw an exception.
@@ -211,11 +207,16 @@ public class PublishedText {
             throw new PublishedTextException(GROUP_ACCESS_DENIED_EXP + groupId);
         }
 
-        // Set the remaining member variables.
+        // Decode the cipher message directly into the member variables; an exception is thrown if it is malformed.
+
+        final byte[] iv                = new byte[Vars.IV_LEN];
+        final byte[] timeOutCipherText = new byte[cipherMsgByteCount - Vars.IV_LEN];
 
-        this.iv                = Arrays.copyOfRange(cipherMsgBytes, 0, Vars.IV_LEN);
+        Base256Codec.decode(publishedText, cipherMsgIndex, iv.length, iv, 0);
+        Base256Codec.decode(publishedText, cipherMsgIndex + iv.length, timeOutCipherText.length, timeOutCipherText, 0);
 
-        this.timeOutCipherText = Arrays.copyOfRange(cipherMsgBytes, Vars.IV_LEN, cipherMsgBytes.length);
+        this.iv                = iv;
+        this.timeOutCipherText = timeOutCipherText;
 
         this.publishedText = publishedText;
     }
@@ -254,17 +255,25 @@ public class PublishedText {
      * This method also initialises the raw cipher text and the published text member variables.
      *
      * @param timeOutCipherText     The encrypted text bytes received from the server.
-     * @throws IOException          Thrown when writing to the ByteArrayOutputStream.
      */
-    public void constructPublishedText(byte[] timeOutCipherText) throws IOException {
+    public void constructPublishedText(byte[] timeOutCipherText) {
         this.timeOutCipherText = timeOutCipherText;
 
-        ByteArrayOutputStream pubTextOutStream = new ByteArrayOutputStream();
-        pubTextOutStream.write(this.iv);
-        pubTextOutStream.write(this.timeOutCipherText);
+        // The cipher message is the Base256 encoding of the initialisation vector followed by the time-out cipher text,
+        // which is encoded directly from both arrays since Base256 encodes every byte as a single character.
 
-        final String cipherMessage = Base256.fromBytes(pubTextOutStream.toByteArray());
-        this.publishedText = Vars.START_TAG + this.group.getId() + cipherMessage + Vars.END_TAG;
+        final String        groupId = this.group.getId();
+        final StringBuilder sb      = new StringBuilder(
+                Vars.START_TAG.length() + groupId.length() + iv.length + timeOutCipherText.length +
+                Vars.END_TAG.length()
+        );
+
+        sb.append(Vars.START_TAG).append(groupId);
+        Base256Codec.encode(this.iv, 0, this.iv.length, sb);
+        Base256Codec.encode(this.timeOutCipherText, 0, this.timeOutCipherText.length, sb);
+        sb.append(Vars.END_TAG);
+
+        this.publishedText = sb.toString();
     }
 
     /**
@@ -288,17 +297,35 @@ public class PublishedText {
                                      byte[] dataEncryptionKey) throws InvalidCipherTextException {
 
         // Do not set the group key since it is only used in this method during decryption.
+        final byte[] groupKey = unwrapGroupKey(encryptedGroupKey, groupKeyIv, dataEncryptionKey);
+
+        try {
+            decryptRawCipherText(timeOut, rawCipherText, groupKey);
+        }
+        finally {
+            Arrays.fill(groupKey, (byte) 0);
+        }
+    }
+
+    /**
+     * After requesting a published text to be decrypted by the server, use the (already decrypted) group key to
+     * decrypt raw cipher text and obtain the plain text.
+     *
+     * This method allows a group key to be decrypted once and then used for multiple published texts from the same
+     * group; the given group key is not modified or retained.
+     *
+     * @param timeOut                       The time-out for the decrypted message.
+     * @param rawCipherText                 The decrypted published text received from the server.
+     * @param groupKey                      The decrypted group key required to obtain the plain text.
+     * @throws InvalidCipherTextException   Thrown when decrypting using BouncyCastle.
+     */
+    public void decryptRawCipherText(long timeOut,
+                                     byte[] rawCipherText,
+                                     byte[] groupKey) throws InvalidCipherTextException {
+
         this.timeOut = timeOut;
         this.rawCipherText = rawCipherText;
 
-        // Decrypt the encrypted group key.
-        byte[] groupKey = BouncyCastleInterpreter.aesOperate(
-                false,
-                encryptedGroupKey,
-                groupKeyIv,
-                dataEncryptionKey
-        );
-
         // Decrypt the message to obtain the plain text.
         this.plainText = BouncyCastleInterpreter.aesOperatePadInput(
                 false,
@@ -307,4 +334,25 @@ public class PublishedText {
                 groupKey
         );
     }
+
+    /**
+     * Decrypt an encrypted group key received from the server.
+     *
+     * @param encryptedGroupKey             The encrypted key required to obtain the plain text.
+     * @param groupKeyIv                    The initialisation vector required to obtain the group key.
+     * @param dataEncryptionKey             The key used by the user to encrypt data saved on the server.
+     * @return                              The decrypted group key.
+     * @throws InvalidCipherTextException   Thrown when decrypting using BouncyCastle.
+     */
+    public static byte[] unwrapGroupKey(byte[] encryptedGroupKey,
+                                        byte[] groupKeyIv,
+                                        byte[] dataEncryptionKey) throws InvalidCipherTextException {
+
+        return BouncyCastleInterpreter.aesOperate(
+                false,
+                encryptedGroupKey,
+                groupKeyIv,
+                dataEncryptionKey
+        );
+    }
 }
\ No newline at end of file
@@ -0,0 +1,477 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation;
+
+import org.bouncycastle.crypto.DataLengthException;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.util.encoders.Base64;
+import org.bouncycastle.util.encoders.DecoderException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import gliphic.android.interfaces.DecryptionResultsCallback;
+import gliphic.android.operation.misc.Trace;
+import libraries.Vars;
+import pojo.text.TextDecryptResponseObject;
+
+/**
+ * Decrypt a batch of published texts using the response objects returned by the server for a text-decrypt request.
+ *
+ * Response objects are grouped by group number so that the encrypted group key for each group is decrypted once per
+ * batch (rather than once per published text), and the message bodies are then decrypted in slices on an executor.
+ * Results are always returned in the same order as the input list, regardless of the order in which slices complete.
+ *
+ * Both the executor and the source of decrypted group keys can be supplied when constructing an instance; the default
+ * instance uses a small bounded thread pool and the shared {@link GroupKeyCache}.
+ */
+public class PublishedTextBatchDecryptor {
+
+    /**
+     * A source of decrypted group keys used by a batch decryptor.
+     */
+    public interface GroupKeyUnwrapper {
+        /**
+         * @param groupNumber                   The number of the group which the key belongs to.
+         * @param encryptedGroupKey             The encrypted group key received from the server.
+         * @param groupKeyIv                    The initialisation vector required to obtain the group key.
+         * @param dataEncryptionKey             The key used by the user to encrypt data saved on the server.
+         * @return                              The decrypted group key.
+         * @throws InvalidCipherTextException   Thrown when decrypting using BouncyCastle.
+         */
+        byte[] unwrap(long groupNumber,
+                      byte[] encryptedGroupKey,
+                      byte[] groupKeyIv,
+                      byte[] dataEncryptionKey) throws InvalidCipherTextException;
+
+        /**
+         * Called exactly once for every key returned by {@link #unwrap}, after the batch no longer uses the key.
+         *
+         * @param groupKey  The decrypted group key which is no longer in use by the batch.
+         */
+        void release(byte[] groupKey);
+    }
+
+    /**
+     * Decrypt every group key using the data encryption key and zero the key as soon as the batch has finished with it.
+     */
+    public static final GroupKeyUnwrapper DIRECT_UNWRAPPER = new GroupKeyUnwrapper() {
+        @Override
+        public byte[] unwrap(long groupNumber,
+                             byte[] encryptedGroupKey,
+                             byte[] groupKeyIv,
+                             byte[] dataEncryptionKey) throws InvalidCipherTextException {
+
+            return PublishedText.unwrapGroupKey(encryptedGroupKey, groupKeyIv, dataEncryptionKey);
+        }
+
+        @Override
+        public void release(byte[] groupKey) {
+            Arrays.fill(groupKey, (byte) 0);
+        }
+    };
+
+    // The maximum number of published texts decrypted by a single task submitted to the executor.
+    static final int SLICE_SIZE = 16;
+
+    // Leave a core free for the UI thread, and do not use more threads than are useful for short-lived AES operations.
+    private static final int MAX_WORKER_THREADS =
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 30;
+
+    private static PublishedTextBatchDecryptor defaultInstance = null;
+
+    private final Executor          executor;
+    private final GroupKeyUnwrapper groupKeyUnwrapper;
+
+    /**
+     * @param executor              The executor used to decrypt group keys and message bodies.
+     * @param groupKeyUnwrapper     The source of decrypted group keys.
+     */
+    public PublishedTextBatchDecryptor(@NonNull Executor executor, @NonNull GroupKeyUnwrapper groupKeyUnwrapper) {
+        this.executor          = executor;
+        this.groupKeyUnwrapper = groupKeyUnwrapper;
+    }
+
+    /**
+     * @return  The shared batch decryptor, which uses a bounded pool of daemon worker threads and the shared group key
+     *          cache.
+     */
+    public static synchronized PublishedTextBatchDecryptor getDefault() {
+        if (defaultInstance == null) {
+            defaultInstance = new PublishedTextBatchDecryptor(createWorkerPool(), GroupKeyCache.getInstance());
+        }
+
+        return defaultInstance;
+    }
+
+    private static ThreadPoolExecutor createWorkerPool() {
+        final ThreadFactory threadFactory = new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger(0);
+
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                final Thread thread = new Thread(runnable, "decrypt-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+
+        final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                MAX_WORKER_THREADS,
+                MAX_WORKER_THREADS,
+                WORKER_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory
+        );
+
+        // Do not keep idle threads alive when the user is not decrypting anything.
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+        return threadPoolExecutor;
+    }
+
+    /**
+     * Decrypt the given published texts asynchronously.
+     *
+     * The published text and response object at the same index of each list must correspond to each other; a null
+     * response object, or a response object without a successful message status, results in the published text at
+     * that index not being decrypted. Successfully decrypted published texts have their plain text, raw cipher text
+     * and time-out set as if {@link PublishedText#decryptRawCipherText} had been called directly.
+     *
+     * The callback is invoked exactly once, on whichever thread completes the final decryption task (or on the
+     * calling thread if there is nothing to decrypt), so callers must post the results to the UI thread if required.
+     * Every task, and the callback, runs with the trace span which is current on the calling thread.
+     *
+     * @param publishedTexts        The published texts to decrypt.
+     * @param responseObjects       The response objects corresponding to the published texts, with the same size.
+     * @param dataEncryptionKey     The key used by the user to encrypt data saved on the server.
+     * @param callback              The callback to return the decryption results, in input order.
+     */
+    public void decrypt(@NonNull final List<PublishedText> publishedTexts,
+                        @NonNull final List<TextDecryptResponseObject> responseObjects,
+                        @NonNull final byte[] dataEncryptionKey,
+                        @NonNull final DecryptionResultsCallback callback) {
+
+        if (publishedTexts.size() != responseObjects.size()) {
+            String s = "Cannot decrypt %d published texts using %d response objects.";
+            throw new IllegalArgumentException(String.format(s, publishedTexts.size(), responseObjects.size()));
+        }
+
+        final boolean[] isDecrypted = new boolean[publishedTexts.size()];
+
+        // Group the indices of all successful responses by group number, preserving the input order within each group.
+        final Map<Long, List<Integer>> indicesByGroup = new LinkedHashMap<>();
+        for (int i = 0; i < responseObjects.size(); i++) {
+            final TextDecryptResponseObject tdro = responseObjects.get(i);
+
+            if (tdro == null || !Vars.SUCCESS_200.equals(tdro.getMessageStatus())) {
+                continue;
+            }
+
+            List<Integer> indices = indicesByGroup.get(tdro.getGroupNumber());
+            if (indices == null) {
+                indices = new ArrayList<>();
+                indicesByGroup.put(tdro.getGroupNumber(), indices);
+            }
+            indices.add(i);
+        }
+
+        if (indicesByGroup.isEmpty()) {
+            callback.onReturn(isDecrypted);
+            return;
+        }
+
+        final Batch batch = new Batch(
+                publishedTexts,
+                responseObjects,
+                dataEncryptionKey,
+                isDecrypted,
+                indicesByGroup.size(),
+                callback
+        );
+
+        for (List<Integer> groupIndices : indicesByGroup.values()) {
+            execute(() -> decryptGroup(batch, groupIndices));
+        }
+    }
+
+    /**
+     * Match each published text with the successful response object returned by the server for it.
+     *
+     * Every response object is decoded exactly once and indexed by its group number, message initialisation vector
+     * and encrypted message, so that matching takes linear time in the total number of published texts and response
+     * objects. Response objects which cannot be decoded are ignored. If the same published text appears more than
+     * once then each occurrence is matched with a different response object (in order), if there are enough of them.
+     *
+     * @param publishedTexts    The published texts sent to the server for decryption.
+     * @param responseObjects   The response objects returned by the server, in any order.
+     * @return                  A list with the same size as the list of published texts, containing the response
+     *                          object matching the published text at the same index, or null if there is no match.
+     */
+    @NonNull
+    public static List<TextDecryptResponseObject> matchResponseObjects(
+            @NonNull List<PublishedText> publishedTexts,
+            @NonNull List<TextDecryptResponseObject> responseObjects) {
+
+        final Map<ResponseKey, ArrayDeque<TextDecryptResponseObject>> responseIndex =
+                new HashMap<>(responseObjects.size() * 2);
+
+        for (TextDecryptResponseObject tdro : responseObjects) {
+            if (tdro == null || !Vars.SUCCESS_200.equals(tdro.getMessageStatus())) {
+                continue;
+            }
+
+            final ResponseKey responseKey;
+            try {
+                responseKey = new ResponseKey(
+                        tdro.getGroupNumber(),
+                        Base64.decode(tdro.getMessageIvString()),
+                        Base64.decode(tdro.getEncMsg())
+                );
+            }
+            catch (DecoderException | NullPointerException e) {
+                continue;
+            }
+
+            ArrayDeque<TextDecryptResponseObject> matchingResponses = responseIndex.get(responseKey);
+            if (matchingResponses == null) {
+                matchingResponses = new ArrayDeque<>(1);
+                responseIndex.put(responseKey, matchingResponses);
+            }
+            matchingResponses.add(tdro);
+        }
+
+        final List<TextDecryptResponseObject> matchedResponseObjects = new ArrayList<>(publishedTexts.size());
+
+        for (PublishedText pt : publishedTexts) {
+            final ArrayDeque<TextDecryptResponseObject> matchingResponses = responseIndex.get(
+                    new ResponseKey(pt.getGroup().getNumber(), pt.getIv(), pt.getTimeOutCipherText())
+            );
+
+            matchedResponseObjects.add(matchingResponses == null ? null : matchingResponses.poll());
+        }
+
+        return matchedResponseObjects;
+    }
+
+    private void execute(@NonNull Runnable task) {
+        final Runnable tracedTask = Trace.wrap(task);
+
+        try {
+            executor.execute(tracedTask);
+        }
+        catch (RejectedExecutionException e) {
+            // The callback must always be invoked, so run the task on the current thread if the executor is shut down.
+            tracedTask.run();
+        }
+    }
+
+    private void decryptGroup(@NonNull final Batch batch, @NonNull final List<Integer> groupIndices) {
+        try {
+            final TextDecryptResponseObject firstTdro = batch.responseObjects.get(groupIndices.get(0));
+
+            final byte[]     groupKey;
+            final Trace.Span unwrapSpan = Trace.startSpan("unwrap group key", Trace.CATEGORY_CRYPTO);
+            try {
+                groupKey = groupKeyUnwrapper.unwrap(
+                        firstTdro.getGroupNumber(),
+                        Base64.decode(firstTdro.getEncryptedGroupKeyString()),
+                        Base64.decode(firstTdro.getKeyIvString()),
+                        batch.dataEncryptionKey
+                );
+            }
+            catch (InvalidCipherTextException | DataLengthException | DecoderException | NullPointerException e) {
+                // None of the published texts in this group can be decrypted.
+                return;
+            }
+            finally {
+                unwrapSpan.end();
+            }
+
+            final int sliceCount = (groupIndices.size() + SLICE_SIZE - 1) / SLICE_SIZE;
+            final AtomicInteger remainingSlices = new AtomicInteger(sliceCount);
+
+            // Register the slices before this task completes so that the batch cannot be reported as finished early.
+            batch.remainingTasks.addAndGet(sliceCount);
+
+            for (int start = 0; start < groupIndices.size(); start += SLICE_SIZE) {
+                final List<Integer> slice =
+                        groupIndices.subList(start, Math.min(start + SLICE_SIZE, groupIndices.size()));
+
+                execute(() -> {
+                    try {
+                        decryptSlice(batch, slice, firstTdro, groupKey);
+                    }
+                    finally {
+                        if (remainingSlices.decrementAndGet() == 0) {
+                            groupKeyUnwrapper.release(groupKey);
+                        }
+
+                        batch.taskCompleted();
+                    }
+                });
+            }
+        }
+        finally {
+            batch.taskCompleted();
+        }
+    }
+
+    private void decryptSlice(@NonNull Batch batch,
+                              @NonNull List<Integer> slice,
+                              @NonNull TextDecryptResponseObject firstTdro,
+                              @NonNull byte[] groupKey) {
+
+        final Trace.Span sliceSpan = Trace.startSpan(
+                String.format("decrypt %d published texts", slice.size()),
+                Trace.CATEGORY_CRYPTO
+        );
+
+        for (int index : slice) {
+            final PublishedText             pt   = batch.publishedTexts.get(index);
+            final TextDecryptResponseObject tdro = batch.responseObjects.get(index);
+
+            try {
+                if (usesSameGroupKey(firstTdro, tdro)) {
+                    pt.decryptRawCipherText(tdro.getTimeOut(), Base64.decode(tdro.getDecMsg()), groupKey);
+                }
+                else {
+                    // The server is not expected to return different group keys for the same group in one response,
+                    // but do not assume that the group key is reusable if it does.
+                    pt.decryptRawCipherText(
+                            tdro.getTimeOut(),
+                            Base64.decode(tdro.getDecMsg()),
+                            Base64.decode(tdro.getEncryptedGroupKeyString()),
+                            Base64.decode(tdro.getKeyIvString()),
+                            batch.dataEncryptionKey
+                    );
+                }
+
+                batch.isDecrypted[index] = true;
+            }
+            catch (InvalidCipherTextException | DataLengthException | DecoderException | NullPointerException e) {
+                // Leave this published text as not decrypted.
+            }
+        }
+
+        sliceSpan.end();
+    }
+
+    private static boolean usesSameGroupKey(@NonNull TextDecryptResponseObject tdro1,
+                                            @NonNull TextDecryptResponseObject tdro2) {
+
+        return tdro1 == tdro2 || (
+                equalsNullable(tdro1.getEncryptedGroupKeyString(), tdro2.getEncryptedGroupKeyString()) &&
+                equalsNullable(tdro1.getKeyIvString(), tdro2.getKeyIvString())
+        );
+    }
+
+    private static boolean equalsNullable(@Nullable String s1, @Nullable String s2) {
+        return s1 == null ? s2 == null : s1.equals(s2);
+    }
+
+    /**
+     * The values identifying a published text in a text-decrypt response.
+     *
+     * The hash code is a digest of the initialisation vector and encrypted message; equal hash codes are always
+     * confirmed by comparing the full byte arrays, so a hash collision can never match the wrong response.
+     */
+    private static class ResponseKey {
+        private final long   groupNumber;
+        private final byte[] iv;
+        private final byte[] timeOutCipherText;
+        private final int    hashCode;
+
+        private ResponseKey(long groupNumber, @NonNull byte[] iv, @NonNull byte[] timeOutCipherText) {
+            this.groupNumber       = groupNumber;
+            this.iv                = iv;
+            this.timeOutCipherText = timeOutCipherText;
+            this.hashCode          = 31 * (31 * Long.hashCode(groupNumber) + Arrays.hashCode(iv)) +
+                                     Arrays.hashCode(timeOutCipherText);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object object) {
+            if (this == object) {
+                return true;
+            }
+
+            if (!(object instanceof ResponseKey)) {
+                return false;
+            }
+
+            final ResponseKey responseKey = (ResponseKey) object;
+
+            return groupNumber == responseKey.groupNumber &&
+                   hashCode == responseKey.hashCode &&
+                   Arrays.equals(iv, responseKey.iv) &&
+                   Arrays.equals(timeOutCipherText, responseKey.timeOutCipherText);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * The state shared by all tasks decrypting a single batch.
+     *
+     * Results are written to distinct indices by different threads; the atomic task counter ensures that all writes
+     * are visible to the thread which invokes the callback.
+     */
+    private static class Batch {
+        private final List<PublishedText>             publishedTexts;
+        private final List<TextDecryptResponseObject> responseObjects;
+        private final byte[]                          dataEncryptionKey;
+        private final boolean[]                       isDecrypted;
+        private final AtomicInteger                   remainingTasks;
+        private final DecryptionResultsCallback       callback;
+
+        private Batch(List<PublishedText> publishedTexts,
+                      List<TextDecryptResponseObject> responseObjects,
+                      byte[] dataEncryptionKey,
+                      boolean[] isDecrypted,
+                      int initialTasks,
+                      DecryptionResultsCallback callback) {
+
+            this.publishedTexts    = publishedTexts;
+            this.responseObjects   = responseObjects;
+            this.dataEncryptionKey = dataEncryptionKey;
+            this.isDecrypted       = isDecrypted;
+            this.remainingTasks    = new AtomicInteger(initialTasks);
+            this.callback          = callback;
+        }
+
+        private void taskCompleted() {
+            if (remainingTasks.decrementAndGet() == 0) {
+                callback.onReturn(isDecrypted);
+            }
+        }
+    }
+}
@@ -11,6 +11,7 @@ software or otherwise without the prior written consent of Ashley Arain.
 package gliphic.android.operation;
 
 import gliphic.android.exceptions.NullStaticVariableException;
+import gliphic.android.operation.server_interaction.http_server.AccessTokenManager;
 
 import androidx.annotation.NonNull;
 
@@ -78,5 +79,10 @@ public class TempGlobalStatics {
     public static void setNullTempGlobalStatics() {
         contactClicked = null;
         groupClicked = null;
+
+        // Cached group keys were decrypted using the current contact's data encryption key.
+        GroupKeyCache.getInstance().clear();
+        DecryptedMessageCache.getInstance().clear();
+        AccessTokenManager.clear();
     }
 }
@@ -0,0 +1,131 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.misc;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import libraries.Base256;
+import libraries.Base256Exception;
+
+/**
+ * A table-driven implementation of the {@link Base256} encoding, which encodes every byte as a single character.
+ *
+ * Bytes are encoded from any slice of an array directly into a given StringBuilder, and characters are decoded from
+ * any range of a string directly into a given byte array, so that a published text can be constructed or parsed
+ * without copying its initialisation vector and cipher text into intermediate arrays and strings.
+ *
+ * The encoded characters and the exceptions thrown are the same as those of {@link Base256#fromBytes(byte[])} and
+ * {@link Base256#toBytes(String)}.
+ */
+public class Base256Codec {
+    private static final String INVALID_CHARACTER_EXP = "Cannot convert string containing invalid character(s).";
+
+    // Each row is {first value, last value, offset} where every value in the range is encoded as the value plus the
+    // offset; the values are the unsigned bytes.
+    private static final int[][] VALUE_RANGES = {
+            {0,  9,   48},      // 0-9
+            {10, 35,  55},      // A-Z
+            {36, 61,  61},      // a-z
+            {62, 62,  -17},     // -
+            {63, 63,  32},      // _
+            {64, 255, 128}
+    };
+
+    private static final char[] ENCODE_TABLE = new char[256];
+
+    // Every character up to the largest encoded character mapped to its value, or -1 if the character is invalid.
+    private static final short[] DECODE_TABLE;
+
+    static {
+        int maxChar = 0;
+
+        for (int[] range : VALUE_RANGES) {
+            for (int value = range[0]; value <= range[1]; value++) {
+                ENCODE_TABLE[value] = (char) (value + range[2]);
+            }
+
+            maxChar = Math.max(maxChar, range[1] + range[2]);
+        }
+
+        DECODE_TABLE = new short[maxChar + 1];
+        Arrays.fill(DECODE_TABLE, (short) -1);
+
+        for (int value = 0; value < ENCODE_TABLE.length; value++) {
+            DECODE_TABLE[ENCODE_TABLE[value]] = (short) value;
+        }
+    }
+
+    private Base256Codec() {}
+
+    /**
+     * @param bytes     The bytes to encode.
+     * @return          The encoded string, equal to {@link Base256#fromBytes(byte[])} for the same bytes.
+     */
+    @NonNull
+    public static String encode(@NonNull byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length);
+        encode(bytes, 0, bytes.length, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Append the encoding of the given slice of bytes to the given StringBuilder. Encoding consecutive slices gives
+     * the same characters as encoding their concatenation.
+     *
+     * @param bytes     The array containing the bytes to encode.
+     * @param offset    The index of the first byte to encode.
+     * @param length    The number of bytes to encode, which is also the number of characters appended.
+     * @param sb        The StringBuilder to append the encoded characters to.
+     */
+    public static void encode(@NonNull byte[] bytes, int offset, int length, @NonNull StringBuilder sb) {
+        for (int i = offset; i < offset + length; i++) {
+            sb.append(ENCODE_TABLE[bytes[i] & 0xFF]);
+        }
+    }
+
+    /**
+     * @param s                     The string to decode.
+     * @return                      The decoded bytes, equal to {@link Base256#toBytes(String)} for the same string.
+     * @throws Base256Exception     Thrown when any character is not a valid Base256 character.
+     */
+    @NonNull
+    public static byte[] decode(@NonNull String s) throws Base256Exception {
+        final byte[] bytes = new byte[s.length()];
+        decode(s, 0, s.length(), bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Decode the given range of characters into the given buffer.
+     *
+     * @param s                     The string containing the characters to decode.
+     * @param start                 The index of the first character to decode.
+     * @param length                The number of characters to decode, which is also the number of bytes written.
+     * @param buffer                The buffer to write the decoded bytes to.
+     * @param offset                The index in the buffer to write the first decoded byte to.
+     * @throws Base256Exception     Thrown when any character is not a valid Base256 character.
+     */
+    public static void decode(@NonNull CharSequence s, int start, int length, @NonNull byte[] buffer, int offset)
+            throws Base256Exception {
+
+        for (int i = 0; i < length; i++) {
+            final char c = s.charAt(start + i);
+            final int  value;
+
+            if (c >= DECODE_TABLE.length || (value = DECODE_TABLE[c]) < 0) {
+                throw new Base256Exception(INVALID_CHARACTER_EXP);
+            }
+
+            buffer[offset + i] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.misc;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import libraries.Base4352;
+import libraries.Base4352Exception;
+
+/**
+ * A table-driven implementation of the {@link Base4352} encoding.
+ *
+ * Every group of three bytes is encoded as two characters with 12-bit values (0 to 4095). A final group of one or two
+ * bytes is encoded as one character per byte, using the values 4096 to 4351, which are only valid in this suffix.
+ *
+ * Since a group of bytes may span two slices, bytes are encoded from consecutive slices of arrays with an
+ * {@link Encoder}, and characters are decoded from any range of a string directly into a given byte array.
+ *
+ * The encoded characters and the exceptions thrown are the same as those of {@link Base4352#fromBytes(byte[])} and
+ * {@link Base4352#toBytes(String)}.
+ */
+public class Base4352Codec {
+    private static final String INVALID_CHARACTER_EXP        =
+            "Cannot convert string containing invalid character(s).";
+    private static final String REMAINDER_OUTSIDE_SUFFIX_EXP =
+            "Cannot convert string with remainder character outside the suffix: %c";
+    private static final String INVALID_FINAL_CHARACTER_EXP  =
+            "Cannot convert string with invalid final character: %s";
+    private static final String INVALID_FINAL_TWO_CHARS_EXP  =
+            "Cannot convert string with invalid final two characters: %s";
+
+    // The number of values which encode a 12-bit half of a group of three bytes; larger values encode single bytes.
+    private static final int GROUP_VALUE_COUNT = 4096;
+
+    // Each row is {first value, last value, offset} where every value in the range is encoded as the value plus the
+    // offset.
+    private static final int[][] VALUE_RANGES = {
+            {0,    9,    48},   // 0-9
+            {10,   35,   55},   // A-Z
+            {36,   61,   61},   // a-z
+            {62,   62,   -17},  // -
+            {63,   63,   32},   // _
+            {64,   559,  128},
+            {560,  783,  371},
+            {784,  949,  378},
+            {950,  987,  379},
+            {988,  1026, 389},
+            {1027, 1064, 3229},
+            {1065, 1107, 3239},
+            {1108, 1180, 3500},
+            {1181, 1221, 3523},
+            {1222, 1254, 3530},
+            {1255, 1311, 3569},
+            {1312, 1378, 3576},
+            {1379, 1464, 3645},
+            {1465, 2133, 3655},
+            {2134, 2214, 3658},
+            {2215, 2266, 3801},
+            {2267, 2458, 5157},
+            {2459, 2736, 5221},
+            {2737, 2774, 5231},
+            {2775, 2805, 5256},
+            {2806, 2858, 5258},
+            {2859, 2998, 5589},
+            {2999, 3366, 5593},
+            {3367, 3526, 5945},
+            {3527, 4351, 6649}
+    };
+
+    private static final char[] ENCODE_TABLE = new char[GROUP_VALUE_COUNT + 256];
+
+    // Every character up to the largest encoded character mapped to its value, or -1 if the character is invalid.
+    private static final short[] DECODE_TABLE;
+
+    static {
+        int maxChar = 0;
+
+        for (int[] range : VALUE_RANGES) {
+            for (int value = range[0]; value <= range[1]; value++) {
+                ENCODE_TABLE[value] = (char) (value + range[2]);
+            }
+
+            maxChar = Math.max(maxChar, range[1] + range[2]);
+        }
+
+        DECODE_TABLE = new short[maxChar + 1];
+        Arrays.fill(DECODE_TABLE, (short) -1);
+
+        for (int value = 0; value < ENCODE_TABLE.length; value++) {
+            DECODE_TABLE[ENCODE_TABLE[value]] = (short) value;
+        }
+    }
+
+    /**
+     * Encodes consecutive slices of bytes as if they were a single array, appending the encoded characters to a
+     * StringBuilder as soon as each group of three bytes is complete.
+     */
+    public static class Encoder {
+        private final StringBuilder sb;
+
+        // The bytes of the current incomplete group, and the number of them (0 to 2).
+        private int pendingBytes     = 0;
+        private int pendingByteCount = 0;
+
+        /**
+         * @param sb    The StringBuilder to append the encoded characters to.
+         */
+        public Encoder(@NonNull StringBuilder sb) {
+            this.sb = sb;
+        }
+
+        /**
+         * @param bytes     The array containing the bytes to encode.
+         * @param offset    The index of the first byte to encode.
+         * @param length    The number of bytes to encode.
+         * @return          This encoder.
+         */
+        @NonNull
+        public Encoder update(@NonNull byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                pendingBytes = (pendingBytes << 8) | (bytes[i] & 0xFF);
+
+                if (++pendingByteCount == 3) {
+                    sb.append(ENCODE_TABLE[pendingBytes >>> 12]);
+                    sb.append(ENCODE_TABLE[pendingBytes & 0xFFF]);
+
+                    pendingBytes     = 0;
+                    pendingByteCount = 0;
+                }
+            }
+
+            return this;
+        }
+
+        /**
+         * Append the suffix encoding any bytes of an incomplete final group. The encoder can be reused afterwards.
+         */
+        public void finish() {
+            if (pendingByteCount == 2) {
+                sb.append(ENCODE_TABLE[GROUP_VALUE_COUNT + (pendingBytes >>> 8)]);
+            }
+            if (pendingByteCount != 0) {
+                sb.append(ENCODE_TABLE[GROUP_VALUE_COUNT + (pendingBytes & 0xFF)]);
+            }
+
+            pendingBytes     = 0;
+            pendingByteCount = 0;
+        }
+    }
+
+    private Base4352Codec() {}
+
+    /**
+     * @param byteCount     The number of bytes to encode.
+     * @return              The number of characters in the encoding of the given number of bytes.
+     */
+    public static int encodedLength(int byteCount) {
+        return byteCount / 3 * 2 + byteCount % 3;
+    }
+
+    /**
+     * @param bytes     The bytes to encode.
+     * @return          The encoded string, equal to {@link Base4352#fromBytes(byte[])} for the same bytes.
+     */
+    @NonNull
+    public static String encode(@NonNull byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(encodedLength(bytes.length));
+        encode(bytes, 0, bytes.length, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Append the complete encoding of the given slice of bytes to the given StringBuilder.
+     *
+     * @param bytes     The array containing the bytes to encode.
+     * @param offset    The index of the first byte to encode.
+     * @param length    The number of bytes to encode.
+     * @param sb        The StringBuilder to append the encoded characters to.
+     */
+    public static void encode(@NonNull byte[] bytes, int offset, int length, @NonNull StringBuilder sb) {
+        new Encoder(sb).update(bytes, offset, length).finish();
+    }
+
+    /**
+     * Return the number of bytes which the given range of characters decodes to, assuming that the characters are
+     * valid; this is determined by the length of the range and the final character.
+     *
+     * @param s         The string containing the characters to decode.
+     * @param start     The index of the first character to decode.
+     * @param length    The number of characters to decode.
+     * @return          The number of bytes written by {@link #decode(CharSequence, int, int, byte[], int)}.
+     */
+    public static int decodedLength(@NonNull CharSequence s, int start, int length) {
+        if (length % 2 == 1) {
+            return length / 2 * 3 + 1;
+        }
+        else if (length != 0 && decodeCharacter(s.charAt(start + length - 1)) >= GROUP_VALUE_COUNT) {
+            return length / 2 * 3 - 1;
+        }
+        else {
+            return length / 2 * 3;
+        }
+    }
+
+    /**
+     * @param s                         The string to decode.
+     * @return                          The decoded bytes, equal to {@link Base4352#toBytes(String)} for the same
+     *                                  string.
+     * @throws Base4352Exception        Thrown when the string is not a valid Base4352 encoding.
+     */
+    @NonNull
+    public static byte[] decode(@NonNull String s) throws Base4352Exception {
+        final byte[] bytes = new byte[decodedLength(s, 0, s.length())];
+        decode(s, 0, s.length(), bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Decode the given range of characters into the given buffer, which must have at least
+     * {@link #decodedLength(CharSequence, int, int)} bytes remaining from the given offset.
+     *
+     * @param s                         The string containing the characters to decode.
+     * @param start                     The index of the first character to decode.
+     * @param length                    The number of characters to decode.
+     * @param buffer                    The buffer to write the decoded bytes to.
+     * @param offset                    The index in the buffer to write the first decoded byte to.
+     * @return                          The number of bytes written.
+     * @throws Base4352Exception        Thrown when the range of characters is not a valid Base4352 encoding.
+     */
+    public static int decode(@NonNull CharSequence s, int start, int length, @NonNull byte[] buffer, int offset)
+            throws Base4352Exception {
+
+        // Every pair of characters before the suffix (the final one or two characters) decodes to three bytes.
+        final int end       = start + length;
+        final int suffixEnd = end - (length % 2 == 1 ? 1 : Math.min(length, 2));
+
+        int byteIndex = offset;
+
+        for (int i = start; i < suffixEnd; i += 2) {
+            final int value1 = decodeCharacter(s.charAt(i));
+            final int value2 = decodeCharacter(s.charAt(i + 1));
+
+            if (value1 < 0 || value1 >= GROUP_VALUE_COUNT || value2 < 0 || value2 >= GROUP_VALUE_COUNT) {
+                checkValidCharacters(s, i, end);
+
+                final char c = s.charAt(value1 >= GROUP_VALUE_COUNT ? i : i + 1);
+                throw new Base4352Exception(String.format(REMAINDER_OUTSIDE_SUFFIX_EXP, c));
+            }
+
+            final int group = (value1 << 12) | value2;
+
+            buffer[byteIndex++] = (byte) (group >>> 16);
+            buffer[byteIndex++] = (byte) (group >>> 8);
+            buffer[byteIndex++] = (byte) group;
+        }
+
+        if (end - suffixEnd == 1) {
+            final int value = decodeCharacter(s.charAt(suffixEnd));
+
+            if (value < GROUP_VALUE_COUNT) {
+                checkValidCharacters(s, suffixEnd, end);
+
+                final String finalCharacter = s.subSequence(suffixEnd, end).toString();
+                throw new Base4352Exception(String.format(INVALID_FINAL_CHARACTER_EXP, finalCharacter));
+            }
+
+            buffer[byteIndex++] = (byte) (value - GROUP_VALUE_COUNT);
+        }
+        else if (end - suffixEnd == 2) {
+            final int value1 = decodeCharacter(s.charAt(suffixEnd));
+            final int value2 = decodeCharacter(s.charAt(suffixEnd + 1));
+
+            if (0 <= value1 && value1 < GROUP_VALUE_COUNT && 0 <= value2 && value2 < GROUP_VALUE_COUNT) {
+                final int group = (value1 << 12) | value2;
+
+                buffer[byteIndex++] = (byte) (group >>> 16);
+                buffer[byteIndex++] = (byte) (group >>> 8);
+                buffer[byteIndex++] = (byte) group;
+            }
+            else if (value1 >= GROUP_VALUE_COUNT && value2 >= GROUP_VALUE_COUNT) {
+                buffer[byteIndex++] = (byte) (value1 - GROUP_VALUE_COUNT);
+                buffer[byteIndex++] = (byte) (value2 - GROUP_VALUE_COUNT);
+            }
+            else {
+                checkValidCharacters(s, suffixEnd, end);
+
+                final String finalCharacters = s.subSequence(suffixEnd, end).toString();
+                throw new Base4352Exception(String.format(INVALID_FINAL_TWO_CHARS_EXP, finalCharacters));
+            }
+        }
+
+        return byteIndex - offset;
+    }
+
+    /**
+     * @return  The value of the given character, or -1 if the character is invalid.
+     */
+    private static int decodeCharacter(char c) {
+        return c < DECODE_TABLE.length ? DECODE_TABLE[c] : -1;
+    }
+
+    /**
+     * Before reporting an invalid encoding, check that the remaining characters are valid so that an invalid character
+     * is reported in preference to an invalid position, as with {@link Base4352#toBytes(String)}.
+     */
+    private static void checkValidCharacters(@NonNull CharSequence s, int start, int end) throws Base4352Exception {
+        for (int i = start; i < end; i++) {
+            if (decodeCharacter(s.charAt(i)) < 0) {
+                throw new Base4352Exception(INVALID_CHARACTER_EXP);
+            }
+        }
+    }
+}
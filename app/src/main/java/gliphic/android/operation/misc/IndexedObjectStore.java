@@ -0,0 +1,282 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.misc;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * A store of objects which are uniquely identified by a (long) number and a (string) ID.
+ *
+ * Objects are indexed by number and by ID so that both lookups take constant time, and are also kept in a list
+ * ordered by ascending number. The position of an inserted object is found with a binary search; appending an object
+ * with a larger number than all stored objects (the usual case when loading objects from the server) requires no
+ * element shifting at all.
+ *
+ * Since the number of an object is assumed never to change, only the ID index needs to be updated when an object is
+ * modified; see {@link #updateId(Object, String)}.
+ *
+ * @param <T>   The type of object to store.
+ */
+public abstract class IndexedObjectStore<T> {
+    private final Class<T>             type;
+    private final LongObjectHashMap<T> numberIndex = new LongObjectHashMap<>();
+    private final Map<String, T>       idIndex     = new HashMap<>();
+    private final ArrayList<T>         ordered     = new ArrayList<>();
+    private final List<T>              listView    = new ListView();
+    private final List<T>              readOnlyView = Collections.unmodifiableList(ordered);
+
+    /**
+     * @param type  The class of the stored objects, used to reject objects of a different class without casting.
+     */
+    protected IndexedObjectStore(@NonNull Class<T> type) {
+        this.type = type;
+    }
+
+    protected abstract long getNumber(@NonNull T object);
+
+    protected abstract String getId(@NonNull T object);
+
+    public int size() {
+        return ordered.size();
+    }
+
+    public boolean isEmpty() {
+        return ordered.isEmpty();
+    }
+
+    /**
+     * @param number    The number of the object to search for.
+     * @return          The stored object with the given number, or null if no such object is stored.
+     */
+    @Nullable
+    public T getFromNumber(long number) {
+        return numberIndex.get(number);
+    }
+
+    /**
+     * @param id        The ID of the object to search for.
+     * @return          The stored object with the given ID, or null if no such object is stored.
+     */
+    @Nullable
+    public T getFromId(@NonNull String id) {
+        return idIndex.get(id);
+    }
+
+    /**
+     * Check if the given object instance (not an equal object) is stored.
+     *
+     * @param object    The object to search for.
+     * @return          True if the given instance is stored, false otherwise.
+     */
+    public boolean contains(@Nullable Object object) {
+        return indexOf(object) >= 0;
+    }
+
+    /**
+     * Add the given object to the store, in ascending number order.
+     *
+     * @param object    The object to add.
+     * @return          True if the object was added, false if an object with the same number is already stored.
+     */
+    public boolean add(@NonNull T object) {
+        final long number = getNumber(object);
+
+        if (numberIndex.containsKey(number)) {
+            return false;
+        }
+
+        final int size = ordered.size();
+        if (size == 0 || getNumber(ordered.get(size - 1)) < number) {
+            ordered.add(object);
+        }
+        else {
+            // The number is not stored so the binary search always returns (-(insertion point) - 1).
+            ordered.add(-binarySearch(number) - 1, object);
+        }
+
+        numberIndex.put(number, object);
+
+        final String id = getId(object);
+        if (id != null) {
+            idIndex.put(id, object);
+        }
+
+        return true;
+    }
+
+    /**
+     * Remove the given object instance from the store.
+     *
+     * @param object    The object to remove.
+     * @return          True if the given instance was stored (and is now removed), false otherwise.
+     */
+    public boolean remove(@Nullable Object object) {
+        final int index = indexOf(object);
+
+        if (index < 0) {
+            return false;
+        }
+
+        final T removedObject = ordered.remove(index);
+
+        numberIndex.remove(getNumber(removedObject));
+
+        final String id = getId(removedObject);
+        if (id != null && idIndex.get(id) == removedObject) {
+            idIndex.remove(id);
+        }
+
+        return true;
+    }
+
+    /**
+     * Update the ID index after the ID of a stored object has been modified.
+     *
+     * @param object    The object whose ID has changed.
+     * @param oldId     The ID of the object before it was modified.
+     */
+    public void updateId(@NonNull T object, @Nullable String oldId) {
+        // Always remove the old ID since the object may have been removed from this store after its ID was modified.
+        if (oldId != null && idIndex.get(oldId) == object) {
+            idIndex.remove(oldId);
+        }
+
+        if (!contains(object)) {
+            return;
+        }
+
+        final String newId = getId(object);
+        if (newId != null) {
+            idIndex.put(newId, object);
+        }
+    }
+
+    /**
+     * Get a view of all stored objects, in ascending number order.
+     *
+     * The returned list is backed by this store; adding or removing objects using the list adds or removes them from
+     * the store (including the indices). Since the list is always ordered by number, objects can only be appended
+     * with {@link List#add(Object)}, which inserts them in number order and throws an IllegalArgumentException if an
+     * object with the same number is already stored. Adding or setting an element at an index (and so sorting the
+     * list) throws an UnsupportedOperationException.
+     *
+     * @return  A mutable list view of this store.
+     */
+    public List<T> asList() {
+        return listView;
+    }
+
+    /**
+     * @return  An unmodifiable list view of this store, in ascending number order.
+     */
+    public List<T> asReadOnlyList() {
+        return readOnlyView;
+    }
+
+    private int indexOf(@Nullable Object object) {
+        if (!type.isInstance(object)) {
+            return -1;
+        }
+
+        final long number = getNumber(type.cast(object));
+
+        if (numberIndex.get(number) != object) {
+            return -1;
+        }
+
+        return binarySearch(number);
+    }
+
+    private int binarySearch(long number) {
+        int low  = 0;
+        int high = ordered.size() - 1;
+
+        while (low <= high) {
+            final int  mid       = (low + high) >>> 1;
+            final long midNumber = getNumber(ordered.get(mid));
+
+            if (midNumber < number) {
+                low = mid + 1;
+            }
+            else if (midNumber > number) {
+                high = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+
+        return -(low + 1);
+    }
+
+    private class ListView extends AbstractList<T> implements RandomAccess {
+        @Override
+        public T get(int index) {
+            return ordered.get(index);
+        }
+
+        @Override
+        public int size() {
+            return ordered.size();
+        }
+
+        @Override
+        public boolean add(T object) {
+            if (!IndexedObjectStore.this.add(object)) {
+                String s = "An object with the number %d is already stored.";
+                throw new IllegalArgumentException(String.format(s, getNumber(object)));
+            }
+
+            return true;
+        }
+
+        @Override
+        public void add(int index, T object) {
+            throw new UnsupportedOperationException("Objects are always stored in number order.");
+        }
+
+        @Override
+        public T remove(int index) {
+            final T object = ordered.get(index);
+            IndexedObjectStore.this.remove(object);
+            return object;
+        }
+
+        @Override
+        public boolean remove(Object object) {
+            return IndexedObjectStore.this.remove(object);
+        }
+
+        @Override
+        public boolean contains(Object object) {
+            return IndexedObjectStore.this.contains(object);
+        }
+
+        @Override
+        public int indexOf(Object object) {
+            return Math.max(IndexedObjectStore.this.indexOf(object), -1);
+        }
+
+        @Override
+        public int lastIndexOf(Object object) {
+            return indexOf(object);
+        }
+    }
+}
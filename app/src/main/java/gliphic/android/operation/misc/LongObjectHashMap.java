@@ -0,0 +1,213 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.misc;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * A hash map from primitive long keys to non-null object values.
+ *
+ * Keys are stored in a primitive array so that lookups do not box the key, which makes this map suitable for indexing
+ * group and contact numbers. Collisions are resolved with linear probing and removals use backward-shift deletion,
+ * so there are no tombstones and lookup cost does not degrade after many removals.
+ *
+ * A null value marks an empty slot, therefore null values cannot be stored.
+ *
+ * @param <V>   The type of the mapped values.
+ */
+public class LongObjectHashMap<V> {
+    private static final int   MIN_CAPACITY = 16;
+    private static final float LOAD_FACTOR  = 0.5f;
+
+    private long[]   keys;
+    private Object[] values;
+    private int      mask;
+    private int      resizeThreshold;
+    private int      size = 0;
+
+    public LongObjectHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize  The number of mappings expected to be stored without the map needing to be resized.
+     */
+    public LongObjectHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    private static int hash(long key) {
+        // Fibonacci hashing spreads sequential numbers (the common case for server-assigned numbers) across the table.
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void allocate(int capacity) {
+        keys            = new long[capacity];
+        values          = new Object[capacity];
+        mask            = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int indexOf(long key) {
+        int index = hash(key) & mask;
+
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                return index;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @param key   The key to search for.
+     * @return      The value mapped to the given key, or null if there is no such mapping.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        final int index = indexOf(key);
+
+        return index < 0 ? null : (V) values[index];
+    }
+
+    /**
+     * Map the given key to the given value, replacing any existing mapping for the key.
+     *
+     * @param key   The key to map.
+     * @param value The non-null value to map the key to.
+     * @return      The value previously mapped to the given key, or null if there was no such mapping.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(long key, @NonNull V value) {
+        if (value == null) {
+            throw new NullPointerException("A LongObjectHashMap cannot store null values.");
+        }
+
+        int index = hash(key) & mask;
+
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                final V oldValue = (V) values[index];
+                values[index] = value;
+                return oldValue;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        keys[index]   = key;
+        values[index] = value;
+
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+
+        return null;
+    }
+
+    /**
+     * Remove the mapping for the given key, if it exists.
+     *
+     * @param key   The key to remove.
+     * @return      The value which was mapped to the given key, or null if there was no such mapping.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int index = indexOf(key);
+
+        if (index < 0) {
+            return null;
+        }
+
+        final V oldValue = (V) values[index];
+        values[index] = null;
+        size--;
+
+        // Shift back any following entries in the same probe sequence so that they remain reachable.
+        int next = (index + 1) & mask;
+        while (values[next] != null) {
+            final int ideal = hash(keys[next]) & mask;
+
+            // Move the entry if its ideal slot does not lie cyclically within (index, next].
+            final boolean idealInRange = next > index
+                    ? (ideal > index && ideal <= next)
+                    : (ideal > index || ideal <= next);
+
+            if (!idealInRange) {
+                keys[index]   = keys[next];
+                values[index] = values[next];
+                values[next]  = null;
+                index = next;
+            }
+
+            next = (next + 1) & mask;
+        }
+
+        return oldValue;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private void rehash(int newCapacity) {
+        final long[]   oldKeys   = keys;
+        final Object[] oldValues = values;
+
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = hash(oldKeys[i]) & mask;
+
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+
+                keys[index]   = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.misc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import libraries.GeneralUtils;
+
+/**
+ * Lightweight tracing of user actions, where each action is a tree of timed spans which may run on different threads
+ * and across chained asynchronous callbacks.
+ *
+ * A trace is started for a user action with {@link #startTrace(String)}, and every span started while a span of that
+ * trace is current on the calling thread becomes its child. The current span is propagated to asynchronous callbacks
+ * by capturing it with {@link #getCurrentSpan()} when the callback is created and entering it with
+ * {@link #run(Span, Runnable)} (or {@link #enter(Span)} and {@link #exit(Span)}) when the callback is invoked;
+ * {@link #wrap(Runnable)} does both for a Runnable.
+ *
+ * Spans started when no span is current are not recorded, so code outside a traced action pays only for a thread-local
+ * lookup. Completed traces are kept in memory (up to {@link #MAX_COMPLETED_TRACES}) and can be exported in the Chrome
+ * trace event format with {@link #getChromeTraceJson()}.
+ */
+public class Trace {
+    public static final String CATEGORY_ACTION  = "action";
+    public static final String CATEGORY_NETWORK = "network";
+    public static final String CATEGORY_JSON    = "json";
+    public static final String CATEGORY_CRYPTO  = "crypto";
+    public static final String CATEGORY_UI      = "ui";
+
+    // The number of the most recently completed traces to keep; older traces are discarded.
+    static final int MAX_COMPLETED_TRACES = 20;
+
+    // The span returned when no span is current, which records nothing.
+    private static final Span NO_SPAN = new Span(null, "", "");
+
+    private static final ThreadLocal<Span> currentSpan     = new ThreadLocal<>();
+    private static final ArrayDeque<Span>  completedTraces = new ArrayDeque<>();
+
+    /**
+     * A timed operation within a trace.
+     *
+     * Every method is thread-safe; the children of every span in a trace are guarded by the root span of the trace.
+     */
+    public static class Span {
+        private final Span       root;
+        private final String     name;
+        private final String     category;
+        private final long       threadId;
+        private final String     threadName;
+        private final long       startTime;
+        private final List<Span> children = new ArrayList<>();
+        private long             endTime  = -1;
+
+        private Span(@Nullable Span parent, @NonNull String name, @NonNull String category) {
+            this.root       = parent == null ? this : parent.root;
+            this.name       = name;
+            this.category   = category;
+            this.threadId   = Thread.currentThread().getId();
+            this.threadName = Thread.currentThread().getName();
+            this.startTime  = System.nanoTime();
+        }
+
+        /**
+         * Record the end time of this span, or do nothing if this span has already ended.
+         *
+         * Ending the root span of a trace stores the trace as completed; spans which have not ended by then are still
+         * recorded if they end later.
+         */
+        public void end() {
+            if (this == NO_SPAN) {
+                return;
+            }
+
+            synchronized (root) {
+                if (endTime >= 0) {
+                    return;
+                }
+
+                endTime = System.nanoTime();
+            }
+
+            if (root == this) {
+                synchronized (completedTraces) {
+                    if (completedTraces.size() == MAX_COMPLETED_TRACES) {
+                        completedTraces.removeFirst();
+                    }
+
+                    completedTraces.addLast(this);
+                }
+            }
+        }
+
+        /**
+         * @return  False if this span records nothing because no trace was in progress when it was started.
+         */
+        public boolean isRecording() {
+            return this != NO_SPAN;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        /**
+         * @return  The duration of this span in nanoseconds, or -1 if this span has not ended.
+         */
+        public long getDuration() {
+            synchronized (root) {
+                return endTime < 0 ? -1 : endTime - startTime;
+            }
+        }
+
+        /**
+         * @return  A copy of the child spans of this span, in the order in which they were started.
+         */
+        public List<Span> getChildren() {
+            synchronized (root) {
+                return new ArrayList<>(children);
+            }
+        }
+
+        private Span startChild(@NonNull String name, @NonNull String category) {
+            final Span child = new Span(this, name, category);
+
+            synchronized (root) {
+                children.add(child);
+            }
+
+            return child;
+        }
+    }
+
+    /**
+     * An event in the Chrome trace event format; every span is exported as a complete ("X") event and every thread
+     * name as a metadata ("M") event.
+     */
+    private static class ChromeTraceEvent {
+        private final String              name;
+        private final String              cat;
+        private final String              ph;
+        private final Long                ts;
+        private final Long                dur;
+        private final int                 pid = 1;
+        private final long                tid;
+        private final Map<String, String> args;
+
+        private ChromeTraceEvent(String name, String cat, String ph, Long ts, Long dur, long tid,
+                                 Map<String, String> args) {
+
+            this.name = name;
+            this.cat  = cat;
+            this.ph   = ph;
+            this.ts   = ts;
+            this.dur  = dur;
+            this.tid  = tid;
+            this.args = args;
+        }
+    }
+
+    private static class ChromeTrace {
+        private final List<ChromeTraceEvent> traceEvents;
+        private final String                 displayTimeUnit = "ms";
+
+        private ChromeTrace(@NonNull List<ChromeTraceEvent> traceEvents) {
+            this.traceEvents = traceEvents;
+        }
+    }
+
+    /**
+     * Start a new trace for a user action, independent of any span which is current on the calling thread.
+     *
+     * The returned span is not made current; enter it while starting the work of the action and end it when the
+     * action completes.
+     *
+     * @param name  The name of the user action.
+     * @return      The root span of the new trace.
+     */
+    public static Span startTrace(@NonNull String name) {
+        return new Span(null, name, CATEGORY_ACTION);
+    }
+
+    /**
+     * Start a child span of the span which is current on the calling thread.
+     *
+     * The returned span is not made current, so spans started before it ends are its siblings rather than children;
+     * enter it if it should contain other spans.
+     *
+     * @param name      The name of the operation.
+     * @param category  The category of the operation, e.g. {@link #CATEGORY_NETWORK}.
+     * @return          The new span, or a span which records nothing if no span is current.
+     */
+    public static Span startSpan(@NonNull String name, @NonNull String category) {
+        final Span parent = currentSpan.get();
+
+        return parent == null ? NO_SPAN : parent.startChild(name, category);
+    }
+
+    /**
+     * @return  The span which is current on the calling thread, or a span which records nothing if there is none.
+     *          The returned span can be entered on any thread to continue its trace.
+     */
+    public static Span getCurrentSpan() {
+        final Span span = currentSpan.get();
+
+        return span == null ? NO_SPAN : span;
+    }
+
+    /**
+     * Make the given span current on the calling thread.
+     *
+     * @param span  The span to make current.
+     * @return      The previously current span, which must be given to {@link #exit(Span)}.
+     */
+    public static Span enter(@NonNull Span span) {
+        final Span previousSpan = getCurrentSpan();
+
+        currentSpan.set(span == NO_SPAN ? null : span);
+
+        return previousSpan;
+    }
+
+    /**
+     * @param previousSpan  The span returned by the matching call to {@link #enter(Span)}.
+     */
+    public static void exit(@NonNull Span previousSpan) {
+        currentSpan.set(previousSpan == NO_SPAN ? null : previousSpan);
+    }
+
+    /**
+     * Run the given runnable with the given span current on the calling thread.
+     */
+    public static void run(@NonNull Span span, @NonNull Runnable runnable) {
+        final Span previousSpan = enter(span);
+
+        try {
+            runnable.run();
+        }
+        finally {
+            exit(previousSpan);
+        }
+    }
+
+    /**
+     * @param runnable  A runnable to run later, possibly on a different thread.
+     * @return          A runnable which runs the given runnable with the span which is current now.
+     */
+    public static Runnable wrap(@NonNull Runnable runnable) {
+        final Span span = currentSpan.get();
+
+        return span == null ? runnable : () -> run(span, runnable);
+    }
+
+    /**
+     * @return  The root spans of the most recently completed traces, from oldest to newest.
+     */
+    public static List<Span> getCompletedTraces() {
+        synchronized (completedTraces) {
+            return new ArrayList<>(completedTraces);
+        }
+    }
+
+    /**
+     * Discard every completed trace.
+     */
+    public static void clear() {
+        synchronized (completedTraces) {
+            completedTraces.clear();
+        }
+    }
+
+    /**
+     * @return  Every completed trace as a JSON object in the Chrome trace event format, which can be opened with
+     *          chrome://tracing or Perfetto. Spans which have not ended are omitted.
+     */
+    public static String getChromeTraceJson() {
+        final List<ChromeTraceEvent> events      = new ArrayList<>();
+        final Map<Long, String>      threadNames = new HashMap<>();
+
+        final List<Span> traces = getCompletedTraces();
+        for (int i = 0; i < traces.size(); i++) {
+            final Map<String, String> args = new HashMap<>();
+            args.put("trace", String.format("%d: %s", i, traces.get(i).name));
+
+            addChromeTraceEvents(traces.get(i), args, events, threadNames);
+        }
+
+        for (Map.Entry<Long, String> threadName : threadNames.entrySet()) {
+            final Map<String, String> args = new HashMap<>();
+            args.put("name", threadName.getValue());
+
+            events.add(new ChromeTraceEvent("thread_name", null, "M", null, null, threadName.getKey(), args));
+        }
+
+        return GeneralUtils.toJson(new ChromeTrace(events));
+    }
+
+    private static void addChromeTraceEvents(@NonNull Span span,
+                                             @NonNull Map<String, String> args,
+                                             @NonNull List<ChromeTraceEvent> events,
+                                             @NonNull Map<Long, String> threadNames) {
+
+        final long duration = span.getDuration();
+
+        if (duration >= 0) {
+            events.add(new ChromeTraceEvent(
+                    span.name,
+                    span.category,
+                    "X",
+                    span.startTime / 1000,
+                    duration / 1000,
+                    span.threadId,
+                    args
+            ));
+
+            threadNames.put(span.threadId, span.threadName);
+        }
+
+        for (Span child : span.getChildren()) {
+            addChromeTraceEvents(child, args, events, threadNames);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.server_interaction.http_server;
+
+import com.android.volley.VolleyError;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * This class keeps the current access token in memory and ensures that at most one access token refresh request is
+ * sent to the server at any time.
+ *
+ * Callers which require a new access token while a refresh request is in progress are added as listeners to the
+ * in-progress request instead of sending their own request, and are all notified when the request completes.
+ *
+ * A cached access token which is usable but close to expiring can be refreshed in the background (see
+ * {@link #isRefreshDue(long)}) so that callers rarely have to wait for a refresh request.
+ *
+ * All methods are expected to be called on the main thread (as are Volley response listeners) but are synchronized
+ * so that they are safe to call from any thread.
+ */
+public class AccessTokenManager {
+
+    /**
+     * A listener which is notified when an access token refresh request completes.
+     */
+    interface RefreshListener {
+        /**
+         * @param accessToken   The new access token, which has already been stored.
+         */
+        void onRefreshed(@NonNull String accessToken);
+
+        /**
+         * @param error     The error returned by the server, or null if the response could not be handled.
+         */
+        void onFailed(@Nullable VolleyError error);
+    }
+
+    /**
+     * An access token refresh request which has been sent (or is about to be sent) to the server.
+     */
+    static class Refresh {
+        private final List<RefreshListener> listeners = new ArrayList<>();
+
+        private Refresh() {}
+    }
+
+    // The server could return a response up to the point which the request times out, so the access token must have
+    // an expiry time after this time to be usable.
+    private static final long USABLE_MARGIN_MILLIS = 6 * HttpOperations.REQUEST_TIME_OUT;
+
+    // Refresh a usable access token in the background when it is within twice the usable margin of expiring.
+    private static final long PROACTIVE_REFRESH_MARGIN_MILLIS = 2 * USABLE_MARGIN_MILLIS;
+
+    private static String  cachedAccessToken       = null;
+    private static long    cachedAccessTokenExpiry = 0;
+    private static Refresh currentRefresh          = null;
+
+    /**
+     * @param accessTokenExpiry     The access token expiry time, in milliseconds since epoch.
+     * @return                      True if an access token with the given expiry can be used for a new request.
+     */
+    static boolean isUsable(long accessTokenExpiry) {
+        return System.currentTimeMillis() + USABLE_MARGIN_MILLIS < accessTokenExpiry;
+    }
+
+    /**
+     * @param accessTokenExpiry     The access token expiry time, in milliseconds since epoch.
+     * @return                      True if an access token with the given expiry should be refreshed in the
+     *                              background, even though it may still be usable.
+     */
+    static boolean isRefreshDue(long accessTokenExpiry) {
+        return System.currentTimeMillis() + PROACTIVE_REFRESH_MARGIN_MILLIS >= accessTokenExpiry;
+    }
+
+    /**
+     * @return  The cached access token if it is usable, or null otherwise.
+     */
+    @Nullable
+    static synchronized String getUsableAccessToken() {
+        return cachedAccessToken != null && isUsable(cachedAccessTokenExpiry) ? cachedAccessToken : null;
+    }
+
+    /**
+     * @return  The expiry time of the cached access token, or 0 if no access token is cached.
+     */
+    static synchronized long getCachedAccessTokenExpiry() {
+        return cachedAccessToken == null ? 0 : cachedAccessTokenExpiry;
+    }
+
+    /**
+     * Cache the given access token, which must already have been stored in SharedPreferences.
+     *
+     * @param accessToken           The access token.
+     * @param accessTokenExpiry     The access token expiry time, in milliseconds since epoch.
+     */
+    static synchronized void setAccessToken(@NonNull String accessToken, long accessTokenExpiry) {
+        cachedAccessToken       = accessToken;
+        cachedAccessTokenExpiry = accessTokenExpiry;
+    }
+
+    /**
+     * Remove the cached access token from memory, e.g. when the contact signs out.
+     *
+     * Any in-progress refresh request is abandoned: its response is ignored and its listeners are notified that it
+     * failed, so that no caller waits for it indefinitely.
+     */
+    public static void clear() {
+        final Refresh abandonedRefresh;
+
+        synchronized (AccessTokenManager.class) {
+            cachedAccessToken       = null;
+            cachedAccessTokenExpiry = 0;
+
+            abandonedRefresh = currentRefresh;
+            currentRefresh   = null;
+        }
+
+        if (abandonedRefresh == null) {
+            return;
+        }
+
+        for (RefreshListener listener : abandonedRefresh.listeners) {
+            listener.onFailed(null);
+        }
+    }
+
+    /**
+     * Add a listener to the in-progress refresh request, or start a new refresh request if none is in progress.
+     *
+     * @param listener  The listener to notify when the refresh request completes.
+     * @return          A new refresh request if the caller must send the request to the server and then call either
+     *                  {@link #onRefreshSuccess} or {@link #onRefreshFailure}, or null if a request is already in
+     *                  progress.
+     */
+    @Nullable
+    static synchronized Refresh addRefreshListener(@NonNull RefreshListener listener) {
+        if (currentRefresh != null) {
+            currentRefresh.listeners.add(listener);
+            return null;
+        }
+
+        currentRefresh = new Refresh();
+        currentRefresh.listeners.add(listener);
+
+        return currentRefresh;
+    }
+
+    /**
+     * @param refresh   The refresh request returned by {@link #addRefreshListener}.
+     * @return          False if the given request has been abandoned, in which case its response should be ignored.
+     */
+    static synchronized boolean isCurrent(@NonNull Refresh refresh) {
+        return refresh == currentRefresh;
+    }
+
+    /**
+     * Cache the refreshed access token and notify all listeners waiting for the refresh request.
+     *
+     * @param refresh               The refresh request returned by {@link #addRefreshListener}.
+     * @param accessToken           The new access token, which must already have been stored in SharedPreferences.
+     * @param accessTokenExpiry     The new access token expiry time, in milliseconds since epoch.
+     */
+    static void onRefreshSuccess(@NonNull Refresh refresh, @NonNull String accessToken, long accessTokenExpiry) {
+        synchronized (AccessTokenManager.class) {
+            if (refresh != currentRefresh) {
+                return;
+            }
+
+            currentRefresh = null;
+            setAccessToken(accessToken, accessTokenExpiry);
+        }
+
+        for (RefreshListener listener : refresh.listeners) {
+            listener.onRefreshed(accessToken);
+        }
+    }
+
+    /**
+     * Notify all listeners waiting for the refresh request that it failed.
+     *
+     * @param refresh   The refresh request returned by {@link #addRefreshListener}.
+     * @param error     The error returned by the server, or null if the response could not be handled.
+     */
+    static void onRefreshFailure(@NonNull Refresh refresh, @Nullable VolleyError error) {
+        synchronized (AccessTokenManager.class) {
+            if (refresh != currentRefresh) {
+                return;
+            }
+
+            currentRefresh = null;
+        }
+
+        for (RefreshListener listener : refresh.listeners) {
+            listener.onFailed(error);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.server_interaction.http_server;
+
+import gliphic.android.interfaces.AccessTokenCallback;
+import gliphic.android.operation.Alerts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import libraries.Vars;
+import pojo.account.GroupShare;
+import pojo.group.GroupShareLoadabilityRequest;
+import pojo.group.LoadableGroupSharesResponse;
+import pojo.group.UnloadableGroupSharesResponse;
+import pojo.misc.ContactAndGroupNumberPair;
+import pojo.xmpp.XMPPMessageBody;
+
+/**
+ * Keeps the static list of group-shares (see {@link Alerts}) up to date using the group-share changes pushed by the
+ * XMPP server, applying each change to the list instead of reloading it.
+ *
+ * Pushed changes are not applied immediately. Every change received within a short window is merged, so that a burst
+ * of pushes results in a single loadability request for each endpoint and group-share status. A contact and group
+ * number pair which appears in more than one change within the window is only checked for its latest change.
+ *
+ * While the activity is stopped, pushed changes are still received but are only merged, and are sent when the activity
+ * is started again. The owner should therefore receive pushed changes for its whole lifetime, so that no change is
+ * missed between being stopped and started.
+ *
+ * The XMPP messages do not contain a version number, so instead any point at which changes may have been missed is
+ * treated as a gap: whenever a loadability request fails or no access token can be obtained. A gap discards every
+ * pending change and requires the group-shares to be fully reloaded instead. Responses to requests sent before the
+ * gap are ignored.
+ *
+ * Instances are not thread-safe and must only be used from the main thread.
+ */
+public class GroupShareDeltaSync {
+
+    public static final long COALESCING_WINDOW_MILLIS = 250;
+
+    /**
+     * Runs a task after a delay, on the same thread as the caller.
+     */
+    public interface Scheduler {
+        void schedule(@NonNull Runnable runnable, long delayMillis);
+    }
+
+    /**
+     * Obtains an access token, returning null if no access token can be obtained.
+     */
+    public interface AccessTokenSource {
+        void requestAccessToken(@NonNull AccessTokenCallback callback);
+    }
+
+    /**
+     * Notified whenever the static list of group-shares has changed.
+     */
+    public interface Listener {
+        /**
+         * @param storedGroupShares     The group-shares which were added to or updated in the static list.
+         * @param groupShareStatus      The status which the group-shares were checked for.
+         */
+        void onGroupSharesStored(@NonNull List<GroupShare> storedGroupShares,
+                                 @NonNull Vars.GroupShareStatus groupShareStatus);
+
+        /**
+         * @param removedGroupShares    The group-shares which were removed from the static list.
+         * @param groupShareStatus      The status which the group-shares were checked for.
+         */
+        void onGroupSharesRemoved(@NonNull List<GroupShare> removedGroupShares,
+                                  @NonNull Vars.GroupShareStatus groupShareStatus);
+
+        /**
+         * Changes may have been missed, so every group-share must be reloaded from the server.
+         */
+        void onFullReloadRequired();
+    }
+
+    private static class PendingCheck {
+        private final String                                     uri;
+        private final Vars.GroupShareStatus                      groupShareStatus;
+        private final Map<List<Long>, ContactAndGroupNumberPair> pairs = new LinkedHashMap<>();
+
+        private PendingCheck(@NonNull String uri, @NonNull Vars.GroupShareStatus groupShareStatus) {
+            this.uri              = uri;
+            this.groupShareStatus = groupShareStatus;
+        }
+    }
+
+    private final LoadBatch.Transport transport;
+    private final AccessTokenSource   accessTokenSource;
+    private final Scheduler           scheduler;
+    private final Listener            listener;
+
+    // Pending checks in the order their first change was received, and the pending check for each pair.
+    private final Map<List<Object>, PendingCheck> pendingChecks    = new LinkedHashMap<>();
+    private final Map<List<Long>, PendingCheck>   pendingPairCheck = new HashMap<>();
+
+    private boolean isFlushScheduled = false;
+    private boolean isPaused         = false;
+
+    // Incremented at every gap so that responses to requests sent before the gap are ignored.
+    private int epoch = 0;
+
+    /**
+     * @param transport             The transport used to send every loadability request.
+     * @param accessTokenSource     The source of the access token sent with every request.
+     * @param scheduler             The scheduler used to delay sending merged changes.
+     * @param listener              The listener notified when the group-shares change.
+     */
+    public GroupShareDeltaSync(@NonNull LoadBatch.Transport transport,
+                               @NonNull AccessTokenSource accessTokenSource,
+                               @NonNull Scheduler scheduler,
+                               @NonNull Listener listener) {
+
+        this.transport         = transport;
+        this.accessTokenSource = accessTokenSource;
+        this.scheduler         = scheduler;
+        this.listener          = listener;
+    }
+
+    /**
+     * Stop sending pushed changes, e.g. when the activity is stopped. Changes pushed while paused are merged and sent
+     * after {@link #resume()} is called.
+     */
+    public void pause() {
+        isPaused = true;
+    }
+
+    /**
+     * Send every change pushed while paused, after the coalescing window.
+     */
+    public void resume() {
+        isPaused = false;
+
+        if (!pendingChecks.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * @return  The number of pending loadability checks which would be sent if the pending changes were sent now.
+     */
+    int getPendingCheckCount() {
+        return pendingChecks.size();
+    }
+
+    /**
+     * Merge a pushed change with any other pending changes and schedule the pending changes to be sent.
+     *
+     * @param xmppMessageBody   The pushed change.
+     */
+    public void onChangePushed(@NonNull XMPPMessageBody xmppMessageBody) {
+        final XMPPMessageBody.Subject subject = xmppMessageBody.getSubject();
+        final List<ContactAndGroupNumberPair> pairs = xmppMessageBody.getContactAndGroupNumberPairs();
+
+        if (subject == null || pairs == null || pairs.isEmpty()) {
+            return;
+        }
+
+        final String uri;
+        final Vars.GroupShareStatus groupShareStatus;
+
+        switch (subject) {
+            case GROUP_REQUEST_SUBMITTED:
+                uri              = HttpOperations.URI_CHECK_SHARE_LOADABLE;
+                groupShareStatus = Vars.GroupShareStatus.PENDING_RECEIVED;
+                break;
+            case GROUP_REQUEST_ACCEPTED:
+                uri              = HttpOperations.URI_CHECK_SHARE_LOADABLE;
+                groupShareStatus = Vars.GroupShareStatus.SUCCESS_SENT;
+                break;
+            case GROUP_REQUEST_FAILED:
+                uri              = HttpOperations.URI_CHECK_SHARE_LOADABLE;
+                groupShareStatus = Vars.GroupShareStatus.FAILED_SENT;
+                break;
+            case GROUP_REQUEST_DECLINED:
+                // The server only distinguishes between sent or received statuses during a decline-check; the
+                // specific value is irrelevant. There is no specific "SUCCESS_DENIED" status.
+                uri              = HttpOperations.URI_CHECK_SHARE_UNLOADABLE;
+                groupShareStatus = Vars.GroupShareStatus.FAILED_SENT;
+                break;
+            default:
+                return;
+        }
+
+        final List<Object> checkKey = RequestCoalescer.createKey(uri, groupShareStatus);
+
+        PendingCheck pendingCheck = pendingChecks.get(checkKey);
+        if (pendingCheck == null) {
+            pendingCheck = new PendingCheck(uri, groupShareStatus);
+            pendingChecks.put(checkKey, pendingCheck);
+        }
+
+        for (ContactAndGroupNumberPair pair : pairs) {
+            if (pair == null) {
+                continue;
+            }
+
+            final List<Long> pairKey = Arrays.asList(pair.getContactNumber(), pair.getGroupNumber());
+
+            // Only the latest change for each pair needs to be checked.
+            final PendingCheck previousCheck = pendingPairCheck.put(pairKey, pendingCheck);
+            if (previousCheck != null && previousCheck != pendingCheck) {
+                previousCheck.pairs.remove(pairKey);
+            }
+
+            pendingCheck.pairs.put(pairKey, pair);
+        }
+
+        if (!isPaused) {
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (isFlushScheduled) {
+            return;
+        }
+
+        isFlushScheduled = true;
+
+        final int scheduledEpoch = epoch;
+        scheduler.schedule(
+                () -> {
+                    // A gap may have discarded the pending changes and scheduled a new flush.
+                    if (scheduledEpoch != epoch) {
+                        return;
+                    }
+
+                    if (isPaused) {
+                        // Keep the pending changes until resumed.
+                        isFlushScheduled = false;
+                    }
+                    else {
+                        flush();
+                    }
+                },
+                COALESCING_WINDOW_MILLIS
+        );
+    }
+
+    /**
+     * Send a single loadability request for each pending check.
+     */
+    void flush() {
+        isFlushScheduled = false;
+
+        final List<PendingCheck> checks = new ArrayList<>(pendingChecks.values());
+        pendingChecks.clear();
+        pendingPairCheck.clear();
+
+        final List<PendingCheck> nonEmptyChecks = new ArrayList<>();
+        for (PendingCheck check : checks) {
+            if (!check.pairs.isEmpty()) {
+                nonEmptyChecks.add(check);
+            }
+        }
+
+        if (nonEmptyChecks.isEmpty()) {
+            return;
+        }
+
+        final int requestEpoch = epoch;
+
+        accessTokenSource.requestAccessToken(accessToken -> {
+            if (requestEpoch != epoch) {
+                return;
+            }
+
+            if (accessToken == null) {
+                handleGap();
+                return;
+            }
+
+            for (PendingCheck check : nonEmptyChecks) {
+                transport.post(
+                        check.uri,
+                        new GroupShareLoadabilityRequest(
+                                accessToken,
+                                check.groupShareStatus,
+                                new ArrayList<>(check.pairs.values())
+                        ),
+                        response -> {
+                            if (requestEpoch == epoch) {
+                                applyResponse(check, response);
+                            }
+                        }
+                );
+            }
+        });
+    }
+
+    private void applyResponse(@NonNull PendingCheck check, @Nullable String response) {
+        if (HttpOperations.URI_CHECK_SHARE_UNLOADABLE.equals(check.uri)) {
+            final UnloadableGroupSharesResponse ugsr =
+                    LoadBatch.parseResponse(response, UnloadableGroupSharesResponse.class);
+            if (ugsr == null) {
+                handleGap();
+                return;
+            }
+
+            final List<GroupShare> removedGroupShares = Alerts.safeRemoveGroupShares(
+                    ugsr.getContactAndGroupNumberPairs()
+            );
+
+            listener.onGroupSharesRemoved(removedGroupShares, check.groupShareStatus);
+        }
+        else {
+            final LoadableGroupSharesResponse lgsr =
+                    LoadBatch.parseResponse(response, LoadableGroupSharesResponse.class);
+            if (lgsr == null) {
+                handleGap();
+                return;
+            }
+
+            final List<GroupShare> returnedGroupShares = lgsr.getGroupShares() == null
+                    ? Collections.emptyList()
+                    : lgsr.getGroupShares();
+
+            final List<GroupShare> storedGroupShares = returnedGroupShares.isEmpty()
+                    ? Collections.emptyList()
+                    : Alerts.storeStatically(returnedGroupShares);
+
+            listener.onGroupSharesStored(storedGroupShares, check.groupShareStatus);
+        }
+    }
+
+    private void handleGap() {
+        epoch++;
+
+        isFlushScheduled = false;
+        pendingChecks.clear();
+        pendingPairCheck.clear();
+
+        listener.onFullReloadRequired();
+    }
+}
@@ -0,0 +1,486 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.server_interaction.http_server;
+
+import com.android.volley.Response;
+import com.android.volley.VolleyError;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import gliphic.android.operation.misc.Trace;
+import libraries.GeneralUtils;
+
+/**
+ * A registry of the latency, payload sizes and errors of every request sent to the server, grouped by request URI.
+ *
+ * Every request is wrapped in a {@link Call} which is started immediately before the request is posted:
+ *
+ *     final HttpMetrics.Call call = HttpMetrics.start(uri);
+ *     HttpOperations.post(uri, call.requestBody(body), activity, call.onResponse(...), call.onErrorResponse(...));
+ *
+ * The time a caller spends attached to an identical in-progress request (see {@link RequestCoalescer}) is recorded as
+ * the queue wait time of the URI.
+ *
+ * If a trace is in progress when the call is started, the request is recorded as a network span of the trace and the
+ * listeners are invoked with the caller's span current, so that work done by the listeners belongs to the same trace.
+ *
+ * The time spent deserializing response bodies (see {@link ResponseParser}) is recorded separately, grouped by the
+ * class which the response body is deserialized to.
+ */
+public class HttpMetrics {
+    // The inclusive upper bounds of the latency histogram buckets in milliseconds, where the final bucket counts every
+    // request which is slower than the largest bound.
+    static final long[] LATENCY_BUCKET_BOUNDS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private static final Map<String, EndpointMetrics> endpointMetrics = new HashMap<>();
+    private static final Map<String, ParseMetrics>    parseMetrics    = new HashMap<>();
+
+    /**
+     * A single request to the server, which records the request when it is started and the response or error
+     * response when the listener returned by {@link #onResponse} or {@link #onErrorResponse} is notified.
+     */
+    public static class Call {
+        private final String     uri;
+        private final long       startTime;
+        private final Trace.Span parentSpan;
+        private final Trace.Span networkSpan;
+
+        private Call(@NonNull String uri) {
+            this.uri         = uri;
+            this.startTime   = System.nanoTime();
+            this.parentSpan  = Trace.getCurrentSpan();
+            this.networkSpan = Trace.startSpan("POST " + uri, Trace.CATEGORY_NETWORK);
+        }
+
+        /**
+         * Record the size of the request body, where only string bodies have a known size before they are sent.
+         *
+         * @param requestBody   The request body given to HttpOperations.post.
+         * @return              The given request body.
+         */
+        public <T> T requestBody(@NonNull T requestBody) {
+            if (requestBody instanceof String) {
+                recordRequestSize(uri, ((String) requestBody).length());
+            }
+
+            return requestBody;
+        }
+
+        /**
+         * @param listener  The listener to notify of a response, after the response has been recorded.
+         * @return          A listener which records the latency and size of the response.
+         */
+        public Response.Listener<String> onResponse(@NonNull Response.Listener<String> listener) {
+            return response -> {
+                recordResponse(uri, System.nanoTime() - startTime, response == null ? 0 : response.length());
+                networkSpan.end();
+                Trace.run(parentSpan, () -> listener.onResponse(response));
+            };
+        }
+
+        /**
+         * @param listener  The listener to notify of an error response, after the error response has been recorded.
+         * @return          A listener which records the latency and error code of the error response.
+         */
+        public Response.ErrorListener onErrorResponse(@NonNull Response.ErrorListener listener) {
+            return error -> {
+                recordErrorResponse(uri, System.nanoTime() - startTime, getErrorCode(error));
+                networkSpan.end();
+                Trace.run(parentSpan, () -> listener.onErrorResponse(error));
+            };
+        }
+    }
+
+    /**
+     * The metrics recorded for a single URI.
+     */
+    public static class EndpointMetrics {
+        private final String uri;
+
+        private long   requestCount        = 0;
+        private long   responseCount       = 0;
+        private long   errorResponseCount  = 0;
+        private long   totalLatencyMs      = 0;
+        private long   maxLatencyMs        = 0;
+        private long   p50LatencyMs        = 0;
+        private long   p95LatencyMs        = 0;
+        private long[] latencyBucketCounts = new long[LATENCY_BUCKET_BOUNDS_MS.length + 1];
+        private long   requestChars        = 0;
+        private long   responseChars       = 0;
+        private long   queueWaitCount      = 0;
+        private long   totalQueueWaitMs    = 0;
+        private long   maxQueueWaitMs      = 0;
+
+        // Error response counts keyed by the HTTP status code, or by the error class if there is no status code.
+        private Map<String, Long> errorCodes = new TreeMap<>();
+
+        private EndpointMetrics(@NonNull String uri) {
+            this.uri = uri;
+        }
+
+        private EndpointMetrics(@NonNull EndpointMetrics endpointMetrics) {
+            this.uri                 = endpointMetrics.uri;
+            this.requestCount        = endpointMetrics.requestCount;
+            this.responseCount       = endpointMetrics.responseCount;
+            this.errorResponseCount  = endpointMetrics.errorResponseCount;
+            this.totalLatencyMs      = endpointMetrics.totalLatencyMs;
+            this.maxLatencyMs        = endpointMetrics.maxLatencyMs;
+            this.latencyBucketCounts = endpointMetrics.latencyBucketCounts.clone();
+            this.requestChars        = endpointMetrics.requestChars;
+            this.responseChars       = endpointMetrics.responseChars;
+            this.queueWaitCount      = endpointMetrics.queueWaitCount;
+            this.totalQueueWaitMs    = endpointMetrics.totalQueueWaitMs;
+            this.maxQueueWaitMs      = endpointMetrics.maxQueueWaitMs;
+            this.errorCodes          = new TreeMap<>(endpointMetrics.errorCodes);
+
+            this.p50LatencyMs = getLatencyPercentileMs(50);
+            this.p95LatencyMs = getLatencyPercentileMs(95);
+        }
+
+        private void recordLatency(long latencyNanos) {
+            final long latencyMs = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKET_BOUNDS_MS.length && latencyMs > LATENCY_BUCKET_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+
+            latencyBucketCounts[bucket]++;
+            totalLatencyMs += latencyMs;
+            maxLatencyMs    = Math.max(maxLatencyMs, latencyMs);
+        }
+
+        /**
+         * @return  The upper bound of the histogram bucket containing the given percentile of the recorded latencies,
+         *          or the maximum latency if that bucket is the final bucket.
+         */
+        private long getLatencyPercentileMs(int percentile) {
+            final long latencyCount = responseCount + errorResponseCount;
+            if (latencyCount == 0) {
+                return 0;
+            }
+
+            final long rank = (latencyCount * percentile + 99) / 100;
+
+            long cumulativeCount = 0;
+            for (int i = 0; i < LATENCY_BUCKET_BOUNDS_MS.length; i++) {
+                cumulativeCount += latencyBucketCounts[i];
+
+                if (cumulativeCount >= rank) {
+                    return Math.min(LATENCY_BUCKET_BOUNDS_MS[i], maxLatencyMs);
+                }
+            }
+
+            return maxLatencyMs;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        public long getRequestCount() {
+            return requestCount;
+        }
+
+        public long getResponseCount() {
+            return responseCount;
+        }
+
+        public long getErrorResponseCount() {
+            return errorResponseCount;
+        }
+
+        public long getTotalLatencyMs() {
+            return totalLatencyMs;
+        }
+
+        public long getMaxLatencyMs() {
+            return maxLatencyMs;
+        }
+
+        public long getP50LatencyMs() {
+            return p50LatencyMs;
+        }
+
+        public long getP95LatencyMs() {
+            return p95LatencyMs;
+        }
+
+        public long[] getLatencyBucketCounts() {
+            return latencyBucketCounts.clone();
+        }
+
+        public long getRequestChars() {
+            return requestChars;
+        }
+
+        public long getResponseChars() {
+            return responseChars;
+        }
+
+        public long getQueueWaitCount() {
+            return queueWaitCount;
+        }
+
+        public long getTotalQueueWaitMs() {
+            return totalQueueWaitMs;
+        }
+
+        public long getMaxQueueWaitMs() {
+            return maxQueueWaitMs;
+        }
+
+        public Map<String, Long> getErrorCodes() {
+            return Collections.unmodifiableMap(errorCodes);
+        }
+    }
+
+    /**
+     * The metrics recorded for deserializing response bodies to a single class.
+     *
+     * Parse times are recorded in microseconds since most response bodies are parsed in less than a millisecond.
+     */
+    public static class ParseMetrics {
+        private final String responseType;
+
+        private long parseCount       = 0;
+        private long failedParseCount = 0;
+        private long totalParseMicros = 0;
+        private long maxParseMicros   = 0;
+        private long parsedChars      = 0;
+
+        private ParseMetrics(@NonNull String responseType) {
+            this.responseType = responseType;
+        }
+
+        private ParseMetrics(@NonNull ParseMetrics parseMetrics) {
+            this.responseType     = parseMetrics.responseType;
+            this.parseCount       = parseMetrics.parseCount;
+            this.failedParseCount = parseMetrics.failedParseCount;
+            this.totalParseMicros = parseMetrics.totalParseMicros;
+            this.maxParseMicros   = parseMetrics.maxParseMicros;
+            this.parsedChars      = parseMetrics.parsedChars;
+        }
+
+        public String getResponseType() {
+            return responseType;
+        }
+
+        public long getParseCount() {
+            return parseCount;
+        }
+
+        public long getFailedParseCount() {
+            return failedParseCount;
+        }
+
+        public long getTotalParseMicros() {
+            return totalParseMicros;
+        }
+
+        public long getMaxParseMicros() {
+            return maxParseMicros;
+        }
+
+        public long getParsedChars() {
+            return parsedChars;
+        }
+    }
+
+    /**
+     * A copy of the metrics of every URI and response type at a point in time, which can be serialized to JSON.
+     */
+    public static class Snapshot {
+        private final long                  snapshotTime;
+        private final long[]                latencyBucketBoundsMs = LATENCY_BUCKET_BOUNDS_MS.clone();
+        private final List<EndpointMetrics> endpoints;
+        private final List<ParseMetrics>    responseTypes;
+
+        private Snapshot(long snapshotTime,
+                         @NonNull List<EndpointMetrics> endpoints,
+                         @NonNull List<ParseMetrics> responseTypes) {
+
+            this.snapshotTime  = snapshotTime;
+            this.endpoints     = endpoints;
+            this.responseTypes = responseTypes;
+        }
+
+        public long getSnapshotTime() {
+            return snapshotTime;
+        }
+
+        public long[] getLatencyBucketBoundsMs() {
+            return latencyBucketBoundsMs.clone();
+        }
+
+        /**
+         * @return  The metrics of every URI with at least one request, ordered by total latency from largest to
+         *          smallest so that the URIs which dominate the time spent waiting for the server are first.
+         */
+        public List<EndpointMetrics> getEndpoints() {
+            return Collections.unmodifiableList(endpoints);
+        }
+
+        /**
+         * @return  The parse metrics of every response type which has been parsed, ordered by total parse time from
+         *          largest to smallest.
+         */
+        public List<ParseMetrics> getResponseTypes() {
+            return Collections.unmodifiableList(responseTypes);
+        }
+    }
+
+    /**
+     * Start a request to the given URI, which must be followed by posting the request.
+     *
+     * @param uri   The URI which the request is sent to.
+     * @return      The call which records the response to the request.
+     */
+    public static Call start(@NonNull String uri) {
+        synchronized (HttpMetrics.class) {
+            getEndpointMetrics(uri).requestCount++;
+        }
+
+        return new Call(uri);
+    }
+
+    private static EndpointMetrics getEndpointMetrics(@NonNull String uri) {
+        EndpointMetrics metrics = endpointMetrics.get(uri);
+
+        if (metrics == null) {
+            metrics = new EndpointMetrics(uri);
+            endpointMetrics.put(uri, metrics);
+        }
+
+        return metrics;
+    }
+
+    private static String getErrorCode(@Nullable VolleyError error) {
+        if (error == null) {
+            return "null";
+        }
+        else if (error.networkResponse != null) {
+            return String.valueOf(error.networkResponse.statusCode);
+        }
+        else {
+            return error.getClass().getSimpleName();
+        }
+    }
+
+    static synchronized void recordRequestSize(@NonNull String uri, int requestChars) {
+        getEndpointMetrics(uri).requestChars += requestChars;
+    }
+
+    static synchronized void recordResponse(@NonNull String uri, long latencyNanos, int responseChars) {
+        final EndpointMetrics metrics = getEndpointMetrics(uri);
+
+        metrics.responseCount++;
+        metrics.responseChars += responseChars;
+        metrics.recordLatency(latencyNanos);
+    }
+
+    static synchronized void recordErrorResponse(@NonNull String uri, long latencyNanos, @NonNull String errorCode) {
+        final EndpointMetrics metrics = getEndpointMetrics(uri);
+
+        metrics.errorResponseCount++;
+        metrics.recordLatency(latencyNanos);
+
+        final Long errorCodeCount = metrics.errorCodes.get(errorCode);
+        metrics.errorCodes.put(errorCode, errorCodeCount == null ? 1 : errorCodeCount + 1);
+    }
+
+    /**
+     * @param uri           The URI of the in-progress request which the caller was attached to.
+     * @param waitNanos     The time between the caller attaching to the request and the request completing.
+     */
+    static synchronized void recordQueueWait(@NonNull String uri, long waitNanos) {
+        final EndpointMetrics metrics = getEndpointMetrics(uri);
+        final long            waitMs  = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+
+        metrics.queueWaitCount++;
+        metrics.totalQueueWaitMs += waitMs;
+        metrics.maxQueueWaitMs    = Math.max(metrics.maxQueueWaitMs, waitMs);
+    }
+
+    /**
+     * @param responseType  The simple name of the class which the response body was deserialized to.
+     * @param parseNanos    The time taken to deserialize the response body.
+     * @param parsedChars   The length of the response body.
+     * @param isParsed      False if the response body could not be deserialized.
+     */
+    static synchronized void recordParse(@NonNull String responseType,
+                                         long parseNanos,
+                                         int parsedChars,
+                                         boolean isParsed) {
+
+        ParseMetrics metrics = parseMetrics.get(responseType);
+
+        if (metrics == null) {
+            metrics = new ParseMetrics(responseType);
+            parseMetrics.put(responseType, metrics);
+        }
+
+        final long parseMicros = TimeUnit.NANOSECONDS.toMicros(parseNanos);
+
+        metrics.parseCount++;
+        metrics.totalParseMicros += parseMicros;
+        metrics.maxParseMicros    = Math.max(metrics.maxParseMicros, parseMicros);
+        metrics.parsedChars      += parsedChars;
+
+        if (!isParsed) {
+            metrics.failedParseCount++;
+        }
+    }
+
+    /**
+     * @return  A copy of the metrics recorded since the application started or the metrics were last reset.
+     */
+    public static synchronized Snapshot getSnapshot() {
+        final List<EndpointMetrics> endpoints     = new ArrayList<>(endpointMetrics.size());
+        final List<ParseMetrics>    responseTypes = new ArrayList<>(parseMetrics.size());
+
+        for (EndpointMetrics metrics : endpointMetrics.values()) {
+            endpoints.add(new EndpointMetrics(metrics));
+        }
+
+        for (ParseMetrics metrics : parseMetrics.values()) {
+            responseTypes.add(new ParseMetrics(metrics));
+        }
+
+        Collections.sort(endpoints, (m1, m2) -> Long.compare(m2.totalLatencyMs, m1.totalLatencyMs));
+        Collections.sort(responseTypes, (m1, m2) -> Long.compare(m2.totalParseMicros, m1.totalParseMicros));
+
+        return new Snapshot(System.currentTimeMillis(), endpoints, responseTypes);
+    }
+
+    /**
+     * @return  The JSON serialization of {@link #getSnapshot()}, suitable for dumping to a log or a file.
+     */
+    public static String getSnapshotJson() {
+        return GeneralUtils.toJson(getSnapshot());
+    }
+
+    /**
+     * Discard every recorded metric.
+     */
+    public static synchronized void reset() {
+        endpointMetrics.clear();
+        parseMetrics.clear();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.server_interaction.http_server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * A group of independent load requests which are sent to the server together, with each response handed back to the
+ * callback given for its request.
+ *
+ * All requests in a batch are sent before any response is received, so the total latency of the batch is that of the
+ * slowest request rather than the sum of every request. A single callback is notified once every request has
+ * completed, allowing dependent requests to be gathered into a following batch.
+ */
+public class LoadBatch {
+
+    /**
+     * Sends a single request to the server.
+     *
+     * The application uses {@link HttpOperations}; tests can use a local stand-in server instead.
+     */
+    public interface Transport {
+        /**
+         * @param uri           The URI to send the request to.
+         * @param requestBody   The object to send as the request body.
+         * @param callback      The callback to notify exactly once when the request completes.
+         */
+        void post(@NonNull String uri, @NonNull Object requestBody, @NonNull ResponseCallback callback);
+    }
+
+    /**
+     * Receives the response to a single request in the batch.
+     */
+    public interface ResponseCallback {
+        /**
+         * @param response  The response body, or null if the request failed.
+         */
+        void onResponse(@Nullable String response);
+    }
+
+    private static class Request {
+        private final String           uri;
+        private final Object           requestBody;
+        private final ResponseCallback callback;
+
+        private Request(@NonNull String uri, @NonNull Object requestBody, @NonNull ResponseCallback callback) {
+            this.uri         = uri;
+            this.requestBody = requestBody;
+            this.callback    = callback;
+        }
+    }
+
+    private final Transport     transport;
+    private final List<Request> requests = new ArrayList<>();
+    private boolean             isSent   = false;
+
+    /**
+     * @param transport     The transport used to send every request in the batch.
+     */
+    public LoadBatch(@NonNull Transport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Add a request to the batch.
+     *
+     * @param uri           The URI to send the request to.
+     * @param requestBody   The object to send as the request body.
+     * @param callback      The callback to notify when the request completes.
+     * @return              This batch.
+     */
+    public LoadBatch add(@NonNull String uri, @NonNull Object requestBody, @NonNull ResponseCallback callback) {
+        if (isSent) {
+            throw new IllegalStateException("Requests cannot be added to a batch which has already been sent.");
+        }
+
+        requests.add(new Request(uri, requestBody, callback));
+
+        return this;
+    }
+
+    /**
+     * Deserialize the response to a request, recording the parse time in {@link HttpMetrics}.
+     *
+     * @param response  The response body, or null if the request failed.
+     * @param clazz     The class to deserialize the response body to.
+     * @return          The deserialized response, or null if the request failed or the response body is malformed.
+     */
+    @Nullable
+    public static <T> T parseResponse(@Nullable String response, @NonNull Class<T> clazz) {
+        if (response == null) {
+            return null;
+        }
+
+        try {
+            return ResponseParser.parse(response, clazz);
+        }
+        catch (RuntimeException e) {
+            // Treat a malformed response in the same way as a failed request.
+            return null;
+        }
+    }
+
+    /**
+     * @return  The number of requests in the batch.
+     */
+    public int size() {
+        return requests.size();
+    }
+
+    /**
+     * Send every request in the batch.
+     *
+     * @param onComplete    Run once after the callback for every request has been notified, or immediately if the
+     *                      batch is empty.
+     */
+    public void send(@NonNull Runnable onComplete) {
+        if (isSent) {
+            throw new IllegalStateException("A batch cannot be sent more than once.");
+        }
+
+        isSent = true;
+
+        if (requests.isEmpty()) {
+            onComplete.run();
+            return;
+        }
+
+        final AtomicInteger remainingRequests = new AtomicInteger(requests.size());
+
+        for (Request request : requests) {
+            transport.post(
+                    request.uri,
+                    request.requestBody,
+                    response -> {
+                        try {
+                            request.callback.onResponse(response);
+                        }
+                        finally {
+                            if (remainingRequests.decrementAndGet() == 0) {
+                                onComplete.run();
+                            }
+                        }
+                    }
+            );
+        }
+    }
+}
@@ -0,0 +1,536 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.server_interaction.http_server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import libraries.Vars.ContactType;
+import pojo.load.LoadChosenContactsResponse;
+import pojo.load.LoadChosenGroupsResponse;
+import pojo.load.LoadContactObject;
+import pojo.load.LoadContactsResponse;
+import pojo.load.LoadGroupObject;
+import pojo.load.LoadGroupsResponse;
+
+/**
+ * Hand-written streaming Gson type adapters for the load responses which contain lists of contacts or groups, which
+ * are the largest responses sent by the server.
+ *
+ * Deserializing these responses with {@link libraries.GeneralUtils#fromJson(String, Class)} creates a new Gson
+ * instance (and its reflective adapters) for every response, and reads every long array into a list of boxed longs
+ * before copying it into the array. These adapters read every object field by field from a single shared Gson
+ * instance, read long arrays directly into primitive arrays, skip unknown fields without deserializing them and leave
+ * Base64 image strings undecoded until a contact or group is created from the load object.
+ *
+ * The JSON read and written by these adapters is the same as the JSON read and written reflectively, so either can be
+ * used for any response.
+ */
+public class LoadResponseAdapters {
+    // The initial capacity of a long array which is read without knowing its length.
+    private static final int INITIAL_LONG_ARRAY_CAPACITY = 8;
+
+    private static final TypeAdapter<LoadContactObject> contactAdapter = new LoadContactObjectAdapter();
+    private static final TypeAdapter<LoadGroupObject>   groupAdapter   = new LoadGroupObjectAdapter();
+
+    private static final Gson gson = new GsonBuilder()
+            .serializeNulls()
+            .registerTypeAdapter(LoadContactObject.class, contactAdapter)
+            .registerTypeAdapter(LoadGroupObject.class, groupAdapter)
+            .registerTypeAdapter(LoadContactsResponse.class, new LoadContactsResponseAdapter())
+            .registerTypeAdapter(LoadChosenContactsResponse.class, new LoadChosenContactsResponseAdapter())
+            .registerTypeAdapter(LoadGroupsResponse.class, new LoadGroupsResponseAdapter())
+            .registerTypeAdapter(LoadChosenGroupsResponse.class, new LoadChosenGroupsResponseAdapter())
+            .create();
+
+    private static final List<Class<?>> adaptedClasses = Arrays.asList(
+            LoadContactObject.class,
+            LoadGroupObject.class,
+            LoadContactsResponse.class,
+            LoadChosenContactsResponse.class,
+            LoadGroupsResponse.class,
+            LoadChosenGroupsResponse.class
+    );
+
+    private static class LoadContactObjectAdapter extends TypeAdapter<LoadContactObject> {
+
+        @Override
+        public void write(JsonWriter out, LoadContactObject lco) throws IOException {
+            if (lco == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            writeLongArray(out.name("groupNumbers"), lco.getGroupNumbers());
+            out.name("number").value(lco.getNumber());
+            out.name("id").value(lco.getId());
+            out.name("name").value(lco.getName());
+            out.name("imageString").value(lco.getImageString());
+            out.name("type").value(lco.getType() == null ? null : lco.getType().name());
+            out.endObject();
+        }
+
+        @Override
+        public LoadContactObject read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            final LoadContactObject lco = new LoadContactObject();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                final String fieldName = in.nextName();
+
+                // Leave the default value of a null field, in the same way as the reflective adapter.
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (fieldName) {
+                    case "groupNumbers":
+                        lco.setGroupNumbers(readLongArray(in));
+                        break;
+                    case "number":
+                        lco.setNumber(in.nextLong());
+                        break;
+                    case "id":
+                        lco.setId(in.nextString());
+                        break;
+                    case "name":
+                        lco.setName(in.nextString());
+                        break;
+                    case "imageString":
+                        lco.setImageString(in.nextString());
+                        break;
+                    case "type":
+                        lco.setType(readContactType(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return lco;
+        }
+    }
+
+    private static class LoadGroupObjectAdapter extends TypeAdapter<LoadGroupObject> {
+
+        @Override
+        public void write(JsonWriter out, LoadGroupObject lgo) throws IOException {
+            if (lgo == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            writeLongArray(out.name("knownContactNumbers"), lgo.getKnownContactNumbers());
+            writeLongArray(out.name("extendedContactNumbers"), lgo.getExtendedContactNumbers());
+            out.name("number").value(lgo.getNumber());
+            out.name("idBase64").value(lgo.getIdBase64());
+            out.name("name").value(lgo.getName());
+            out.name("imageString").value(lgo.getImageString());
+            out.name("description").value(lgo.getDescription());
+            out.name("encryptedKeyString").value(lgo.getEncryptedKeyString());
+            out.name("ivString").value(lgo.getIvString());
+            out.name("permissions").value(lgo.getPermissions());
+            out.name("open").value(lgo.isOpen());
+            out.name("selected").value(lgo.isSelected());
+            out.endObject();
+        }
+
+        @Override
+        public LoadGroupObject read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            final LoadGroupObject lgo = new LoadGroupObject();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                final String fieldName = in.nextName();
+
+                // Leave the default value of a null field, in the same way as the reflective adapter.
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (fieldName) {
+                    case "knownContactNumbers":
+                        lgo.setKnownContactNumbers(readLongArray(in));
+                        break;
+                    case "extendedContactNumbers":
+                        lgo.setExtendedContactNumbers(readLongArray(in));
+                        break;
+                    case "number":
+                        lgo.setNumber(in.nextLong());
+                        break;
+                    case "idBase64":
+                        lgo.setIdBase64(in.nextString());
+                        break;
+                    case "name":
+                        lgo.setName(in.nextString());
+                        break;
+                    case "imageString":
+                        lgo.setImageString(in.nextString());
+                        break;
+                    case "description":
+                        lgo.setDescription(in.nextString());
+                        break;
+                    case "encryptedKeyString":
+                        lgo.setEncryptedKeyString(in.nextString());
+                        break;
+                    case "ivString":
+                        lgo.setIvString(in.nextString());
+                        break;
+                    case "permissions":
+                        lgo.setPermissions(in.nextInt());
+                        break;
+                    case "open":
+                        lgo.setOpen(in.nextBoolean());
+                        break;
+                    case "selected":
+                        lgo.setSelected(in.nextBoolean());
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return lgo;
+        }
+    }
+
+    private static class LoadContactsResponseAdapter extends TypeAdapter<LoadContactsResponse> {
+
+        @Override
+        public void write(JsonWriter out, LoadContactsResponse lcr) throws IOException {
+            if (lcr == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            writeList(out.name("knownContacts"), lcr.getKnownContacts(), contactAdapter);
+            writeList(out.name("extendedContacts"), lcr.getExtendedContacts(), contactAdapter);
+            out.name("allContactsLoaded").value(lcr.isAllContactsLoaded());
+            out.endObject();
+        }
+
+        @Override
+        public LoadContactsResponse read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            final LoadContactsResponse lcr = new LoadContactsResponse();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                final String fieldName = in.nextName();
+
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (fieldName) {
+                    case "knownContacts":
+                        lcr.setKnownContacts(readList(in, contactAdapter));
+                        break;
+                    case "extendedContacts":
+                        lcr.setExtendedContacts(readList(in, contactAdapter));
+                        break;
+                    case "allContactsLoaded":
+                        lcr.setAllContactsLoaded(in.nextBoolean());
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return lcr;
+        }
+    }
+
+    private static class LoadChosenContactsResponseAdapter extends TypeAdapter<LoadChosenContactsResponse> {
+
+        @Override
+        public void write(JsonWriter out, LoadChosenContactsResponse lccr) throws IOException {
+            if (lccr == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            writeList(out.name("knownContacts"), lccr.getKnownContacts(), contactAdapter);
+            writeList(out.name("extendedContacts"), lccr.getExtendedContacts(), contactAdapter);
+            out.endObject();
+        }
+
+        @Override
+        public LoadChosenContactsResponse read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            final LoadChosenContactsResponse lccr = new LoadChosenContactsResponse();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                final String fieldName = in.nextName();
+
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (fieldName) {
+                    case "knownContacts":
+                        lccr.setKnownContacts(readList(in, contactAdapter));
+                        break;
+                    case "extendedContacts":
+                        lccr.setExtendedContacts(readList(in, contactAdapter));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return lccr;
+        }
+    }
+
+    private static class LoadGroupsResponseAdapter extends TypeAdapter<LoadGroupsResponse> {
+
+        @Override
+        public void write(JsonWriter out, LoadGroupsResponse lgr) throws IOException {
+            if (lgr == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            writeList(out.name("groups"), lgr.getGroups(), groupAdapter);
+            out.name("allGroupsLoaded").value(lgr.isAllGroupsLoaded());
+            out.endObject();
+        }
+
+        @Override
+        public LoadGroupsResponse read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            final LoadGroupsResponse lgr = new LoadGroupsResponse();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                final String fieldName = in.nextName();
+
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (fieldName) {
+                    case "groups":
+                        lgr.setGroups(readList(in, groupAdapter));
+                        break;
+                    case "allGroupsLoaded":
+                        lgr.setAllGroupsLoaded(in.nextBoolean());
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return lgr;
+        }
+    }
+
+    private static class LoadChosenGroupsResponseAdapter extends TypeAdapter<LoadChosenGroupsResponse> {
+
+        @Override
+        public void write(JsonWriter out, LoadChosenGroupsResponse lcgr) throws IOException {
+            if (lcgr == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            writeList(out.name("groups"), lcgr.getGroups(), groupAdapter);
+            out.endObject();
+        }
+
+        @Override
+        public LoadChosenGroupsResponse read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            final LoadChosenGroupsResponse lcgr = new LoadChosenGroupsResponse();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                final String fieldName = in.nextName();
+
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                if (fieldName.equals("groups")) {
+                    lcgr.setGroups(readList(in, groupAdapter));
+                }
+                else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return lcgr;
+        }
+    }
+
+    /**
+     * @param clazz     The class to deserialize a response body to.
+     * @return          True if this class has a streaming adapter for the given class.
+     */
+    public static boolean isAdapted(@NonNull Class<?> clazz) {
+        return adaptedClasses.contains(clazz);
+    }
+
+    /**
+     * Deserialize a response body with the streaming adapters.
+     *
+     * @param response               The response body.
+     * @param clazz                  The class to deserialize the response body to.
+     * @return                       The deserialized response, or null if the response body is the JSON null value.
+     * @throws JsonParseException    Thrown when the response body is malformed.
+     */
+    @Nullable
+    public static <T> T fromJson(@NonNull String response, @NonNull Class<T> clazz) throws JsonParseException {
+        return gson.fromJson(response, clazz);
+    }
+
+    /**
+     * @param object    The object to serialize.
+     * @return          The JSON serialization of the given object, using the streaming adapters.
+     */
+    public static String toJson(@Nullable Object object) {
+        return gson.toJson(object);
+    }
+
+    /**
+     * Read a contact type in the same way as Gson's enum adapter, which reads unknown constants as null.
+     */
+    @Nullable
+    private static ContactType readContactType(@NonNull JsonReader in) throws IOException {
+        final String name = in.nextString();
+
+        for (ContactType contactType : ContactType.values()) {
+            if (contactType.name().equals(name)) {
+                return contactType;
+            }
+        }
+
+        return null;
+    }
+
+    private static long[] readLongArray(@NonNull JsonReader in) throws IOException {
+        long[] array  = new long[INITIAL_LONG_ARRAY_CAPACITY];
+        int    length = 0;
+
+        in.beginArray();
+        while (in.hasNext()) {
+            if (length == array.length) {
+                array = Arrays.copyOf(array, 2 * length);
+            }
+
+            array[length++] = in.nextLong();
+        }
+        in.endArray();
+
+        return length == array.length ? array : Arrays.copyOf(array, length);
+    }
+
+    private static void writeLongArray(@NonNull JsonWriter out, @Nullable long[] array) throws IOException {
+        if (array == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginArray();
+        for (long value : array) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+
+    private static <T> List<T> readList(@NonNull JsonReader in, @NonNull TypeAdapter<T> elementAdapter)
+            throws IOException {
+
+        final List<T> list = new ArrayList<>();
+
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(elementAdapter.read(in));
+        }
+        in.endArray();
+
+        return list;
+    }
+
+    private static <T> void writeList(@NonNull JsonWriter out,
+                                      @Nullable List<T> list,
+                                      @NonNull TypeAdapter<T> elementAdapter) throws IOException {
+
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginArray();
+        for (T element : list) {
+            elementAdapter.write(out, element);
+        }
+        out.endArray();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.server_interaction.http_server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import gliphic.android.operation.misc.Trace;
+
+/**
+ * This class ensures that at most one server request is in progress for each distinct request key, where a key
+ * identifies the endpoint and every parameter which affects the response (e.g. filters and the number of objects
+ * already loaded).
+ *
+ * A caller which requests a key that is already in progress is attached to the in-progress request and receives the
+ * same result when it completes, instead of sending a duplicate request to the server.
+ *
+ * @param <T>   The type of the result returned to every caller.
+ */
+class RequestCoalescer<T> {
+
+    /**
+     * A callback which receives the result of a (possibly shared) request.
+     */
+    interface ResultCallback<T> {
+        void onReturn(@Nullable T result);
+    }
+
+    private final Map<List<Object>, List<ResultCallback<T>>> inProgressRequests = new HashMap<>();
+
+    /**
+     * @param endpoint      The URI which the request is sent to.
+     * @param parameters    Every request parameter which affects the response, excluding the access token.
+     *                      Parameters must implement equals and hashCode; null parameters are allowed.
+     * @return              A key which is equal to any other key created with the same arguments.
+     */
+    static List<Object> createKey(@NonNull String endpoint, @Nullable Object... parameters) {
+        final List<Object> key = new ArrayList<>();
+        key.add(endpoint);
+
+        if (parameters != null) {
+            key.addAll(Arrays.asList(parameters));
+        }
+
+        return key;
+    }
+
+    /**
+     * Attach the given callback to the request for the given key, starting a new request if none is in progress.
+     * The callback is notified with the trace span which is current on the calling thread.
+     *
+     * @param key       The request key created by {@link #createKey(String, Object...)}.
+     * @param callback  The callback to notify when the request completes.
+     * @return          True if the caller must send the request to the server and then call
+     *                  {@link #complete(List, Object)}, false if the callback was attached to an in-progress request.
+     */
+    synchronized boolean join(@NonNull List<Object> key, @NonNull ResultCallback<T> callback) {
+        final List<ResultCallback<T>> callbacks = inProgressRequests.get(key);
+        final Trace.Span              span      = Trace.getCurrentSpan();
+
+        if (callbacks != null) {
+            // Record the time this caller waits for the in-progress request as queue wait time for the endpoint.
+            final long joinTime = System.nanoTime();
+
+            callbacks.add(result -> {
+                HttpMetrics.recordQueueWait((String) key.get(0), System.nanoTime() - joinTime);
+                Trace.run(span, () -> callback.onReturn(result));
+            });
+            return false;
+        }
+
+        final List<ResultCallback<T>> newCallbacks = new ArrayList<>();
+        newCallbacks.add(result -> Trace.run(span, () -> callback.onReturn(result)));
+        inProgressRequests.put(key, newCallbacks);
+
+        return true;
+    }
+
+    /**
+     * Return the result to every callback attached to the request for the given key, in the order in which they were
+     * attached. A request for the same key which is made by a callback is sent to the server as a new request.
+     *
+     * @param key       The request key given to {@link #join(List, ResultCallback)}.
+     * @param result    The result of the request, which may be null if the request failed.
+     */
+    void complete(@NonNull List<Object> key, @Nullable T result) {
+        final List<ResultCallback<T>> callbacks;
+
+        synchronized (this) {
+            callbacks = inProgressRequests.remove(key);
+        }
+
+        if (callbacks == null) {
+            return;
+        }
+
+        for (ResultCallback<T> callback : callbacks) {
+            callback.onReturn(result);
+        }
+    }
+
+    /**
+     * @return  The number of distinct requests currently in progress.
+     */
+    synchronized int getInProgressRequestCount() {
+        return inProgressRequests.size();
+    }
+}
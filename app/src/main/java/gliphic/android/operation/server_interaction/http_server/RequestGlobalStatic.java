@@ -11,8 +11,12 @@ software or otherwise without the prior written consent of Ashley Arain.
 package gliphic.android.operation.server_interaction.http_server;
 
 import android.content.ContextWrapper;
+import android.os.Handler;
+import android.os.Looper;
 
 import com.android.volley.Response;
+import com.android.volley.TimeoutError;
+import com.android.volley.VolleyError;
 import gliphic.android.display.libraries.AlertDialogs;
 import gliphic.android.display.libraries.LoadingDialog;
 import gliphic.android.display.abstract_views.BaseActivity;
@@ -22,12 +26,12 @@ import gliphic.android.interfaces.BaseContactCallback;
 import gliphic.android.interfaces.BaseGroupCallback;
 import gliphic.android.interfaces.ContactAndAccessTokenCallback;
 import gliphic.android.interfaces.ContactCallback;
-import gliphic.android.interfaces.ContactListAndStatusCallback;
+import gliphic.android.interfaces.ContactListCallback;
 import gliphic.android.interfaces.GroupAndAccessTokenCallback;
 import gliphic.android.interfaces.GroupCallback;
 import gliphic.android.interfaces.GroupListCallback;
 import gliphic.android.interfaces.AccessTokenCallback;
-import gliphic.android.interfaces.GroupShareListAndStatusCallback;
+import gliphic.android.interfaces.GroupShareListCallback;
 import gliphic.android.operation.Alerts;
 import gliphic.android.operation.Contact;
 import gliphic.android.exceptions.ContactException;
@@ -35,12 +39,16 @@ import gliphic.android.exceptions.ForcedServerRequestException;
 import gliphic.android.operation.Group;
 import gliphic.android.exceptions.GroupException;
 import gliphic.android.exceptions.NullStaticVariableException;
+import gliphic.android.exceptions.ServerRequestException;
 import gliphic.android.operation.misc.ContactGroupAssociation;
 import gliphic.android.operation.misc.Log;
+import gliphic.android.operation.misc.Trace;
 import gliphic.android.operation.server_interaction.xmpp_server.ConnectionService;
+import gliphic.android.operation.storage_handlers.EncryptedSnapshot;
 import gliphic.android.operation.storage_handlers.ForcedDialogs;
 import gliphic.android.operation.storage_handlers.SharedPreferencesHandler;
 
+import org.bouncycastle.crypto.InvalidCipherTextException;
 import org.bouncycastle.util.encoders.DecoderException;
 
 import java.io.IOException;
@@ -51,6 +59,10 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -76,9 +88,119 @@ import pojo.load.LoadGroupsResponse;
  * or a variable is no longer valid e.g. an (expiring) access token.
  */
 public class RequestGlobalStatic {
-    private static boolean requestInProgressForTargetContacts = false;
-    private static boolean requestInProgressForKnownGroups = false;
-    private static boolean requestInProgressForGroupShares = false;
+    // Callers requesting the same objects (with the same filters and offset) share a single server request.
+    private static final RequestCoalescer<List<Contact>>    targetContactsRequests = new RequestCoalescer<>();
+    private static final RequestCoalescer<List<Group>>      knownGroupsRequests    = new RequestCoalescer<>();
+    private static final RequestCoalescer<List<GroupShare>> groupSharesRequests    = new RequestCoalescer<>();
+
+    // The maximum time to load objects, including refreshing the access token and any dependent load request.
+    private static final long LOAD_TIMEOUT_MILLIS = 3L * HttpOperations.REQUEST_TIME_OUT;
+
+    private static final Handler  mainThreadHandler  = new Handler(Looper.getMainLooper());
+    private static final Executor mainThreadExecutor = mainThreadHandler::post;
+
+    /**
+     * The objects returned by a load request and the dependent request for the objects associated with them.
+     */
+    private static class LoadedObjects {
+        private final List<LoadContactObject> contacts;
+        private final List<LoadGroupObject>   groups;
+
+        private LoadedObjects(@Nullable List<LoadContactObject> contacts, @Nullable List<LoadGroupObject> groups) {
+            this.contacts = contacts;
+            this.groups   = groups;
+        }
+    }
+
+    /**
+     * The progress of a single call to {@link #requestSignInLoads}, which is only accessed on the UI thread.
+     */
+    private static class SignInLoadState {
+        private boolean             isServerResultStored = false;
+        private SignInLoader.Result restoredResult       = null;
+    }
+
+    /**
+     * The future-based equivalent of {@link #requestAndSetAccessToken}.
+     *
+     * @param activity          The calling activity.
+     * @param loadingDialog     Set to null to not display any LoadingDialog or AlertDialog messages.
+     * @param finishActivity    True if the calling activity should terminate when the dialog is dismissed, false
+     *                          otherwise.
+     * @return                  A future which succeeds with the access token, or fails with a ServerRequestException
+     *                          (after any message has been displayed) if the access token cannot be retrieved.
+     */
+    public static ServerFuture<String> requestAccessToken(final @NonNull BaseActivity activity,
+                                                          final @Nullable LoadingDialog loadingDialog,
+                                                          final boolean finishActivity) {
+
+        final ServerFuture<String> future = new ServerFuture<>();
+
+        requestAndSetAccessToken(
+                accessToken -> {
+                    if (accessToken == null) {
+                        future.fail(new ServerRequestException("Cannot retrieve the access token."));
+                    }
+                    else {
+                        future.complete(accessToken);
+                    }
+                },
+                activity,
+                loadingDialog,
+                finishActivity
+        );
+
+        return future;
+    }
+
+    /**
+     * Send a POST request to the server (from the UI thread), recording its metrics.
+     *
+     * @param activity      The calling activity.
+     * @param uri           The URI to send the request to.
+     * @param requestBody   The request body.
+     * @return              A future which succeeds with the response string, or fails with the VolleyError.
+     */
+    public static ServerFuture<String> sendRequest(final @NonNull BaseActivity activity,
+                                                   final @NonNull String uri,
+                                                   final @NonNull Object requestBody) {
+
+        final ServerFuture<String> future = new ServerFuture<>();
+        final HttpMetrics.Call     call   = HttpMetrics.start(uri);
+
+        final Runnable send = () -> HttpOperations.post(
+                uri,
+                call.requestBody(requestBody),
+                activity,
+                call.onResponse(future::complete),
+                call.onErrorResponse(future::fail)
+        );
+
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            send.run();
+        }
+        else {
+            mainThreadExecutor.execute(send);
+        }
+
+        return future;
+    }
+
+    /**
+     * Complete the future of a caller attached to a coalesced request, where a null result means the request failed.
+     */
+    private static <T> void completeCoalescedFuture(@NonNull ServerFuture<T> future,
+                                                    @Nullable T result,
+                                                    @NonNull List<Object> requestKey) {
+
+        if (result == null) {
+            String s = "Cannot load objects from %s.";
+            future.fail(new ServerRequestException(String.format(s, requestKey.get(0))));
+        }
+        else {
+            future.complete(result);
+        }
+    }
 
     /**
      * Convenience method for storing a group.
@@ -153,6 +275,10 @@ public class RequestGlobalStatic {
      * Handle setting the access token and access token expiry in SharedPreferences, requesting this information from
      * the server if necessary.
      *
+     * The access token is also held in memory by the AccessTokenManager. Concurrent callers which all require a new
+     * access token share a single refresh request, and an access token which is about to expire is refreshed in the
+     * background while it is still returned to the caller.
+     *
      * If a null callback is given then this method can perform an additional request to the server in a background
      * thread, thus not blocking application execution until the additional request has completed.
      * The currently supported additional requests are:
@@ -180,6 +306,29 @@ public class RequestGlobalStatic {
                                                                   final @Nullable LoadingDialog loadingDialog,
                                                                   final boolean finishActivity,
                                                                   final boolean contextWrapperIsActivity) {
+
+        // Avoid reading (and decrypting) the access token from SharedPreferences if it is already held in memory.
+        final String cachedAccessToken = AccessTokenManager.getUsableAccessToken();
+        if (cachedAccessToken != null) {
+            if (AccessTokenManager.isRefreshDue(AccessTokenManager.getCachedAccessTokenExpiry())) {
+                try {
+                    refreshAccessTokenInBackground(
+                            SharedPreferencesHandler.getRefreshToken(contextWrapper),
+                            contextWrapper,
+                            contextWrapperIsActivity
+                    );
+                }
+                catch ( NoStoredObjectException | IOException | GeneralSecurityException | DecoderException |
+                        NullPointerException e ) {
+
+                    Log.e("Internal error", "Cannot read refresh token from shared preferences: " + e.getMessage());
+                }
+            }
+
+            returnAccessTokenAndRequestSignInTime(callback, contextWrapper, cachedAccessToken);
+            return;
+        }
+
         final String accessToken;
         final long   accessTokenExpiry;
         final String refreshToken;
@@ -202,20 +351,115 @@ public class RequestGlobalStatic {
             return;
         }
 
-        // The server could return a response up to the point which the request times out,
-        // so the access token must have an expiry time after this time to be usable.
-        if (System.currentTimeMillis() + 6*HttpOperations.REQUEST_TIME_OUT < accessTokenExpiry) {
-            safeSetCallbackOnReturn(callback, accessToken);
+        if (AccessTokenManager.isUsable(accessTokenExpiry)) {
+            AccessTokenManager.setAccessToken(accessToken, accessTokenExpiry);
 
-            if (callback == null) {
-                handleRequestSignInTime((BaseMainActivity) contextWrapper, accessToken);
+            if (AccessTokenManager.isRefreshDue(accessTokenExpiry)) {
+                refreshAccessTokenInBackground(refreshToken, contextWrapper, contextWrapperIsActivity);
             }
 
+            returnAccessTokenAndRequestSignInTime(callback, contextWrapper, accessToken);
+            return;
+        }
+
+        // Wait for the access token to be refreshed, sharing the refresh request with any other waiting callers.
+        // The listener may be notified by a refresh request sent by another caller, so the callback is returned with
+        // the span of this caller rather than the span of the caller which sent the request.
+        final Trace.Span span = Trace.getCurrentSpan();
+        final AccessTokenManager.RefreshListener refreshListener = new AccessTokenManager.RefreshListener() {
+            @Override
+            public void onRefreshed(@NonNull String refreshedAccessToken) {
+                Trace.run(span, () -> returnAccessTokenAndRequestSignInTime(
+                        callback,
+                        contextWrapper,
+                        refreshedAccessToken
+                ));
+            }
+
+            @Override
+            public void onFailed(@Nullable VolleyError error) {
+                Trace.run(span, () -> {
+                    if (contextWrapperIsActivity && LoadingDialog.safeDismiss(loadingDialog)) {
+                        if (error == null) {
+                            AlertDialogs.internalErrorDialog((BaseActivity) contextWrapper, finishActivity, null);
+                        }
+                        else {
+                            HttpOperations.handleStandardRequestOnErrorResponse(
+                                    error,
+                                    (BaseActivity) contextWrapper,
+                                    finishActivity
+                            );
+                        }
+                    }
+
+                    safeSetCallbackOnReturn(callback, null);
+                });
+            }
+        };
+
+        sendAccessTokenRefreshRequest(refreshListener, refreshToken, contextWrapper, contextWrapperIsActivity);
+    }
+
+    private static void returnAccessTokenAndRequestSignInTime(@Nullable AccessTokenCallback callback,
+                                                              @NonNull ContextWrapper contextWrapper,
+                                                              @NonNull String accessToken) {
+
+        safeSetCallbackOnReturn(callback, accessToken);
+
+        if (callback == null) {
+            handleRequestSignInTime((BaseMainActivity) contextWrapper, accessToken);
+        }
+    }
+
+    /**
+     * Refresh the access token before it expires, without any caller waiting for the refreshed access token.
+     *
+     * No request is sent if a refresh request is already in progress.
+     */
+    private static void refreshAccessTokenInBackground(@NonNull String refreshToken,
+                                                       @NonNull ContextWrapper contextWrapper,
+                                                       boolean contextWrapperIsActivity) {
+
+        final AccessTokenManager.RefreshListener refreshListener = new AccessTokenManager.RefreshListener() {
+            @Override
+            public void onRefreshed(@NonNull String refreshedAccessToken) {}
+
+            @Override
+            public void onFailed(@Nullable VolleyError error) {
+                // The current access token is still usable so the next caller will retry the refresh if required.
+                Log.w("HTTP request error", "Cannot refresh the access token in the background.");
+            }
+        };
+
+        sendAccessTokenRefreshRequest(refreshListener, refreshToken, contextWrapper, contextWrapperIsActivity);
+    }
+
+    /**
+     * Send an access token refresh request to the server, unless a refresh request is already in progress in which
+     * case the given listener is notified when the in-progress request completes.
+     *
+     * The refreshed access token is stored in SharedPreferences before any listener is notified.
+     */
+    private static void sendAccessTokenRefreshRequest(@NonNull AccessTokenManager.RefreshListener refreshListener,
+                                                      @NonNull String refreshToken,
+                                                      @NonNull ContextWrapper contextWrapper,
+                                                      boolean contextWrapperIsActivity) {
+
+        final AccessTokenManager.Refresh refresh = AccessTokenManager.addRefreshListener(refreshListener);
+
+        if (refresh == null) {
             return;
         }
 
         final Response.Listener<String> successListener = response -> {
+            // Ignore the response if the contact has signed out since the request was sent.
+            if (!AccessTokenManager.isCurrent(refresh)) {
+                return;
+            }
+
+            final Trace.Span      jsonSpan        = Trace.startSpan("parse AccessTokenData", Trace.CATEGORY_JSON);
             final AccessTokenData accessTokenData = GeneralUtils.fromJson(response, AccessTokenData.class);
+            jsonSpan.end();
 
             try {
                 // Ensure that the access token is set before the access token expiry in case setting the
@@ -228,55 +472,39 @@ public class RequestGlobalStatic {
                         contextWrapper,
                         accessTokenData.getExpiryTime()
                 );
-
-                safeSetCallbackOnReturn(callback, accessTokenData.getAccessToken());
             }
             catch (IOException | GeneralSecurityException | NullPointerException e) {
-                if (contextWrapperIsActivity && LoadingDialog.safeDismiss(loadingDialog)) {
-                    AlertDialogs.internalErrorDialog(
-                            (BaseActivity) contextWrapper,
-                            finishActivity,
-                            null
-                    );
-                }
-                safeSetCallbackOnReturn(callback, null);
-
+                AccessTokenManager.onRefreshFailure(refresh, null);
                 return;
             }
 
-            if (callback == null) {
-                handleRequestSignInTime((BaseMainActivity) contextWrapper, accessTokenData.getAccessToken());
-            }
+            AccessTokenManager.onRefreshSuccess(
+                    refresh,
+                    accessTokenData.getAccessToken(),
+                    accessTokenData.getExpiryTime()
+            );
         };
 
-        final Response.ErrorListener errorListener = error -> {
-            if (contextWrapperIsActivity && LoadingDialog.safeDismiss(loadingDialog)) {
-                HttpOperations.handleStandardRequestOnErrorResponse(
-                        error,
-                        (BaseActivity) contextWrapper,
-                        finishActivity
-                );
-            }
-
-            safeSetCallbackOnReturn(callback, null);
-        };
+        final Response.ErrorListener errorListener = error -> AccessTokenManager.onRefreshFailure(refresh, error);
 
         if (contextWrapperIsActivity) {
+            final HttpMetrics.Call tokenRefreshCall = HttpMetrics.start(HttpOperations.URI_TOKEN_REFRESH);
             HttpOperations.post(
                     HttpOperations.URI_TOKEN_REFRESH,
-                    refreshToken,
+                    tokenRefreshCall.requestBody(refreshToken),
                     (BaseActivity) contextWrapper,
-                    successListener,
-                    errorListener
+                    tokenRefreshCall.onResponse(successListener),
+                    tokenRefreshCall.onErrorResponse(errorListener)
             );
         }
         else {
+            final HttpMetrics.Call tokenRefreshCall = HttpMetrics.start(HttpOperations.URI_TOKEN_REFRESH);
             HttpOperations.post(
                     HttpOperations.URI_TOKEN_REFRESH,
-                    refreshToken,
+                    tokenRefreshCall.requestBody(refreshToken),
                     (ConnectionService) contextWrapper,
-                    successListener,
-                    errorListener
+                    tokenRefreshCall.onResponse(successListener),
+                    tokenRefreshCall.onErrorResponse(errorListener)
             );
         }
     }
@@ -290,11 +518,12 @@ public class RequestGlobalStatic {
     private static void handleRequestSignInTime(@NonNull BaseMainActivity activity, @NonNull String accessToken) {
         final String errMsgPrefix = "Cannot load sign-in time: ";
 
+        final HttpMetrics.Call loadSignInTimeCall = HttpMetrics.start(HttpOperations.URI_LOAD_SIGN_IN_TIME);
         HttpOperations.post(
                 HttpOperations.URI_LOAD_SIGN_IN_TIME,
-                accessToken,
+                loadSignInTimeCall.requestBody(accessToken),
                 activity,
-                response -> {
+                loadSignInTimeCall.onResponse(response -> {
                     try {
                         final long signInTime = GeneralUtils.fromJson(response, Long.class);
 
@@ -317,8 +546,10 @@ public class RequestGlobalStatic {
 
                         Log.e("Internal error", errMsgPrefix + e.getMessage());
                     }
-                },
-                error -> Log.w("HTTP request error", errMsgPrefix + "status code not 'OK'.")
+                }),
+                loadSignInTimeCall.onErrorResponse(
+                        error -> Log.w("HTTP request error", errMsgPrefix + "status code not 'OK'.")
+                )
         );
     }
 
@@ -390,9 +621,10 @@ public class RequestGlobalStatic {
      *
      * This method does not display any AlertDialog messages.
      *
-     * @param callback                      The callback which should return either a list of contacts or null, as well
-     *                                      as true if a request for target contacts is already in progress and false
-     *                                      otherwise.
+     * If a request for the same target contacts (with the same filters and number of loaded contacts) is already in
+     * progress then the callback is given the result of that request instead of sending another request.
+     *
+     * @param callback                      The callback which should return either a list of contacts or null.
      * @param activity                      The calling activity.
      * @param forceServerRequest            Set to true to always request contacts from the server, set to false to
      *                                      only send a server request if there are no contacts available locally.
@@ -407,7 +639,7 @@ public class RequestGlobalStatic {
      * @param searchString                  The string which the contact is filtering target contacts by.
      *                                      If this is null or an empty string no filter is applied.
      */
-    public static void requestAndSetTargetContacts(final ContactListAndStatusCallback callback,
+    public static void requestAndSetTargetContacts(final ContactListCallback callback,
                                                    final BaseMainActivity activity,
                                                    final boolean forceServerRequest,
                                                    final boolean ignoreFilters,
@@ -417,6 +649,42 @@ public class RequestGlobalStatic {
                                                    final boolean isExtendedContactsChecked,
                                                    final String searchString) {
 
+        loadTargetContacts(
+                activity,
+                forceServerRequest,
+                ignoreFilters,
+                numOfLoadedContacts,
+                specifiedGroup,
+                isKnownContactsChecked,
+                isExtendedContactsChecked,
+                searchString
+        ).whenComplete((contacts, error) -> {
+            // Do not return a result to a destroyed activity.
+            if (!(error instanceof CancellationException)) {
+                callback.onReturn(contacts);
+            }
+        });
+    }
+
+    /**
+     * The future-based equivalent of {@link #requestAndSetTargetContacts}.
+     *
+     * The contacts response (and the chosen groups response) is parsed off the UI thread, and the loaded objects are
+     * stored on the UI thread. The request is cancelled if the calling activity is destroyed, in which case callers
+     * attached to the same request from other activities fail as if the request had failed.
+     *
+     * @return  A future which succeeds with the list of contacts, or fails if the contacts cannot be loaded within
+     *          {@link #LOAD_TIMEOUT_MILLIS} milliseconds.
+     */
+    public static ServerFuture<List<Contact>> loadTargetContacts(final BaseMainActivity activity,
+                                                                 final boolean forceServerRequest,
+                                                                 final boolean ignoreFilters,
+                                                                 final int numOfLoadedContacts,
+                                                                 final Group specifiedGroup,
+                                                                 final boolean isKnownContactsChecked,
+                                                                 final boolean isExtendedContactsChecked,
+                                                                 final String searchString) {
+
         // The calling activity/fragment should prevent both CheckBoxes from being unchecked.
         if (!ignoreFilters && !isKnownContactsChecked && !isExtendedContactsChecked) {
             final String s = "Both known and extended CheckBoxes cannot be unchecked (when filters are not ignored).";
@@ -434,131 +702,123 @@ public class RequestGlobalStatic {
             List<Contact> targetContacts = Contact.getTargetContacts();
 
             if (specifiedGroup == null) {
-                callback.onReturn(targetContacts, false);
+                return ServerFuture.completed(targetContacts);
             }
             else {
-                callback.onReturn(specifiedGroup.getGroupTargetContacts(), false);
+                return ServerFuture.completed(specifiedGroup.getGroupTargetContacts());
             }
         }
         catch (ForcedServerRequestException | NullStaticVariableException e1) {
-            // Prevent many target contact requests from being sent before receiving their respective server responses.
-            if (requestInProgressForTargetContacts) {
-                callback.onReturn(null, true);
-                return;
+            final Long    groupNumber;
+            final boolean getKnownContacts;
+            final boolean getExtendedContacts;
+            final String  contactSearchString;
+
+            if (specifiedGroup == null) {
+                groupNumber = null;
+            }
+            else {
+                groupNumber = specifiedGroup.getNumber();
             }
 
-            requestInProgressForTargetContacts = true;
+            if (ignoreFilters) {
+                getKnownContacts    = true;
+                getExtendedContacts = false;
+                contactSearchString = null;
+            }
+            else {
+                getKnownContacts    = isKnownContactsChecked;
+                getExtendedContacts = isExtendedContactsChecked;
+                contactSearchString = searchString;
+            }
 
-            RequestGlobalStatic.requestAndSetAccessToken(
-                    accessToken -> {
-                        if (accessToken == null) {
-                            returnFromRequestAndSetTargetContacts(callback, null);
-                            return;
-                        }
+            final List<Object> requestKey = createTargetContactsRequestKey(
+                    numOfLoadedContacts,
+                    getKnownContacts,
+                    getExtendedContacts,
+                    contactSearchString,
+                    groupNumber
+            );
 
-                        Long    groupNumber;
-                        boolean getKnownContacts;
-                        boolean getExtendedContacts;
-                        String  contactSearchString;
+            // Only this caller's future is cancelled if its activity is destroyed, since the shared load below may
+            // also complete the futures of other callers (and cannot exceed its time-out).
+            final ServerFuture<List<Contact>> future = new ServerFuture<>();
+            activity.cancelOnDestroy(future);
 
-                        if (specifiedGroup == null) {
-                            groupNumber = null;
-                        }
-                        else {
-                            groupNumber = specifiedGroup.getNumber();
-                        }
+            // Attach the future to an identical request if one is already in progress.
+            if (!targetContactsRequests.join(
+                    requestKey,
+                    contacts -> completeCoalescedFuture(future, contacts, requestKey))) {
 
-                        if (ignoreFilters) {
-                            getKnownContacts    = true;
-                            getExtendedContacts = false;
-                            contactSearchString = null;
+                return future;
+            }
+
+            final ServerFuture<LoadedObjects> loadFuture = requestAccessToken(activity, null, false)
+                    .thenCompose(accessToken -> sendRequest(
+                            activity,
+                            HttpOperations.URI_LOAD_TARGET_CONTACTS,
+                            new LoadContactsRequest(
+                                    accessToken,
+                                    numOfLoadedContacts,
+                                    getKnownContacts,
+                                    getExtendedContacts,
+                                    contactSearchString,
+                                    groupNumber
+                            )
+                    ).thenCompose(
+                            response -> ResponseParser.parseAsync(response, LoadContactsResponse.class)
+                    ).thenCompose(lcr -> {
+                        final List<LoadContactObject> targetContacts = new ArrayList<>();
+                        targetContacts.addAll(lcr.getKnownContacts());
+                        targetContacts.addAll(lcr.getExtendedContacts());
+
+                        final Set<Long> groupNumbers = new HashSet<>();
+                        for (LoadContactObject lco : targetContacts) {
+                            groupNumbers.addAll(GeneralUtils.arrayToSet(lco.getGroupNumbersNullSafe()));
                         }
-                        else {
-                            getKnownContacts    = isKnownContactsChecked;
-                            getExtendedContacts = isExtendedContactsChecked;
-                            contactSearchString = searchString;
+
+                        if (groupNumbers.isEmpty()) {
+                            return ServerFuture.completed(new LoadedObjects(targetContacts, null));
                         }
 
-                        LoadContactsRequest loadContactsRequest = new LoadContactsRequest(
-                                accessToken,
-                                numOfLoadedContacts,
-                                getKnownContacts,
-                                getExtendedContacts,
-                                contactSearchString,
-                                groupNumber
+                        return sendRequest(
+                                activity,
+                                HttpOperations.URI_LOAD_CHOSEN_GROUPS,
+                                new LoadChosenGroupsRequest(accessToken, GeneralUtils.collectionToArray(groupNumbers))
+                        ).thenCompose(
+                                response -> ResponseParser.parseAsync(response, LoadChosenGroupsResponse.class)
+                        ).thenApply(
+                                lcgr -> new LoadedObjects(targetContacts, lcgr.getGroups())
                         );
+                    }))
+                    .withTimeout(LOAD_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+            // Store the loaded objects on the UI thread, which also completes the future of every attached caller.
+            loadFuture.whenComplete(
+                    (loadedObjects, error) -> {
+                        if (error != null) {
+                            returnFromRequestAndSetTargetContacts(requestKey, null);
+                            return;
+                        }
 
-                        HttpOperations.post(
-                                HttpOperations.URI_LOAD_TARGET_CONTACTS,
-                                loadContactsRequest,
-                                activity,
-                                response -> {
-                                    final LoadContactsResponse lcr = GeneralUtils.fromJson(
-                                            response,
-                                            LoadContactsResponse.class
-                                    );
-
-                                    final List<LoadContactObject> knownContactObjects    = lcr.getKnownContacts();
-                                    final List<LoadContactObject> extendedContactObjects = lcr.getExtendedContacts();
-
-                                    Set<Long> groupNumbers = new HashSet<>();
-
-                                    final List<LoadContactObject> targetContacts = new ArrayList<>();
-                                    targetContacts.addAll(knownContactObjects);
-                                    targetContacts.addAll(extendedContactObjects);
-
-                                    for (LoadContactObject lco : targetContacts) {
-                                        groupNumbers.addAll(GeneralUtils.arrayToSet(lco.getGroupNumbersNullSafe()));
-                                    }
-
-                                    if (groupNumbers.isEmpty()) {
-                                        handleLoadContactsResponseAndReturn(
-                                                targetContacts,
-                                                null,
-                                                specifiedGroup,
-                                                callback
-                                        );
-                                        return;
-                                    }
-
-                                    LoadChosenGroupsRequest loadChosenGroupsRequest = new LoadChosenGroupsRequest(
-                                            accessToken,
-                                            GeneralUtils.collectionToArray(groupNumbers)
-                                    );
-
-                                    HttpOperations.post(
-                                            HttpOperations.URI_LOAD_CHOSEN_GROUPS,
-                                            loadChosenGroupsRequest,
-                                            activity,
-                                            response1 -> {
-                                                LoadChosenGroupsResponse lcgr = GeneralUtils.fromJson(
-                                                        response1,
-                                                        LoadChosenGroupsResponse.class
-                                                );
-
-                                                handleLoadContactsResponseAndReturn(
-                                                        targetContacts,
-                                                        lcgr.getGroups(),
-                                                        specifiedGroup,
-                                                        callback
-                                                );
-                                            },
-                                            error -> returnFromRequestAndSetTargetContacts(callback, null)
-                                    );
-                                },
-                                error -> returnFromRequestAndSetTargetContacts(callback, null));
+                        handleLoadContactsResponseAndReturn(
+                                loadedObjects.contacts,
+                                loadedObjects.groups,
+                                specifiedGroup,
+                                requestKey
+                        );
                     },
-                    activity,
-                    null,
-                    false
+                    mainThreadExecutor
             );
+
+            return future;
         }
     }
 
     private static void handleLoadContactsResponseAndReturn(@NonNull List<LoadContactObject> targetContacts,
                                                             List<LoadGroupObject> knownGroups,
                                                             Group specifiedGroup,
-                                                            @NonNull ContactListAndStatusCallback callback) {
+                                                            @NonNull List<Object> requestKey) {
         try {
             if (knownGroups == null) {
                 ContactGroupAssociation.storeContactsAndSetAssociations(targetContacts);
@@ -570,26 +830,40 @@ public class RequestGlobalStatic {
             // Set the relevant contact list in the callback.
             if (targetContacts.isEmpty()) {
                 // Ensure a NullStaticVariableException exception is not thrown.
-                returnFromRequestAndSetTargetContacts(callback, new ArrayList<>());
+                returnFromRequestAndSetTargetContacts(requestKey, new ArrayList<>());
             }
             else if (specifiedGroup == null) {
-                returnFromRequestAndSetTargetContacts(callback, Contact.getTargetContacts());
+                returnFromRequestAndSetTargetContacts(requestKey, Contact.getTargetContacts());
             }
             else {
-                returnFromRequestAndSetTargetContacts(callback, specifiedGroup.getGroupTargetContacts());
+                returnFromRequestAndSetTargetContacts(requestKey, specifiedGroup.getGroupTargetContacts());
             }
         }
         catch (ContactException | GroupException | NullStaticVariableException e) {
-            returnFromRequestAndSetTargetContacts(callback, null);
+            returnFromRequestAndSetTargetContacts(requestKey, null);
         }
     }
 
-    private static void returnFromRequestAndSetTargetContacts(ContactListAndStatusCallback callback,
-                                                              List<Contact> contactList) {
+    private static List<Object> createTargetContactsRequestKey(int numOfLoadedContacts,
+                                                               boolean getKnownContacts,
+                                                               boolean getExtendedContacts,
+                                                               @Nullable String contactSearchString,
+                                                               @Nullable Long groupNumber) {
+
+        return RequestCoalescer.createKey(
+                HttpOperations.URI_LOAD_TARGET_CONTACTS,
+                numOfLoadedContacts,
+                getKnownContacts,
+                getExtendedContacts,
+                contactSearchString,
+                groupNumber
+        );
+    }
 
-        requestInProgressForTargetContacts = false;
+    private static void returnFromRequestAndSetTargetContacts(@NonNull List<Object> requestKey,
+                                                              List<Contact> contactList) {
 
-        callback.onReturn(contactList, false);
+        targetContactsRequests.complete(requestKey, contactList);
     }
 
     /**
@@ -762,21 +1036,23 @@ public class RequestGlobalStatic {
         };
 
         if (contextWrapperIsActivity) {
+            final HttpMetrics.Call loadCurrentContactCall = HttpMetrics.start(HttpOperations.URI_LOAD_CURRENT_CONTACT);
             HttpOperations.post(
                     HttpOperations.URI_LOAD_CURRENT_CONTACT,
-                    accessToken,
+                    loadCurrentContactCall.requestBody(accessToken),
                     (BaseMainActivity) contextWrapper,
-                    successListener,
-                    errorListener
+                    loadCurrentContactCall.onResponse(successListener),
+                    loadCurrentContactCall.onErrorResponse(errorListener)
             );
         }
         else {
+            final HttpMetrics.Call loadCurrentContactCall = HttpMetrics.start(HttpOperations.URI_LOAD_CURRENT_CONTACT);
             HttpOperations.post(
                     HttpOperations.URI_LOAD_CURRENT_CONTACT,
-                    accessToken,
+                    loadCurrentContactCall.requestBody(accessToken),
                     (ConnectionService) contextWrapper,
-                    successListener,
-                    errorListener
+                    loadCurrentContactCall.onResponse(successListener),
+                    loadCurrentContactCall.onErrorResponse(errorListener)
             );
         }
     }
@@ -792,6 +1068,9 @@ public class RequestGlobalStatic {
      *
      * A non-null LoadingDialog is not dismissed unless the callback's onReturn method specifies a null value.
      *
+     * If a request for the same known groups (with the same filters and number of loaded groups) is already in
+     * progress then the callback is given the result of that request instead of sending another request.
+     *
      * @param callback                  The callback which should return either a list of groups or null.
      * @param activity                  The calling activity.
      * @param loadingDialog             Set to null to not display any LoadingDialog or AlertDialog messages;
@@ -826,6 +1105,46 @@ public class RequestGlobalStatic {
                                                 final boolean ignoreDefaultGroup,
                                                 final boolean finishActivity) {
 
+        loadKnownGroups(
+                activity,
+                loadingDialog,
+                internalErrorMsg,
+                forceServerRequest,
+                ignoreFilters,
+                numOfLoadedGroups,
+                specifiedContact,
+                searchString,
+                ignoreDefaultGroup,
+                finishActivity
+        ).whenComplete((groups, error) -> {
+            // Do not return a result to a destroyed activity.
+            if (!(error instanceof CancellationException)) {
+                callback.onReturn(groups);
+            }
+        });
+    }
+
+    /**
+     * The future-based equivalent of {@link #requestAndSetKnownGroups}.
+     *
+     * The groups response (and the chosen contacts response) is parsed off the UI thread, and the loaded objects are
+     * stored on the UI thread. The request is cancelled if the calling activity is destroyed, in which case callers
+     * attached to the same request from other activities fail as if the request had failed.
+     *
+     * @return  A future which succeeds with the list of groups, or fails if the groups cannot be loaded within
+     *          {@link #LOAD_TIMEOUT_MILLIS} milliseconds.
+     */
+    public static ServerFuture<List<Group>> loadKnownGroups(final BaseMainActivity activity,
+                                                            final LoadingDialog loadingDialog,
+                                                            final String internalErrorMsg,
+                                                            final boolean forceServerRequest,
+                                                            final boolean ignoreFilters,
+                                                            final int numOfLoadedGroups,
+                                                            final Contact specifiedContact,
+                                                            final String searchString,
+                                                            final boolean ignoreDefaultGroup,
+                                                            final boolean finishActivity) {
+
         try {
             if (forceServerRequest) {
                 throw new ForcedServerRequestException();
@@ -840,159 +1159,152 @@ public class RequestGlobalStatic {
                 targetGroups = specifiedContact.getCommonGroups();
             }
 
-            setKnownGroupsRequestCallback(callback, targetGroups);
+            return ServerFuture.completed(targetGroups);
         }
         catch (ForcedServerRequestException | NullStaticVariableException e1) {
-            RequestGlobalStatic.requestAndSetAccessToken(
-                    accessToken -> {
-                        if (accessToken == null) {
-                            setKnownGroupsRequestCallback(callback, null);
-                            return;
-                        }
+            final Long   contactNumber;
+            final String groupSearchString;
 
-                        // Prevent many known group requests from being sent before receiving their respective server
-                        // responses.
-                        if (requestInProgressForKnownGroups) {
-                            callback.onReturn(null, true);
-                            return;
-                        }
+            if (specifiedContact == null) {
+                contactNumber = null;
+            }
+            else {
+                contactNumber = specifiedContact.getNumber();
+            }
 
-                        requestInProgressForKnownGroups = true;
+            if (ignoreFilters) {
+                groupSearchString = null;
+            }
+            else {
+                groupSearchString = searchString;
+            }
 
-                        Long   contactNumber;
-                        String groupSearchString;
+            final List<Object> requestKey = createKnownGroupsRequestKey(
+                    numOfLoadedGroups,
+                    groupSearchString,
+                    contactNumber,
+                    ignoreDefaultGroup
+            );
 
-                        if (specifiedContact == null) {
-                            contactNumber = null;
-                        }
-                        else {
-                            contactNumber = specifiedContact.getNumber();
+            // As for target contacts, only this caller's future is tied to its activity.
+            final ServerFuture<List<Group>> future = new ServerFuture<>();
+            activity.cancelOnDestroy(future);
+
+            // Attach the future to an identical request if one is already in progress. Only the caller which sends
+            // the request displays any LoadingDialog or AlertDialog messages.
+            if (!knownGroupsRequests.join(requestKey, groups -> completeCoalescedFuture(future, groups, requestKey))) {
+                return future;
+            }
+
+            final ServerFuture<LoadedObjects> loadFuture = requestAccessToken(activity, loadingDialog, finishActivity)
+                    .thenCompose(accessToken -> sendRequest(
+                            activity,
+                            HttpOperations.URI_LOAD_KNOWN_GROUPS,
+                            new LoadGroupsRequest(
+                                    accessToken,
+                                    numOfLoadedGroups,
+                                    groupSearchString,
+                                    contactNumber,
+                                    ignoreDefaultGroup
+                            )
+                    ).thenCompose(
+                            response -> ResponseParser.parseAsync(response, LoadGroupsResponse.class)
+                    ).thenApply(
+                            LoadGroupsResponse::getGroups
+                    ).thenCompose(groupObjects -> {
+                        final Set<Long> contactNumbers = new HashSet<>();
+                        for (LoadGroupObject lgo : groupObjects) {
+                            contactNumbers.addAll(GeneralUtils.arrayToSet(lgo.getTargetContactNumbersNullSafe()));
                         }
 
-                        if (ignoreFilters) {
-                            groupSearchString = null;
+                        if (contactNumbers.isEmpty()) {
+                            return ServerFuture.completed(new LoadedObjects(null, groupObjects));
                         }
-                        else {
-                            groupSearchString = searchString;
+
+                        return sendRequest(
+                                activity,
+                                HttpOperations.URI_LOAD_CHOSEN_CONTACTS,
+                                new LoadChosenContactsRequest(
+                                        accessToken,
+                                        GeneralUtils.collectionToArray(contactNumbers)
+                                )
+                        ).thenCompose(
+                                response -> ResponseParser.parseAsync(response, LoadChosenContactsResponse.class)
+                        ).thenApply(lccr -> {
+                            final List<LoadContactObject> targetContactObjects = new ArrayList<>();
+                            targetContactObjects.addAll(lccr.getKnownContacts());
+                            targetContactObjects.addAll(lccr.getExtendedContacts());
+
+                            return new LoadedObjects(targetContactObjects, groupObjects);
+                        });
+                    }))
+                    .withTimeout(LOAD_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+            // Store the loaded objects on the UI thread, which also completes the future of every attached caller.
+            loadFuture.whenComplete(
+                    (loadedObjects, error) -> {
+                        if (error != null) {
+                            displayLoadFailure(error, activity, loadingDialog, internalErrorMsg, finishActivity);
+                            setKnownGroupsRequestCallback(requestKey, null);
+                            return;
                         }
 
-                        LoadGroupsRequest loadGroupsRequest = new LoadGroupsRequest(
-                                accessToken,
-                                numOfLoadedGroups,
-                                groupSearchString,
-                                contactNumber,
+                        handleLoadGroupsResponseAndReturn(
+                                loadedObjects.groups,
+                                loadedObjects.contacts,
+                                specifiedContact,
+                                requestKey,
                                 ignoreDefaultGroup
                         );
+                    },
+                    mainThreadExecutor
+            );
 
-                        HttpOperations.post(
-                                HttpOperations.URI_LOAD_KNOWN_GROUPS,
-                                loadGroupsRequest,
-                                activity,
-                                response -> {
-                                    final LoadChosenContactsRequest loadChosenContactsRequest;
-                                    final List<LoadGroupObject> groupObjects;
-                                    try {
-                                        groupObjects = GeneralUtils.fromJson(response, LoadGroupsResponse.class)
-                                                .getGroups();
-
-                                        Set<Long> contactNumbers = new HashSet<>();
-
-                                        for (LoadGroupObject lgo : groupObjects) {
-                                            contactNumbers.addAll(
-                                                    GeneralUtils.arrayToSet(lgo.getTargetContactNumbersNullSafe())
-                                            );
-                                        }
+            return future;
+        }
+    }
 
-                                        if (contactNumbers.isEmpty()) {
-                                            handleLoadGroupsResponseAndReturn(
-                                                    groupObjects,
-                                                    null,
-                                                    specifiedContact,
-                                                    callback,
-                                                    ignoreDefaultGroup
-                                            );
-                                            return;
-                                        }
+    /**
+     * Display the reason a load request failed, if a LoadingDialog is displayed.
+     *
+     * No message is displayed if the access token could not be retrieved (since a message has already been displayed)
+     * or if the request was cancelled (since the calling activity has been destroyed).
+     */
+    private static void displayLoadFailure(@NonNull Throwable error,
+                                           @NonNull BaseMainActivity activity,
+                                           @Nullable LoadingDialog loadingDialog,
+                                           @Nullable String internalErrorMsg,
+                                           boolean finishActivity) {
 
-                                        loadChosenContactsRequest = new LoadChosenContactsRequest(
-                                                accessToken,
-                                                GeneralUtils.collectionToArray(contactNumbers)
-                                        );
-                                    }
-                                    catch (IllegalArgumentException e) {
-                                        if (LoadingDialog.safeDismiss(loadingDialog)) {
-                                            AlertDialogs.internalErrorDialog(
-                                                    activity,
-                                                    finishActivity,
-                                                    internalErrorMsg
-                                            );
-                                        }
+        if (error instanceof ServerRequestException || error instanceof CancellationException) {
+            return;
+        }
 
-                                        setKnownGroupsRequestCallback(callback, null);
-
-                                        return;
-                                    }
-
-                                    HttpOperations.post(
-                                            HttpOperations.URI_LOAD_CHOSEN_CONTACTS,
-                                            loadChosenContactsRequest,
-                                            activity,
-                                            response1 -> {
-                                                final LoadChosenContactsResponse lccr = GeneralUtils.fromJson(
-                                                        response1,
-                                                        LoadChosenContactsResponse.class
-                                                );
-
-                                                List<LoadContactObject> targetContactObjects = new ArrayList<>();
-
-                                                targetContactObjects.addAll(lccr.getKnownContacts());
-                                                targetContactObjects.addAll(lccr.getExtendedContacts());
-
-                                                handleLoadGroupsResponseAndReturn(
-                                                        groupObjects,
-                                                        targetContactObjects,
-                                                        specifiedContact,
-                                                        callback,
-                                                        ignoreDefaultGroup
-                                                );
-                                            },
-                                            error -> {
-                                                if (LoadingDialog.safeDismiss(loadingDialog)) {
-                                                    HttpOperations.handleStandardRequestOnErrorResponse(
-                                                            error,
-                                                            activity,
-                                                            finishActivity
-                                                    );
-                                                }
-
-                                                setKnownGroupsRequestCallback(callback, null);
-                                            }
-                                    );
-                                },
-                                error -> {
-                                    if (LoadingDialog.safeDismiss(loadingDialog)) {
-                                        HttpOperations.handleStandardRequestOnErrorResponse(
-                                                error,
-                                                activity,
-                                                finishActivity
-                                        );
-                                    }
+        // The load is shared with other callers so it is not cancelled when the activity which sent it is destroyed.
+        if (activity.isDestroyed()) {
+            return;
+        }
 
-                                    setKnownGroupsRequestCallback(callback, null);
-                                }
-                        );
-                    },
-                    activity,
-                    loadingDialog,
-                    finishActivity
-            );
+        if (!LoadingDialog.safeDismiss(loadingDialog)) {
+            return;
+        }
+
+        if (error instanceof VolleyError) {
+            HttpOperations.handleStandardRequestOnErrorResponse((VolleyError) error, activity, finishActivity);
+        }
+        else if (error instanceof TimeoutException) {
+            HttpOperations.handleStandardRequestOnErrorResponse(new TimeoutError(), activity, finishActivity);
+        }
+        else {
+            // The response could not be parsed.
+            AlertDialogs.internalErrorDialog(activity, finishActivity, internalErrorMsg);
         }
     }
 
     private static void handleLoadGroupsResponseAndReturn(@NonNull List<LoadGroupObject> knownGroups,
                                                           @Nullable List<LoadContactObject> targetContacts,
                                                           @Nullable Contact specifiedContact,
-                                                          @NonNull GroupListCallback callback,
+                                                          @NonNull List<Object> requestKey,
                                                           boolean ignoreDefaultGroup) {
         try {
             if (targetContacts == null) {
@@ -1011,21 +1323,33 @@ public class RequestGlobalStatic {
                 targetGroups = specifiedContact.getCommonGroups();
             }
 
-            setKnownGroupsRequestCallback(callback, targetGroups);
+            setKnownGroupsRequestCallback(requestKey, targetGroups);
         }
         catch (ContactException | GroupException | NullStaticVariableException e) {
             // A NullStaticVariableException exception cannot be caught if the default group is available.
 
-            setKnownGroupsRequestCallback(callback, null);
+            setKnownGroupsRequestCallback(requestKey, null);
         }
     }
 
-    private static void setKnownGroupsRequestCallback(@NonNull final GroupListCallback callback,
-                                                      final List<Group> groupList) {
+    private static List<Object> createKnownGroupsRequestKey(int numOfLoadedGroups,
+                                                            @Nullable String groupSearchString,
+                                                            @Nullable Long contactNumber,
+                                                            boolean ignoreDefaultGroup) {
+
+        return RequestCoalescer.createKey(
+                HttpOperations.URI_LOAD_KNOWN_GROUPS,
+                numOfLoadedGroups,
+                groupSearchString,
+                contactNumber,
+                ignoreDefaultGroup
+        );
+    }
 
-        requestInProgressForKnownGroups = false;
+    private static void setKnownGroupsRequestCallback(@NonNull final List<Object> requestKey,
+                                                      final List<Group> groupList) {
 
-        callback.onReturn(groupList, false);
+        knownGroupsRequests.complete(requestKey, groupList);
     }
 
     /**
@@ -1139,11 +1463,12 @@ public class RequestGlobalStatic {
                                              @Nullable final String internalErrorMsg,
                                              @NonNull final String accessToken) {
 
+        final HttpMetrics.Call loadSelectedGroupCall = HttpMetrics.start(HttpOperations.URI_LOAD_SELECTED_GROUP);
         HttpOperations.post(
                 HttpOperations.URI_LOAD_SELECTED_GROUP,
-                accessToken,
+                loadSelectedGroupCall.requestBody(accessToken),
                 activity,
-                response1 -> {
+                loadSelectedGroupCall.onResponse(response1 -> {
                     final LoadGroupObject loadGroupObject = GeneralUtils.fromJson(response1, LoadGroupObject.class);
 
                     final long[] groupContacts = loadGroupObject.getTargetContactNumbersNullSafe();
@@ -1162,35 +1487,47 @@ public class RequestGlobalStatic {
                         return;
                     }
 
+                    final HttpMetrics.Call loadChosenContactsCall =
+                            HttpMetrics.start(HttpOperations.URI_LOAD_CHOSEN_CONTACTS);
                     HttpOperations.post(
                             HttpOperations.URI_LOAD_CHOSEN_CONTACTS,
-                            new LoadChosenContactsRequest(
+                            loadChosenContactsCall.requestBody(new LoadChosenContactsRequest(
                                     accessToken,
                                     groupContacts
-                            ),
+                            )),
                             activity,
-                            response2 -> {
-                                final LoadChosenContactsResponse lccr = GeneralUtils.fromJson(
-                                        response2,
-                                        LoadChosenContactsResponse.class
-                                );
-
-                                List<LoadContactObject> targetContacts = new ArrayList<>();
-
-                                targetContacts.addAll(lccr.getKnownContacts());
-                                targetContacts.addAll(lccr.getExtendedContacts());
+                            loadChosenContactsCall.onResponse(response2 -> ResponseParser.parseAsync(
+                                    response2,
+                                    LoadChosenContactsResponse.class
+                            ).whenComplete(
+                                    (lccr, parseError) -> {
+                                        List<LoadContactObject> targetContacts = null;
+
+                                        if (parseError == null) {
+                                            targetContacts = new ArrayList<>();
+                                            targetContacts.addAll(lccr.getKnownContacts());
+                                            targetContacts.addAll(lccr.getExtendedContacts());
+                                        }
+                                        else {
+                                            logError(
+                                                    loadGroupObject.getNumber(),
+                                                    "Exception message: " + parseError.getMessage()
+                                            );
+                                        }
 
-                                handleSuccessfulSelectGroupRequest(
-                                        callback,
-                                        activity,
-                                        loadingDialog,
-                                        internalErrorMsg,
-                                        accessToken,
-                                        loadGroupObject,
-                                        targetContacts
-                                );
-                            },
-                            error2 -> {
+                                        handleSuccessfulSelectGroupRequest(
+                                                callback,
+                                                activity,
+                                                loadingDialog,
+                                                internalErrorMsg,
+                                                accessToken,
+                                                loadGroupObject,
+                                                targetContacts
+                                        );
+                                    },
+                                    mainThreadExecutor
+                            )),
+                            loadChosenContactsCall.onErrorResponse(error2 -> {
                                 logError(
                                         loadGroupObject.getNumber(),
                                         String.format(
@@ -1208,16 +1545,16 @@ public class RequestGlobalStatic {
                                         loadGroupObject,
                                         null
                                 );
-                            }
+                            })
                     );
-                },
-                error1 -> {
+                }),
+                loadSelectedGroupCall.onErrorResponse(error1 -> {
                     if (LoadingDialog.safeDismiss(loadingDialog)) {
                         HttpOperations.handleStandardRequestOnErrorResponse(error1, activity, false);
                     }
 
                     setBaseGroupCallback(callback, null, accessToken);
-                }
+                })
         );
     }
 
@@ -1284,9 +1621,11 @@ public class RequestGlobalStatic {
      *
      * This method does not display any AlertDialog messages.
      *
+     * If a request for the same group-shares (with the same numbers of loaded group-shares) is already in progress
+     * then the callback is given the result of that request instead of sending another request.
+     *
      * @param callback                              The callback which should return either a list of group-shares or
-     *                                              null, as well as true if a request for group-shares is already in
-     *                                              progress and false otherwise.
+     *                                              null.
      * @param activity                              The calling activity.
      * @param forceServerRequest                    Set to true to always request group-shares from the server, set to
      *                                              false to only send a server request if there are no group-shares
@@ -1303,7 +1642,7 @@ public class RequestGlobalStatic {
      *                                              loaded by the adapter.
      *                                              Set this to null to not load any of these group-shares.
      */
-    public static void requestGroupShareAlerts(final GroupShareListAndStatusCallback callback,
+    public static void requestGroupShareAlerts(final GroupShareListCallback callback,
                                                final BaseMainActivity activity,
                                                final boolean forceServerRequest,
                                                final long numOfLoadedPendingReceivedShares,
@@ -1318,21 +1657,25 @@ public class RequestGlobalStatic {
 
             List<GroupShare> groupShares = Alerts.getGroupShares();
 
-            callback.onReturn(groupShares, false);
+            callback.onReturn(groupShares);
         }
         catch (ForcedServerRequestException | NullStaticVariableException e1) {
-            // Prevent many group-share requests from being sent before receiving their respective server responses.
-            if (requestInProgressForGroupShares) {
-                callback.onReturn(null, true);
+            final List<Object> requestKey = createGroupSharesRequestKey(
+                    numOfLoadedPendingReceivedShares,
+                    numOfLoadedPendingSentShares,
+                    numOfLoadedCompletedReceivedShares,
+                    numOfLoadedCompletedSentShares
+            );
+
+            // Attach the callback to an identical request if one is already in progress.
+            if (!groupSharesRequests.join(requestKey, callback::onReturn)) {
                 return;
             }
 
-            requestInProgressForGroupShares = true;
-
             RequestGlobalStatic.requestAndSetAccessToken(
                     accessToken -> {
                         if (accessToken == null) {
-                            returnFromRequestGroupShareAlerts(callback, null);
+                            returnFromRequestGroupShareAlerts(requestKey, null);
                             return;
                         }
 
@@ -1344,26 +1687,37 @@ public class RequestGlobalStatic {
                                 numOfLoadedCompletedSentShares
                         );
 
+                        final HttpMetrics.Call loadGroupSharesCall =
+                                HttpMetrics.start(HttpOperations.URI_LOAD_GROUP_SHARES);
                         HttpOperations.post(
                                 HttpOperations.URI_LOAD_GROUP_SHARES,
-                                loadGroupSharesRequest,
+                                loadGroupSharesCall.requestBody(loadGroupSharesRequest),
                                 activity,
-                                response -> {
-                                    final LoadGroupSharesResponse loadGroupSharesResponse = GeneralUtils.fromJson(
-                                            response,
-                                            LoadGroupSharesResponse.class
-                                    );
-
-                                    Alerts.storeStatically(loadGroupSharesResponse.getGroupSharesList());
-
-                                    try {
-                                        returnFromRequestGroupShareAlerts(callback, Alerts.getGroupShares());
-                                    }
-                                    catch (NullStaticVariableException e) {
-                                        returnFromRequestGroupShareAlerts(callback, null);
-                                    }
-                                },
-                                error -> returnFromRequestGroupShareAlerts(callback, null));
+                                loadGroupSharesCall.onResponse(response -> ResponseParser.parseAsync(
+                                        response,
+                                        LoadGroupSharesResponse.class
+                                ).whenComplete(
+                                        (loadGroupSharesResponse, error) -> {
+                                            if (error != null) {
+                                                returnFromRequestGroupShareAlerts(requestKey, null);
+                                                return;
+                                            }
+
+                                            Alerts.storeStatically(loadGroupSharesResponse.getGroupSharesList());
+
+                                            try {
+                                                returnFromRequestGroupShareAlerts(requestKey, Alerts.getGroupShares());
+                                            }
+                                            catch (NullStaticVariableException e) {
+                                                returnFromRequestGroupShareAlerts(requestKey, null);
+                                            }
+                                        },
+                                        mainThreadExecutor
+                                )),
+                                loadGroupSharesCall.onErrorResponse(
+                                        error -> returnFromRequestGroupShareAlerts(requestKey, null)
+                                )
+                        );
                     },
                     activity,
                     null,
@@ -1372,11 +1726,365 @@ public class RequestGlobalStatic {
         }
     }
 
-    private static void returnFromRequestGroupShareAlerts(GroupShareListAndStatusCallback callback,
+    private static List<Object> createGroupSharesRequestKey(long numOfLoadedPendingReceivedShares,
+                                                            @Nullable Long numOfLoadedPendingSentShares,
+                                                            @Nullable Long numOfLoadedCompletedReceivedShares,
+                                                            @Nullable Long numOfLoadedCompletedSentShares) {
+
+        return RequestCoalescer.createKey(
+                HttpOperations.URI_LOAD_GROUP_SHARES,
+                numOfLoadedPendingReceivedShares,
+                numOfLoadedPendingSentShares,
+                numOfLoadedCompletedReceivedShares,
+                numOfLoadedCompletedSentShares
+        );
+    }
+
+    private static void returnFromRequestGroupShareAlerts(@NonNull List<Object> requestKey,
                                                           List<GroupShare> groupShareList) {
 
-        requestInProgressForGroupShares = false;
+        groupSharesRequests.complete(requestKey, groupShareList);
+    }
+
+    /**
+     * Load every object which the main activity displays after the contact signs in, sending two batches of requests
+     * (see {@link SignInLoader}) instead of the chain of dependent requests which each tab would otherwise send.
+     *
+     * This method should be called before the tabs request their objects: any tab which requests its default
+     * (unfiltered) objects while the batches are in progress receives the objects loaded by the batches instead of
+     * sending its own request.
+     *
+     * No requests are sent if all of these objects are already available locally, e.g. when the activity is
+     * recreated without the application being reset. Otherwise the objects are also restored from the encrypted
+     * on-disk snapshot (see {@link SignInSnapshot}) in the background and returned to any tab waiting for the batches,
+     * so that the tabs can display them before the batches complete. When the batches complete, any restored object
+     * which the server did not return is removed, the objects returned by the server are stored (and written to the
+     * snapshot) and the given callback is notified so that the tabs can display them. The snapshot is ignored if the
+     * batches complete first.
+     *
+     * This method does not display any LoadingDialog or AlertDialog messages.
+     *
+     * @param activity                      The calling activity.
+     * @param onRestoredObjectsReplaced     Called on the UI thread when the objects returned by the server have
+     *                                      replaced the objects restored from the snapshot.
+     */
+    public static void requestSignInLoads(@NonNull final BaseMainActivity activity,
+                                          @NonNull final Runnable onRestoredObjectsReplaced) {
+
+        try {
+            Contact.getCurrentContact();
+            Group.getKnownGroups(SignInLoader.IGNORE_DEFAULT_GROUP);
+            Contact.getTargetContacts();
+            Alerts.getGroupShares();
+
+            return;
+        }
+        catch (NullStaticVariableException e) {
+            // Load all of the objects.
+        }
+
+        final EncryptedSnapshot snapshot = SignInSnapshot.getInstance(activity.getFilesDir());
+
+        byte[] dataEncryptionKey;
+        try {
+            dataEncryptionKey = SharedPreferencesHandler.getDataEncryptionKey(activity);
+        }
+        catch ( NoStoredObjectException | IOException | GeneralSecurityException | DecoderException |
+                NullPointerException e ) {
+
+            // The objects can still be loaded from the server without a snapshot.
+            dataEncryptionKey = null;
+        }
+
+        final List<Object> targetContactsKey = createTargetContactsRequestKey(
+                SignInLoader.NUM_OF_LOADED_CONTACTS,
+                SignInLoader.GET_KNOWN_CONTACTS,
+                SignInLoader.GET_EXTENDED_CONTACTS,
+                null,
+                null
+        );
+
+        final List<Object> knownGroupsKey = createKnownGroupsRequestKey(
+                SignInLoader.NUM_OF_LOADED_GROUPS,
+                null,
+                null,
+                SignInLoader.IGNORE_DEFAULT_GROUP
+        );
+
+        final List<Object> groupSharesKey = createGroupSharesRequestKey(
+                SignInLoader.NUM_OF_LOADED_GROUP_SHARES,
+                SignInLoader.NUM_OF_LOADED_GROUP_SHARES,
+                SignInLoader.NUM_OF_LOADED_GROUP_SHARES,
+                SignInLoader.NUM_OF_LOADED_GROUP_SHARES
+        );
+
+        // Only complete the requests which are not already in progress for another caller, since that caller will
+        // complete them.
+        final List<Object> ownTargetContactsKey =
+                targetContactsRequests.join(targetContactsKey, contactList -> {}) ? targetContactsKey : null;
+        final List<Object> ownKnownGroupsKey =
+                knownGroupsRequests.join(knownGroupsKey, groupList -> {}) ? knownGroupsKey : null;
+        final List<Object> ownGroupSharesKey =
+                groupSharesRequests.join(groupSharesKey, groupShareList -> {}) ? groupSharesKey : null;
+
+        // Hand every response to the parse executor, so the batch callbacks parse the responses off the UI thread.
+        final LoadBatch.Transport transport = (uri, requestBody, responseCallback) -> {
+            final LoadBatch.ResponseCallback parsingCallback = response ->
+                    ResponseParser.getExecutor().execute(Trace.wrap(() -> responseCallback.onResponse(response)));
+
+            final HttpMetrics.Call call = HttpMetrics.start(uri);
+            HttpOperations.post(
+                    uri,
+                    call.requestBody(requestBody),
+                    activity,
+                    call.onResponse(parsingCallback::onResponse),
+                    call.onErrorResponse(error -> parsingCallback.onResponse(null))
+            );
+        };
+
+        final byte[] snapshotKey = dataEncryptionKey;
+
+        final SignInLoadState state = new SignInLoadState();
+
+        if (snapshotKey != null) {
+            // Read on the same thread as the snapshot is written and deleted, since every section is decrypted and
+            // verified when it is read.
+            SignInSnapshot.WRITE_EXECUTOR.execute(() -> {
+                final SignInLoader.Result snapshotResult = SignInSnapshot.read(snapshot, snapshotKey);
+
+                if (snapshotResult == null) {
+                    return;
+                }
+
+                mainThreadExecutor.execute(() -> {
+                    // Do not replace the objects returned by the server, or restore objects after signing out.
+                    if (state.isServerResultStored || !SignInSnapshot.isCurrentInstance(snapshot)) {
+                        return;
+                    }
+
+                    state.restoredResult = snapshotResult;
+
+                    // Return the restored objects to the requests which joined the sign-in batches, unless they could
+                    // not be restored. Completing these requests again when the batches complete does nothing.
+                    storeSignInLoads(
+                            snapshotResult,
+                            snapshotResult.targetContacts == null ? null : ownTargetContactsKey,
+                            snapshotResult.knownGroups    == null ? null : ownKnownGroupsKey,
+                            snapshotResult.groupShares    == null ? null : ownGroupSharesKey
+                    );
+                });
+            });
+        }
+
+        RequestGlobalStatic.requestAndSetAccessToken(
+                accessToken -> {
+                    if (accessToken == null) {
+                        // Return null to any waiting callbacks since nothing has been loaded.
+                        storeSignInLoads(
+                                new SignInLoader.Result(),
+                                ownTargetContactsKey,
+                                ownKnownGroupsKey,
+                                ownGroupSharesKey
+                        );
+                        return;
+                    }
+
+                    SignInLoader.load(
+                            accessToken,
+                            transport,
+                            // The batches complete on a parse thread, so store the loaded objects on the UI thread.
+                            result -> mainThreadExecutor.execute(Trace.wrap(() -> {
+                                state.isServerResultStored = true;
+
+                                if (state.restoredResult != null) {
+                                    // The stored objects are only ever added to or updated, so remove any restored
+                                    // object which no longer exists before storing the objects returned by the server.
+                                    removeStaleSignInLoads(state.restoredResult, result);
+                                }
+
+                                storeSignInLoads(result, ownTargetContactsKey, ownKnownGroupsKey, ownGroupSharesKey);
+
+                                if (state.restoredResult != null) {
+                                    onRestoredObjectsReplaced.run();
+                                }
+
+                                if (snapshotKey != null) {
+                                    writeSignInSnapshot(snapshot, result, snapshotKey);
+                                }
+                            }))
+                    );
+                },
+                activity,
+                null,
+                false
+        );
+    }
+
+    /**
+     * Write the objects loaded by the sign-in batches to the given snapshot in the background, unless the snapshot
+     * has since been deleted (because the contact signed out).
+     */
+    private static void writeSignInSnapshot(@NonNull final EncryptedSnapshot snapshot,
+                                            @NonNull final SignInLoader.Result result,
+                                            @NonNull final byte[] dataEncryptionKey) {
+
+        SignInSnapshot.WRITE_EXECUTOR.execute(() -> {
+            if (!SignInSnapshot.isCurrentInstance(snapshot)) {
+                return;
+            }
+
+            try {
+                SignInSnapshot.write(snapshot, result, dataEncryptionKey);
+            }
+            catch (IOException | InvalidCipherTextException e) {
+                Log.e(HttpOperations.GENERIC_LOG_TAG, "Unable to write the sign-in snapshot: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Delete the encrypted on-disk snapshot of the objects loaded after the contact signs in.
+     *
+     * This must be called whenever all of the contact's data is removed from the device.
+     *
+     * @param contextWrapper    The calling context.
+     */
+    public static void deleteSignInSnapshot(@NonNull ContextWrapper contextWrapper) {
+        SignInSnapshot.delete(contextWrapper.getFilesDir());
+    }
+
+    /**
+     * Remove every object restored from the sign-in snapshot which was not loaded by the sign-in batches.
+     *
+     * @param restored  The objects restored from the snapshot.
+     * @param loaded    The objects loaded by the batches.
+     */
+    private static void removeStaleSignInLoads(@NonNull SignInLoader.Result restored,
+                                               @NonNull SignInLoader.Result loaded) {
+
+        for (long contactNumber : SignInLoader.getStaleContactNumbers(restored, loaded)) {
+            try {
+                Contact.getContactFromNumber(contactNumber).removeContact();
+            }
+            catch (ContactException e) {
+                // The contact has already been removed.
+            }
+        }
+
+        for (long groupNumber : SignInLoader.getStaleGroupNumbers(restored, loaded)) {
+            try {
+                Group.getGroupFromNumber(groupNumber).removeGroup();
+            }
+            catch (GroupException e) {
+                // The group has already been removed.
+            }
+        }
+
+        Alerts.safeRemoveGroupShares(SignInLoader.getStaleGroupShares(restored, loaded));
+    }
+
+    /**
+     * Store the objects loaded by the sign-in batches in the same way as the individual requests for each object
+     * would, and return them to any callbacks waiting for the given requests.
+     *
+     * @param result                The loaded objects.
+     * @param targetContactsKey     The target contacts request to complete, or null if there is no such request.
+     * @param knownGroupsKey        The known groups request to complete, or null if there is no such request.
+     * @param groupSharesKey        The group-shares request to complete, or null if there is no such request.
+     */
+    private static void storeSignInLoads(@NonNull SignInLoader.Result result,
+                                         @Nullable List<Object> targetContactsKey,
+                                         @Nullable List<Object> knownGroupsKey,
+                                         @Nullable List<Object> groupSharesKey) {
+
+        if (result.currentContact != null) {
+            try {
+                ContactGroupAssociation.storeContactAndSetAssociations(result.currentContact);
+            }
+            catch (ContactException e) {
+                Log.e(HttpOperations.GENERIC_LOG_TAG, "Unable to store the current contact: " + e.getMessage());
+            }
+        }
+
+        List<Group> knownGroups = null;
+        if (result.knownGroups != null) {
+            final List<LoadContactObject> groupContacts = result.getReferencedContacts(result.knownGroups);
+
+            try {
+                if (groupContacts.isEmpty()) {
+                    ContactGroupAssociation.storeGroupsAndSetAssociations(result.knownGroups);
+                }
+                else {
+                    ContactGroupAssociation.storeContactsAndGroupsAndSetAssociations(groupContacts, result.knownGroups);
+                }
+
+                knownGroups = Group.getKnownGroups(SignInLoader.IGNORE_DEFAULT_GROUP);
+            }
+            catch (ContactException | GroupException | NullStaticVariableException e) {
+                knownGroups = null;
+            }
+        }
 
-        callback.onReturn(groupShareList, false);
+        List<Contact> targetContacts = null;
+        if (result.targetContacts != null) {
+            final List<LoadGroupObject> contactGroups = result.getReferencedGroups(result.targetContacts);
+
+            try {
+                if (contactGroups.isEmpty()) {
+                    ContactGroupAssociation.storeContactsAndSetAssociations(result.targetContacts);
+                }
+                else {
+                    ContactGroupAssociation.storeContactsAndGroupsAndSetAssociations(
+                            result.targetContacts,
+                            contactGroups
+                    );
+                }
+
+                // Ensure a NullStaticVariableException exception is not thrown.
+                targetContacts = result.targetContacts.isEmpty() ? new ArrayList<>() : Contact.getTargetContacts();
+            }
+            catch (ContactException | GroupException | NullStaticVariableException e) {
+                targetContacts = null;
+            }
+        }
+
+        if (result.selectedGroup != null) {
+            final List<LoadContactObject> selectedGroupContacts =
+                    result.getReferencedContacts(Collections.singletonList(result.selectedGroup));
+
+            try {
+                if (selectedGroupContacts.isEmpty()) {
+                    storeGroup(result.selectedGroup).selectGroup();
+                }
+                else {
+                    storeGroupAndTargetContacts(result.selectedGroup, selectedGroupContacts).selectGroup();
+                }
+            }
+            catch (IllegalArgumentException | GroupException e) {
+                logError(result.selectedGroup.getNumber(), "Exception message: " + e.getMessage());
+            }
+        }
+
+        List<GroupShare> groupShares = null;
+        if (result.groupShares != null) {
+            Alerts.storeStatically(result.groupShares);
+
+            try {
+                groupShares = Alerts.getGroupShares();
+            }
+            catch (NullStaticVariableException e) {
+                groupShares = null;
+            }
+        }
+
+        if (targetContactsKey != null) {
+            returnFromRequestAndSetTargetContacts(targetContactsKey, targetContacts);
+        }
+        if (knownGroupsKey != null) {
+            setKnownGroupsRequestCallback(knownGroupsKey, knownGroups);
+        }
+        if (groupSharesKey != null) {
+            returnFromRequestGroupShareAlerts(groupSharesKey, groupShares);
+        }
     }
 }
@@ -0,0 +1,124 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.server_interaction.http_server;
+
+import com.google.gson.JsonParseException;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+import gliphic.android.operation.misc.Trace;
+import libraries.GeneralUtils;
+
+/**
+ * Deserializes response bodies away from the UI thread, recording the time taken to parse each response type in
+ * {@link HttpMetrics}.
+ *
+ * Volley notifies response listeners on the UI thread, so a listener which deserializes a large load response (many
+ * contacts or groups, each with a Base64 image) delays drawing the next frame. Listeners should instead hand the
+ * response body to {@link #parseAsync(String, Class)} and only use the returned object on the UI thread.
+ */
+public class ResponseParser {
+    // Two threads allow one large response to be parsed without delaying every other response, without competing
+    // with the UI thread for more than one core.
+    private static final int  PARSE_THREADS                   = 2;
+    private static final long PARSE_THREAD_KEEP_ALIVE_SECONDS = 30;
+
+    private static final Executor parseExecutor = createParseExecutor();
+
+    private static ThreadPoolExecutor createParseExecutor() {
+        final AtomicInteger threadCount = new AtomicInteger(0);
+
+        final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                PARSE_THREADS,
+                PARSE_THREADS,
+                PARSE_THREAD_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "response-parser-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+
+        // Do not keep idle threads alive when the user is not loading anything.
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+        return threadPoolExecutor;
+    }
+
+    /**
+     * @return  The executor which parses response bodies, which can also be used to handle a parsed response before
+     *          it is returned to the UI thread.
+     */
+    public static Executor getExecutor() {
+        return parseExecutor;
+    }
+
+    /**
+     * Deserialize a response body on the calling thread, using the streaming adapters in {@link LoadResponseAdapters}
+     * for the load responses which have them.
+     *
+     * @param response               The response body.
+     * @param clazz                  The class to deserialize the response body to.
+     * @return                       The deserialized response.
+     * @throws JsonParseException    Thrown when the response body is malformed.
+     */
+    public static <T> T parse(@NonNull String response, @NonNull Class<T> clazz) throws JsonParseException {
+        final Trace.Span parseSpan = Trace.startSpan("parse " + clazz.getSimpleName(), Trace.CATEGORY_JSON);
+        final long       startTime = System.nanoTime();
+        boolean          isParsed  = false;
+
+        try {
+            // GeneralUtils returns null instead of throwing an exception when the response body is malformed.
+            final T parsedResponse = LoadResponseAdapters.isAdapted(clazz)
+                    ? LoadResponseAdapters.fromJson(response, clazz)
+                    : GeneralUtils.fromJson(response, clazz);
+
+            if (parsedResponse == null) {
+                String s = "Unable to parse the response body as %s.";
+                throw new JsonParseException(String.format(s, clazz.getSimpleName()));
+            }
+
+            isParsed = true;
+
+            return parsedResponse;
+        }
+        finally {
+            HttpMetrics.recordParse(clazz.getSimpleName(), System.nanoTime() - startTime, response.length(), isParsed);
+            parseSpan.end();
+        }
+    }
+
+    /**
+     * Deserialize a response body on the parse executor.
+     *
+     * @param response      The response body.
+     * @param clazz         The class to deserialize the response body to.
+     * @return              A future which succeeds with the deserialized response, or fails if the response body is
+     *                      malformed. The future completes on a parse thread.
+     */
+    public static <T> ServerFuture<T> parseAsync(@NonNull String response, @NonNull Class<T> clazz) {
+        return parseAsync(response, clazz, parseExecutor);
+    }
+
+    static <T> ServerFuture<T> parseAsync(@NonNull String response,
+                                          @NonNull Class<T> clazz,
+                                          @NonNull Executor executor) {
+
+        return ServerFuture.completed(response).thenApplyAsync(body -> parse(body, clazz), executor);
+    }
+}
@@ -0,0 +1,400 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.server_interaction.http_server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import gliphic.android.operation.misc.Trace;
+
+/**
+ * The result of an asynchronous server request (or a pipeline of dependent requests), which can be composed with
+ * other results instead of nesting callbacks.
+ *
+ * Each stage of a pipeline is a new future derived from the previous stage. A failure (or cancellation) of any stage
+ * skips every later stage and is passed to the final stage, so errors can be handled once at the end of the pipeline.
+ * Cancelling a future also cancels the stages it was derived from, so cancelling the final stage of a pipeline stops
+ * any stage which has not started yet from starting.
+ *
+ * This class provides the subset of CompletableFuture which is used by the application, since CompletableFuture is
+ * not available on every supported API level (even with core library desugaring). Every method is thread-safe and
+ * stages which do not specify an executor run on the thread which completes the previous stage.
+ *
+ * @param <T>   The type of the result.
+ */
+public class ServerFuture<T> {
+
+    /**
+     * A stage which transforms the result of the previous stage.
+     */
+    public interface Transform<T, R> {
+        R apply(T result) throws Exception;
+    }
+
+    /**
+     * A stage which starts an asynchronous operation using the result of the previous stage.
+     */
+    public interface Compose<T, R> {
+        @NonNull
+        ServerFuture<R> apply(T result) throws Exception;
+    }
+
+    /**
+     * A callback which receives either the result or the failure of a future.
+     */
+    public interface Callback<T> {
+        /**
+         * @param result    The result of the future, or null if the future failed.
+         * @param error     The reason the future failed, or null if the future succeeded. A cancelled future fails
+         *                  with a {@link CancellationException} and a timed-out future with a {@link TimeoutException}.
+         */
+        void onComplete(@Nullable T result, @Nullable Throwable error);
+    }
+
+    private static final int PENDING   = 0;
+    private static final int SUCCEEDED = 1;
+    private static final int FAILED    = 2;
+
+    // A single daemon thread fails every timed-out future; stages which depend on a timed-out future run on this
+    // thread unless they specify an executor.
+    private static ScheduledExecutorService timeoutScheduler = null;
+
+    private final List<Runnable> listeners       = new ArrayList<>();
+    private final List<Runnable> cancelListeners = new ArrayList<>();
+
+    private int       state  = PENDING;
+    private T         result = null;
+    private Throwable error  = null;
+
+    /**
+     * @param result    The result.
+     * @return          A future which has already succeeded with the given result.
+     */
+    public static <T> ServerFuture<T> completed(@Nullable T result) {
+        final ServerFuture<T> future = new ServerFuture<>();
+        future.complete(result);
+        return future;
+    }
+
+    /**
+     * @param error     The reason for the failure.
+     * @return          A future which has already failed with the given error.
+     */
+    public static <T> ServerFuture<T> failed(@NonNull Throwable error) {
+        final ServerFuture<T> future = new ServerFuture<>();
+        future.fail(error);
+        return future;
+    }
+
+    /**
+     * Succeed with the given result, unless this future has already completed.
+     *
+     * @return  True if this call completed this future, false if this future had already completed.
+     */
+    public boolean complete(@Nullable T result) {
+        return setOutcome(SUCCEEDED, result, null);
+    }
+
+    /**
+     * Fail with the given error, unless this future has already completed.
+     *
+     * @return  True if this call completed this future, false if this future had already completed.
+     */
+    public boolean fail(@NonNull Throwable error) {
+        return setOutcome(FAILED, null, error);
+    }
+
+    /**
+     * Fail with a {@link CancellationException} and cancel every stage which this future was derived from, unless this
+     * future has already completed.
+     *
+     * @return  True if this call cancelled this future, false if this future had already completed.
+     */
+    public boolean cancel() {
+        if (!fail(new CancellationException())) {
+            return false;
+        }
+
+        cancelDependencies();
+
+        return true;
+    }
+
+    public synchronized boolean isDone() {
+        return state != PENDING;
+    }
+
+    public synchronized boolean isCancelled() {
+        return error instanceof CancellationException;
+    }
+
+    /**
+     * Register a callback which is invoked when this future completes, or immediately on the calling thread if this
+     * future has already completed. Callbacks are invoked in the order in which they were registered.
+     *
+     * @param callback  The callback to notify.
+     * @return          This future.
+     */
+    public ServerFuture<T> whenComplete(@NonNull Callback<T> callback) {
+        addListener(() -> callback.onComplete(result, error));
+        return this;
+    }
+
+    /**
+     * @param callback  The callback to notify when this future completes.
+     * @param executor  The executor which invokes the callback, e.g. an executor which runs on the UI thread.
+     * @return          This future.
+     */
+    public ServerFuture<T> whenComplete(@NonNull Callback<T> callback, @NonNull Executor executor) {
+        final Runnable listener = Trace.wrap(() -> callback.onComplete(result, error));
+
+        addListener(() -> {
+            try {
+                executor.execute(listener);
+            }
+            catch (RejectedExecutionException e) {
+                // The callback must always be invoked, so invoke it on the current thread if the executor is shut down.
+                listener.run();
+            }
+        });
+        return this;
+    }
+
+    /**
+     * @param transform     The stage to run with the result of this future, if this future succeeds.
+     * @return              A future which succeeds with the result of the given stage.
+     */
+    public <R> ServerFuture<R> thenApply(@NonNull Transform<T, R> transform) {
+        final ServerFuture<R> future = derive();
+
+        addListener(() -> applyTransform(transform, future));
+        return future;
+    }
+
+    /**
+     * @param transform     The stage to run with the result of this future, if this future succeeds.
+     * @param executor      The executor which runs the stage, e.g. a bounded pool for parsing server responses.
+     * @return              A future which succeeds with the result of the given stage.
+     */
+    public <R> ServerFuture<R> thenApplyAsync(@NonNull Transform<T, R> transform, @NonNull Executor executor) {
+        final ServerFuture<R> future   = derive();
+        final Runnable        listener = Trace.wrap(() -> applyTransform(transform, future));
+
+        addListener(() -> {
+            if (error != null) {
+                future.fail(error);
+            }
+            else {
+                try {
+                    executor.execute(listener);
+                }
+                catch (RejectedExecutionException e) {
+                    future.fail(e);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @param compose   The asynchronous stage to start with the result of this future, if this future succeeds.
+     * @return          A future which completes with the future returned by the given stage.
+     */
+    public <R> ServerFuture<R> thenCompose(@NonNull Compose<T, R> compose) {
+        final ServerFuture<R> future = derive();
+
+        addListener(() -> {
+            if (error != null) {
+                future.fail(error);
+                return;
+            }
+
+            // Do not start the stage if the pipeline has been cancelled.
+            if (future.isDone()) {
+                return;
+            }
+
+            final ServerFuture<R> stageFuture;
+            try {
+                stageFuture = compose.apply(result);
+            }
+            catch (Exception e) {
+                future.fail(e);
+                return;
+            }
+
+            future.addCancelListener(stageFuture::cancel);
+            stageFuture.addListener(() -> future.setOutcome(
+                    stageFuture.error == null ? SUCCEEDED : FAILED,
+                    stageFuture.result,
+                    stageFuture.error
+            ));
+        });
+        return future;
+    }
+
+    /**
+     * Fail with a {@link TimeoutException} if this future has not completed within the given time, cancelling every
+     * stage which has not completed.
+     *
+     * @param timeout   The maximum time to wait.
+     * @param unit      The unit of the timeout.
+     * @return          A future which completes with this future, or fails with a TimeoutException.
+     */
+    public ServerFuture<T> withTimeout(long timeout, @NonNull TimeUnit unit) {
+        final ServerFuture<T> future     = derive();
+        final AtomicBoolean   isTimedOut = new AtomicBoolean(false);
+
+        // Cancel the pending stages before notifying the callbacks of the timeout, without the cancellation of this
+        // future completing the returned future first.
+        final ScheduledFuture<?> scheduledTimeout = getTimeoutScheduler().schedule(
+                () -> {
+                    isTimedOut.set(true);
+                    cancel();
+                    future.fail(new TimeoutException());
+                },
+                timeout,
+                unit
+        );
+
+        addListener(() -> {
+            scheduledTimeout.cancel(false);
+
+            if (!isTimedOut.get()) {
+                future.setOutcome(error == null ? SUCCEEDED : FAILED, result, error);
+            }
+        });
+        return future;
+    }
+
+    private static synchronized ScheduledExecutorService getTimeoutScheduler() {
+        if (timeoutScheduler == null) {
+            final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                final Thread thread = new Thread(runnable, "server-future-timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            // Do not keep cancelled timeouts (i.e. requests which completed in time) in the queue.
+            scheduler.setRemoveOnCancelPolicy(true);
+
+            timeoutScheduler = scheduler;
+        }
+
+        return timeoutScheduler;
+    }
+
+    /**
+     * @return  A new future which cancels this future when it is cancelled.
+     */
+    private <R> ServerFuture<R> derive() {
+        final ServerFuture<R> future = new ServerFuture<>();
+        future.addCancelListener(this::cancel);
+        return future;
+    }
+
+    private <R> void applyTransform(@NonNull Transform<T, R> transform, @NonNull ServerFuture<R> future) {
+        if (error != null) {
+            future.fail(error);
+            return;
+        }
+
+        // Do not run the stage if the pipeline has been cancelled.
+        if (future.isDone()) {
+            return;
+        }
+
+        try {
+            future.complete(transform.apply(result));
+        }
+        catch (Exception e) {
+            future.fail(e);
+        }
+    }
+
+    private boolean setOutcome(int newState, @Nullable T newResult, @Nullable Throwable newError) {
+        final List<Runnable> listenersCopy;
+
+        synchronized (this) {
+            if (state != PENDING) {
+                return false;
+            }
+
+            state  = newState;
+            result = newResult;
+            error  = newError;
+
+            listenersCopy = new ArrayList<>(listeners);
+            listeners.clear();
+
+            // A successful future can no longer be cancelled, but a failed future may still cancel its dependencies.
+            if (newState == SUCCEEDED) {
+                cancelListeners.clear();
+            }
+        }
+
+        for (Runnable listener : listenersCopy) {
+            listener.run();
+        }
+
+        return true;
+    }
+
+    private void addListener(@NonNull Runnable listener) {
+        synchronized (this) {
+            if (state == PENDING) {
+                listeners.add(listener);
+                return;
+            }
+        }
+
+        listener.run();
+    }
+
+    private void addCancelListener(@NonNull Runnable cancelListener) {
+        synchronized (this) {
+            if (state == PENDING) {
+                cancelListeners.add(cancelListener);
+                return;
+            }
+        }
+
+        if (isCancelled()) {
+            cancelListener.run();
+        }
+    }
+
+    /**
+     * Cancel every future which this (failed or cancelled) future depends on.
+     */
+    private void cancelDependencies() {
+        final List<Runnable> cancelListenersCopy;
+        synchronized (this) {
+            cancelListenersCopy = new ArrayList<>(cancelListeners);
+            cancelListeners.clear();
+        }
+
+        for (Runnable cancelListener : cancelListenersCopy) {
+            cancelListener.run();
+        }
+    }
+}
@@ -0,0 +1,423 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.server_interaction.http_server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import libraries.GeneralUtils;
+import pojo.account.GroupShare;
+import pojo.load.LoadChosenContactsRequest;
+import pojo.load.LoadChosenContactsResponse;
+import pojo.load.LoadChosenGroupsRequest;
+import pojo.load.LoadChosenGroupsResponse;
+import pojo.load.LoadContactObject;
+import pojo.load.LoadContactsRequest;
+import pojo.load.LoadContactsResponse;
+import pojo.load.LoadGroupObject;
+import pojo.load.LoadGroupSharesRequest;
+import pojo.load.LoadGroupSharesResponse;
+import pojo.load.LoadGroupsRequest;
+import pojo.load.LoadGroupsResponse;
+import pojo.misc.ContactAndGroupNumberPair;
+
+/**
+ * This class loads every object which the main activity displays after the contact signs in, using two batches of
+ * requests instead of a chain of dependent requests.
+ *
+ * The first batch contains every independent request: the current contact, the selected group, the first page of
+ * known groups, the first page of target contacts and the first page of group-shares. The second batch then loads
+ * only the contacts and groups referenced by the first batch's responses which were not already returned by them,
+ * with one request for all contacts and one request for all groups.
+ *
+ * The default filters used by the first batch are the same as the filters used when the corresponding tabs are reset,
+ * so that the tabs can use the loaded objects without sending their own requests.
+ */
+class SignInLoader {
+
+    // The request parameters used by the contacts, groups and alerts tabs when they ignore all filters.
+    static final int     NUM_OF_LOADED_CONTACTS     = 0;
+    static final boolean GET_KNOWN_CONTACTS         = true;
+    static final boolean GET_EXTENDED_CONTACTS      = false;
+    static final int     NUM_OF_LOADED_GROUPS       = 0;
+    static final boolean IGNORE_DEFAULT_GROUP       = false;
+    static final long    NUM_OF_LOADED_GROUP_SHARES = 0;
+
+    /**
+     * The objects loaded by both batches. Any field which could not be loaded is null.
+     */
+    static class Result {
+        @Nullable LoadContactObject       currentContact = null;
+        @Nullable LoadGroupObject         selectedGroup  = null;
+        @Nullable List<LoadGroupObject>   knownGroups    = null;
+        @Nullable List<LoadContactObject> targetContacts = null;
+        @Nullable List<GroupShare>        groupShares    = null;
+
+        // Objects referenced by the objects above but not returned by the first batch, which are empty if nothing
+        // was missing from the first batch.
+        @Nullable List<LoadContactObject> chosenContacts = null;
+        @Nullable List<LoadGroupObject>   chosenGroups   = null;
+
+        /**
+         * @return  Every loaded contact, excluding the current contact.
+         */
+        @NonNull
+        List<LoadContactObject> getAllContacts() {
+            final List<LoadContactObject> allContacts = new ArrayList<>();
+
+            if (targetContacts != null) {
+                allContacts.addAll(targetContacts);
+            }
+            if (chosenContacts != null) {
+                allContacts.addAll(chosenContacts);
+            }
+
+            return allContacts;
+        }
+
+        /**
+         * @return  Every loaded group, including the selected group.
+         */
+        @NonNull
+        List<LoadGroupObject> getAllGroups() {
+            final List<LoadGroupObject> allGroups = new ArrayList<>();
+
+            if (knownGroups != null) {
+                allGroups.addAll(knownGroups);
+            }
+            if (selectedGroup != null) {
+                allGroups.add(selectedGroup);
+            }
+            if (chosenGroups != null) {
+                allGroups.addAll(chosenGroups);
+            }
+
+            return allGroups;
+        }
+
+        /**
+         * @param groups    Any of the loaded groups.
+         * @return          Every loaded contact which is a target contact of any of the given groups.
+         */
+        @NonNull
+        List<LoadContactObject> getReferencedContacts(@NonNull List<LoadGroupObject> groups) {
+            final Set<Long> contactNumbers = new HashSet<>();
+            for (LoadGroupObject lgo : groups) {
+                contactNumbers.addAll(GeneralUtils.arrayToSet(lgo.getTargetContactNumbersNullSafe()));
+            }
+
+            final List<LoadContactObject> referencedContacts = new ArrayList<>();
+            for (LoadContactObject lco : getAllContacts()) {
+                if (contactNumbers.remove(lco.getNumber())) {
+                    referencedContacts.add(lco);
+                }
+            }
+
+            return referencedContacts;
+        }
+
+        /**
+         * @param contacts  Any of the loaded contacts.
+         * @return          Every loaded group which any of the given contacts is a member of.
+         */
+        @NonNull
+        List<LoadGroupObject> getReferencedGroups(@NonNull List<LoadContactObject> contacts) {
+            final Set<Long> groupNumbers = new HashSet<>();
+            for (LoadContactObject lco : contacts) {
+                groupNumbers.addAll(GeneralUtils.arrayToSet(lco.getGroupNumbersNullSafe()));
+            }
+
+            final List<LoadGroupObject> referencedGroups = new ArrayList<>();
+            for (LoadGroupObject lgo : getAllGroups()) {
+                if (groupNumbers.remove(lgo.getNumber())) {
+                    referencedGroups.add(lgo);
+                }
+            }
+
+            return referencedGroups;
+        }
+    }
+
+    interface Callback {
+        void onReturn(@NonNull Result result);
+    }
+
+    /**
+     * Send both batches of requests.
+     *
+     * @param accessToken   The access token sent with every request.
+     * @param transport     The transport used to send every request.
+     * @param callback      The callback notified once both batches have completed.
+     */
+    static void load(@NonNull final String accessToken,
+                     @NonNull final LoadBatch.Transport transport,
+                     @NonNull final Callback callback) {
+
+        final Result result = new Result();
+
+        final LoadBatch firstBatch = new LoadBatch(transport)
+                .add(
+                        HttpOperations.URI_LOAD_CURRENT_CONTACT,
+                        accessToken,
+                        response -> result.currentContact = LoadBatch.parseResponse(response, LoadContactObject.class)
+                )
+                .add(
+                        HttpOperations.URI_LOAD_SELECTED_GROUP,
+                        accessToken,
+                        response -> result.selectedGroup = LoadBatch.parseResponse(response, LoadGroupObject.class)
+                )
+                .add(
+                        HttpOperations.URI_LOAD_KNOWN_GROUPS,
+                        new LoadGroupsRequest(accessToken, NUM_OF_LOADED_GROUPS, null, null, IGNORE_DEFAULT_GROUP),
+                        response -> {
+                            final LoadGroupsResponse lgr = LoadBatch.parseResponse(response, LoadGroupsResponse.class);
+                            if (lgr != null) {
+                                result.knownGroups = lgr.getGroups();
+                            }
+                        }
+                )
+                .add(
+                        HttpOperations.URI_LOAD_TARGET_CONTACTS,
+                        new LoadContactsRequest(
+                                accessToken,
+                                NUM_OF_LOADED_CONTACTS,
+                                GET_KNOWN_CONTACTS,
+                                GET_EXTENDED_CONTACTS,
+                                null,
+                                null
+                        ),
+                        response -> {
+                            final LoadContactsResponse lcr =
+                                    LoadBatch.parseResponse(response, LoadContactsResponse.class);
+                            if (lcr != null) {
+                                result.targetContacts = new ArrayList<>();
+                                result.targetContacts.addAll(lcr.getKnownContacts());
+                                result.targetContacts.addAll(lcr.getExtendedContacts());
+                            }
+                        }
+                )
+                .add(
+                        HttpOperations.URI_LOAD_GROUP_SHARES,
+                        new LoadGroupSharesRequest(
+                                accessToken,
+                                NUM_OF_LOADED_GROUP_SHARES,
+                                NUM_OF_LOADED_GROUP_SHARES,
+                                NUM_OF_LOADED_GROUP_SHARES,
+                                NUM_OF_LOADED_GROUP_SHARES
+                        ),
+                        response -> {
+                            final LoadGroupSharesResponse lgsr =
+                                    LoadBatch.parseResponse(response, LoadGroupSharesResponse.class);
+                            if (lgsr != null) {
+                                result.groupShares = lgsr.getGroupSharesList();
+                            }
+                        }
+                );
+
+        firstBatch.send(() -> sendSecondBatch(accessToken, transport, result, callback));
+    }
+
+    private static void sendSecondBatch(@NonNull final String accessToken,
+                                        @NonNull final LoadBatch.Transport transport,
+                                        @NonNull final Result result,
+                                        @NonNull final Callback callback) {
+
+        final Set<Long> missingContactNumbers = getMissingContactNumbers(result);
+        final Set<Long> missingGroupNumbers   = getMissingGroupNumbers(result);
+
+        final LoadBatch secondBatch = new LoadBatch(transport);
+
+        if (missingContactNumbers.isEmpty()) {
+            result.chosenContacts = Collections.emptyList();
+        }
+        else {
+            secondBatch.add(
+                    HttpOperations.URI_LOAD_CHOSEN_CONTACTS,
+                    new LoadChosenContactsRequest(accessToken, GeneralUtils.collectionToArray(missingContactNumbers)),
+                    response -> {
+                        final LoadChosenContactsResponse lccr =
+                                LoadBatch.parseResponse(response, LoadChosenContactsResponse.class);
+                        if (lccr != null) {
+                            final List<LoadContactObject> chosenContacts = new ArrayList<>();
+                            chosenContacts.addAll(lccr.getKnownContacts());
+                            chosenContacts.addAll(lccr.getExtendedContacts());
+                            result.chosenContacts = chosenContacts;
+                        }
+                    }
+            );
+        }
+
+        if (missingGroupNumbers.isEmpty()) {
+            result.chosenGroups = Collections.emptyList();
+        }
+        else {
+            secondBatch.add(
+                    HttpOperations.URI_LOAD_CHOSEN_GROUPS,
+                    new LoadChosenGroupsRequest(accessToken, GeneralUtils.collectionToArray(missingGroupNumbers)),
+                    response -> {
+                        final LoadChosenGroupsResponse lcgr =
+                                LoadBatch.parseResponse(response, LoadChosenGroupsResponse.class);
+                        if (lcgr != null) {
+                            result.chosenGroups = lcgr.getGroups();
+                        }
+                    }
+            );
+        }
+
+        secondBatch.send(() -> callback.onReturn(result));
+    }
+
+    /**
+     * @return  The numbers of every contact referenced by the known groups or the selected group which was not
+     *          returned as a target contact.
+     */
+    @NonNull
+    static Set<Long> getMissingContactNumbers(@NonNull Result result) {
+        final Set<Long> contactNumbers = new HashSet<>();
+
+        if (result.knownGroups != null) {
+            for (LoadGroupObject lgo : result.knownGroups) {
+                contactNumbers.addAll(GeneralUtils.arrayToSet(lgo.getTargetContactNumbersNullSafe()));
+            }
+        }
+
+        if (result.selectedGroup != null) {
+            contactNumbers.addAll(GeneralUtils.arrayToSet(result.selectedGroup.getTargetContactNumbersNullSafe()));
+        }
+
+        if (result.targetContacts != null) {
+            for (LoadContactObject lco : result.targetContacts) {
+                contactNumbers.remove(lco.getNumber());
+            }
+        }
+
+        return contactNumbers;
+    }
+
+    /**
+     * @return  The numbers of every group referenced by the target contacts which was not returned as a known group or
+     *          as the selected group.
+     */
+    @NonNull
+    static Set<Long> getMissingGroupNumbers(@NonNull Result result) {
+        final Set<Long> groupNumbers = new HashSet<>();
+
+        if (result.targetContacts != null) {
+            for (LoadContactObject lco : result.targetContacts) {
+                groupNumbers.addAll(GeneralUtils.arrayToSet(lco.getGroupNumbersNullSafe()));
+            }
+        }
+
+        if (result.knownGroups != null) {
+            for (LoadGroupObject lgo : result.knownGroups) {
+                groupNumbers.remove(lgo.getNumber());
+            }
+        }
+
+        if (result.selectedGroup != null) {
+            groupNumbers.remove(result.selectedGroup.getNumber());
+        }
+
+        return groupNumbers;
+    }
+
+    /**
+     * @param restored  The objects restored from the snapshot.
+     * @param loaded    The objects loaded by both batches.
+     * @return          The numbers of every restored contact which was not loaded, or an empty set if any of the
+     *                  contacts could not be loaded (since the restored contacts may still be valid).
+     */
+    @NonNull
+    static Set<Long> getStaleContactNumbers(@NonNull Result restored, @NonNull Result loaded) {
+        final Set<Long> contactNumbers = new HashSet<>();
+
+        if (loaded.targetContacts == null || loaded.chosenContacts == null) {
+            return contactNumbers;
+        }
+
+        for (LoadContactObject lco : restored.getAllContacts()) {
+            contactNumbers.add(lco.getNumber());
+        }
+
+        for (LoadContactObject lco : loaded.getAllContacts()) {
+            contactNumbers.remove(lco.getNumber());
+        }
+
+        return contactNumbers;
+    }
+
+    /**
+     * @param restored  The objects restored from the snapshot.
+     * @param loaded    The objects loaded by both batches.
+     * @return          The numbers of every restored group which was not loaded, or an empty set if any of the groups
+     *                  could not be loaded (since the restored groups may still be valid).
+     */
+    @NonNull
+    static Set<Long> getStaleGroupNumbers(@NonNull Result restored, @NonNull Result loaded) {
+        final Set<Long> groupNumbers = new HashSet<>();
+
+        if (loaded.knownGroups == null || loaded.selectedGroup == null || loaded.chosenGroups == null) {
+            return groupNumbers;
+        }
+
+        for (LoadGroupObject lgo : restored.getAllGroups()) {
+            groupNumbers.add(lgo.getNumber());
+        }
+
+        for (LoadGroupObject lgo : loaded.getAllGroups()) {
+            groupNumbers.remove(lgo.getNumber());
+        }
+
+        return groupNumbers;
+    }
+
+    /**
+     * @param restored  The objects restored from the snapshot.
+     * @param loaded    The objects loaded by both batches.
+     * @return          The contact and group number pair of every restored group-share which was not loaded, or an
+     *                  empty list if the group-shares could not be loaded (since the restored group-shares may still be
+     *                  valid).
+     */
+    @NonNull
+    static List<ContactAndGroupNumberPair> getStaleGroupShares(@NonNull Result restored, @NonNull Result loaded) {
+        final List<ContactAndGroupNumberPair> staleGroupShares = new ArrayList<>();
+
+        if (restored.groupShares == null || loaded.groupShares == null) {
+            return staleGroupShares;
+        }
+
+        for (GroupShare restoredGroupShare : restored.groupShares) {
+            final long contactNumber = restoredGroupShare.getContact().getNumber();
+            final long groupNumber   = restoredGroupShare.getGroup().getNumber();
+
+            boolean isLoaded = false;
+            for (GroupShare loadedGroupShare : loaded.groupShares) {
+                if ( loadedGroupShare.getContact().getNumber() == contactNumber &&
+                     loadedGroupShare.getGroup().getNumber()   == groupNumber ) {
+
+                    isLoaded = true;
+                    break;
+                }
+            }
+
+            if (!isLoaded) {
+                staleGroupShares.add(new ContactAndGroupNumberPair(contactNumber, groupNumber));
+            }
+        }
+
+        return staleGroupShares;
+    }
+}
@@ -0,0 +1,419 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.server_interaction.http_server;
+
+import gliphic.android.operation.storage_handlers.EncryptedSnapshot;
+
+import org.bouncycastle.crypto.InvalidCipherTextException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import libraries.Vars;
+import pojo.account.GroupShare;
+import pojo.load.LoadContactObject;
+import pojo.load.LoadGroupObject;
+
+/**
+ * Persists the objects loaded by the {@link SignInLoader} in an {@link EncryptedSnapshot}, so that after Android
+ * kills the application process the main activity can display the previously loaded objects immediately while the
+ * same objects are requested from the server again.
+ *
+ * Each field of a {@link SignInLoader.Result} is stored as its own section in a compact binary format, so a field
+ * which has not changed since the last load is not rewritten and a field which failed to load does not overwrite the
+ * previously stored field.
+ */
+class SignInSnapshot {
+    private static final String DIRECTORY_NAME = "sign-in-snapshot";
+
+    // Increment this whenever the binary format of any section changes so that existing sections are ignored.
+    private static final byte SECTION_VERSION = 1;
+
+    static final String CURRENT_CONTACT = "current-contact";
+    static final String SELECTED_GROUP  = "selected-group";
+    static final String KNOWN_GROUPS    = "known-groups";
+    static final String TARGET_CONTACTS = "target-contacts";
+    static final String GROUP_SHARES    = "group-shares";
+    static final String CHOSEN_CONTACTS = "chosen-contacts";
+    static final String CHOSEN_GROUPS   = "chosen-groups";
+
+    /**
+     * Snapshot files are written and deleted on a single background thread, in the order requested.
+     */
+    static final Executor WRITE_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "sign-in-snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static EncryptedSnapshot instance = null;
+
+    private interface ElementWriter<T> {
+        void write(@NonNull DataOutputStream out, @NonNull T element) throws IOException;
+    }
+
+    private interface ElementReader<T> {
+        T read(@NonNull DataInputStream in) throws IOException;
+    }
+
+    /**
+     * @param filesDirectory    The application's private files directory.
+     * @return                  The snapshot for the signed-in contact.
+     */
+    @NonNull
+    static synchronized EncryptedSnapshot getInstance(@NonNull File filesDirectory) {
+        if (instance == null) {
+            instance = new EncryptedSnapshot(new File(filesDirectory, DIRECTORY_NAME));
+        }
+
+        return instance;
+    }
+
+    /**
+     * @param snapshot  Any snapshot.
+     * @return          True if the given snapshot has not been deleted since it was returned by
+     *                  {@link #getInstance(File)}.
+     */
+    static synchronized boolean isCurrentInstance(@NonNull EncryptedSnapshot snapshot) {
+        return snapshot == instance;
+    }
+
+    /**
+     * Delete the snapshot (in the background) and prevent any write which is still pending from recreating it.
+     *
+     * @param filesDirectory    The application's private files directory.
+     */
+    static synchronized void delete(@NonNull File filesDirectory) {
+        final EncryptedSnapshot snapshot = getInstance(filesDirectory);
+        instance = null;
+
+        WRITE_EXECUTOR.execute(snapshot::delete);
+    }
+
+    /**
+     * Write every loaded field of the given result to the given snapshot.
+     *
+     * @param snapshot                      The snapshot to write to.
+     * @param result                        The objects to write, where null fields are not written.
+     * @param dataEncryptionKey             The key to encrypt each section with.
+     * @throws IOException                  Thrown when a section cannot be written.
+     * @throws InvalidCipherTextException   Thrown when a section cannot be encrypted.
+     */
+    static void write(@NonNull EncryptedSnapshot snapshot,
+                      @NonNull SignInLoader.Result result,
+                      @NonNull byte[] dataEncryptionKey) throws IOException, InvalidCipherTextException {
+
+        if (result.currentContact != null) {
+            snapshot.writeSection(CURRENT_CONTACT, encode(result.currentContact, SignInSnapshot::writeContact),
+                    dataEncryptionKey);
+        }
+        if (result.selectedGroup != null) {
+            snapshot.writeSection(SELECTED_GROUP, encode(result.selectedGroup, SignInSnapshot::writeGroup),
+                    dataEncryptionKey);
+        }
+        if (result.knownGroups != null) {
+            snapshot.writeSection(KNOWN_GROUPS, encodeList(result.knownGroups, SignInSnapshot::writeGroup),
+                    dataEncryptionKey);
+        }
+        if (result.targetContacts != null) {
+            snapshot.writeSection(TARGET_CONTACTS, encodeList(result.targetContacts, SignInSnapshot::writeContact),
+                    dataEncryptionKey);
+        }
+        if (result.groupShares != null) {
+            snapshot.writeSection(GROUP_SHARES, encodeList(result.groupShares, SignInSnapshot::writeGroupShare),
+                    dataEncryptionKey);
+        }
+        if (result.chosenContacts != null) {
+            snapshot.writeSection(CHOSEN_CONTACTS, encodeList(result.chosenContacts, SignInSnapshot::writeContact),
+                    dataEncryptionKey);
+        }
+        if (result.chosenGroups != null) {
+            snapshot.writeSection(CHOSEN_GROUPS, encodeList(result.chosenGroups, SignInSnapshot::writeGroup),
+                    dataEncryptionKey);
+        }
+    }
+
+    /**
+     * Read every section of the given snapshot.
+     *
+     * @param snapshot              The snapshot to read from.
+     * @param dataEncryptionKey     The key which each section was encrypted with.
+     * @return                      The stored objects, where any field which could not be read is null, or null if
+     *                              no field could be read.
+     */
+    @Nullable
+    static SignInLoader.Result read(@NonNull EncryptedSnapshot snapshot, @NonNull byte[] dataEncryptionKey) {
+        final SignInLoader.Result result = new SignInLoader.Result();
+
+        result.currentContact = decode(snapshot, CURRENT_CONTACT, dataEncryptionKey, SignInSnapshot::readContact);
+        result.selectedGroup  = decode(snapshot, SELECTED_GROUP, dataEncryptionKey, SignInSnapshot::readGroup);
+        result.knownGroups    = decodeList(snapshot, KNOWN_GROUPS, dataEncryptionKey, SignInSnapshot::readGroup);
+        result.targetContacts = decodeList(snapshot, TARGET_CONTACTS, dataEncryptionKey, SignInSnapshot::readContact);
+        result.groupShares    = decodeList(snapshot, GROUP_SHARES, dataEncryptionKey, SignInSnapshot::readGroupShare);
+
+        if (result.currentContact == null &&
+                result.selectedGroup == null &&
+                result.knownGroups == null &&
+                result.targetContacts == null &&
+                result.groupShares == null) {
+
+            return null;
+        }
+
+        result.chosenContacts = decodeList(snapshot, CHOSEN_CONTACTS, dataEncryptionKey, SignInSnapshot::readContact);
+        result.chosenGroups   = decodeList(snapshot, CHOSEN_GROUPS, dataEncryptionKey, SignInSnapshot::readGroup);
+
+        return result;
+    }
+
+    /* Section encoding */
+
+    @NonNull
+    private static <T> byte[] encode(@NonNull T object, @NonNull ElementWriter<T> writer) throws IOException {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(byteArrayOutputStream)) {
+            out.writeByte(SECTION_VERSION);
+            writer.write(out, object);
+        }
+
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    @NonNull
+    private static <T> byte[] encodeList(@NonNull List<T> list, @NonNull ElementWriter<T> writer) throws IOException {
+        return encode(list, (out, elements) -> {
+            out.writeInt(elements.size());
+
+            for (T element : elements) {
+                writer.write(out, element);
+            }
+        });
+    }
+
+    @Nullable
+    private static <T> T decode(@NonNull EncryptedSnapshot snapshot,
+                                @NonNull String sectionName,
+                                @NonNull byte[] dataEncryptionKey,
+                                @NonNull ElementReader<T> reader) {
+
+        final byte[] section = snapshot.readSection(sectionName, dataEncryptionKey);
+
+        if (section == null) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(section))) {
+            if (in.readByte() != SECTION_VERSION) {
+                return null;
+            }
+
+            final T object = reader.read(in);
+
+            // Treat trailing bytes as a malformed section.
+            return in.available() == 0 ? object : null;
+        }
+        catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static <T> List<T> decodeList(@NonNull EncryptedSnapshot snapshot,
+                                          @NonNull String sectionName,
+                                          @NonNull byte[] dataEncryptionKey,
+                                          @NonNull ElementReader<T> reader) {
+
+        return decode(snapshot, sectionName, dataEncryptionKey, in -> {
+            final int size = in.readInt();
+            if (size < 0) {
+                throw new IOException("Negative list size: " + size);
+            }
+
+            final List<T> list = new ArrayList<>(Math.min(size, in.available()));
+            for (int i = 0; i < size; i++) {
+                list.add(reader.read(in));
+            }
+
+            return list;
+        });
+    }
+
+    /* Object encoding */
+
+    private static void writeString(@NonNull DataOutputStream out, @Nullable String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Nullable
+    private static String readString(@NonNull DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+
+        if (length > in.available()) {
+            throw new IOException("String length exceeds the section length: " + length);
+        }
+
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeLongs(@NonNull DataOutputStream out, @Nullable long[] longs) throws IOException {
+        if (longs == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        out.writeInt(longs.length);
+        for (long l : longs) {
+            out.writeLong(l);
+        }
+    }
+
+    @Nullable
+    private static long[] readLongs(@NonNull DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+
+        if (length > in.available() / (Long.SIZE / Byte.SIZE)) {
+            throw new IOException("Array length exceeds the section length: " + length);
+        }
+
+        final long[] longs = new long[length];
+        for (int i = 0; i < length; i++) {
+            longs[i] = in.readLong();
+        }
+        return longs;
+    }
+
+    private static <E extends Enum<E>> void writeEnum(@NonNull DataOutputStream out, @Nullable E e)
+            throws IOException {
+
+        out.writeByte(e == null ? -1 : e.ordinal());
+    }
+
+    @Nullable
+    private static <E extends Enum<E>> E readEnum(@NonNull DataInputStream in, @NonNull E[] values)
+            throws IOException {
+
+        final byte ordinal = in.readByte();
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    private static void writeContact(@NonNull DataOutputStream out, @NonNull LoadContactObject lco)
+            throws IOException {
+
+        writeLongs(out, lco.getGroupNumbers());
+        out.writeLong(lco.getNumber());
+        writeString(out, lco.getId());
+        writeString(out, lco.getName());
+        writeString(out, lco.getImageString());
+        writeEnum(out, lco.getType());
+    }
+
+    @NonNull
+    private static LoadContactObject readContact(@NonNull DataInputStream in) throws IOException {
+        return new LoadContactObject(
+                readLongs(in),
+                in.readLong(),
+                readString(in),
+                readString(in),
+                readString(in),
+                readEnum(in, Vars.ContactType.values())
+        );
+    }
+
+    private static void writeGroup(@NonNull DataOutputStream out, @NonNull LoadGroupObject lgo) throws IOException {
+        writeLongs(out, lgo.getKnownContactNumbers());
+        writeLongs(out, lgo.getExtendedContactNumbers());
+        out.writeLong(lgo.getNumber());
+        writeString(out, lgo.getIdBase64());
+        writeString(out, lgo.getName());
+        writeString(out, lgo.getImageString());
+        writeString(out, lgo.getDescription());
+        writeString(out, lgo.getEncryptedKeyString());
+        writeString(out, lgo.getIvString());
+        out.writeInt(lgo.getPermissions());
+        out.writeBoolean(lgo.isOpen());
+        out.writeBoolean(lgo.isSelected());
+    }
+
+    @NonNull
+    private static LoadGroupObject readGroup(@NonNull DataInputStream in) throws IOException {
+        return new LoadGroupObject(
+                readLongs(in),
+                readLongs(in),
+                in.readLong(),
+                readString(in),
+                readString(in),
+                readString(in),
+                readString(in),
+                readString(in),
+                readString(in),
+                in.readInt(),
+                in.readBoolean(),
+                in.readBoolean()
+        );
+    }
+
+    private static void writeGroupShare(@NonNull DataOutputStream out, @NonNull GroupShare groupShare)
+            throws IOException {
+
+        writeEnum(out, groupShare.getShareStatus());
+        out.writeLong(groupShare.getShareTime());
+
+        out.writeBoolean(groupShare.getGroup() != null);
+        if (groupShare.getGroup() != null) {
+            writeGroup(out, groupShare.getGroup());
+        }
+
+        out.writeBoolean(groupShare.getContact() != null);
+        if (groupShare.getContact() != null) {
+            writeContact(out, groupShare.getContact());
+        }
+
+        writeString(out, groupShare.getEncryptedGroupKeyString());
+    }
+
+    @NonNull
+    private static GroupShare readGroupShare(@NonNull DataInputStream in) throws IOException {
+        return new GroupShare(
+                readEnum(in, Vars.GroupShareStatus.values()),
+                in.readLong(),
+                in.readBoolean() ? readGroup(in) : null,
+                in.readBoolean() ? readContact(in) : null,
+                readString(in)
+        );
+    }
+}
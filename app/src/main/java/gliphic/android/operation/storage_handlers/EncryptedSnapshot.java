@@ -0,0 +1,218 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation.storage_handlers;
+
+import org.bouncycastle.crypto.InvalidCipherTextException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import libraries.BouncyCastleInterpreter;
+import libraries.GeneralUtils;
+
+/**
+ * A set of named sections of binary data stored on disk, each encrypted with the contact's data encryption key.
+ *
+ * Every section is stored in its own file so that a single section can be rewritten without rewriting the others,
+ * and a section is only rewritten when its content has changed. Section files are memory-mapped when read.
+ *
+ * Each file contains a header (the format magic number and version, and the initialisation vector) followed by the
+ * encrypted section. The plain text is a SHA-512 digest of the section followed by the section itself, so that a
+ * section which was encrypted with a different key or has been corrupted is detected when it is read.
+ */
+public class EncryptedSnapshot {
+    private static final int  MAGIC_NUMBER   = 0x47534e50;  // "GSNP"
+    private static final byte FORMAT_VERSION = 1;
+    private static final int  DIGEST_LENGTH  = 64;
+
+    private static final String SECTION_FILE_SUFFIX = ".snapshot";
+    private static final String TEMP_FILE_SUFFIX    = ".tmp";
+
+    private final File directory;
+
+    // The digest of the content of each section file known to be on disk, used to skip unchanged sections.
+    private final Map<String, byte[]> sectionDigests = new HashMap<>();
+
+    /**
+     * @param directory     The directory to store the section files in, which is created if it does not exist.
+     */
+    public EncryptedSnapshot(@NonNull File directory) {
+        this.directory = directory;
+    }
+
+    private File getSectionFile(@NonNull String sectionName) {
+        return new File(directory, sectionName + SECTION_FILE_SUFFIX);
+    }
+
+    /**
+     * Encrypt and write the given section to disk, unless the section on disk already has the same content.
+     *
+     * The section is written to a temporary file which then replaces the existing section file, so that a section
+     * file is never left partially written.
+     *
+     * @param sectionName                   The name of the section, which must be a valid file name.
+     * @param section                       The content of the section.
+     * @param dataEncryptionKey             The key to encrypt the section with.
+     * @return                              True if the section was written, false if the section on disk already
+     *                                      had the same content.
+     * @throws IOException                  Thrown when the section file cannot be written.
+     * @throws InvalidCipherTextException   Thrown when encrypting the section.
+     */
+    public synchronized boolean writeSection(@NonNull String sectionName,
+                                             @NonNull byte[] section,
+                                             @NonNull byte[] dataEncryptionKey)
+            throws IOException, InvalidCipherTextException {
+
+        final File sectionFile = getSectionFile(sectionName);
+        final byte[] digest = BouncyCastleInterpreter.sha512Operate(section);
+
+        if (Arrays.equals(digest, sectionDigests.get(sectionName)) && sectionFile.isFile()) {
+            return false;
+        }
+
+        final byte[] plainText = new byte[DIGEST_LENGTH + section.length];
+        System.arraycopy(digest, 0, plainText, 0, DIGEST_LENGTH);
+        System.arraycopy(section, 0, plainText, DIGEST_LENGTH, section.length);
+
+        final byte[] iv = GeneralUtils.generateIv();
+        final byte[] cipherText = BouncyCastleInterpreter.aesOperate(true, plainText, iv, dataEncryptionKey);
+        Arrays.fill(plainText, (byte) 0);
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            String s = "Unable to create the snapshot directory %s.";
+            throw new IOException(String.format(s, directory.getPath()));
+        }
+
+        final ByteBuffer header = ByteBuffer.allocate(Integer.SIZE / Byte.SIZE + 2 + iv.length);
+        header.putInt(MAGIC_NUMBER);
+        header.put(FORMAT_VERSION);
+        header.put((byte) iv.length);
+        header.put(iv);
+
+        final File tempFile = new File(directory, sectionName + TEMP_FILE_SUFFIX);
+        try (FileOutputStream fileOutputStream = new FileOutputStream(tempFile)) {
+            fileOutputStream.write(header.array());
+            fileOutputStream.write(cipherText);
+            fileOutputStream.getFD().sync();
+        }
+
+        if (!tempFile.renameTo(sectionFile)) {
+            tempFile.delete();
+
+            String s = "Unable to replace the snapshot section file %s.";
+            throw new IOException(String.format(s, sectionFile.getPath()));
+        }
+
+        sectionDigests.put(sectionName, digest);
+
+        return true;
+    }
+
+    /**
+     * Read and decrypt the given section from disk.
+     *
+     * @param sectionName           The name of the section.
+     * @param dataEncryptionKey     The key which the section was encrypted with.
+     * @return                      The content of the section, or null if the section does not exist or cannot be
+     *                              read or decrypted with the given key.
+     */
+    @Nullable
+    public synchronized byte[] readSection(@NonNull String sectionName, @NonNull byte[] dataEncryptionKey) {
+        final File sectionFile = getSectionFile(sectionName);
+
+        if (!sectionFile.isFile()) {
+            return null;
+        }
+
+        final byte[] iv;
+        final byte[] cipherText;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(sectionFile, "r");
+             FileChannel fileChannel = randomAccessFile.getChannel()) {
+
+            final MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+
+            if (buffer.remaining() < Integer.SIZE / Byte.SIZE + 2 ||
+                    buffer.getInt() != MAGIC_NUMBER ||
+                    buffer.get() != FORMAT_VERSION) {
+
+                return null;
+            }
+
+            final int ivLength = buffer.get() & 0xff;
+            if (buffer.remaining() < ivLength) {
+                return null;
+            }
+
+            iv = new byte[ivLength];
+            buffer.get(iv);
+
+            cipherText = new byte[buffer.remaining()];
+            buffer.get(cipherText);
+        }
+        catch (IOException e) {
+            return null;
+        }
+
+        final byte[] plainText;
+        try {
+            plainText = BouncyCastleInterpreter.aesOperate(false, cipherText, iv, dataEncryptionKey);
+        }
+        catch (InvalidCipherTextException | RuntimeException e) {
+            return null;
+        }
+
+        if (plainText.length < DIGEST_LENGTH) {
+            return null;
+        }
+
+        final byte[] digest  = Arrays.copyOf(plainText, DIGEST_LENGTH);
+        final byte[] section = Arrays.copyOfRange(plainText, DIGEST_LENGTH, plainText.length);
+        Arrays.fill(plainText, (byte) 0);
+
+        if (!Arrays.equals(digest, BouncyCastleInterpreter.sha512Operate(section))) {
+            return null;
+        }
+
+        sectionDigests.put(sectionName, digest);
+
+        return section;
+    }
+
+    /**
+     * Delete every section file, e.g. when the contact signs out.
+     */
+    public synchronized void delete() {
+        sectionDigests.clear();
+
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            final String fileName = file.getName();
+
+            if (fileName.endsWith(SECTION_FILE_SUFFIX) || fileName.endsWith(TEMP_FILE_SUFFIX)) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package gliphic.android.operation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import libraries.Vars;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ChunkedDecryptPipelineTest {
+    private final List<List<String>> startedChunks = new ArrayList<>();
+    private final List<Runnable>     completions   = new ArrayList<>();
+
+    private ChunkedDecryptPipeline pipeline;
+
+    private final ChunkedDecryptPipeline.ChunkDecryptor deferredDecryptor = (publishedTexts, onComplete) -> {
+        startedChunks.add(publishedTexts);
+        completions.add(onComplete);
+    };
+
+    @Before
+    public void createPipeline() {
+        startedChunks.clear();
+        completions.clear();
+
+        pipeline = new ChunkedDecryptPipeline(2, 2);
+    }
+
+    @Test
+    public void publishedTextsAreSplitIntoBoundedChunks() {
+        pipeline.submit(Arrays.asList("a", "b", "c", "d", "e"), deferredDecryptor);
+
+        assertThat(startedChunks, is(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d"))));
+        assertThat(pipeline.getChunksInFlight(), is(2));
+        assertThat(pipeline.getPendingChunkCount(), is(1));
+    }
+
+    @Test
+    public void completedChunkStartsTheNextChunk() {
+        pipeline.submit(Arrays.asList("a", "b", "c", "d", "e"), deferredDecryptor);
+        pipeline.submit(Collections.singletonList("f"), deferredDecryptor);
+
+        // Complete the second chunk before the first.
+        completions.get(1).run();
+
+        assertThat(startedChunks.size(), is(3));
+        assertThat(startedChunks.get(2), is(Collections.singletonList("e")));
+
+        completions.get(0).run();
+
+        assertThat(startedChunks.size(), is(4));
+        assertThat(startedChunks.get(3), is(Collections.singletonList("f")));
+        assertThat(pipeline.getPendingChunkCount(), is(0));
+    }
+
+    @Test
+    public void repeatedCompletionIsIgnored() {
+        pipeline.submit(Arrays.asList("a", "b", "c", "d", "e"), deferredDecryptor);
+
+        completions.get(0).run();
+        completions.get(0).run();
+
+        assertThat(pipeline.getChunksInFlight(), is(2));
+        assertThat(startedChunks.size(), is(3));
+    }
+
+    @Test
+    public void synchronousDecryptorDecryptsEveryChunk() {
+        final List<List<String>> decryptedChunks = new ArrayList<>();
+
+        pipeline.submit(
+                Arrays.asList("a", "b", "c", "d", "e"),
+                (publishedTexts, onComplete) -> {
+                    decryptedChunks.add(publishedTexts);
+                    onComplete.run();
+                }
+        );
+
+        assertThat(decryptedChunks.size(), is(3));
+        assertThat(pipeline.getChunksInFlight(), is(0));
+    }
+
+    @Test
+    public void cancelledChunksAreNotStarted() {
+        pipeline.submit(Arrays.asList("a", "b", "c", "d", "e"), deferredDecryptor);
+
+        pipeline.cancelPending();
+        completions.get(0).run();
+
+        assertThat(startedChunks.size(), is(2));
+        assertThat(pipeline.getChunksInFlight(), is(1));
+    }
+
+    @Test
+    public void visibleChunksAreStartedBeforeDeferredChunks() {
+        pipeline.submit(Arrays.asList("a", "b", "c", "d"), deferredDecryptor);
+        pipeline.submit(Arrays.asList("e", "f"), false, deferredDecryptor);
+        pipeline.submit(Collections.singletonList("g"), true, deferredDecryptor);
+
+        completions.get(0).run();
+        completions.get(1).run();
+
+        assertThat(startedChunks.get(2), is(Collections.singletonList("g")));
+        assertThat(startedChunks.get(3), is(Arrays.asList("e", "f")));
+    }
+
+    @Test
+    public void visibleSubmissionPromotesDeferredPublishedTexts() {
+        pipeline.submit(Arrays.asList("a", "b", "c", "d"), deferredDecryptor);
+        pipeline.submit(Arrays.asList("e", "f", "g"), false, deferredDecryptor);
+
+        // "a" is already being decrypted so is not queued again.
+        pipeline.submit(Arrays.asList("a", "f"), true, deferredDecryptor);
+
+        completions.get(0).run();
+        completions.get(1).run();
+        completions.get(2).run();
+
+        assertThat(startedChunks.size(), is(5));
+        assertThat(startedChunks.get(2), is(Collections.singletonList("f")));
+        assertThat(startedChunks.get(3), is(Collections.singletonList("e")));
+        assertThat(startedChunks.get(4), is(Collections.singletonList("g")));
+    }
+
+    @Test
+    public void cancellingADecryptorOnlyRemovesItsChunks() {
+        final ChunkedDecryptPipeline.ChunkDecryptor otherDecryptor = (publishedTexts, onComplete) -> {
+            startedChunks.add(publishedTexts);
+            completions.add(onComplete);
+        };
+
+        pipeline.submit(Arrays.asList("a", "b", "c", "d", "e"), false, deferredDecryptor);
+        pipeline.submit(Collections.singletonList("f"), false, otherDecryptor);
+
+        pipeline.cancelPending(deferredDecryptor);
+        completions.get(0).run();
+
+        assertThat(startedChunks.size(), is(3));
+        assertThat(startedChunks.get(2), is(Collections.singletonList("f")));
+        assertThat(pipeline.getPendingChunkCount(), is(0));
+    }
+
+    @Test
+    public void chunkSizeIsLimitedToTheServerMaximum() {
+        final List<String> publishedTexts = Collections.nCopies(Vars.ENCRYPTED_MSGS_MAX + 1, "a");
+
+        new ChunkedDecryptPipeline(Integer.MAX_VALUE, 1).submit(publishedTexts, deferredDecryptor);
+
+        assertThat(startedChunks.size(), is(1));
+        assertThat(startedChunks.get(0).size(), is(Vars.ENCRYPTED_MSGS_MAX));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidChunkSizeThrows() {
+        new ChunkedDecryptPipeline(0, 1);
+    }
+}
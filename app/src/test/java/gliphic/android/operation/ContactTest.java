@@ -340,6 +340,34 @@ public class ContactTest {
         assertThat(Contact.getTargetContacts(), is(Arrays.asList(contact1, contact2)));
     }
 
+    @Test
+    public void getTargetContactsReflectsChangesToBothLists() throws ContactException, NullStaticVariableException {
+        Contact contact1 = createValidKnownContact();
+        Contact contact2 = createValidKnownContact2();
+        Contact contact3 = createValidExtendedContact();
+        contact3.storeStatically();
+        contact2.storeStatically();
+
+        final List<Contact> targetContacts = Contact.getTargetContacts();
+
+        contact1.storeStatically();
+        assertThat(targetContacts, is(Arrays.asList(contact1, contact2, contact3)));
+
+        // Known contacts always precede extended contacts.
+        contact1.changeType(ContactType.EXTENDED);
+        assertThat(targetContacts, is(Arrays.asList(contact2, contact1, contact3)));
+        assertThat(Contact.getTargetContactsSize(), is(3));
+    }
+
+    @Test
+    public void getTargetContactsIsReadOnly() throws ContactException, NullStaticVariableException {
+        expectedEx.expect(UnsupportedOperationException.class);
+
+        createValidKnownContact().storeStatically();
+
+        Contact.getTargetContacts().add(createValidExtendedContact());
+    }
+
     @Test
     public void positiveGetTargetContactsSize() throws ContactException {
         createValidKnownContact().storeStatically();
@@ -1146,8 +1174,9 @@ public class ContactTest {
                 true
         );
 
-        // Illegally add a contact (with a bad type) directly to the list of target contacts.
-        Contact.getTargetContacts().add(currentContact);
+        // Illegally add a contact (with a bad type) directly to the list of extended contacts (the list of target
+        // contacts is read-only).
+        Contact.getExtendedContacts().add(currentContact);
 
         // The thrown exception shows that the first two contacts in the list throw an exception and the last does not.
         Contact.storeStatically(Arrays.asList(currentContact, currentContact, newCurrentContact));
@@ -0,0 +1,111 @@
+package gliphic.android.operation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class DecryptedMessageCacheTest {
+    private static final String PUBLISHED_TEXT_1 = "|~published text 1~|";
+    private static final String PUBLISHED_TEXT_2 = "|~published text 2~|";
+    private static final String PUBLISHED_TEXT_3 = "|~published text 3~|";
+
+    // Every plain text has the same length so that the cache holds exactly two of them.
+    private static final String PLAIN_TEXT_1 = "plain text 1";
+    private static final String PLAIN_TEXT_2 = "plain text 2";
+    private static final String PLAIN_TEXT_3 = "plain text 3";
+
+    private static final long ENTRY_BYTES =
+            2L * PLAIN_TEXT_1.length() + DecryptedMessageCache.ENTRY_OVERHEAD_BYTES;
+
+    private long currentTimeMillis;
+
+    private DecryptedMessageCache decryptedMessageCache;
+
+    @Before
+    public void createCache() {
+        currentTimeMillis = 1_000_000;
+
+        decryptedMessageCache = new DecryptedMessageCache(2 * ENTRY_BYTES, () -> currentTimeMillis);
+    }
+
+    @Test
+    public void cachedPlainTextIsReturned() {
+        decryptedMessageCache.put(PUBLISHED_TEXT_1, PLAIN_TEXT_1, 0L);
+
+        assertThat(decryptedMessageCache.get(PUBLISHED_TEXT_1), is(PLAIN_TEXT_1));
+        assertThat(decryptedMessageCache.get(PUBLISHED_TEXT_2), is(nullValue()));
+        assertThat(decryptedMessageCache.getHitCount(),  is(1L));
+        assertThat(decryptedMessageCache.getMissCount(), is(1L));
+        assertThat(decryptedMessageCache.getByteCount(), is(ENTRY_BYTES));
+    }
+
+    @Test
+    public void leastRecentlyUsedPlainTextIsEvictedWhenFull() {
+        decryptedMessageCache.put(PUBLISHED_TEXT_1, PLAIN_TEXT_1, null);
+        decryptedMessageCache.put(PUBLISHED_TEXT_2, PLAIN_TEXT_2, null);
+
+        // Use the first plain text so that the second is the least recently used.
+        decryptedMessageCache.get(PUBLISHED_TEXT_1);
+
+        decryptedMessageCache.put(PUBLISHED_TEXT_3, PLAIN_TEXT_3, null);
+
+        assertThat(decryptedMessageCache.size(), is(2));
+        assertThat(decryptedMessageCache.getByteCount(), is(2 * ENTRY_BYTES));
+        assertThat(decryptedMessageCache.get(PUBLISHED_TEXT_1), is(PLAIN_TEXT_1));
+        assertThat(decryptedMessageCache.get(PUBLISHED_TEXT_2), is(nullValue()));
+        assertThat(decryptedMessageCache.get(PUBLISHED_TEXT_3), is(PLAIN_TEXT_3));
+        assertThat(decryptedMessageCache.getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void replacingPlainTextDoesNotCountTwice() {
+        decryptedMessageCache.put(PUBLISHED_TEXT_1, PLAIN_TEXT_1, null);
+        decryptedMessageCache.put(PUBLISHED_TEXT_1, PLAIN_TEXT_2, null);
+
+        assertThat(decryptedMessageCache.size(), is(1));
+        assertThat(decryptedMessageCache.getByteCount(), is(ENTRY_BYTES));
+        assertThat(decryptedMessageCache.get(PUBLISHED_TEXT_1), is(PLAIN_TEXT_2));
+    }
+
+    @Test
+    public void plainTextIsNotReturnedAfterTimeOut() {
+        final long timeOut = currentTimeMillis / 1000 + 10;
+
+        decryptedMessageCache.put(PUBLISHED_TEXT_1, PLAIN_TEXT_1, timeOut);
+        assertThat(decryptedMessageCache.get(PUBLISHED_TEXT_1), is(PLAIN_TEXT_1));
+
+        currentTimeMillis = timeOut * 1000;
+
+        assertThat(decryptedMessageCache.get(PUBLISHED_TEXT_1), is(nullValue()));
+        assertThat(decryptedMessageCache.size(), is(0));
+        assertThat(decryptedMessageCache.getByteCount(), is(0L));
+    }
+
+    @Test
+    public void timedOutOrOversizedPlainTextIsNotCached() {
+        decryptedMessageCache.put(PUBLISHED_TEXT_1, PLAIN_TEXT_1, currentTimeMillis / 1000);
+
+        final StringBuilder largePlainText = new StringBuilder();
+        while (2L * largePlainText.length() <= 2 * ENTRY_BYTES) {
+            largePlainText.append(PLAIN_TEXT_2);
+        }
+        decryptedMessageCache.put(PUBLISHED_TEXT_2, largePlainText.toString(), null);
+
+        assertThat(decryptedMessageCache.size(), is(0));
+    }
+
+    @Test
+    public void clearRemovesEveryPlainText() {
+        decryptedMessageCache.put(PUBLISHED_TEXT_1, PLAIN_TEXT_1, null);
+        decryptedMessageCache.put(PUBLISHED_TEXT_2, PLAIN_TEXT_2, null);
+
+        decryptedMessageCache.clear();
+
+        assertThat(decryptedMessageCache.size(), is(0));
+        assertThat(decryptedMessageCache.getByteCount(), is(0L));
+        assertThat(decryptedMessageCache.get(PUBLISHED_TEXT_1), is(nullValue()));
+    }
+}
@@ -0,0 +1,222 @@
+package gliphic.android.operation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+public class GroupKeyCacheTest {
+    private static final int  MAX_ENTRIES         = 2;
+    private static final long IDLE_TIMEOUT_MILLIS = 1000;
+
+    private static final byte[] encryptedGroupKey  = {1, 2, 3};
+    private static final byte[] encryptedGroupKey2 = {1, 2, 4};
+    private static final byte[] groupKeyIv         = {4, 5, 6};
+    private static final byte[] groupKeyIv2        = {4, 5, 7};
+    private static final byte[] dataEncryptionKey  = {7, 8, 9};
+
+    private long currentTimeNanos;
+    private int unwrapCount;
+    private boolean isClearedDuringUnwrap;
+
+    // Every sweep scheduled by the cache, and the delay before each sweep.
+    private final List<Runnable> scheduledSweeps      = new ArrayList<>();
+    private final List<Long>     scheduledSweepDelays = new ArrayList<>();
+
+    // Every key returned by the delegate, which the cache should zero when the key is evicted.
+    private final List<byte[]> unwrappedKeys = new ArrayList<>();
+
+    private GroupKeyCache groupKeyCache;
+
+    @Before
+    public void createCache() {
+        currentTimeNanos = 0;
+        unwrapCount = 0;
+        isClearedDuringUnwrap = false;
+        unwrappedKeys.clear();
+        scheduledSweeps.clear();
+        scheduledSweepDelays.clear();
+
+        final PublishedTextBatchDecryptor.GroupKeyUnwrapper countingUnwrapper =
+                new PublishedTextBatchDecryptor.GroupKeyUnwrapper() {
+                    @Override
+                    public byte[] unwrap(long groupNumber,
+                                         byte[] encryptedGroupKey,
+                                         byte[] groupKeyIv,
+                                         byte[] dataEncryptionKey) {
+
+                        unwrapCount++;
+
+                        final byte[] groupKey = {(byte) groupNumber, encryptedGroupKey[2], groupKeyIv[2], 1};
+                        unwrappedKeys.add(groupKey);
+
+                        if (isClearedDuringUnwrap) {
+                            groupKeyCache.clear();
+                        }
+
+                        return groupKey;
+                    }
+
+                    @Override
+                    public void release(byte[] groupKey) {}
+                };
+
+        groupKeyCache = new GroupKeyCache(
+                MAX_ENTRIES,
+                IDLE_TIMEOUT_MILLIS,
+                countingUnwrapper,
+                () -> currentTimeNanos,
+                (task, delayNanos) -> {
+                    scheduledSweeps.add(task);
+                    scheduledSweepDelays.add(delayNanos);
+                }
+        );
+    }
+
+    private byte[] unwrap(long groupNumber, byte[] encryptedGroupKey, byte[] groupKeyIv) throws Exception {
+        return groupKeyCache.unwrap(groupNumber, encryptedGroupKey, groupKeyIv, dataEncryptionKey);
+    }
+
+    @Test
+    public void repeatedUnwrapIsCached() throws Exception {
+        final byte[] groupKey1 = unwrap(0, encryptedGroupKey, groupKeyIv);
+        final byte[] groupKey2 = unwrap(0, encryptedGroupKey, groupKeyIv);
+
+        assertThat(groupKey2, is(groupKey1));
+        assertThat(unwrapCount, is(1));
+        assertThat(groupKeyCache.getMissCount(), is(1L));
+        assertThat(groupKeyCache.getHitCount(),  is(1L));
+    }
+
+    @Test
+    public void releasingCopyDoesNotAffectCachedKey() throws Exception {
+        final byte[] groupKey = unwrap(0, encryptedGroupKey, groupKeyIv);
+        final byte[] expectedGroupKey = groupKey.clone();
+
+        groupKeyCache.release(groupKey);
+
+        assertThat(unwrap(0, encryptedGroupKey, groupKeyIv), is(expectedGroupKey));
+        assertThat(unwrapCount, is(1));
+    }
+
+    @Test
+    public void differentGroupNumberOrIvIsNotCached() throws Exception {
+        unwrap(0, encryptedGroupKey, groupKeyIv);
+        unwrap(1, encryptedGroupKey, groupKeyIv);
+        unwrap(0, encryptedGroupKey, groupKeyIv2);
+
+        assertThat(unwrapCount, is(3));
+        assertThat(groupKeyCache.getHitCount(), is(0L));
+    }
+
+    @Test
+    public void differentEncryptedKeyWithSameIvReplacesCachedKey() throws Exception {
+        final byte[] groupKey1 = unwrap(0, encryptedGroupKey, groupKeyIv);
+        final byte[] groupKey2 = unwrap(0, encryptedGroupKey2, groupKeyIv);
+
+        assertThat(groupKey2, is(not(groupKey1)));
+        assertThat(unwrapCount, is(2));
+        assertThat(groupKeyCache.size(), is(1));
+        assertThat(unwrappedKeys.get(0), is(new byte[groupKey1.length]));
+    }
+
+    @Test
+    public void leastRecentlyUsedKeyIsEvictedAndZeroed() throws Exception {
+        unwrap(0, encryptedGroupKey, groupKeyIv);
+        unwrap(1, encryptedGroupKey, groupKeyIv);
+
+        // Use the first key so that the second key is the least recently used.
+        unwrap(0, encryptedGroupKey, groupKeyIv);
+        unwrap(2, encryptedGroupKey, groupKeyIv);
+
+        assertThat(groupKeyCache.size(), is(MAX_ENTRIES));
+        assertThat(groupKeyCache.getEvictionCount(), is(1L));
+        assertThat(unwrappedKeys.get(1), is(new byte[unwrappedKeys.get(1).length]));
+
+        unwrap(0, encryptedGroupKey, groupKeyIv);
+        assertThat(unwrapCount, is(3));
+    }
+
+    @Test
+    public void idleKeyIsEvictedAndZeroed() throws Exception {
+        unwrap(0, encryptedGroupKey, groupKeyIv);
+
+        currentTimeNanos += TimeUnit.MILLISECONDS.toNanos(IDLE_TIMEOUT_MILLIS) / 2;
+        unwrap(0, encryptedGroupKey, groupKeyIv);
+        assertThat(unwrapCount, is(1));
+
+        currentTimeNanos += TimeUnit.MILLISECONDS.toNanos(IDLE_TIMEOUT_MILLIS);
+        unwrap(0, encryptedGroupKey, groupKeyIv);
+
+        assertThat(unwrapCount, is(2));
+        assertThat(groupKeyCache.getEvictionCount(), is(1L));
+        assertThat(unwrappedKeys.get(0), is(new byte[unwrappedKeys.get(0).length]));
+    }
+
+    @Test
+    public void clearZeroesAllKeys() throws Exception {
+        unwrap(0, encryptedGroupKey, groupKeyIv);
+        unwrap(1, encryptedGroupKey, groupKeyIv);
+
+        groupKeyCache.clear();
+
+        assertThat(groupKeyCache.size(), is(0));
+        for (byte[] groupKey : unwrappedKeys) {
+            assertThat(groupKey, is(new byte[groupKey.length]));
+        }
+    }
+
+    @Test
+    public void idleKeyIsEvictedBySweepWithoutAnotherUnwrap() throws Exception {
+        final long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(IDLE_TIMEOUT_MILLIS);
+
+        unwrap(0, encryptedGroupKey, groupKeyIv);
+        currentTimeNanos += idleTimeoutNanos / 2;
+        unwrap(1, encryptedGroupKey, groupKeyIv);
+
+        // Only one sweep is scheduled however many keys are cached.
+        assertThat(scheduledSweeps.size(), is(1));
+        assertThat(scheduledSweepDelays.get(0), is(idleTimeoutNanos));
+
+        currentTimeNanos = idleTimeoutNanos;
+        scheduledSweeps.get(0).run();
+
+        assertThat(groupKeyCache.size(), is(1));
+        assertThat(unwrappedKeys.get(0), is(new byte[unwrappedKeys.get(0).length]));
+
+        // The next sweep is scheduled for when the remaining key becomes idle.
+        assertThat(scheduledSweeps.size(), is(2));
+        assertThat(scheduledSweepDelays.get(1), is(idleTimeoutNanos / 2));
+
+        currentTimeNanos += idleTimeoutNanos / 2;
+        scheduledSweeps.get(1).run();
+
+        assertThat(groupKeyCache.size(), is(0));
+        assertThat(groupKeyCache.getEvictionCount(), is(2L));
+        assertThat(unwrappedKeys.get(1), is(new byte[unwrappedKeys.get(1).length]));
+        assertThat(scheduledSweeps.size(), is(2));
+    }
+
+    @Test
+    public void keyUnwrappedWhileClearingIsNotCached() throws Exception {
+        isClearedDuringUnwrap = true;
+
+        final byte[] groupKey = unwrap(0, encryptedGroupKey, groupKeyIv);
+
+        assertThat(groupKey, is(new byte[] {0, 3, 6, 1}));
+        assertThat(groupKeyCache.size(), is(0));
+        assertThat(unwrappedKeys.get(0), is(new byte[groupKey.length]));
+
+        isClearedDuringUnwrap = false;
+        unwrap(0, encryptedGroupKey, groupKeyIv);
+
+        assertThat(groupKeyCache.size(), is(1));
+        assertThat(unwrapCount, is(2));
+    }
+}
@@ -1488,6 +1488,53 @@ public class GroupTest {
         Group.getGroupFromId("UnknownGroupId");
     }
 
+    @Test
+    public void groupIdIsKnownAfterStoringDuplicateGroupWithNewId() throws Exception {
+        Group baseGroup = createValidGroup2();
+        baseGroup.storeStatically();
+
+        final String newId = generateGroupId(baseGroup.getNumber());
+        Group duplicateGroup = new Group(
+                baseGroup.getNumber(),
+                validImage,
+                validName,
+                baseGroup.getDescription(),
+                newId,
+                validPermissions,
+                false,
+                false,
+                false
+        ).storeStatically();
+
+        assertThat(duplicateGroup,                  is(baseGroup));
+        assertThat(Group.getGroupFromId(newId),     is(baseGroup));
+
+        expectedEx.expect(GroupException.class);
+        expectedEx.expectMessage("Given group ID is unknown to the user:");
+
+        Group.getGroupFromId(validId2);
+    }
+
+    /* Known groups order */
+
+    @Test
+    public void knownGroupsAreOrderedByNumber() throws Exception {
+        final Group group3 = createValidGroup3();
+        final Group group2 = createValidGroup2();
+        final Group group1 = createValidGroup();
+
+        group3.storeStatically();
+        group1.storeStatically();
+        group2.storeStatically();
+
+        assertThat(Group.getKnownGroups(), is(Arrays.asList(group1, group2, group3)));
+
+        group2.removeFromStaticStore();
+
+        assertThat(Group.getKnownGroups(), is(Arrays.asList(group1, group3)));
+        assertThat(Group.getGroupFromId(group3.getId()), is(group3));
+    }
+
     /* Set group description */
 
     @Test
@@ -0,0 +1,294 @@
+package gliphic.android.operation;
+
+import gliphic.android.TestUtils;
+
+import org.bouncycastle.util.encoders.Base64;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import libraries.Vars;
+import pojo.text.TextDecryptResponseObject;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+public class PublishedTextBatchDecryptorTest {
+    private static final byte[] encryptedGroupKey = {1, 2, 3};
+    private static final byte[] groupKeyIv        = {4, 5, 6};
+    private static final byte[] dataEncryptionKey = {7, 8, 9};
+
+    private static final Random random = new Random(0);
+
+    private Group group1;
+    private Group group2;
+
+    // Count the number of times each group key is unwrapped and released.
+    private final AtomicInteger unwrapCount  = new AtomicInteger(0);
+    private final AtomicInteger releaseCount = new AtomicInteger(0);
+
+    private final PublishedTextBatchDecryptor.GroupKeyUnwrapper countingUnwrapper =
+            new PublishedTextBatchDecryptor.GroupKeyUnwrapper() {
+                @Override
+                public byte[] unwrap(long groupNumber,
+                                     byte[] encryptedGroupKey,
+                                     byte[] groupKeyIv,
+                                     byte[] dataEncryptionKey) {
+
+                    unwrapCount.incrementAndGet();
+
+                    try {
+                        return Group.getGroupFromNumber(groupNumber).getKey().clone();
+                    }
+                    catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+
+                @Override
+                public void release(byte[] groupKey) {
+                    releaseCount.incrementAndGet();
+                }
+            };
+
+    @BeforeClass
+    public static void setCurrentContact() throws Exception {
+        ContactTest.createValidCurrentContact().storeStatically();
+    }
+
+    @AfterClass
+    public static void clearStaticLists() {
+        TestUtils.clearStaticLists();
+    }
+
+    @Before
+    public void resetGroups() throws Exception {
+        Group.setNullKnownGroups();
+        group1 = GroupTest.createValidGroup();
+        group1.storeStatically();
+        group2 = GroupTest.createValidGroup2();
+        group2.storeStatically();
+    }
+
+    private static String createPlainText(int index) {
+        return "Message " + index;
+    }
+
+    /**
+     * Simulate the server encrypting and then decrypting the given published text, returning the corresponding
+     * response object and removing the plain text from the published text.
+     */
+    private static TextDecryptResponseObject createResponseObject(PublishedText pt) throws Exception {
+        final byte[] timeOutCipherText = new byte[pt.getRawCipherText().length + 16];
+        random.nextBytes(timeOutCipherText);
+        pt.constructPublishedText(timeOutCipherText);
+
+        final TextDecryptResponseObject tdro = new TextDecryptResponseObject(
+                Vars.SUCCESS_200,
+                pt.getGroup().getNumber(),
+                Base64.toBase64String(pt.getIv()),
+                Base64.toBase64String(pt.getTimeOutCipherText()),
+                Base64.toBase64String(pt.getRawCipherText()),
+                Vars.NO_TIME_OUT,
+                Base64.toBase64String(encryptedGroupKey),
+                Base64.toBase64String(groupKeyIv)
+        );
+
+        // Use reflection to remove the plain text so that it can only be obtained by decrypting.
+        Field field = PublishedText.class.getDeclaredField("plainText");
+        field.setAccessible(true);
+        field.set(pt, null);
+
+        return tdro;
+    }
+
+    private boolean[] decryptAndWait(PublishedTextBatchDecryptor decryptor,
+                                     List<PublishedText> publishedTexts,
+                                     List<TextDecryptResponseObject> responseObjects) throws InterruptedException {
+
+        final boolean[][] results = new boolean[1][];
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        decryptor.decrypt(publishedTexts, responseObjects, dataEncryptionKey, isDecrypted -> {
+            results[0] = isDecrypted;
+            latch.countDown();
+        });
+
+        assertThat(latch.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(results[0], is(notNullValue()));
+
+        return results[0];
+    }
+
+    @Test
+    public void batchIsDecryptedInInputOrderWithOneUnwrapPerGroup() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        final PublishedTextBatchDecryptor decryptor =
+                new PublishedTextBatchDecryptor(executorService, countingUnwrapper);
+
+        final List<PublishedText> publishedTexts = new ArrayList<>();
+        final List<TextDecryptResponseObject> responseObjects = new ArrayList<>();
+
+        // Interleave the groups and use enough messages for each group to be split into multiple slices.
+        final int messageCount = 5 * PublishedTextBatchDecryptor.SLICE_SIZE;
+        for (int i = 0; i < messageCount; i++) {
+            final Group group = i % 2 == 0 ? group1 : group2;
+            final PublishedText pt = new PublishedText(createPlainText(i), Vars.NO_TIME_OUT, group);
+            publishedTexts.add(pt);
+            responseObjects.add(createResponseObject(pt));
+        }
+
+        final boolean[] isDecrypted;
+        try {
+            isDecrypted = decryptAndWait(decryptor, publishedTexts, responseObjects);
+        }
+        finally {
+            executorService.shutdown();
+        }
+
+        assertThat(isDecrypted.length, is(messageCount));
+        for (int i = 0; i < messageCount; i++) {
+            assertThat(isDecrypted[i], is(true));
+            assertThat(
+                    new String(publishedTexts.get(i).getPlainText(), StandardCharsets.UTF_8),
+                    is(createPlainText(i))
+            );
+        }
+
+        assertThat(unwrapCount.get(),  is(2));
+        assertThat(releaseCount.get(), is(2));
+    }
+
+    @Test
+    public void unmatchedAndFailedResponsesAreNotDecrypted() throws Exception {
+        final PublishedTextBatchDecryptor decryptor = new PublishedTextBatchDecryptor(Runnable::run, countingUnwrapper);
+
+        final List<PublishedText> publishedTexts = new ArrayList<>();
+        final List<TextDecryptResponseObject> responseObjects = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            final PublishedText pt = new PublishedText(createPlainText(i), Vars.NO_TIME_OUT, group1);
+            publishedTexts.add(pt);
+            responseObjects.add(createResponseObject(pt));
+        }
+
+        responseObjects.set(0, null);
+        responseObjects.get(1).setMessageStatus(Vars.ERR_403_PERM_DENIED);
+
+        final boolean[] isDecrypted = decryptAndWait(decryptor, publishedTexts, responseObjects);
+
+        assertThat(isDecrypted, is(new boolean[] {false, false, true}));
+        assertThat(unwrapCount.get(),  is(1));
+        assertThat(releaseCount.get(), is(1));
+    }
+
+    @Test
+    public void emptyBatchReturnsImmediately() throws Exception {
+        final PublishedTextBatchDecryptor decryptor = new PublishedTextBatchDecryptor(
+                runnable -> {
+                    throw new AssertionError("No task should be submitted for an empty batch.");
+                },
+                countingUnwrapper
+        );
+
+        final boolean[] isDecrypted = decryptAndWait(decryptor, Collections.emptyList(), Collections.emptyList());
+
+        assertThat(isDecrypted.length, is(0));
+        assertThat(unwrapCount.get(),  is(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mismatchedListSizesAreRejected() throws Exception {
+        final PublishedTextBatchDecryptor decryptor = new PublishedTextBatchDecryptor(Runnable::run, countingUnwrapper);
+
+        decryptor.decrypt(
+                Arrays.asList(new PublishedText(createPlainText(0), Vars.NO_TIME_OUT, group1)),
+                Collections.emptyList(),
+                dataEncryptionKey,
+                isDecrypted -> {}
+        );
+    }
+
+    /* Matching response objects */
+
+    @Test
+    public void shuffledResponseObjectsAreMatched() throws Exception {
+        final List<PublishedText> publishedTexts = new ArrayList<>();
+        final List<TextDecryptResponseObject> responseObjects = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            final Group group = i % 2 == 0 ? group1 : group2;
+            final PublishedText pt = new PublishedText(createPlainText(i), Vars.NO_TIME_OUT, group);
+            publishedTexts.add(pt);
+            responseObjects.add(createResponseObject(pt));
+        }
+
+        final List<TextDecryptResponseObject> shuffledResponseObjects = new ArrayList<>(responseObjects);
+        Collections.shuffle(shuffledResponseObjects, random);
+
+        assertThat(
+                PublishedTextBatchDecryptor.matchResponseObjects(publishedTexts, shuffledResponseObjects),
+                is(responseObjects)
+        );
+    }
+
+    @Test
+    public void failedAndUndecodableResponseObjectsAreNotMatched() throws Exception {
+        final List<PublishedText> publishedTexts = new ArrayList<>();
+        final List<TextDecryptResponseObject> responseObjects = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            final PublishedText pt = new PublishedText(createPlainText(i), Vars.NO_TIME_OUT, group1);
+            publishedTexts.add(pt);
+            responseObjects.add(createResponseObject(pt));
+        }
+
+        responseObjects.get(0).setMessageStatus(Vars.ERR_403_PERM_DENIED);
+        responseObjects.get(1).setMessageIvString("Not Base64!");
+        responseObjects.get(2).setGroupNumber(group2.getNumber());
+
+        final List<TextDecryptResponseObject> matchedResponseObjects =
+                PublishedTextBatchDecryptor.matchResponseObjects(publishedTexts, responseObjects);
+
+        assertThat(matchedResponseObjects, is(Arrays.asList(null, null, null, responseObjects.get(3))));
+    }
+
+    @Test
+    public void duplicatePublishedTextsAreMatchedToDistinctResponseObjects() throws Exception {
+        final PublishedText pt = new PublishedText(createPlainText(0), Vars.NO_TIME_OUT, group1);
+        final TextDecryptResponseObject tdro1 = createResponseObject(pt);
+        final TextDecryptResponseObject tdro2 = new TextDecryptResponseObject(
+                tdro1.getMessageStatus(),
+                tdro1.getGroupNumber(),
+                tdro1.getMessageIvString(),
+                tdro1.getEncMsg(),
+                tdro1.getDecMsg(),
+                tdro1.getTimeOut(),
+                tdro1.getEncryptedGroupKeyString(),
+                tdro1.getKeyIvString()
+        );
+
+        assertThat(
+                PublishedTextBatchDecryptor.matchResponseObjects(
+                        Arrays.asList(pt, pt, pt),
+                        Arrays.asList(tdro1, tdro2)
+                ),
+                is(Arrays.asList(tdro1, tdro2, null))
+        );
+    }
+}
@@ -11,7 +11,6 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
-import java.io.IOException;
 import java.lang.reflect.Field;
 import java.nio.charset.StandardCharsets;
 
@@ -329,12 +328,41 @@ public class PublishedTextTest {
         }
     }
 
+    @Test
+    public void initialiseWithMalformedCipherMessage() throws Exception {
+        expectedEx.expect(Base256Exception.class);
+
+        String malformedPubText = publishedText.substring(0, publishedText.length() - Vars.END_TAG.length() - 1) +
+                '!' +
+                Vars.END_TAG;
+        new PublishedText(malformedPubText);
+    }
+
+    @Test
+    public void groupPermissionsAreCheckedBeforeDecoding() throws Exception {
+        expectedEx.expect(PublishedTextException.class);
+        expectedEx.expectMessage(PublishedText.GROUP_ACCESS_DENIED_EXP);
+
+        String malformedPubText = publishedText.substring(0, publishedText.length() - Vars.END_TAG.length() - 1) +
+                '!' +
+                Vars.END_TAG;
+
+        GroupPermissions groupPerms = defaultGroup.getPermissions();
+        try {
+            defaultGroup.setPermissions(GroupPermissions.ACTIVE_DENIED);
+
+            new PublishedText(malformedPubText);
+        }
+        finally {
+            defaultGroup.setPermissions(groupPerms);
+        }
+    }
+
     // Test constructPublishedText().
 
     @Test
     public void validConstructPublishedText()
-            throws InvalidCipherTextException, PublishedTextException, IOException,
-            IllegalAccessException, NoSuchFieldException {
+            throws InvalidCipherTextException, PublishedTextException, IllegalAccessException, NoSuchFieldException {
 
         PublishedText pt = new PublishedText(plainText, Vars.NO_TIME_OUT, defaultGroup);
 
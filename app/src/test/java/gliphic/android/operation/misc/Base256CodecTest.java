@@ -0,0 +1,101 @@
+package gliphic.android.operation.misc;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Random;
+
+import libraries.Base256;
+import libraries.Base256Exception;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class Base256CodecTest {
+    private final Random random = new Random(0);
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    private static byte[] getAllBytes() {
+        final byte[] allBytes = new byte[256];
+        for (int i = 0; i < allBytes.length; i++) {
+            allBytes[i] = (byte) i;
+        }
+
+        return allBytes;
+    }
+
+    @Test
+    public void encodeMatchesBase256FromBytes() {
+        assertThat(Base256Codec.encode(getAllBytes()), is(Base256.fromBytes(getAllBytes())));
+
+        for (int length = 0; length < 100; length++) {
+            final byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+
+            assertThat(Base256Codec.encode(bytes), is(Base256.fromBytes(bytes)));
+        }
+    }
+
+    @Test
+    public void encodeSlicesMatchesEncodedConcatenation() {
+        final byte[] bytes = new byte[50];
+        random.nextBytes(bytes);
+
+        final StringBuilder sb = new StringBuilder("xx");
+        Base256Codec.encode(bytes, 0, 17, sb);
+        Base256Codec.encode(bytes, 17, bytes.length - 17, sb);
+
+        assertThat(sb.toString(), is("xx" + Base256.fromBytes(bytes)));
+    }
+
+    @Test
+    public void decodeMatchesBase256ToBytes() throws Base256Exception {
+        final String encoded = Base256.fromBytes(getAllBytes());
+
+        assertThat(Base256Codec.decode(encoded), is(Base256.toBytes(encoded)));
+        assertThat(Base256Codec.decode(encoded), is(getAllBytes()));
+    }
+
+    @Test
+    public void decodeRangeIntoBuffer() throws Base256Exception {
+        final String encoded = "xx" + Base256.fromBytes(getAllBytes()) + "~";
+        final byte[] decoded = new byte[258];
+
+        Base256Codec.decode(encoded, 2, 256, decoded, 1);
+
+        for (int i = 0; i < 256; i++) {
+            assertThat(decoded[i + 1], is((byte) i));
+        }
+        assertThat(decoded[0],   is((byte) 0));
+        assertThat(decoded[257], is((byte) 0));
+    }
+
+    @Test
+    public void decodeEveryInvalidCharacter() {
+        final String validCharacters = Base256.fromBytes(getAllBytes());
+
+        for (char c = 0; c < 1000; c++) {
+            if (validCharacters.indexOf(c) >= 0) {
+                continue;
+            }
+
+            try {
+                Base256Codec.decode("a" + c);
+                throw new AssertionError("No exception thrown for character " + (int) c);
+            }
+            catch (Base256Exception e) {
+                assertThat(e.getMessage(), is("Cannot convert string containing invalid character(s)."));
+            }
+        }
+    }
+
+    @Test
+    public void decodeInvalidCharacterHighCodePoint() throws Base256Exception {
+        expectedEx.expect(Base256Exception.class);
+
+        Base256Codec.decode("ab\uFFFF");
+    }
+}
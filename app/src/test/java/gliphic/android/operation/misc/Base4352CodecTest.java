@@ -0,0 +1,145 @@
+package gliphic.android.operation.misc;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import libraries.Base4352;
+import libraries.Base4352Exception;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class Base4352CodecTest {
+    private final Random random = new Random(0);
+
+    /**
+     * Return the result of decoding the given string, or the exception message if an exception is thrown, using either
+     * the codec or the Base4352 library class.
+     */
+    private static Object decode(String s, boolean useCodec) {
+        try {
+            return useCodec ? Base4352Codec.decode(s) : Base4352.toBytes(s);
+        }
+        catch (Base4352Exception e) {
+            return e.getMessage();
+        }
+    }
+
+    private String randomEncoding(int length) {
+        final byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+
+        return Base4352.fromBytes(bytes);
+    }
+
+    @Test
+    public void encodeMatchesBase4352FromBytes() {
+        for (int length = 0; length < 300; length++) {
+            final byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+
+            final String encoded = Base4352Codec.encode(bytes);
+
+            assertThat(encoded, is(Base4352.fromBytes(bytes)));
+            assertThat(encoded.length(), is(Base4352Codec.encodedLength(length)));
+        }
+    }
+
+    @Test
+    public void encodeEveryGroupValue() {
+        // Encoding the bytes {v >> 4, (v & 0xF) << 4 | v >> 8, v} gives two characters of value v for every 12-bit v.
+        final byte[] bytes = new byte[3 * 4096];
+        for (int v = 0; v < 4096; v++) {
+            bytes[3 * v]     = (byte) (v >> 4);
+            bytes[3 * v + 1] = (byte) (((v & 0xF) << 4) | (v >> 8));
+            bytes[3 * v + 2] = (byte) v;
+        }
+
+        assertThat(Base4352Codec.encode(bytes), is(Base4352.fromBytes(bytes)));
+    }
+
+    @Test
+    public void encoderSlicesMatchEncodedConcatenation() {
+        final byte[] bytes = new byte[100];
+        random.nextBytes(bytes);
+
+        for (int split = 0; split <= 10; split++) {
+            final StringBuilder sb = new StringBuilder();
+
+            new Base4352Codec.Encoder(sb)
+                    .update(bytes, 0, split)
+                    .update(bytes, split, 7)
+                    .update(bytes, split + 7, bytes.length - split - 7)
+                    .finish();
+
+            assertThat(sb.toString(), is(Base4352.fromBytes(bytes)));
+        }
+    }
+
+    @Test
+    public void decodeMatchesBase4352ToBytes() throws Base4352Exception {
+        for (int length = 0; length < 300; length++) {
+            final String encoded = randomEncoding(length);
+
+            assertThat(Base4352Codec.decode(encoded), is(Base4352.toBytes(encoded)));
+            assertThat(Base4352Codec.decodedLength(encoded, 0, encoded.length()), is(length));
+        }
+    }
+
+    @Test
+    public void decodeRangeIntoBuffer() throws Base4352Exception {
+        final byte[] bytes = new byte[20];
+        random.nextBytes(bytes);
+
+        final String encoded = "xx" + Base4352.fromBytes(bytes) + "~";
+        final byte[] decoded = new byte[bytes.length + 1];
+
+        final int byteCount = Base4352Codec.decode(encoded, 2, encoded.length() - 3, decoded, 1);
+
+        assertThat(byteCount, is(bytes.length));
+        for (int i = 0; i < bytes.length; i++) {
+            assertThat(decoded[i + 1], is(bytes[i]));
+        }
+    }
+
+    @Test
+    public void decodeInvalidStringsMatchesBase4352ToBytes() {
+        final char[] invalidCharacters = {'~', ' ', '|', 127, 191, 384, 10175, 11001, '\uFFFF'};
+
+        for (int i = 0; i < 20000; i++) {
+            final StringBuilder sb = new StringBuilder(randomEncoding(random.nextInt(12)));
+
+            // Insert a single character at a random position.
+            final int index = random.nextInt(sb.length() + 1);
+
+            switch (random.nextInt(3)) {
+                case 0:
+                    // A character encoding a single byte.
+                    sb.insert(index, randomEncoding(1));
+                    break;
+                case 1:
+                    sb.insert(index, invalidCharacters[random.nextInt(invalidCharacters.length)]);
+                    break;
+                default:
+                    // A character encoding half of a group of three bytes.
+                    sb.insert(index, randomEncoding(3).charAt(random.nextInt(2)));
+            }
+
+            final String s = sb.toString();
+
+            assertThat(s, decode(s, true), is(decode(s, false)));
+        }
+    }
+
+    @Test
+    public void decodeSuffixCharacterOutsideSuffix() {
+        final String s = Base4352.fromBytes(new byte[] {1}) + Base4352.fromBytes(new byte[] {1, 2, 3});
+
+        assertThat(decode(s, true), is(decode(s, false)));
+        assertThat(
+                decode(s, true),
+                is("Cannot convert string with remainder character outside the suffix: " + s.charAt(0))
+        );
+    }
+}
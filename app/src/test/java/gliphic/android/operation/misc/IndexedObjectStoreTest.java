@@ -0,0 +1,189 @@
+package gliphic.android.operation.misc;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class IndexedObjectStoreTest {
+    private static class Item {
+        private final long number;
+        private String id;
+
+        Item(long number, String id) {
+            this.number = number;
+            this.id = id;
+        }
+    }
+
+    private static class ItemStore extends IndexedObjectStore<Item> {
+        ItemStore() {
+            super(Item.class);
+        }
+
+        @Override
+        protected long getNumber(Item item) {
+            return item.number;
+        }
+
+        @Override
+        protected String getId(Item item) {
+            return item.id;
+        }
+    }
+
+    private ItemStore store;
+
+    @Before
+    public void createStore() {
+        store = new ItemStore();
+    }
+
+    /* Indexed store */
+
+    @Test
+    public void itemsAreOrderedByNumber() {
+        Item item1 = new Item(3, "c");
+        Item item2 = new Item(1, "a");
+        Item item3 = new Item(2, "b");
+
+        store.add(item1);
+        store.add(item2);
+        store.add(item3);
+
+        assertThat(store.asList(), is(Arrays.asList(item2, item3, item1)));
+    }
+
+    @Test
+    public void duplicateNumberIsNotAdded() {
+        Item item1 = new Item(1, "a");
+        Item item2 = new Item(1, "b");
+
+        assertThat(store.add(item1), is(true));
+        assertThat(store.add(item2), is(false));
+        assertThat(store.size(), is(1));
+        assertThat(store.getFromId("b"), is(nullValue()));
+    }
+
+    @Test
+    public void getFromNumberAndId() {
+        Item item = new Item(42, "x");
+        store.add(item);
+
+        assertThat(store.getFromNumber(42), is(item));
+        assertThat(store.getFromId("x"), is(item));
+        assertThat(store.getFromNumber(43), is(nullValue()));
+        assertThat(store.getFromId("y"), is(nullValue()));
+    }
+
+    @Test
+    public void containsOnlyMatchesStoredInstance() {
+        Item item = new Item(1, "a");
+        store.add(item);
+
+        assertThat(store.contains(item), is(true));
+        assertThat(store.contains(new Item(1, "a")), is(false));
+        assertThat(store.contains("a"), is(false));
+        assertThat(store.contains(null), is(false));
+    }
+
+    @Test
+    public void updateIdReindexesItem() {
+        Item item = new Item(1, "a");
+        store.add(item);
+
+        item.id = "b";
+        store.updateId(item, "a");
+
+        assertThat(store.getFromId("a"), is(nullValue()));
+        assertThat(store.getFromId("b"), is(item));
+    }
+
+    @Test
+    public void listViewWritesThrough() {
+        Item item1 = new Item(2, "b");
+        Item item2 = new Item(1, "a");
+        List<Item> list = store.asList();
+
+        list.add(item1);
+        list.add(item2);
+
+        assertThat(store.getFromNumber(2), is(item1));
+        assertThat(list.indexOf(item1), is(1));
+
+        assertThat(list.remove(item1), is(true));
+        assertThat(store.getFromNumber(2), is(nullValue()));
+        assertThat(store.getFromId("b"), is(nullValue()));
+
+        list.clear();
+        assertThat(store.isEmpty(), is(true));
+        assertThat(store.getFromNumber(1), is(nullValue()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void listViewRejectsDuplicateNumber() {
+        store.asList().add(new Item(1, "a"));
+        store.asList().add(new Item(1, "b"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void listViewRejectsAddAtIndex() {
+        store.asList().add(0, new Item(1, "a"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void listViewCannotBeSorted() {
+        store.asList().add(new Item(1, "a"));
+        store.asList().add(new Item(2, "b"));
+
+        Collections.sort(store.asList(), (item1, item2) -> item2.number < item1.number ? -1 : 1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnlyListCannotBeModified() {
+        store.asReadOnlyList().add(new Item(1, "a"));
+    }
+
+    /* Primitive long map */
+
+    @Test
+    public void longObjectHashMapMatchesHashMap() {
+        final LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        final Map<Long, Long> expectedMap = new HashMap<>();
+        final Random random = new Random(0);
+
+        for (int i = 0; i < 100000; i++) {
+            final long key = random.nextInt(2000);
+
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertThat(map.put(key, (long) i), is(expectedMap.put(key, (long) i)));
+                    break;
+                case 1:
+                    assertThat(map.remove(key), is(expectedMap.remove(key)));
+                    break;
+                default:
+                    assertThat(map.get(key), is(expectedMap.get(key)));
+            }
+
+            assertThat(map.size(), is(expectedMap.size()));
+        }
+
+        for (Map.Entry<Long, Long> entry : expectedMap.entrySet()) {
+            assertThat(map.get(entry.getKey()), is(entry.getValue()));
+        }
+
+        map.clear();
+        assertThat(map.isEmpty(), is(true));
+        assertThat(map.get(Collections.max(expectedMap.keySet())), is(nullValue()));
+    }
+}
@@ -0,0 +1,145 @@
+package gliphic.android.operation.misc;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+public class TraceTest {
+
+    @Before
+    public void clearTraces() {
+        Trace.clear();
+    }
+
+    @Test
+    public void spansFormATreeUnderTheCurrentSpan() {
+        final Trace.Span trace = Trace.startTrace("action");
+        final Trace.Span previousSpan = Trace.enter(trace);
+
+        final Trace.Span network = Trace.startSpan("network", Trace.CATEGORY_NETWORK);
+        Trace.run(network, () -> Trace.startSpan("json", Trace.CATEGORY_JSON).end());
+        network.end();
+        Trace.startSpan("ui", Trace.CATEGORY_UI).end();
+
+        Trace.exit(previousSpan);
+        trace.end();
+
+        final List<Trace.Span> traces = Trace.getCompletedTraces();
+        final List<Trace.Span> children = traces.get(0).getChildren();
+
+        assertThat(traces.size(), is(1));
+        assertThat(children.size(), is(2));
+        assertThat(children.get(0).getName(), is("network"));
+        assertThat(children.get(0).getChildren().get(0).getCategory(), is(Trace.CATEGORY_JSON));
+        assertThat(children.get(1).getCategory(), is(Trace.CATEGORY_UI));
+        assertThat(traces.get(0).getDuration() >= children.get(0).getDuration(), is(true));
+        assertThat(Trace.getCurrentSpan().isRecording(), is(false));
+    }
+
+    @Test
+    public void spansAreNotRecordedWithoutATrace() {
+        final Trace.Span span = Trace.startSpan("span", Trace.CATEGORY_CRYPTO);
+        span.end();
+
+        assertThat(span.isRecording(), is(false));
+        assertThat(span.getDuration(), is(-1L));
+        assertThat(Trace.getCompletedTraces().isEmpty(), is(true));
+    }
+
+    @Test
+    public void wrappedRunnablesContinueTheTraceOnAnotherThread() throws InterruptedException {
+        final Trace.Span trace = Trace.startTrace("action");
+        final Runnable wrappedRunnable;
+
+        final Trace.Span previousSpan = Trace.enter(trace);
+        try {
+            wrappedRunnable = Trace.wrap(() -> Trace.startSpan("worker", Trace.CATEGORY_CRYPTO).end());
+        }
+        finally {
+            Trace.exit(previousSpan);
+        }
+
+        final Thread thread = new Thread(wrappedRunnable, "trace-test-worker");
+        thread.start();
+        thread.join();
+        trace.end();
+
+        assertThat(trace.getChildren().size(), is(1));
+        assertThat(trace.getChildren().get(0).getName(), is("worker"));
+        assertThat(trace.getChildren().get(0).getDuration() >= 0, is(true));
+    }
+
+    @Test
+    public void endIsIdempotent() {
+        final Trace.Span trace = Trace.startTrace("action");
+        trace.end();
+        final long duration = trace.getDuration();
+        trace.end();
+
+        assertThat(trace.getDuration(), is(duration));
+        assertThat(Trace.getCompletedTraces().size(), is(1));
+    }
+
+    @Test
+    public void onlyTheMostRecentTracesAreKept() {
+        for (int i = 0; i < Trace.MAX_COMPLETED_TRACES + 5; i++) {
+            Trace.startTrace("action " + i).end();
+        }
+
+        final List<Trace.Span> traces = Trace.getCompletedTraces();
+
+        assertThat(traces.size(), is(Trace.MAX_COMPLETED_TRACES));
+        assertThat(traces.get(0).getName(), is("action 5"));
+        assertThat(traces.get(traces.size() - 1).getName(), is("action " + (Trace.MAX_COMPLETED_TRACES + 4)));
+    }
+
+    @Test
+    public void chromeTraceJsonContainsEveryFinishedSpan() {
+        final Trace.Span trace = Trace.startTrace("action");
+        Trace.run(trace, () -> {
+            Trace.startSpan("network", Trace.CATEGORY_NETWORK).end();
+            Trace.startSpan("unfinished", Trace.CATEGORY_UI);
+        });
+        trace.end();
+
+        final JsonArray events = new JsonParser().parse(Trace.getChromeTraceJson())
+                .getAsJsonObject()
+                .getAsJsonArray("traceEvents");
+
+        final Set<String> completeEventNames = new HashSet<>();
+        int metadataEventCount = 0;
+
+        for (int i = 0; i < events.size(); i++) {
+            final JsonObject event = events.get(i).getAsJsonObject();
+
+            if (event.get("ph").getAsString().equals("X")) {
+                completeEventNames.add(event.get("name").getAsString());
+
+                assertThat(event.get("args").getAsJsonObject().get("trace").getAsString(), is("0: action"));
+                assertThat(event.get("dur").getAsLong() >= 0, is(true));
+            }
+            else {
+                metadataEventCount++;
+
+                assertThat(event.get("name").getAsString(), is("thread_name"));
+                assertThat(event.get("args").getAsJsonObject().get("name").getAsString(), is(not("")));
+            }
+        }
+
+        assertThat(completeEventNames.size(), is(2));
+        assertThat(completeEventNames.contains("action"), is(true));
+        assertThat(completeEventNames.contains("network"), is(true));
+        assertThat(metadataEventCount, is(1));
+    }
+}
@@ -0,0 +1,87 @@
+package gliphic.android.operation.server_interaction.http_server;
+
+import com.android.volley.VolleyError;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class AccessTokenManagerTest {
+    private static final long ACCESS_TOKEN_EXPIRY = Long.MAX_VALUE;
+
+    private final List<String> events = new ArrayList<>();
+
+    private AccessTokenManager.RefreshListener createListener(final String name) {
+        return new AccessTokenManager.RefreshListener() {
+            @Override
+            public void onRefreshed(@NonNull String accessToken) {
+                events.add(name + " refreshed " + accessToken);
+            }
+
+            @Override
+            public void onFailed(@Nullable VolleyError error) {
+                events.add(name + " failed");
+            }
+        };
+    }
+
+    @After
+    public void clearAccessTokenManager() {
+        AccessTokenManager.clear();
+    }
+
+    @Test
+    public void listenersShareOneRefresh() {
+        final AccessTokenManager.Refresh refresh = AccessTokenManager.addRefreshListener(createListener("first"));
+
+        assertThat(refresh, is(notNullValue()));
+        assertThat(AccessTokenManager.addRefreshListener(createListener("second")), is(nullValue()));
+
+        AccessTokenManager.onRefreshSuccess(refresh, "access token", ACCESS_TOKEN_EXPIRY);
+
+        assertThat(events, is(Arrays.asList("first refreshed access token", "second refreshed access token")));
+        assertThat(AccessTokenManager.getUsableAccessToken(), is("access token"));
+    }
+
+    @Test
+    public void clearingFailsTheListenersOfAnInProgressRefresh() {
+        final AccessTokenManager.Refresh refresh = AccessTokenManager.addRefreshListener(createListener("first"));
+        AccessTokenManager.addRefreshListener(createListener("second"));
+
+        AccessTokenManager.clear();
+
+        assertThat(events, is(Arrays.asList("first failed", "second failed")));
+        assertThat(AccessTokenManager.isCurrent(refresh), is(false));
+
+        // The response to the abandoned request is ignored.
+        AccessTokenManager.onRefreshSuccess(refresh, "access token", ACCESS_TOKEN_EXPIRY);
+
+        assertThat(events.size(), is(2));
+        assertThat(AccessTokenManager.getUsableAccessToken(), is(nullValue()));
+    }
+
+    @Test
+    public void refreshCanBeStartedAfterClearing() {
+        AccessTokenManager.addRefreshListener(createListener("first"));
+        AccessTokenManager.clear();
+
+        final AccessTokenManager.Refresh refresh = AccessTokenManager.addRefreshListener(createListener("second"));
+
+        assertThat(refresh, is(notNullValue()));
+
+        AccessTokenManager.onRefreshFailure(refresh, null);
+
+        assertThat(events, is(Arrays.asList("first failed", "second failed")));
+    }
+}
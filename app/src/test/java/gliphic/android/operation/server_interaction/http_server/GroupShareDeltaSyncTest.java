@@ -0,0 +1,251 @@
+package gliphic.android.operation.server_interaction.http_server;
+
+import gliphic.android.operation.Alerts;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import libraries.Vars;
+import pojo.account.GroupShare;
+import pojo.group.GroupShareLoadabilityRequest;
+import pojo.group.LoadableGroupSharesResponse;
+import pojo.group.UnloadableGroupSharesResponse;
+import pojo.misc.ContactAndGroupNumberPair;
+import pojo.xmpp.XMPPMessageBody;
+
+import static gliphic.android.operation.server_interaction.http_server.LoadObjectFixtures.createGroupShare;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class GroupShareDeltaSyncTest {
+    private final List<Runnable> scheduledTasks = new ArrayList<>();
+    private final List<String>   events         = new ArrayList<>();
+
+    private LocalLoadServer     server;
+    private String              accessToken;
+    private GroupShareDeltaSync groupShareDeltaSync;
+
+    private static ContactAndGroupNumberPair pair(long contactNumber, long groupNumber) {
+        return new ContactAndGroupNumberPair(contactNumber, groupNumber);
+    }
+
+    private static XMPPMessageBody push(XMPPMessageBody.Subject subject, ContactAndGroupNumberPair... pairs) {
+        return new XMPPMessageBody(subject, Arrays.asList(pairs));
+    }
+
+    private static List<String> getPairs(@NonNull LocalLoadServer.ReceivedRequest receivedRequest) {
+        final List<String> pairs = new ArrayList<>();
+
+        for (ContactAndGroupNumberPair cagnp :
+                ((GroupShareLoadabilityRequest) receivedRequest.requestBody).getContactAndGroupNumberPairs()) {
+
+            pairs.add(cagnp.getContactNumber() + ":" + cagnp.getGroupNumber());
+        }
+
+        return pairs;
+    }
+
+    private static Vars.GroupShareStatus getStatus(@NonNull LocalLoadServer.ReceivedRequest receivedRequest) {
+        return ((GroupShareLoadabilityRequest) receivedRequest.requestBody).getGroupShareStatus();
+    }
+
+    private void runScheduledTasks() {
+        final List<Runnable> tasks = new ArrayList<>(scheduledTasks);
+        scheduledTasks.clear();
+
+        for (Runnable task : tasks) {
+            task.run();
+        }
+    }
+
+    @Before
+    public void createDeltaSync() {
+        Alerts.setNullGroupShares();
+
+        accessToken = "access token";
+
+        // By default every checked group-share is loadable, and no group-share is unloadable.
+        server = new LocalLoadServer()
+                .respondTo(HttpOperations.URI_CHECK_SHARE_LOADABLE, request -> {
+                    final List<GroupShare> groupShares = new ArrayList<>();
+                    for (ContactAndGroupNumberPair cagnp :
+                            ((GroupShareLoadabilityRequest) request).getContactAndGroupNumberPairs()) {
+
+                        groupShares.add(createGroupShare(cagnp.getContactNumber(), cagnp.getGroupNumber()));
+                    }
+                    return new LoadableGroupSharesResponse(groupShares);
+                })
+                .respondTo(
+                        HttpOperations.URI_CHECK_SHARE_UNLOADABLE,
+                        request -> new UnloadableGroupSharesResponse(
+                                ((GroupShareLoadabilityRequest) request).getContactAndGroupNumberPairs()
+                        )
+                );
+
+        groupShareDeltaSync = new GroupShareDeltaSync(
+                server,
+                callback -> callback.onReturn(accessToken),
+                (runnable, delayMillis) -> {
+                    assertThat(delayMillis, is(GroupShareDeltaSync.COALESCING_WINDOW_MILLIS));
+                    scheduledTasks.add(runnable);
+                },
+                new GroupShareDeltaSync.Listener() {
+                    @Override
+                    public void onGroupSharesStored(@NonNull List<GroupShare> storedGroupShares,
+                                                    @NonNull Vars.GroupShareStatus groupShareStatus) {
+
+                        events.add("stored " + storedGroupShares.size() + " " + groupShareStatus);
+                    }
+
+                    @Override
+                    public void onGroupSharesRemoved(@NonNull List<GroupShare> removedGroupShares,
+                                                     @NonNull Vars.GroupShareStatus groupShareStatus) {
+
+                        events.add("removed " + removedGroupShares.size() + " " + groupShareStatus);
+                    }
+
+                    @Override
+                    public void onFullReloadRequired() {
+                        events.add("reload");
+                    }
+                }
+        );
+    }
+
+    @After
+    public void resetAlerts() {
+        Alerts.setNullGroupShares();
+    }
+
+    @Test
+    public void burstIsMergedIntoOneRequestPerCheck() {
+        groupShareDeltaSync.onChangePushed(push(XMPPMessageBody.Subject.GROUP_REQUEST_SUBMITTED, pair(1, 10)));
+        groupShareDeltaSync.onChangePushed(
+                push(XMPPMessageBody.Subject.GROUP_REQUEST_SUBMITTED, pair(2, 10), pair(1, 10))
+        );
+        groupShareDeltaSync.onChangePushed(push(XMPPMessageBody.Subject.GROUP_REQUEST_ACCEPTED, pair(3, 11)));
+
+        assertThat(scheduledTasks.size(), is(1));
+        assertThat(server.getReceivedRequests().isEmpty(), is(true));
+
+        runScheduledTasks();
+
+        final List<LocalLoadServer.ReceivedRequest> receivedRequests = server.getReceivedRequests();
+
+        assertThat(receivedRequests.size(), is(2));
+        assertThat(getStatus(receivedRequests.get(0)), is(Vars.GroupShareStatus.PENDING_RECEIVED));
+        assertThat(getPairs(receivedRequests.get(0)), is(Arrays.asList("1:10", "2:10")));
+        assertThat(getStatus(receivedRequests.get(1)), is(Vars.GroupShareStatus.SUCCESS_SENT));
+        assertThat(getPairs(receivedRequests.get(1)), is(Collections.singletonList("3:11")));
+
+        assertThat(events, is(Arrays.asList("stored 2 PENDING_RECEIVED", "stored 1 SUCCESS_SENT")));
+        assertThat(groupShareDeltaSync.getPendingCheckCount(), is(0));
+    }
+
+    @Test
+    public void onlyTheLatestChangeForEachPairIsChecked() {
+        groupShareDeltaSync.onChangePushed(
+                push(XMPPMessageBody.Subject.GROUP_REQUEST_SUBMITTED, pair(1, 10), pair(2, 10))
+        );
+        groupShareDeltaSync.onChangePushed(push(XMPPMessageBody.Subject.GROUP_REQUEST_DECLINED, pair(1, 10)));
+
+        runScheduledTasks();
+
+        assertThat(
+                server.getReceivedUris(),
+                is(Arrays.asList(HttpOperations.URI_CHECK_SHARE_LOADABLE, HttpOperations.URI_CHECK_SHARE_UNLOADABLE))
+        );
+        assertThat(getPairs(server.getReceivedRequests().get(0)), is(Collections.singletonList("2:10")));
+        assertThat(getPairs(server.getReceivedRequests().get(1)), is(Collections.singletonList("1:10")));
+    }
+
+    @Test
+    public void checkWithoutRemainingPairsIsNotSent() {
+        groupShareDeltaSync.onChangePushed(push(XMPPMessageBody.Subject.GROUP_REQUEST_SUBMITTED, pair(1, 10)));
+        groupShareDeltaSync.onChangePushed(push(XMPPMessageBody.Subject.GROUP_REQUEST_DECLINED, pair(1, 10)));
+
+        runScheduledTasks();
+
+        assertThat(server.getReceivedUris(), is(Collections.singletonList(HttpOperations.URI_CHECK_SHARE_UNLOADABLE)));
+    }
+
+    @Test
+    public void responsesArePatchedIntoTheStaticList() throws Exception {
+        groupShareDeltaSync.onChangePushed(
+                push(XMPPMessageBody.Subject.GROUP_REQUEST_SUBMITTED, pair(1, 10), pair(2, 11))
+        );
+        runScheduledTasks();
+
+        assertThat(Alerts.getGroupShares().size(), is(2));
+
+        groupShareDeltaSync.onChangePushed(push(XMPPMessageBody.Subject.GROUP_REQUEST_DECLINED, pair(1, 10)));
+        runScheduledTasks();
+
+        assertThat(Alerts.getGroupShares().size(), is(1));
+        assertThat(Alerts.getGroupShare(2, 11) == null, is(false));
+        assertThat(events, is(Arrays.asList("stored 2 PENDING_RECEIVED", "removed 1 FAILED_SENT")));
+    }
+
+    @Test
+    public void failedRequestRequiresFullReloadAndLaterResponsesAreIgnored() throws Exception {
+        server.setDeferred(true).respondTo(HttpOperations.URI_CHECK_SHARE_LOADABLE, request -> null);
+
+        Alerts.storeStatically(createGroupShare(1, 10));
+
+        groupShareDeltaSync.onChangePushed(push(XMPPMessageBody.Subject.GROUP_REQUEST_SUBMITTED, pair(2, 10)));
+        groupShareDeltaSync.onChangePushed(push(XMPPMessageBody.Subject.GROUP_REQUEST_DECLINED, pair(1, 10)));
+        runScheduledTasks();
+        server.respondToAll();
+
+        assertThat(events, is(Collections.singletonList("reload")));
+        assertThat(Alerts.getGroupShares().size(), is(1));
+    }
+
+    @Test
+    public void missingAccessTokenRequiresFullReload() {
+        accessToken = null;
+
+        groupShareDeltaSync.onChangePushed(push(XMPPMessageBody.Subject.GROUP_REQUEST_FAILED, pair(1, 10)));
+        runScheduledTasks();
+
+        assertThat(server.getReceivedRequests().isEmpty(), is(true));
+        assertThat(events, is(Collections.singletonList("reload")));
+    }
+
+    @Test
+    public void changesPushedWhilePausedAreSentWhenResumed() {
+        groupShareDeltaSync.onChangePushed(push(XMPPMessageBody.Subject.GROUP_REQUEST_SUBMITTED, pair(1, 10)));
+        groupShareDeltaSync.pause();
+
+        // The flush scheduled before pausing keeps the pending change.
+        runScheduledTasks();
+        assertThat(server.getReceivedRequests().isEmpty(), is(true));
+
+        groupShareDeltaSync.onChangePushed(push(XMPPMessageBody.Subject.GROUP_REQUEST_SUBMITTED, pair(2, 10)));
+        assertThat(scheduledTasks.isEmpty(), is(true));
+
+        // Resuming is not a gap, so the buffered changes are sent instead of reloading every group-share.
+        groupShareDeltaSync.resume();
+        runScheduledTasks();
+
+        assertThat(server.getReceivedRequests().size(), is(1));
+        assertThat(getPairs(server.getReceivedRequests().get(0)), is(Arrays.asList("1:10", "2:10")));
+        assertThat(events, is(Collections.singletonList("stored 2 PENDING_RECEIVED")));
+    }
+
+    @Test
+    public void resumingWithoutPendingChangesSendsNothing() {
+        groupShareDeltaSync.pause();
+        groupShareDeltaSync.resume();
+
+        assertThat(scheduledTasks.isEmpty(), is(true));
+        assertThat(events.isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,225 @@
+package gliphic.android.operation.server_interaction.http_server;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.TimeoutError;
+import com.android.volley.VolleyError;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import gliphic.android.operation.misc.Trace;
+import libraries.GeneralUtils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+public class HttpMetricsTest {
+    private static final String URI  = "/load/target-contacts";
+    private static final String URI2 = "/text/decrypt";
+
+    private static long millis(long milliseconds) {
+        return TimeUnit.MILLISECONDS.toNanos(milliseconds);
+    }
+
+    private static HttpMetrics.EndpointMetrics getEndpointMetrics(String uri) {
+        for (HttpMetrics.EndpointMetrics metrics : HttpMetrics.getSnapshot().getEndpoints()) {
+            if (metrics.getUri().equals(uri)) {
+                return metrics;
+            }
+        }
+
+        return null;
+    }
+
+    @Before
+    public void resetMetrics() {
+        HttpMetrics.reset();
+    }
+
+    @Test
+    public void responsesAreRecordedInLatencyBuckets() {
+        HttpMetrics.recordResponse(URI, millis(5), 10);
+        HttpMetrics.recordResponse(URI, millis(10), 20);
+        HttpMetrics.recordResponse(URI, millis(11), 30);
+        HttpMetrics.recordResponse(URI, millis(20000), 40);
+
+        final HttpMetrics.EndpointMetrics metrics = getEndpointMetrics(URI);
+        final long[] expectedBucketCounts = new long[HttpMetrics.LATENCY_BUCKET_BOUNDS_MS.length + 1];
+        expectedBucketCounts[0] = 2;
+        expectedBucketCounts[1] = 1;
+        expectedBucketCounts[HttpMetrics.LATENCY_BUCKET_BOUNDS_MS.length] = 1;
+
+        assertThat(metrics.getResponseCount(), is(4L));
+        assertThat(metrics.getErrorResponseCount(), is(0L));
+        assertThat(metrics.getLatencyBucketCounts(), is(expectedBucketCounts));
+        assertThat(metrics.getTotalLatencyMs(), is(20026L));
+        assertThat(metrics.getMaxLatencyMs(), is(20000L));
+        assertThat(metrics.getResponseChars(), is(100L));
+    }
+
+    @Test
+    public void percentilesAreBucketUpperBounds() {
+        for (int i = 0; i < 90; i++) {
+            HttpMetrics.recordResponse(URI, millis(30), 0);
+        }
+        for (int i = 0; i < 10; i++) {
+            HttpMetrics.recordResponse(URI, millis(700), 0);
+        }
+
+        final HttpMetrics.EndpointMetrics metrics = getEndpointMetrics(URI);
+
+        assertThat(metrics.getP50LatencyMs(), is(50L));
+        assertThat(metrics.getP95LatencyMs(), is(700L));
+    }
+
+    @Test
+    public void percentilesInTheFinalBucketAreTheMaximumLatency() {
+        HttpMetrics.recordResponse(URI, millis(12345), 0);
+
+        final HttpMetrics.EndpointMetrics metrics = getEndpointMetrics(URI);
+
+        assertThat(metrics.getP50LatencyMs(), is(12345L));
+        assertThat(metrics.getP95LatencyMs(), is(12345L));
+    }
+
+    @Test
+    public void errorCodesAreCountedByStatusCodeOrErrorClass() {
+        final HttpMetrics.Call call1 = HttpMetrics.start(URI);
+        final HttpMetrics.Call call2 = HttpMetrics.start(URI);
+        final HttpMetrics.Call call3 = HttpMetrics.start(URI);
+        final List<VolleyError> errors = new ArrayList<>();
+
+        final VolleyError notFoundError = new VolleyError(
+                new NetworkResponse(404, new byte[0], Collections.emptyMap(), false)
+        );
+
+        call1.onErrorResponse(errors::add).onErrorResponse(notFoundError);
+        call2.onErrorResponse(errors::add).onErrorResponse(notFoundError);
+        call3.onErrorResponse(errors::add).onErrorResponse(new TimeoutError());
+
+        final HttpMetrics.EndpointMetrics metrics = getEndpointMetrics(URI);
+
+        assertThat(errors.size(), is(3));
+        assertThat(metrics.getRequestCount(), is(3L));
+        assertThat(metrics.getErrorResponseCount(), is(3L));
+        assertThat(metrics.getErrorCodes().get("404"), is(2L));
+        assertThat(metrics.getErrorCodes().get("TimeoutError"), is(1L));
+    }
+
+    @Test
+    public void callRecordsRequestAndResponse() {
+        final HttpMetrics.Call call = HttpMetrics.start(URI);
+        final List<String> responses = new ArrayList<>();
+
+        assertThat(call.requestBody("access token"), is("access token"));
+        call.onResponse(responses::add).onResponse("response");
+
+        final HttpMetrics.EndpointMetrics metrics = getEndpointMetrics(URI);
+
+        assertThat(responses.size(), is(1));
+        assertThat(responses.get(0), is("response"));
+        assertThat(metrics.getRequestCount(), is(1L));
+        assertThat(metrics.getResponseCount(), is(1L));
+        assertThat(metrics.getRequestChars(), is(12L));
+        assertThat(metrics.getResponseChars(), is(8L));
+    }
+
+    @Test
+    public void callRecordsANetworkSpanAndRunsListenersWithTheCallersSpan() {
+        final Trace.Span trace = Trace.startTrace("action");
+        final List<Trace.Span> listenerSpans = new ArrayList<>();
+
+        final HttpMetrics.Call call;
+        final Trace.Span previousSpan = Trace.enter(trace);
+        try {
+            call = HttpMetrics.start(URI);
+        }
+        finally {
+            Trace.exit(previousSpan);
+        }
+
+        // The response is received on a thread without a current span.
+        call.onResponse(response -> listenerSpans.add(Trace.getCurrentSpan())).onResponse("response");
+        trace.end();
+
+        assertThat(listenerSpans.get(0), is(trace));
+        assertThat(trace.getChildren().size(), is(1));
+        assertThat(trace.getChildren().get(0).getName(), is("POST " + URI));
+        assertThat(trace.getChildren().get(0).getCategory(), is(Trace.CATEGORY_NETWORK));
+        assertThat(trace.getChildren().get(0).getDuration() >= 0, is(true));
+        assertThat(Trace.getCurrentSpan().isRecording(), is(false));
+    }
+
+    @Test
+    public void queueWaitIsRecordedForCoalescedCallers() {
+        final RequestCoalescer<String> requestCoalescer = new RequestCoalescer<>();
+        final List<Object> key = RequestCoalescer.createKey(URI, 0);
+
+        requestCoalescer.join(key, result -> {});
+        requestCoalescer.join(key, result -> {});
+        requestCoalescer.join(key, result -> {});
+        requestCoalescer.complete(key, "result");
+
+        // Only the callers attached to the in-progress request wait for it.
+        assertThat(getEndpointMetrics(URI).getQueueWaitCount(), is(2L));
+    }
+
+    @Test
+    public void snapshotIsOrderedByTotalLatency() {
+        HttpMetrics.recordResponse(URI, millis(100), 0);
+        HttpMetrics.recordResponse(URI2, millis(60), 0);
+        HttpMetrics.recordResponse(URI2, millis(60), 0);
+
+        final List<HttpMetrics.EndpointMetrics> endpoints = HttpMetrics.getSnapshot().getEndpoints();
+
+        assertThat(endpoints.size(), is(2));
+        assertThat(endpoints.get(0).getUri(), is(URI2));
+        assertThat(endpoints.get(1).getUri(), is(URI));
+    }
+
+    @Test
+    public void snapshotIsACopy() {
+        HttpMetrics.recordResponse(URI, millis(100), 0);
+
+        final HttpMetrics.Snapshot snapshot = HttpMetrics.getSnapshot();
+
+        HttpMetrics.recordResponse(URI, millis(100), 0);
+
+        assertThat(snapshot.getEndpoints().get(0).getResponseCount(), is(1L));
+        assertThat(getEndpointMetrics(URI).getResponseCount(), is(2L));
+    }
+
+    @Test
+    public void snapshotJsonRoundTrip() {
+        HttpMetrics.recordResponse(URI, millis(100), 10);
+        HttpMetrics.recordErrorResponse(URI, millis(200), "500");
+
+        final HttpMetrics.Snapshot snapshot = GeneralUtils.fromJson(
+                HttpMetrics.getSnapshotJson(),
+                HttpMetrics.Snapshot.class
+        );
+        final HttpMetrics.EndpointMetrics metrics = snapshot.getEndpoints().get(0);
+
+        assertThat(snapshot.getLatencyBucketBoundsMs(), is(HttpMetrics.LATENCY_BUCKET_BOUNDS_MS));
+        assertThat(metrics.getUri(), is(URI));
+        assertThat(metrics.getResponseCount(), is(1L));
+        assertThat(metrics.getErrorResponseCount(), is(1L));
+        assertThat(metrics.getErrorCodes().get("500"), is(1L));
+        assertThat(metrics.getTotalLatencyMs(), is(300L));
+    }
+
+    @Test
+    public void resetDiscardsEveryMetric() {
+        HttpMetrics.start(URI);
+        HttpMetrics.reset();
+
+        assertThat(HttpMetrics.getSnapshot(), is(notNullValue()));
+        assertThat(HttpMetrics.getSnapshot().getEndpoints().isEmpty(), is(true));
+    }
+}
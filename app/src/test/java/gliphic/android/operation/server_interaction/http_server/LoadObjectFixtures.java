@@ -0,0 +1,82 @@
+package gliphic.android.operation.server_interaction.http_server;
+
+import libraries.Vars;
+import pojo.account.GroupShare;
+import pojo.load.LoadContactObject;
+import pojo.load.LoadGroupObject;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Load objects shared by the tests which load, store or parse contacts and groups.
+ */
+class LoadObjectFixtures {
+
+    static LoadContactObject createContact(long number, long... groupNumbers) {
+        return createContact(number, Vars.ContactType.KNOWN, groupNumbers);
+    }
+
+    static LoadContactObject createContact(long number, Vars.ContactType contactType, long... groupNumbers) {
+        // The name is not ASCII so that every stored or parsed name is checked with a multi-byte character.
+        return new LoadContactObject(
+                groupNumbers,
+                number,
+                "Contact ID " + number,
+                "Contact é " + number,
+                null,
+                contactType
+        );
+    }
+
+    static LoadGroupObject createGroup(long number, long... knownContactNumbers) {
+        return new LoadGroupObject(
+                knownContactNumbers,
+                null,
+                number,
+                "Group ID " + number,
+                "Group " + number,
+                "aW1hZ2U=",
+                "Description " + number,
+                "Encrypted key",
+                "IV",
+                3,
+                true,
+                false
+        );
+    }
+
+    static GroupShare createGroupShare(long contactNumber, long groupNumber) {
+        return new GroupShare(
+                Vars.GroupShareStatus.PENDING_RECEIVED,
+                1000 + contactNumber,
+                createGroup(groupNumber),
+                createContact(contactNumber),
+                null
+        );
+    }
+
+    static void assertContactsEqual(LoadContactObject actual, LoadContactObject expected) {
+        assertThat(actual.getGroupNumbers(), is(expected.getGroupNumbers()));
+        assertThat(actual.getNumber(), is(expected.getNumber()));
+        assertThat(actual.getId(), is(expected.getId()));
+        assertThat(actual.getName(), is(expected.getName()));
+        assertThat(actual.getImageString(), is(expected.getImageString()));
+        assertThat(actual.getType(), is(expected.getType()));
+    }
+
+    static void assertGroupsEqual(LoadGroupObject actual, LoadGroupObject expected) {
+        assertThat(actual.getKnownContactNumbers(), is(expected.getKnownContactNumbers()));
+        assertThat(actual.getExtendedContactNumbers(), is(expected.getExtendedContactNumbers()));
+        assertThat(actual.getNumber(), is(expected.getNumber()));
+        assertThat(actual.getIdBase64(), is(expected.getIdBase64()));
+        assertThat(actual.getName(), is(expected.getName()));
+        assertThat(actual.getImageString(), is(expected.getImageString()));
+        assertThat(actual.getDescription(), is(expected.getDescription()));
+        assertThat(actual.getEncryptedKeyString(), is(expected.getEncryptedKeyString()));
+        assertThat(actual.getIvString(), is(expected.getIvString()));
+        assertThat(actual.getPermissions(), is(expected.getPermissions()));
+        assertThat(actual.isOpen(), is(expected.isOpen()));
+        assertThat(actual.isSelected(), is(expected.isSelected()));
+    }
+}
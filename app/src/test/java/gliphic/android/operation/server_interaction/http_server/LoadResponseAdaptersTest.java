@@ -0,0 +1,116 @@
+package gliphic.android.operation.server_interaction.http_server;
+
+import com.google.gson.JsonParseException;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import libraries.GeneralUtils;
+import libraries.Vars.ContactType;
+import pojo.load.LoadChosenGroupsResponse;
+import pojo.load.LoadContactObject;
+import pojo.load.LoadContactsResponse;
+import pojo.load.LoadGroupObject;
+import pojo.load.LoadGroupsResponse;
+
+import static gliphic.android.operation.server_interaction.http_server.LoadObjectFixtures.assertContactsEqual;
+import static gliphic.android.operation.server_interaction.http_server.LoadObjectFixtures.assertGroupsEqual;
+import static gliphic.android.operation.server_interaction.http_server.LoadObjectFixtures.createContact;
+import static gliphic.android.operation.server_interaction.http_server.LoadObjectFixtures.createGroup;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class LoadResponseAdaptersTest {
+    @Test
+    public void contactsResponseIsReadTheSameAsReflectively() {
+        final String response = GeneralUtils.toJson(new LoadContactsResponse(
+                Arrays.asList(createContact(1, ContactType.KNOWN, 10, 11), createContact(2, ContactType.KNOWN, 10)),
+                Collections.singletonList(createContact(3, ContactType.EXTENDED, 11)),
+                true
+        ));
+
+        final LoadContactsResponse expected = GeneralUtils.fromJson(response, LoadContactsResponse.class);
+        final LoadContactsResponse actual   = LoadResponseAdapters.fromJson(response, LoadContactsResponse.class);
+
+        assertThat(actual.getKnownContacts().size(), is(2));
+        assertThat(actual.getExtendedContacts().size(), is(1));
+        assertThat(actual.isAllContactsLoaded(), is(true));
+
+        for (int i = 0; i < 2; i++) {
+            assertContactsEqual(actual.getKnownContacts().get(i), expected.getKnownContacts().get(i));
+        }
+        assertContactsEqual(actual.getExtendedContacts().get(0), expected.getExtendedContacts().get(0));
+    }
+
+    @Test
+    public void groupsResponseIsReadTheSameAsReflectively() {
+        final String response = GeneralUtils.toJson(new LoadGroupsResponse(
+                Arrays.asList(createGroup(1, 1, 2), createGroup(2, 1, 3)),
+                false
+        ));
+
+        final LoadGroupsResponse expected = GeneralUtils.fromJson(response, LoadGroupsResponse.class);
+        final LoadGroupsResponse actual   = LoadResponseAdapters.fromJson(response, LoadGroupsResponse.class);
+
+        assertThat(actual.getGroups().size(), is(2));
+        assertThat(actual.isAllGroupsLoaded(), is(false));
+
+        for (int i = 0; i < 2; i++) {
+            assertGroupsEqual(actual.getGroups().get(i), expected.getGroups().get(i));
+        }
+    }
+
+    @Test
+    public void writtenJsonIsReadTheSameReflectively() {
+        final LoadChosenGroupsResponse response =
+                new LoadChosenGroupsResponse(Collections.singletonList(createGroup(1, 1, 2)));
+
+        final LoadChosenGroupsResponse readResponse = GeneralUtils.fromJson(
+                LoadResponseAdapters.toJson(response),
+                LoadChosenGroupsResponse.class
+        );
+
+        assertGroupsEqual(readResponse.getGroups().get(0), response.getGroups().get(0));
+    }
+
+    @Test
+    public void nullAndUnknownFieldsAreSkipped() {
+        final String response = "{\"unknown\":{\"nested\":[1,{\"a\":null}]},\"knownContacts\":[{" +
+                "\"groupNumbers\":null,\"number\":4,\"id\":null,\"extra\":\"value\",\"type\":\"NOT_A_TYPE\"}]," +
+                "\"extendedContacts\":null,\"allContactsLoaded\":true}";
+
+        final LoadContactsResponse lcr = LoadResponseAdapters.fromJson(response, LoadContactsResponse.class);
+        final LoadContactObject    lco = lcr.getKnownContacts().get(0);
+
+        assertThat(lcr.getExtendedContacts(), is(nullValue()));
+        assertThat(lcr.isAllContactsLoaded(), is(true));
+        assertThat(lco.getGroupNumbers(), is(nullValue()));
+        assertThat(lco.getNumber(), is(4L));
+        assertThat(lco.getId(), is(nullValue()));
+        assertThat(lco.getType(), is(nullValue()));
+    }
+
+    @Test
+    public void malformedResponsesThrowAnException() {
+        for (String response : Arrays.asList("{\"groups\":[", "{\"groups\":{}}", "[]")) {
+            try {
+                LoadResponseAdapters.fromJson(response, LoadGroupsResponse.class);
+                fail(response);
+            }
+            catch (JsonParseException e) {
+                // Expected.
+            }
+        }
+    }
+
+    @Test
+    public void onlyTheLoadResponsesAreAdapted() {
+        assertThat(LoadResponseAdapters.isAdapted(LoadContactsResponse.class), is(true));
+        assertThat(LoadResponseAdapters.isAdapted(LoadGroupObject.class), is(true));
+        assertThat(LoadResponseAdapters.isAdapted(Long.class), is(false));
+    }
+}
@@ -0,0 +1,105 @@
+package gliphic.android.operation.server_interaction.http_server;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import libraries.GeneralUtils;
+
+/**
+ * A local stand-in for the server which answers load requests without a network connection.
+ *
+ * Each URI is answered by a handler which is given the request body and returns the response object (serialized to
+ * JSON) or null to simulate a failed request. Requests to a URI without a handler fail.
+ *
+ * When deferred, responses are only sent when {@link #respondToAll()} is called, allowing tests to check which
+ * requests were sent before any response was received.
+ */
+public class LocalLoadServer implements LoadBatch.Transport {
+
+    public interface Handler {
+        Object respond(Object requestBody);
+    }
+
+    public static class ReceivedRequest {
+        public final String uri;
+        public final Object requestBody;
+
+        private ReceivedRequest(String uri, Object requestBody) {
+            this.uri         = uri;
+            this.requestBody = requestBody;
+        }
+    }
+
+    private final Map<String, Handler> handlers = new HashMap<>();
+    private final List<ReceivedRequest> receivedRequests = new ArrayList<>();
+    private final List<Runnable> pendingResponses = new ArrayList<>();
+    private boolean isDeferred = false;
+
+    public LocalLoadServer respondTo(String uri, Handler handler) {
+        handlers.put(uri, handler);
+        return this;
+    }
+
+    public LocalLoadServer setDeferred(boolean isDeferred) {
+        this.isDeferred = isDeferred;
+        return this;
+    }
+
+    public List<ReceivedRequest> getReceivedRequests() {
+        return receivedRequests;
+    }
+
+    public List<String> getReceivedUris() {
+        final List<String> uris = new ArrayList<>();
+        for (ReceivedRequest receivedRequest : receivedRequests) {
+            uris.add(receivedRequest.uri);
+        }
+
+        return uris;
+    }
+
+    public ReceivedRequest getReceivedRequest(String uri) {
+        for (ReceivedRequest receivedRequest : receivedRequests) {
+            if (receivedRequest.uri.equals(uri)) {
+                return receivedRequest;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Send every deferred response, including responses to any requests sent while responding.
+     */
+    public void respondToAll() {
+        while (!pendingResponses.isEmpty()) {
+            final List<Runnable> responses = new ArrayList<>(pendingResponses);
+            pendingResponses.clear();
+
+            for (Runnable response : responses) {
+                response.run();
+            }
+        }
+    }
+
+    @Override
+    public void post(String uri, Object requestBody, LoadBatch.ResponseCallback callback) {
+        receivedRequests.add(new ReceivedRequest(uri, requestBody));
+
+        final Runnable response = () -> {
+            final Handler handler = handlers.get(uri);
+            final Object responseObject = handler == null ? null : handler.respond(requestBody);
+
+            callback.onResponse(responseObject == null ? null : GeneralUtils.toJson(responseObject));
+        };
+
+        if (isDeferred) {
+            pendingResponses.add(response);
+        }
+        else {
+            response.run();
+        }
+    }
+}
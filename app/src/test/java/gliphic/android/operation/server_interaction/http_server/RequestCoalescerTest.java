@@ -0,0 +1,100 @@
+package gliphic.android.operation.server_interaction.http_server;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class RequestCoalescerTest {
+    private static final String ENDPOINT  = "/load/target-contacts";
+    private static final String ENDPOINT2 = "/load/known-groups";
+
+    private final RequestCoalescer<String> requestCoalescer = new RequestCoalescer<>();
+
+    @Test
+    public void keysWithEqualArgumentsAreEqual() {
+        assertThat(
+                RequestCoalescer.createKey(ENDPOINT, 0, true, null, "search"),
+                is(RequestCoalescer.createKey(ENDPOINT, 0, true, null, "search"))
+        );
+        assertThat(
+                RequestCoalescer.createKey(ENDPOINT, 0, true, null, "search").hashCode(),
+                is(RequestCoalescer.createKey(ENDPOINT, 0, true, null, "search").hashCode())
+        );
+    }
+
+    @Test
+    public void keysWithDifferentArgumentsAreNotEqual() {
+        final List<Object> key = RequestCoalescer.createKey(ENDPOINT, 0, true, null);
+
+        assertThat(key, is(not(RequestCoalescer.createKey(ENDPOINT2, 0, true, null))));
+        assertThat(key, is(not(RequestCoalescer.createKey(ENDPOINT, 10, true, null))));
+        assertThat(key, is(not(RequestCoalescer.createKey(ENDPOINT, 0, false, null))));
+        assertThat(key, is(not(RequestCoalescer.createKey(ENDPOINT, 0, true, 1L))));
+    }
+
+    @Test
+    public void laterCallersShareTheInProgressResult() {
+        final List<Object> key = RequestCoalescer.createKey(ENDPOINT, 0);
+        final List<String> results = new ArrayList<>();
+
+        assertThat(requestCoalescer.join(key, result -> results.add("first " + result)), is(true));
+        assertThat(requestCoalescer.join(key, result -> results.add("second " + result)), is(false));
+        assertThat(requestCoalescer.join(key, result -> results.add("third " + result)), is(false));
+        assertThat(results.isEmpty(), is(true));
+
+        requestCoalescer.complete(key, "result");
+
+        assertThat(results, is(Arrays.asList("first result", "second result", "third result")));
+        assertThat(requestCoalescer.getInProgressRequestCount(), is(0));
+    }
+
+    @Test
+    public void differentKeysAreRequestedSeparately() {
+        final List<Object> key1 = RequestCoalescer.createKey(ENDPOINT, 0);
+        final List<Object> key2 = RequestCoalescer.createKey(ENDPOINT, 20);
+        final String[] results = new String[2];
+
+        assertThat(requestCoalescer.join(key1, result -> results[0] = result), is(true));
+        assertThat(requestCoalescer.join(key2, result -> results[1] = result), is(true));
+        assertThat(requestCoalescer.getInProgressRequestCount(), is(2));
+
+        requestCoalescer.complete(key2, "result 2");
+
+        assertThat(results[0], is(nullValue()));
+        assertThat(results[1], is("result 2"));
+        assertThat(requestCoalescer.getInProgressRequestCount(), is(1));
+    }
+
+    @Test
+    public void failedResultIsSharedAndKeyCanBeRequestedAgain() {
+        final List<Object> key = RequestCoalescer.createKey(ENDPOINT, 0);
+        final String[] results = {"not set", "not set"};
+
+        requestCoalescer.join(key, result -> results[0] = result);
+        requestCoalescer.join(key, result -> results[1] = result);
+        requestCoalescer.complete(key, null);
+
+        assertThat(results[0], is(nullValue()));
+        assertThat(results[1], is(nullValue()));
+        assertThat(requestCoalescer.join(key, result -> {}), is(true));
+    }
+
+    @Test
+    public void callbackCanStartANewRequestForTheSameKey() {
+        final List<Object> key = RequestCoalescer.createKey(ENDPOINT, 0);
+        final boolean[] isNewRequest = {false};
+
+        requestCoalescer.join(key, result -> isNewRequest[0] = requestCoalescer.join(key, result1 -> {}));
+        requestCoalescer.complete(key, "result");
+
+        assertThat(isNewRequest[0], is(true));
+        assertThat(requestCoalescer.getInProgressRequestCount(), is(1));
+    }
+}
@@ -0,0 +1,117 @@
+package gliphic.android.operation.server_interaction.http_server;
+
+import com.google.gson.JsonParseException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ResponseParserTest {
+    private static final String RESPONSE = "{\"number\":3,\"name\":\"contact\"}";
+
+    private ExecutorService executor;
+
+    private static class ParsedResponse {
+        private long   number;
+        private String name;
+    }
+
+    private static HttpMetrics.ParseMetrics getParseMetrics(String responseType) {
+        for (HttpMetrics.ParseMetrics metrics : HttpMetrics.getSnapshot().getResponseTypes()) {
+            if (metrics.getResponseType().equals(responseType)) {
+                return metrics;
+            }
+        }
+
+        return null;
+    }
+
+    @Before
+    public void setUp() {
+        HttpMetrics.reset();
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void parseRecordsTheParseTimePerResponseType() {
+        final ParsedResponse parsedResponse = ResponseParser.parse(RESPONSE, ParsedResponse.class);
+        ResponseParser.parse(RESPONSE, ParsedResponse.class);
+        ResponseParser.parse("3", Long.class);
+
+        final HttpMetrics.ParseMetrics metrics = getParseMetrics("ParsedResponse");
+
+        assertThat(parsedResponse.number, is(3L));
+        assertThat(parsedResponse.name, is("contact"));
+        assertThat(metrics.getParseCount(), is(2L));
+        assertThat(metrics.getFailedParseCount(), is(0L));
+        assertThat(metrics.getParsedChars(), is(2L * RESPONSE.length()));
+        assertThat(metrics.getTotalParseMicros() >= metrics.getMaxParseMicros(), is(true));
+        assertThat(getParseMetrics("Long").getParseCount(), is(1L));
+        assertThat(HttpMetrics.getSnapshot().getResponseTypes().size(), is(2));
+    }
+
+    @Test
+    public void malformedResponsesAreRecordedAsFailures() {
+        try {
+            ResponseParser.parse("{\"number\":", ParsedResponse.class);
+            fail();
+        }
+        catch (JsonParseException e) {
+            // Expected.
+        }
+
+        assertThat(getParseMetrics("ParsedResponse").getFailedParseCount(), is(1L));
+    }
+
+    @Test
+    public void parseAsyncParsesOnTheGivenExecutor() {
+        final List<Runnable> queuedParses = new ArrayList<>();
+        final AtomicReference<ParsedResponse> parsedResponse = new AtomicReference<>();
+
+        ResponseParser.parseAsync(RESPONSE, ParsedResponse.class, queuedParses::add)
+                .whenComplete((result, error) -> parsedResponse.set(result));
+
+        assertThat(queuedParses.size(), is(1));
+        assertThat(parsedResponse.get(), is(nullValue()));
+        assertThat(getParseMetrics("ParsedResponse"), is(nullValue()));
+
+        queuedParses.get(0).run();
+
+        assertThat(parsedResponse.get().name, is("contact"));
+        assertThat(getParseMetrics("ParsedResponse").getParseCount(), is(1L));
+    }
+
+    @Test
+    public void parseAsyncFailsForAMalformedResponse() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Throwable> parseError = new AtomicReference<>();
+
+        ResponseParser.parseAsync("[", ParsedResponse.class, executor).whenComplete((result, error) -> {
+            assertThat(result, is(nullValue()));
+            parseError.set(error);
+            latch.countDown();
+        });
+
+        assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(parseError.get(), instanceOf(JsonParseException.class));
+    }
+}
@@ -0,0 +1,203 @@
+package gliphic.android.operation.server_interaction.http_server;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ServerFutureTest {
+    private ExecutorService executor;
+
+    /**
+     * Records the outcome of a future.
+     */
+    private static class Outcome<T> implements ServerFuture.Callback<T> {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private T         result;
+        private Throwable error;
+
+        @Override
+        public void onComplete(T result, Throwable error) {
+            this.result = result;
+            this.error  = error;
+            latch.countDown();
+        }
+
+        private Outcome<T> await() throws InterruptedException {
+            assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+            return this;
+        }
+    }
+
+    private static <T> Outcome<T> outcomeOf(ServerFuture<T> future) {
+        final Outcome<T> outcome = new Outcome<>();
+        future.whenComplete(outcome);
+        return outcome;
+    }
+
+    @Before
+    public void createExecutor() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void stagesRunInOrder() throws InterruptedException {
+        final ServerFuture<String> request = new ServerFuture<>();
+        final ServerFuture<String> secondRequest = new ServerFuture<>();
+        final List<String> secondRequestBodies = new ArrayList<>();
+
+        final Outcome<Integer> outcome = outcomeOf(request
+                .thenApplyAsync(Integer::parseInt, executor)
+                .thenCompose(number -> {
+                    if (number == 0) {
+                        return ServerFuture.completed("0");
+                    }
+
+                    secondRequestBodies.add(String.valueOf(number));
+                    return secondRequest;
+                })
+                .thenApply(String::length));
+
+        request.complete("12");
+        Thread.sleep(50);
+        assertThat(outcome.latch.getCount(), is(1L));
+
+        secondRequest.complete("response");
+
+        assertThat(outcome.await().result, is(8));
+        assertThat(outcome.error, is(nullValue()));
+        assertThat(secondRequestBodies, is(Arrays.asList("12")));
+    }
+
+    @Test
+    public void failureSkipsLaterStages() throws InterruptedException {
+        final ServerFuture<String> request = new ServerFuture<>();
+        final List<String> stages = new ArrayList<>();
+
+        final Outcome<String> outcome = outcomeOf(request
+                .thenApplyAsync(response -> {
+                    stages.add("parse");
+                    return response;
+                }, executor)
+                .thenCompose(response -> {
+                    stages.add("second request");
+                    return ServerFuture.completed(response);
+                }));
+
+        final Exception error = new Exception("error response");
+        request.fail(error);
+
+        assertThat(outcome.await().error, is(error));
+        assertThat(stages.isEmpty(), is(true));
+    }
+
+    @Test
+    public void exceptionInStageFailsTheFuture() throws InterruptedException {
+        final Outcome<Integer> outcome = outcomeOf(
+                ServerFuture.completed("not a number").thenApplyAsync(Integer::parseInt, executor)
+        );
+
+        assertThat(outcome.await().error, instanceOf(NumberFormatException.class));
+    }
+
+    @Test
+    public void cancellingTheFinalStageCancelsThePipeline() {
+        final ServerFuture<String> request = new ServerFuture<>();
+        final List<String> stages = new ArrayList<>();
+
+        final ServerFuture<String> pipeline = request.thenCompose(response -> {
+            stages.add("second request");
+            return ServerFuture.completed(response);
+        });
+        final Outcome<String> outcome = outcomeOf(pipeline);
+
+        assertThat(pipeline.cancel(), is(true));
+        request.complete("response");
+
+        assertThat(request.isCancelled(), is(true));
+        assertThat(outcome.error, instanceOf(CancellationException.class));
+        assertThat(stages.isEmpty(), is(true));
+        assertThat(pipeline.cancel(), is(false));
+    }
+
+    @Test
+    public void cancellingAComposedStageCancelsTheInProgressRequest() {
+        final ServerFuture<String> secondRequest = new ServerFuture<>();
+        final ServerFuture<String> pipeline = ServerFuture.completed("response").thenCompose(response -> secondRequest);
+
+        pipeline.cancel();
+
+        assertThat(secondRequest.isCancelled(), is(true));
+    }
+
+    @Test
+    public void timeoutFailsAndCancelsThePendingStage() throws InterruptedException {
+        final ServerFuture<String> request = new ServerFuture<>();
+
+        final Outcome<String> outcome = outcomeOf(request.withTimeout(10, TimeUnit.MILLISECONDS));
+
+        assertThat(outcome.await().error, instanceOf(TimeoutException.class));
+        assertThat(request.isCancelled(), is(true));
+    }
+
+    @Test
+    public void timeoutDoesNotAffectACompletedFuture() throws InterruptedException {
+        final ServerFuture<String> request = new ServerFuture<>();
+
+        final Outcome<String> outcome = outcomeOf(request.withTimeout(50, TimeUnit.MILLISECONDS));
+        request.complete("response");
+        Thread.sleep(100);
+
+        assertThat(outcome.await().result, is("response"));
+        assertThat(outcome.error, is(nullValue()));
+    }
+
+    @Test
+    public void callbacksCanRunOnAGivenExecutor() throws InterruptedException {
+        final AtomicReference<Thread> callbackThread = new AtomicReference<>();
+        final Outcome<String> outcome = new Outcome<>();
+
+        ServerFuture.completed("response").whenComplete(
+                (result, error) -> {
+                    callbackThread.set(Thread.currentThread());
+                    outcome.onComplete(result, error);
+                },
+                executor
+        );
+
+        assertThat(outcome.await().result, is("response"));
+        assertThat(callbackThread.get(), is(not(Thread.currentThread())));
+    }
+
+    @Test
+    public void completingTwiceHasNoEffect() {
+        final ServerFuture<String> future = new ServerFuture<>();
+
+        assertThat(future.complete("first"), is(true));
+        assertThat(future.complete("second"), is(false));
+        assertThat(future.fail(new Exception()), is(false));
+        assertThat(future.cancel(), is(false));
+        assertThat(outcomeOf(future).result, is("first"));
+    }
+}
@@ -0,0 +1,290 @@
+package gliphic.android.operation.server_interaction.http_server;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import libraries.GeneralUtils;
+import pojo.load.LoadChosenContactsRequest;
+import pojo.load.LoadChosenContactsResponse;
+import pojo.load.LoadChosenGroupsRequest;
+import pojo.load.LoadChosenGroupsResponse;
+import pojo.load.LoadContactObject;
+import pojo.load.LoadContactsRequest;
+import pojo.load.LoadContactsResponse;
+import pojo.load.LoadGroupObject;
+import pojo.load.LoadGroupSharesResponse;
+import pojo.load.LoadGroupsRequest;
+import pojo.load.LoadGroupsResponse;
+import pojo.misc.ContactAndGroupNumberPair;
+
+import static gliphic.android.operation.server_interaction.http_server.LoadObjectFixtures.createContact;
+import static gliphic.android.operation.server_interaction.http_server.LoadObjectFixtures.createGroup;
+import static gliphic.android.operation.server_interaction.http_server.LoadObjectFixtures.createGroupShare;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class SignInLoaderTest {
+    private static final String ACCESS_TOKEN = "access token";
+
+    private static final List<String> FIRST_BATCH_URIS = Arrays.asList(
+            HttpOperations.URI_LOAD_CURRENT_CONTACT,
+            HttpOperations.URI_LOAD_SELECTED_GROUP,
+            HttpOperations.URI_LOAD_KNOWN_GROUPS,
+            HttpOperations.URI_LOAD_TARGET_CONTACTS,
+            HttpOperations.URI_LOAD_GROUP_SHARES
+    );
+
+    private LocalLoadServer server;
+    private SignInLoader.Result result;
+
+    private static List<Long> sortedNumbers(long[] numbers) {
+        final List<Long> numberList = new ArrayList<>(GeneralUtils.arrayToList(numbers));
+        Collections.sort(numberList);
+        return numberList;
+    }
+
+    private static List<Long> getContactNumbers(List<LoadContactObject> contacts) {
+        final List<Long> numbers = new ArrayList<>();
+        for (LoadContactObject lco : contacts) {
+            numbers.add(lco.getNumber());
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    private static List<Long> getGroupNumbers(List<LoadGroupObject> groups) {
+        final List<Long> numbers = new ArrayList<>();
+        for (LoadGroupObject lgo : groups) {
+            numbers.add(lgo.getNumber());
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    @Before
+    public void createServer() {
+        result = null;
+
+        // Groups 10 and 11 are known; group 11 references contact 3 which is not a target contact.
+        // Contact 2 is a member of group 12 which is not known.
+        server = new LocalLoadServer()
+                .respondTo(HttpOperations.URI_LOAD_CURRENT_CONTACT, request -> createContact(0))
+                .respondTo(HttpOperations.URI_LOAD_SELECTED_GROUP, request -> createGroup(10, 1))
+                .respondTo(
+                        HttpOperations.URI_LOAD_KNOWN_GROUPS,
+                        request -> new LoadGroupsResponse(
+                                Arrays.asList(createGroup(10, 1), createGroup(11, 1, 3)),
+                                true
+                        )
+                )
+                .respondTo(
+                        HttpOperations.URI_LOAD_TARGET_CONTACTS,
+                        request -> new LoadContactsResponse(
+                                Arrays.asList(createContact(1, 10, 11), createContact(2, 12)),
+                                Collections.emptyList(),
+                                true
+                        )
+                )
+                .respondTo(
+                        HttpOperations.URI_LOAD_GROUP_SHARES,
+                        request -> new LoadGroupSharesResponse(Collections.emptyList())
+                )
+                .respondTo(
+                        HttpOperations.URI_LOAD_CHOSEN_CONTACTS,
+                        request -> new LoadChosenContactsResponse(
+                                Collections.emptyList(),
+                                Collections.singletonList(createContact(3, 11))
+                        )
+                )
+                .respondTo(
+                        HttpOperations.URI_LOAD_CHOSEN_GROUPS,
+                        request -> new LoadChosenGroupsResponse(Collections.singletonList(createGroup(12, 2)))
+                );
+    }
+
+    private void load() {
+        SignInLoader.load(ACCESS_TOKEN, server, loadedResult -> result = loadedResult);
+    }
+
+    @Test
+    public void allIndependentRequestsAreSentBeforeAnyResponse() {
+        server.setDeferred(true);
+        load();
+
+        assertThat(new HashSet<>(server.getReceivedUris()), is(new HashSet<>(FIRST_BATCH_URIS)));
+        assertThat(result, is(nullValue()));
+
+        server.respondToAll();
+
+        assertThat(result, is(notNullValue()));
+        assertThat(server.getReceivedRequests().size(), is(FIRST_BATCH_URIS.size() + 2));
+    }
+
+    @Test
+    public void firstBatchUsesTheDefaultFilters() {
+        load();
+
+        final LoadContactsRequest lcr = (LoadContactsRequest) server
+                .getReceivedRequest(HttpOperations.URI_LOAD_TARGET_CONTACTS).requestBody;
+
+        assertThat(lcr.getAccessToken(), is(ACCESS_TOKEN));
+        assertThat(lcr.getNumOfLoadedContacts(), is((long) SignInLoader.NUM_OF_LOADED_CONTACTS));
+        assertThat(lcr.isKnownContactsChecked(), is(SignInLoader.GET_KNOWN_CONTACTS));
+        assertThat(lcr.isExtendedContactsChecked(), is(SignInLoader.GET_EXTENDED_CONTACTS));
+        assertThat(lcr.getSearchString(), is(nullValue()));
+        assertThat(lcr.getGroupNumber(), is(nullValue()));
+
+        final LoadGroupsRequest lgr = (LoadGroupsRequest) server
+                .getReceivedRequest(HttpOperations.URI_LOAD_KNOWN_GROUPS).requestBody;
+
+        assertThat(lgr.getNumOfLoadedGroups(), is((long) SignInLoader.NUM_OF_LOADED_GROUPS));
+        assertThat(lgr.getSearchString(), is(nullValue()));
+        assertThat(lgr.getContactNumber(), is(nullValue()));
+        assertThat(lgr.isIgnoreDefaultGroup(), is(SignInLoader.IGNORE_DEFAULT_GROUP));
+
+        assertThat(server.getReceivedRequest(HttpOperations.URI_LOAD_CURRENT_CONTACT).requestBody, is(ACCESS_TOKEN));
+    }
+
+    @Test
+    public void secondBatchOnlyLoadsMissingContactsAndGroups() {
+        load();
+
+        final LoadChosenContactsRequest lccr = (LoadChosenContactsRequest) server
+                .getReceivedRequest(HttpOperations.URI_LOAD_CHOSEN_CONTACTS).requestBody;
+        final LoadChosenGroupsRequest lcgr = (LoadChosenGroupsRequest) server
+                .getReceivedRequest(HttpOperations.URI_LOAD_CHOSEN_GROUPS).requestBody;
+
+        assertThat(sortedNumbers(lccr.getContactNumbers()), is(Collections.singletonList(3L)));
+        assertThat(sortedNumbers(lcgr.getGroupNumbers()), is(Collections.singletonList(12L)));
+
+        assertThat(result.currentContact.getNumber(), is(0L));
+        assertThat(result.selectedGroup.getNumber(), is(10L));
+        assertThat(getGroupNumbers(result.knownGroups), is(Arrays.asList(10L, 11L)));
+        assertThat(getContactNumbers(result.targetContacts), is(Arrays.asList(1L, 2L)));
+        assertThat(getContactNumbers(result.chosenContacts), is(Collections.singletonList(3L)));
+        assertThat(getGroupNumbers(result.chosenGroups), is(Collections.singletonList(12L)));
+        assertThat(result.groupShares.isEmpty(), is(true));
+    }
+
+    @Test
+    public void referencedObjectsIncludeBothBatches() {
+        load();
+
+        final List<LoadContactObject> referencedContacts = result.getReferencedContacts(result.knownGroups);
+        final List<LoadGroupObject>   referencedGroups   = result.getReferencedGroups(result.targetContacts);
+
+        assertThat(getContactNumbers(referencedContacts), is(Arrays.asList(1L, 3L)));
+        assertThat(getGroupNumbers(referencedGroups), is(Arrays.asList(10L, 11L, 12L)));
+    }
+
+    @Test
+    public void noSecondBatchIsSentWhenNothingIsMissing() {
+        server.respondTo(
+                HttpOperations.URI_LOAD_TARGET_CONTACTS,
+                request -> new LoadContactsResponse(
+                        Arrays.asList(createContact(1, 10, 11), createContact(3, 11)),
+                        Collections.emptyList(),
+                        true
+                )
+        );
+
+        load();
+
+        assertThat(server.getReceivedUris(), is(FIRST_BATCH_URIS));
+        assertThat(result.chosenContacts.isEmpty(), is(true));
+        assertThat(result.chosenGroups.isEmpty(), is(true));
+    }
+
+    @Test
+    public void failedRequestsLeaveTheirObjectsUnset() {
+        server.respondTo(HttpOperations.URI_LOAD_KNOWN_GROUPS, request -> null);
+        server.respondTo(HttpOperations.URI_LOAD_CHOSEN_GROUPS, request -> null);
+
+        load();
+
+        assertThat(result, is(notNullValue()));
+        assertThat(result.knownGroups, is(nullValue()));
+        assertThat(result.chosenGroups, is(nullValue()));
+        assertThat(getContactNumbers(result.targetContacts), is(Arrays.asList(1L, 2L)));
+
+        // Without the known groups only the selected group's contacts are checked, and contact 1 is a target contact.
+        assertThat(server.getReceivedRequest(HttpOperations.URI_LOAD_CHOSEN_CONTACTS), is(nullValue()));
+
+        // Groups 11 and 12 are missing since only the selected group (10) was loaded.
+        final LoadChosenGroupsRequest lcgr = (LoadChosenGroupsRequest) server
+                .getReceivedRequest(HttpOperations.URI_LOAD_CHOSEN_GROUPS).requestBody;
+        assertThat(sortedNumbers(lcgr.getGroupNumbers()), is(Arrays.asList(11L, 12L)));
+    }
+
+    @Test
+    public void staleObjectsWereRestoredButNotLoaded() {
+        final SignInLoader.Result restored = new SignInLoader.Result();
+        restored.selectedGroup  = createGroup(10, 1);
+        restored.knownGroups    = Arrays.asList(createGroup(10, 1), createGroup(11, 1));
+        restored.targetContacts = Arrays.asList(createContact(1, 10, 11), createContact(2, 12));
+        restored.groupShares    = Arrays.asList(createGroupShare(1, 10), createGroupShare(2, 11));
+        restored.chosenContacts = Collections.singletonList(createContact(3, 11));
+        restored.chosenGroups   = Collections.singletonList(createGroup(12));
+
+        // Contacts 2 and 3, groups 11 and 12 and the group-share from contact 2 to group 11 no longer exist.
+        final SignInLoader.Result loaded = new SignInLoader.Result();
+        loaded.selectedGroup  = createGroup(10, 1);
+        loaded.knownGroups    = Collections.singletonList(createGroup(10, 1));
+        loaded.targetContacts = Arrays.asList(createContact(1, 10), createContact(4));
+        loaded.groupShares    = Arrays.asList(createGroupShare(1, 10), createGroupShare(4, 10));
+        loaded.chosenContacts = Collections.emptyList();
+        loaded.chosenGroups   = Collections.emptyList();
+
+        assertThat(SignInLoader.getStaleContactNumbers(restored, loaded), is(new HashSet<>(Arrays.asList(2L, 3L))));
+        assertThat(SignInLoader.getStaleGroupNumbers(restored, loaded), is(new HashSet<>(Arrays.asList(11L, 12L))));
+
+        final List<ContactAndGroupNumberPair> staleGroupShares = SignInLoader.getStaleGroupShares(restored, loaded);
+        assertThat(staleGroupShares.size(), is(1));
+        assertThat(staleGroupShares.get(0).getContactNumber(), is(2L));
+        assertThat(staleGroupShares.get(0).getGroupNumber(), is(11L));
+    }
+
+    @Test
+    public void restoredObjectsAreNotStaleWhenTheyCouldNotBeLoaded() {
+        final SignInLoader.Result restored = new SignInLoader.Result();
+        restored.selectedGroup  = createGroup(10, 1);
+        restored.knownGroups    = Collections.singletonList(createGroup(10, 1));
+        restored.targetContacts = Collections.singletonList(createContact(1, 10));
+        restored.groupShares    = Collections.singletonList(createGroupShare(1, 10));
+
+        // Every first batch request succeeded but the second batch failed, and the group-shares request failed.
+        final SignInLoader.Result loaded = new SignInLoader.Result();
+        loaded.selectedGroup  = createGroup(11);
+        loaded.knownGroups    = Collections.singletonList(createGroup(11));
+        loaded.targetContacts = Collections.emptyList();
+
+        assertThat(SignInLoader.getStaleContactNumbers(restored, loaded).isEmpty(), is(true));
+        assertThat(SignInLoader.getStaleGroupNumbers(restored, loaded).isEmpty(), is(true));
+        assertThat(SignInLoader.getStaleGroupShares(restored, loaded).isEmpty(), is(true));
+    }
+
+    @Test
+    public void emptyBatchCompletesImmediately() {
+        final boolean[] isComplete = {false};
+
+        new LoadBatch(server).send(() -> isComplete[0] = true);
+
+        assertThat(isComplete[0], is(true));
+        assertThat(server.getReceivedRequests().isEmpty(), is(true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void batchCannotBeSentTwice() {
+        final LoadBatch loadBatch = new LoadBatch(server);
+        loadBatch.send(() -> {});
+        loadBatch.send(() -> {});
+    }
+}
@@ -0,0 +1,151 @@
+package gliphic.android.operation.server_interaction.http_server;
+
+import gliphic.android.operation.storage_handlers.EncryptedSnapshot;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import libraries.GeneralUtils;
+import libraries.Vars;
+import pojo.account.GroupShare;
+
+import static gliphic.android.operation.server_interaction.http_server.LoadObjectFixtures.assertContactsEqual;
+import static gliphic.android.operation.server_interaction.http_server.LoadObjectFixtures.createContact;
+import static gliphic.android.operation.server_interaction.http_server.LoadObjectFixtures.createGroup;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class SignInSnapshotTest {
+    private final byte[] dataEncryptionKey = GeneralUtils.generateKey();
+
+    private File directory;
+    private EncryptedSnapshot snapshot;
+
+    private static SignInLoader.Result createResult() {
+        final SignInLoader.Result result = new SignInLoader.Result();
+
+        result.currentContact = createContact(0);
+        result.selectedGroup  = createGroup(10, 1, 2);
+        result.knownGroups    = Arrays.asList(createGroup(10, 1, 2), createGroup(11, 1, 2));
+        result.targetContacts = Arrays.asList(createContact(1, 10, 11), createContact(2));
+        result.groupShares    = Collections.singletonList(new GroupShare(
+                Vars.GroupShareStatus.values()[0],
+                123456789L,
+                createGroup(12, 1, 2),
+                createContact(3),
+                "Encrypted group key"
+        ));
+        result.chosenContacts = Collections.singletonList(createContact(4, 11));
+        result.chosenGroups   = Collections.emptyList();
+
+        return result;
+    }
+
+    @Before
+    public void createSnapshot() throws Exception {
+        directory = Files.createTempDirectory("snapshot").toFile();
+        snapshot  = new EncryptedSnapshot(directory);
+    }
+
+    @After
+    public void deleteSnapshot() {
+        snapshot.delete();
+        directory.delete();
+    }
+
+    @Test
+    public void writtenObjectsAreRead() throws Exception {
+        final SignInLoader.Result result = createResult();
+
+        SignInSnapshot.write(snapshot, result, dataEncryptionKey);
+        final SignInLoader.Result readResult = SignInSnapshot.read(
+                new EncryptedSnapshot(directory),
+                dataEncryptionKey
+        );
+
+        assertThat(readResult, is(notNullValue()));
+        assertContactsEqual(readResult.currentContact, result.currentContact);
+        assertThat(GeneralUtils.toJson(readResult.selectedGroup), is(GeneralUtils.toJson(result.selectedGroup)));
+        assertThat(GeneralUtils.toJson(readResult.knownGroups), is(GeneralUtils.toJson(result.knownGroups)));
+        assertThat(GeneralUtils.toJson(readResult.targetContacts), is(GeneralUtils.toJson(result.targetContacts)));
+        assertThat(GeneralUtils.toJson(readResult.groupShares), is(GeneralUtils.toJson(result.groupShares)));
+        assertThat(GeneralUtils.toJson(readResult.chosenContacts), is(GeneralUtils.toJson(result.chosenContacts)));
+        assertThat(readResult.chosenGroups.isEmpty(), is(true));
+    }
+
+    @Test
+    public void emptySnapshotIsNotRead() {
+        assertThat(SignInSnapshot.read(snapshot, dataEncryptionKey), is(nullValue()));
+    }
+
+    @Test
+    public void snapshotIsNotReadWithADifferentKey() throws Exception {
+        SignInSnapshot.write(snapshot, createResult(), dataEncryptionKey);
+
+        assertThat(SignInSnapshot.read(new EncryptedSnapshot(directory), GeneralUtils.generateKey()), is(nullValue()));
+    }
+
+    @Test
+    public void unchangedSectionsAreNotRewritten() throws Exception {
+        final byte[] section = {1, 2, 3};
+
+        assertThat(snapshot.writeSection(SignInSnapshot.KNOWN_GROUPS, section, dataEncryptionKey), is(true));
+        assertThat(snapshot.writeSection(SignInSnapshot.KNOWN_GROUPS, section, dataEncryptionKey), is(false));
+        assertThat(snapshot.writeSection(SignInSnapshot.KNOWN_GROUPS, new byte[] {1, 2}, dataEncryptionKey), is(true));
+    }
+
+    @Test
+    public void failedLoadsDoNotOverwriteStoredObjects() throws Exception {
+        SignInSnapshot.write(snapshot, createResult(), dataEncryptionKey);
+
+        final SignInLoader.Result failedResult = new SignInLoader.Result();
+        failedResult.currentContact = createContact(5);
+        SignInSnapshot.write(snapshot, failedResult, dataEncryptionKey);
+
+        final SignInLoader.Result readResult = SignInSnapshot.read(snapshot, dataEncryptionKey);
+
+        assertContactsEqual(readResult.currentContact, createContact(5));
+        assertThat(readResult.knownGroups.size(), is(2));
+        assertThat(readResult.targetContacts.size(), is(2));
+
+        // The stored members of the restored groups are kept when the second batch fails.
+        assertThat(readResult.chosenContacts.size(), is(1));
+        assertThat(readResult.chosenGroups.isEmpty(), is(true));
+    }
+
+    @Test
+    public void corruptedSectionIsNotRead() throws Exception {
+        SignInSnapshot.write(snapshot, createResult(), dataEncryptionKey);
+
+        final File sectionFile = new File(directory, SignInSnapshot.TARGET_CONTACTS + ".snapshot");
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(sectionFile, "rw")) {
+            randomAccessFile.seek(randomAccessFile.length() - 1);
+            final byte lastByte = randomAccessFile.readByte();
+            randomAccessFile.seek(randomAccessFile.length() - 1);
+            randomAccessFile.writeByte(lastByte ^ 0x01);
+        }
+
+        final SignInLoader.Result readResult = SignInSnapshot.read(new EncryptedSnapshot(directory), dataEncryptionKey);
+
+        assertThat(readResult.targetContacts, is(nullValue()));
+        assertThat(readResult.knownGroups.size(), is(2));
+    }
+
+    @Test
+    public void deletedSnapshotIsNotRead() throws Exception {
+        SignInSnapshot.write(snapshot, createResult(), dataEncryptionKey);
+        snapshot.delete();
+
+        assertThat(SignInSnapshot.read(snapshot, dataEncryptionKey), is(nullValue()));
+        assertThat(directory.list().length, is(0));
+    }
+}
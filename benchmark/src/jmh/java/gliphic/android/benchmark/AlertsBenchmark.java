@@ -0,0 +1,54 @@
+package gliphic.android.benchmark;
+
+import gliphic.android.operation.Alerts;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+import pojo.account.GroupShare;
+import pojo.load.LoadContactObject;
+import pojo.load.LoadGroupObject;
+
+/**
+ * Storing the group shares loaded from the server, every one of which is checked against the stored group shares for
+ * a duplicate.
+ */
+@State(Scope.Thread)
+public class AlertsBenchmark {
+    private static final int GROUP_COUNT   = 1000;
+    private static final int CONTACT_COUNT = 10000;
+
+    @Param({"500", "5000"})
+    public int groupShareCount;
+
+    private List<GroupShare> groupShares;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final List<LoadGroupObject>   loadGroupObjects   = BenchmarkFixtures.createLoadGroupObjects(GROUP_COUNT);
+        final List<LoadContactObject> loadContactObjects =
+                BenchmarkFixtures.createLoadContactObjects(CONTACT_COUNT, GROUP_COUNT);
+
+        groupShares = BenchmarkFixtures.createGroupShares(groupShareCount, loadGroupObjects, loadContactObjects);
+    }
+
+    /**
+     * Clear the group shares before every invocation so that every group share is stored, rather than updated as a
+     * duplicate of the group share stored by the previous invocation.
+     */
+    @Setup(Level.Invocation)
+    public void clearGroupShares() {
+        Alerts.setNullGroupShares();
+    }
+
+    @Benchmark
+    public List<GroupShare> storeStatically() {
+        return Alerts.storeStatically(groupShares);
+    }
+}
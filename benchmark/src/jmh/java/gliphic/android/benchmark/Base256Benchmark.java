@@ -0,0 +1,56 @@
+package gliphic.android.benchmark;
+
+import gliphic.android.operation.misc.Base256Codec;
+import gliphic.android.operation.misc.Base4352Codec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import libraries.Base256;
+import libraries.Base4352;
+
+/**
+ * Round trips (encoding followed by decoding) of the Base256 and Base4352 encodings, comparing the GlobalUtils
+ * implementations with the table-driven codecs used by the app.
+ */
+@State(Scope.Benchmark)
+public class Base256Benchmark {
+    @Param({"64", "1024", "16384"})
+    public int byteCount;
+
+    private byte[] bytes;
+    private byte[] decodedBytes;
+
+    @Setup
+    public void setUp() {
+        bytes        = BenchmarkFixtures.randomBytes(byteCount, byteCount);
+        decodedBytes = new byte[byteCount];
+    }
+
+    @Benchmark
+    public byte[] base256RoundTrip() throws Exception {
+        return Base256.toBytes(Base256.fromBytes(bytes));
+    }
+
+    @Benchmark
+    public byte[] base256CodecRoundTrip() throws Exception {
+        final String encoded = Base256Codec.encode(bytes);
+        Base256Codec.decode(encoded, 0, encoded.length(), decodedBytes, 0);
+        return decodedBytes;
+    }
+
+    @Benchmark
+    public byte[] base4352RoundTrip() throws Exception {
+        return Base4352.toBytes(Base4352.fromBytes(bytes));
+    }
+
+    @Benchmark
+    public byte[] base4352CodecRoundTrip() throws Exception {
+        final String encoded = Base4352Codec.encode(bytes);
+        Base4352Codec.decode(encoded, 0, encoded.length(), decodedBytes, 0);
+        return decodedBytes;
+    }
+}
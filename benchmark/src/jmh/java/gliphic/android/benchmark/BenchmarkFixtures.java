@@ -0,0 +1,222 @@
+package gliphic.android.benchmark;
+
+import gliphic.android.exceptions.ContactException;
+import gliphic.android.exceptions.GroupException;
+import gliphic.android.operation.Alerts;
+import gliphic.android.operation.Contact;
+import gliphic.android.operation.Group;
+
+import org.bouncycastle.util.encoders.Base64;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import androidx.annotation.NonNull;
+import libraries.Base256;
+import libraries.Base256Exception;
+import libraries.GroupPermissions;
+import libraries.Vars;
+import libraries.Vars.ContactType;
+import libraries.Vars.GroupShareStatus;
+import pojo.account.GroupShare;
+import pojo.load.LoadContactObject;
+import pojo.load.LoadGroupObject;
+
+/**
+ * Synthetic groups, contacts, group shares and keys shared by the benchmarks, created in the same way as the app unit
+ * tests and from the same objects as the server responses.
+ */
+class BenchmarkFixtures {
+    static final byte[] GROUP_IMAGE   = Vars.DisplayPicture.ANIMAL_DOVE.get();
+    static final byte[] CONTACT_IMAGE = Vars.DisplayPicture.LADY_FIREFIGHTER.get();
+
+    static final long CURRENT_CONTACT_NUMBER = 0;
+
+    // The number of groups which every synthetic contact is a member of.
+    static final int GROUPS_PER_CONTACT = 3;
+
+    // Every fifth synthetic contact is an extended contact and the others are known contacts.
+    private static final int EXTENDED_CONTACT_INTERVAL = 5;
+
+    private BenchmarkFixtures() {}
+
+    /**
+     * @param seed      The seed of the random bytes, so that every benchmark run uses the same bytes.
+     * @param length    The number of bytes to return.
+     */
+    static byte[] randomBytes(long seed, int length) {
+        final byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    static String groupId(long groupNumber) {
+        return String.format("%dABCDEFGHIJKLMNOPQRSTUVWXYZ", groupNumber).substring(0, Vars.GROUP_ID_LEN);
+    }
+
+    static String contactId(long contactNumber) {
+        return String.format("%dabcdefghijklmnopqrstuvwxyz", contactNumber).substring(0, Vars.CONTACT_ID_LEN);
+    }
+
+    /**
+     * @return  An active group with the given number and a random key, which is not stored statically.
+     */
+    static Group createGroup(long groupNumber, boolean requireUniqueness) throws GroupException {
+        final Group group = new Group(
+                groupNumber,
+                GROUP_IMAGE,
+                "Group " + groupNumber,
+                "Benchmark group " + groupNumber,
+                groupId(groupNumber),
+                GroupPermissions.ACTIVE_MEMBER,
+                false,
+                false,
+                requireUniqueness
+        );
+        group.setKey(randomBytes(groupNumber, Vars.AES_KEY_LEN));
+
+        return group;
+    }
+
+    static Contact createContact(long contactNumber, ContactType contactType, boolean requireUniqueness)
+            throws ContactException {
+
+        return new Contact(
+                contactNumber,
+                contactId(contactNumber),
+                "Contact " + contactNumber,
+                CONTACT_IMAGE,
+                contactType,
+                requireUniqueness
+        );
+    }
+
+    /**
+     * Clear every statically stored object and store a new current contact.
+     */
+    static void resetStaticObjects() throws ContactException {
+        Alerts.setNullGroupShares();
+        Group.setNullKnownGroups();
+        Group.setNullSelectedGroup();
+        Contact.setNullKnownContacts();
+        Contact.setNullExtendedContacts();
+        Contact.setNullCurrentContact();
+
+        createContact(CURRENT_CONTACT_NUMBER, ContactType.CURRENT, true).storeStatically();
+    }
+
+    /**
+     * @return  Load objects for the groups numbered from 1 to the given number of groups.
+     */
+    static List<LoadGroupObject> createLoadGroupObjects(int groupCount) throws Base256Exception {
+        final String imageString = Base64.toBase64String(GROUP_IMAGE);
+
+        final List<LoadGroupObject> loadGroupObjects = new ArrayList<>(groupCount);
+
+        for (long groupNumber = 1; groupNumber <= groupCount; groupNumber++) {
+            loadGroupObjects.add(new LoadGroupObject(
+                    groupNumber,
+                    Base256.toBase64(groupId(groupNumber)),
+                    "Group " + groupNumber,
+                    imageString,
+                    "Benchmark group " + groupNumber,
+                    GroupPermissions.ACTIVE_MEMBER.get(),
+                    false,
+                    false
+            ));
+        }
+
+        return loadGroupObjects;
+    }
+
+    /**
+     * @return  Load objects for the contacts numbered from 1 to the given number of contacts, where every contact is a
+     *          member of {@link #GROUPS_PER_CONTACT} groups numbered from 1 to the given number of groups.
+     */
+    static List<LoadContactObject> createLoadContactObjects(int contactCount, int groupCount) {
+        final String imageString = Base64.toBase64String(CONTACT_IMAGE);
+
+        final List<LoadContactObject> loadContactObjects = new ArrayList<>(contactCount);
+
+        for (long contactNumber = 1; contactNumber <= contactCount; contactNumber++) {
+            final long[] groupNumbers = new long[GROUPS_PER_CONTACT];
+            for (int i = 0; i < GROUPS_PER_CONTACT; i++) {
+                groupNumbers[i] = 1 + (contactNumber + (long) i * groupCount / GROUPS_PER_CONTACT) % groupCount;
+            }
+
+            loadContactObjects.add(new LoadContactObject(
+                    groupNumbers,
+                    contactNumber,
+                    contactId(contactNumber),
+                    "Contact " + contactNumber,
+                    imageString,
+                    contactNumber % EXTENDED_CONTACT_INTERVAL == 0 ? ContactType.EXTENDED : ContactType.KNOWN
+            ));
+        }
+
+        return loadContactObjects;
+    }
+
+    /**
+     * Clear every statically stored object, store a new current contact and store the given groups and contacts, with
+     * every contact added to the group contacts of its groups and every group added to the common groups of its
+     * contacts and the current contact.
+     *
+     * @return  The stored groups, in group number order.
+     */
+    static List<Group> storeObjectGraph(@NonNull List<LoadGroupObject> loadGroupObjects,
+                                        @NonNull List<LoadContactObject> loadContactObjects) throws Exception {
+
+        resetStaticObjects();
+
+        final List<Group> groups        = Group.storeStatically(Group.createGroups(loadGroupObjects));
+        final Contact     currentContact = Contact.getCurrentContact();
+
+        for (Group group : groups) {
+            currentContact.addCommonGroup(group);
+        }
+
+        for (LoadContactObject loadContactObject : loadContactObjects) {
+            final Contact contact = Contact.createContact(loadContactObject).storeStatically();
+
+            for (long groupNumber : loadContactObject.getGroupNumbers()) {
+                final Group group = groups.get((int) groupNumber - 1);
+
+                group.addGroupContact(contact);
+                contact.addCommonGroup(group);
+            }
+        }
+
+        return groups;
+    }
+
+    /**
+     * @return  Sent group shares of the given groups with distinct contacts, so that no group share is a duplicate of
+     *          another.
+     */
+    static List<GroupShare> createGroupShares(int groupShareCount,
+                                              @NonNull List<LoadGroupObject> loadGroupObjects,
+                                              @NonNull List<LoadContactObject> loadContactObjects) {
+
+        final GroupShareStatus[] sentStatuses = {
+                GroupShareStatus.PENDING_SENT,
+                GroupShareStatus.SUCCESS_SENT,
+                GroupShareStatus.FAILED_SENT
+        };
+
+        final List<GroupShare> groupShares = new ArrayList<>(groupShareCount);
+
+        for (int i = 0; i < groupShareCount; i++) {
+            groupShares.add(new GroupShare(
+                    sentStatuses[i % sentStatuses.length],
+                    1_600_000_000L + i,
+                    loadGroupObjects.get(i % loadGroupObjects.size()),
+                    loadContactObjects.get(i % loadContactObjects.size()),
+                    null
+            ));
+        }
+
+        return groupShares;
+    }
+}
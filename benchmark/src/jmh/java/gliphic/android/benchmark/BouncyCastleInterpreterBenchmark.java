@@ -0,0 +1,89 @@
+package gliphic.android.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import libraries.BouncyCastleInterpreter;
+import libraries.RsaKeyPair;
+import libraries.Vars;
+
+/**
+ * AES encryption and decryption of messages and group keys, and RSA encryption and decryption of group keys shared
+ * between contacts.
+ */
+public class BouncyCastleInterpreterBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class AesState {
+        @Param({"32", "1024", "65536"})
+        public int inputLength;
+
+        private byte[] iv;
+        private byte[] key;
+        private byte[] plainText;
+        private byte[] cipherText;
+        private byte[] paddedCipherText;
+
+        @Setup
+        public void setUp() throws Exception {
+            iv        = BenchmarkFixtures.randomBytes(1, Vars.IV_LEN);
+            key       = BenchmarkFixtures.randomBytes(2, Vars.AES_KEY_LEN);
+            plainText = BenchmarkFixtures.randomBytes(3, inputLength);
+
+            cipherText       = BouncyCastleInterpreter.aesOperate(true, plainText, iv, key);
+            paddedCipherText = BouncyCastleInterpreter.aesOperatePadInput(true, plainText, iv, key);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RsaState {
+        private byte[] groupKey;
+        private byte[] publicKey;
+        private byte[] privateKey;
+        private byte[] encryptedGroupKey;
+
+        @Setup
+        public void setUp() throws Exception {
+            final RsaKeyPair rsaKeyPair = BouncyCastleInterpreter.generateKeyPair();
+
+            groupKey   = BenchmarkFixtures.randomBytes(4, Vars.AES_KEY_LEN);
+            publicKey  = rsaKeyPair.getPublicKey();
+            privateKey = rsaKeyPair.getPrivateKey();
+
+            encryptedGroupKey = BouncyCastleInterpreter.rsaOperate(true, groupKey, publicKey);
+        }
+    }
+
+    @Benchmark
+    public byte[] aesEncrypt(AesState state) throws Exception {
+        return BouncyCastleInterpreter.aesOperate(true, state.plainText, state.iv, state.key);
+    }
+
+    @Benchmark
+    public byte[] aesDecrypt(AesState state) throws Exception {
+        return BouncyCastleInterpreter.aesOperate(false, state.cipherText, state.iv, state.key);
+    }
+
+    @Benchmark
+    public byte[] aesEncryptPadInput(AesState state) throws Exception {
+        return BouncyCastleInterpreter.aesOperatePadInput(true, state.plainText, state.iv, state.key);
+    }
+
+    @Benchmark
+    public byte[] aesDecryptPadInput(AesState state) throws Exception {
+        return BouncyCastleInterpreter.aesOperatePadInput(false, state.paddedCipherText, state.iv, state.key);
+    }
+
+    @Benchmark
+    public byte[] rsaEncrypt(RsaState state) throws Exception {
+        return BouncyCastleInterpreter.rsaOperate(true, state.groupKey, state.publicKey);
+    }
+
+    @Benchmark
+    public byte[] rsaDecrypt(RsaState state) throws Exception {
+        return BouncyCastleInterpreter.rsaOperate(false, state.encryptedGroupKey, state.privateKey);
+    }
+}
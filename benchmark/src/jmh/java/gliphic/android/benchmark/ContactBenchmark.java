@@ -0,0 +1,112 @@
+package gliphic.android.benchmark;
+
+import gliphic.android.operation.Contact;
+import gliphic.android.operation.Group;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+
+import libraries.Vars.ContactType;
+import pojo.load.LoadContactObject;
+import pojo.load.LoadGroupObject;
+
+/**
+ * Storing the contacts loaded from the server, changing the type of a contact and removing a group, where every
+ * contact is a member of {@link BenchmarkFixtures#GROUPS_PER_CONTACT} of the known groups.
+ */
+public class ContactBenchmark {
+    private static final int GROUP_COUNT = 1000;
+
+    @State(Scope.Thread)
+    public static class UnstoredContacts {
+        @Param({"1000", "10000"})
+        public int contactCount;
+
+        private List<Contact> contacts;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            BenchmarkFixtures.resetStaticObjects();
+
+            contacts = Contact.createContacts(BenchmarkFixtures.createLoadContactObjects(contactCount, GROUP_COUNT));
+        }
+
+        /**
+         * Clear the known and extended contacts before every invocation so that every contact is stored, rather than
+         * reset as a duplicate of the contact stored by the previous invocation.
+         */
+        @Setup(Level.Invocation)
+        public void clearContacts() {
+            Contact.setNullKnownContacts();
+            Contact.setNullExtendedContacts();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ObjectGraph {
+        @Param({"1000", "10000"})
+        public int contactCount;
+
+        private List<Group> groups;
+        private Contact     knownContact;
+        private Group       removedGroup;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            final List<LoadGroupObject>   loadGroupObjects   = BenchmarkFixtures.createLoadGroupObjects(GROUP_COUNT);
+            final List<LoadContactObject> loadContactObjects =
+                    BenchmarkFixtures.createLoadContactObjects(contactCount, GROUP_COUNT);
+
+            groups       = BenchmarkFixtures.storeObjectGraph(loadGroupObjects, loadContactObjects);
+            knownContact = Contact.getContactFromNumber(1);
+            removedGroup = groups.get(GROUP_COUNT / 2);
+        }
+
+        /**
+         * Restore the group removed by {@link #removeGroup(ObjectGraph)}, which remains in the group contacts of its
+         * own members, so that every invocation removes the group from the same graph.
+         */
+        @TearDown(Level.Invocation)
+        public void restoreRemovedGroup() throws Exception {
+            if (Group.getKnownGroups().contains(removedGroup)) {
+                return;
+            }
+
+            removedGroup.storeStatically();
+
+            Contact.getCurrentContact().addCommonGroup(removedGroup);
+            for (Contact contact : removedGroup.getGroupTargetContacts()) {
+                contact.addCommonGroup(removedGroup);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Contact> storeStatically(UnstoredContacts state) throws Exception {
+        return Contact.storeStatically(state.contacts);
+    }
+
+    /**
+     * Change a known contact to an extended contact and back again, so that the graph is unchanged after every
+     * invocation.
+     */
+    @Benchmark
+    public Contact changeType(ObjectGraph state) throws Exception {
+        state.knownContact.changeType(ContactType.EXTENDED);
+        state.knownContact.changeType(ContactType.KNOWN);
+        return state.knownContact;
+    }
+
+    @Benchmark
+    public Group removeGroup(ObjectGraph state) {
+        state.removedGroup.removeGroup();
+        return state.removedGroup;
+    }
+}
@@ -0,0 +1,99 @@
+package gliphic.android.benchmark;
+
+import org.bouncycastle.util.encoders.Base64;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import libraries.GeneralUtils;
+import libraries.Vars;
+import pojo.load.LoadContactObject;
+import pojo.load.LoadContactsResponse;
+import pojo.load.LoadGroupObject;
+import pojo.load.LoadGroupsResponse;
+import pojo.text.TextDecryptResponse;
+import pojo.text.TextDecryptResponseObject;
+
+/**
+ * Parsing the JSON response bodies of the load and text-decrypt requests, which are the largest responses received
+ * by the app.
+ */
+@State(Scope.Benchmark)
+public class GeneralUtilsBenchmark {
+    @Param({"10", "1000"})
+    public int objectCount;
+
+    private String loadGroupsResponseJson;
+    private String loadContactsResponseJson;
+    private String textDecryptResponseJson;
+
+    @Setup
+    public void setUp() {
+        final String imageString = Base64.toBase64String(BenchmarkFixtures.GROUP_IMAGE);
+
+        final List<LoadGroupObject>           groups                     = new ArrayList<>();
+        final List<LoadContactObject>         contacts                   = new ArrayList<>();
+        final List<TextDecryptResponseObject> textDecryptResponseObjects = new ArrayList<>();
+
+        for (int i = 1; i <= objectCount; i++) {
+            groups.add(new LoadGroupObject(
+                    new long[] {i, i + 1, i + 2},
+                    new long[] {i + 3},
+                    i,
+                    Base64.toBase64String(BenchmarkFixtures.randomBytes(i, Vars.GROUP_ID_BASE_64_LEN * 3 / 4)),
+                    "Group " + i,
+                    imageString,
+                    "Benchmark group " + i,
+                    Base64.toBase64String(BenchmarkFixtures.randomBytes(i, Vars.ENC_AES_KEY_LEN)),
+                    Base64.toBase64String(BenchmarkFixtures.randomBytes(i, Vars.IV_LEN)),
+                    1,
+                    false,
+                    false
+            ));
+
+            contacts.add(new LoadContactObject(
+                    new long[] {i, i + 1, i + 2},
+                    i,
+                    BenchmarkFixtures.contactId(i),
+                    "Contact " + i,
+                    imageString,
+                    Vars.ContactType.KNOWN
+            ));
+
+            textDecryptResponseObjects.add(new TextDecryptResponseObject(
+                    "OK",
+                    i,
+                    Base64.toBase64String(BenchmarkFixtures.randomBytes(i, Vars.IV_LEN)),
+                    Base64.toBase64String(BenchmarkFixtures.randomBytes(i, 64)),
+                    Base64.toBase64String(BenchmarkFixtures.randomBytes(i, 48)),
+                    Vars.NO_TIME_OUT,
+                    Base64.toBase64String(BenchmarkFixtures.randomBytes(i, Vars.ENC_AES_KEY_LEN)),
+                    Base64.toBase64String(BenchmarkFixtures.randomBytes(i, Vars.IV_LEN))
+            ));
+        }
+
+        loadGroupsResponseJson   = GeneralUtils.toJson(new LoadGroupsResponse(groups, true));
+        loadContactsResponseJson = GeneralUtils.toJson(new LoadContactsResponse(contacts, new ArrayList<>(), true));
+        textDecryptResponseJson  = GeneralUtils.toJson(new TextDecryptResponse(textDecryptResponseObjects));
+    }
+
+    @Benchmark
+    public LoadGroupsResponse fromJsonLoadGroupsResponse() {
+        return GeneralUtils.fromJson(loadGroupsResponseJson, LoadGroupsResponse.class);
+    }
+
+    @Benchmark
+    public LoadContactsResponse fromJsonLoadContactsResponse() {
+        return GeneralUtils.fromJson(loadContactsResponseJson, LoadContactsResponse.class);
+    }
+
+    @Benchmark
+    public TextDecryptResponse fromJsonTextDecryptResponse() {
+        return GeneralUtils.fromJson(textDecryptResponseJson, TextDecryptResponse.class);
+    }
+}
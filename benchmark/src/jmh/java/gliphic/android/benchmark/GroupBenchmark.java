@@ -0,0 +1,70 @@
+package gliphic.android.benchmark;
+
+import gliphic.android.operation.Group;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Storing the groups loaded from the server and verifying the uniqueness of a new group against every known group.
+ */
+public class GroupBenchmark {
+
+    @State(Scope.Thread)
+    public static class UnstoredGroups {
+        @Param({"100", "1000"})
+        public int groupCount;
+
+        private List<Group> groups;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            BenchmarkFixtures.resetStaticObjects();
+
+            groups = Group.createGroups(BenchmarkFixtures.createLoadGroupObjects(groupCount));
+        }
+
+        /**
+         * Clear the known groups before every invocation so that every group is stored, rather than reset as a
+         * duplicate of the group stored by the previous invocation.
+         */
+        @Setup(Level.Invocation)
+        public void clearKnownGroups() {
+            Group.setNullKnownGroups();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class StoredGroups {
+        @Param({"100", "1000"})
+        public int groupCount;
+
+        private Group newGroup;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            BenchmarkFixtures.resetStaticObjects();
+
+            Group.storeStatically(Group.createGroups(BenchmarkFixtures.createLoadGroupObjects(groupCount)));
+
+            newGroup = BenchmarkFixtures.createGroup(groupCount + 1, false);
+        }
+    }
+
+    @Benchmark
+    public List<Group> storeStatically(UnstoredGroups state) throws Exception {
+        return Group.storeStatically(state.groups);
+    }
+
+    @Benchmark
+    public Group verifyGroupUniqueness(StoredGroups state) throws Exception {
+        state.newGroup.verifyGroupUniqueness();
+        return state.newGroup;
+    }
+}
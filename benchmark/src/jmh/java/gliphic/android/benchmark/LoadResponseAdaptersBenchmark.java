@@ -0,0 +1,112 @@
+package gliphic.android.benchmark;
+
+import gliphic.android.operation.Contact;
+import gliphic.android.operation.Group;
+import gliphic.android.operation.server_interaction.http_server.LoadResponseAdapters;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import libraries.GeneralUtils;
+import libraries.Vars.ContactType;
+import pojo.load.LoadContactObject;
+import pojo.load.LoadContactsResponse;
+import pojo.load.LoadGroupsResponse;
+
+/**
+ * Parsing the load responses with the streaming adapters compared with the reflective parsing of
+ * {@link GeneralUtils#fromJson(String, Class)}, both alone and followed by creating the contacts and groups from the
+ * parsed load objects.
+ *
+ * Compare the gc.alloc.rate.norm results of each pair of benchmarks for the bytes allocated per response.
+ */
+@State(Scope.Benchmark)
+public class LoadResponseAdaptersBenchmark {
+    @Param({"10", "1000"})
+    public int objectCount;
+
+    private String loadGroupsResponseJson;
+    private String loadContactsResponseJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        final List<LoadContactObject> knownContacts    = new ArrayList<>();
+        final List<LoadContactObject> extendedContacts = new ArrayList<>();
+
+        for (LoadContactObject lco : BenchmarkFixtures.createLoadContactObjects(objectCount, objectCount)) {
+            if (lco.getType() == ContactType.KNOWN) {
+                knownContacts.add(lco);
+            }
+            else {
+                extendedContacts.add(lco);
+            }
+        }
+
+        loadGroupsResponseJson = GeneralUtils.toJson(
+                new LoadGroupsResponse(BenchmarkFixtures.createLoadGroupObjects(objectCount), true)
+        );
+        loadContactsResponseJson = GeneralUtils.toJson(
+                new LoadContactsResponse(knownContacts, extendedContacts, true)
+        );
+    }
+
+    private static List<LoadContactObject> getTargetContacts(LoadContactsResponse lcr) {
+        final List<LoadContactObject> targetContacts = new ArrayList<>();
+        targetContacts.addAll(lcr.getKnownContacts());
+        targetContacts.addAll(lcr.getExtendedContacts());
+
+        return targetContacts;
+    }
+
+    @Benchmark
+    public LoadContactsResponse reflectiveLoadContactsResponse() {
+        return GeneralUtils.fromJson(loadContactsResponseJson, LoadContactsResponse.class);
+    }
+
+    @Benchmark
+    public LoadContactsResponse streamingLoadContactsResponse() {
+        return LoadResponseAdapters.fromJson(loadContactsResponseJson, LoadContactsResponse.class);
+    }
+
+    @Benchmark
+    public LoadGroupsResponse reflectiveLoadGroupsResponse() {
+        return GeneralUtils.fromJson(loadGroupsResponseJson, LoadGroupsResponse.class);
+    }
+
+    @Benchmark
+    public LoadGroupsResponse streamingLoadGroupsResponse() {
+        return LoadResponseAdapters.fromJson(loadGroupsResponseJson, LoadGroupsResponse.class);
+    }
+
+    @Benchmark
+    public List<Contact> reflectiveCreateContacts() throws Exception {
+        return Contact.createContacts(getTargetContacts(
+                GeneralUtils.fromJson(loadContactsResponseJson, LoadContactsResponse.class)
+        ));
+    }
+
+    @Benchmark
+    public List<Contact> streamingCreateContacts() throws Exception {
+        return Contact.createContacts(getTargetContacts(
+                LoadResponseAdapters.fromJson(loadContactsResponseJson, LoadContactsResponse.class)
+        ));
+    }
+
+    @Benchmark
+    public List<Group> reflectiveCreateGroups() throws Exception {
+        return Group.createGroups(GeneralUtils.fromJson(loadGroupsResponseJson, LoadGroupsResponse.class).getGroups());
+    }
+
+    @Benchmark
+    public List<Group> streamingCreateGroups() throws Exception {
+        return Group.createGroups(
+                LoadResponseAdapters.fromJson(loadGroupsResponseJson, LoadGroupsResponse.class).getGroups()
+        );
+    }
+}
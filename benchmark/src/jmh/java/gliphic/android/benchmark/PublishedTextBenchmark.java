@@ -0,0 +1,71 @@
+package gliphic.android.benchmark;
+
+import gliphic.android.operation.Group;
+import gliphic.android.operation.PublishedText;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import libraries.Vars;
+
+/**
+ * Encrypting a plain text with a group key, constructing the published text from the cipher text returned by the
+ * server, and parsing a published text found by the browser extension.
+ */
+@State(Scope.Benchmark)
+public class PublishedTextBenchmark {
+    // The time-out cipher text returned by the server is longer than the raw cipher text by the encrypted time-out and
+    // the authentication tag; this is the overhead of the cipher texts in the app unit tests.
+    private static final int TIME_OUT_CIPHER_TEXT_OVERHEAD = 21;
+
+    @Param({"16", "256", "4096"})
+    public int plainTextLength;
+
+    private Group         group;
+    private String        plainText;
+    private byte[]        timeOutCipherText;
+    private PublishedText constructedPublishedText;
+    private String        publishedText;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkFixtures.resetStaticObjects();
+
+        group = BenchmarkFixtures.createGroup(1, true).storeStatically();
+
+        final StringBuilder sb = new StringBuilder(plainTextLength);
+        for (int i = 0; i < plainTextLength; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        plainText = sb.toString();
+
+        constructedPublishedText = new PublishedText(plainText, Vars.NO_TIME_OUT, group);
+
+        timeOutCipherText = BenchmarkFixtures.randomBytes(
+                plainTextLength,
+                constructedPublishedText.getRawCipherText().length + TIME_OUT_CIPHER_TEXT_OVERHEAD
+        );
+
+        constructedPublishedText.constructPublishedText(timeOutCipherText);
+        publishedText = constructedPublishedText.getPublishedText();
+    }
+
+    @Benchmark
+    public PublishedText encryptPlainText() throws Exception {
+        return new PublishedText(plainText, Vars.NO_TIME_OUT, group);
+    }
+
+    @Benchmark
+    public String constructPublishedText() {
+        constructedPublishedText.constructPublishedText(timeOutCipherText);
+        return constructedPublishedText.getPublishedText();
+    }
+
+    @Benchmark
+    public PublishedText parsePublishedText() throws Exception {
+        return new PublishedText(publishedText);
+    }
+}
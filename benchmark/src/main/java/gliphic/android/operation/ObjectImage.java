@@ -0,0 +1,42 @@
+/*
+(c) Ashley Arain 2017
+
+The copyright in this software is the property of Ashley Arain. This
+software may not be copied, disclosed, licensed, modified, reproduced,
+sold, transferred or used in part or in whole or in any manner or form
+other than in accordance with the licence agreement provided with this
+software or otherwise without the prior written consent of Ashley Arain.
+*/
+
+package gliphic.android.operation;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A JVM replacement for the app's ObjectImage, which depends on the Android framework, so that {@link Contact} and
+ * {@link Group} can be benchmarked without an emulator.
+ *
+ * Only the image bytes are stored; no resource or bitmap is looked up for the image.
+ */
+public class ObjectImage {
+    private final int    resourceInt;
+    private final byte[] imageBytes;
+
+    public ObjectImage(int resourceInt) {
+        this.resourceInt = resourceInt;
+        this.imageBytes  = null;
+    }
+
+    public ObjectImage(@NonNull final byte[] imageBytes) {
+        this.resourceInt = 0;
+        this.imageBytes  = imageBytes;
+    }
+
+    public int getResourceInt() {
+        return resourceInt;
+    }
+
+    public byte[] getImageBytes() {
+        return imageBytes;
+    }
+}